@@ -0,0 +1,335 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package benchmarks;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+import collections.observable.deque.DequeAdapter;
+import collections.observable.deque.ObservableDeque;
+import collections.observable.list.ObservableList;
+import collections.table.ArrayTable;
+import collections.table.ChoiceTable;
+import collections.table.Table;
+import collections.table.iteration.ColumnarTableIterator;
+import collections.table.iteration.MortonTableIterator;
+import collections.table.iteration.NaturalTableIterator;
+import collections.table.iteration.TableIterator;
+import geom.vectors.Vector3i;
+import requiem.collections.Deques;
+
+/**
+ * Measures the throughput and allocation rate of the containers that other
+ * code leans on most: array-backed and choice tables, subtables, the table
+ * iterators, observable lists with listeners attached, and
+ * {@link Deques#synchronizeDeques(Deque, Deque)}.
+ * <p>
+ * Each table operation scans or fills a whole {@value #SIZE}x{@value #SIZE}
+ * table, and each list operation adds {@value #ELEMENTS} elements, so the
+ * numbers are comparable from one run to the next rather than across
+ * benchmarks.
+ * <p>
+ * Run with {@code make bench}, or with
+ * {@code java benchmarks.CollectionsBenchmark [options] [patterns]}, where the
+ * options are those of {@link Harness}.
+ * 
+ * @author Aaron Faanes
+ */
+public final class CollectionsBenchmark {
+
+	private static final int SIZE = 64;
+
+	private static final int ELEMENTS = 1000;
+
+	private enum Color {
+		RED, GREEN, BLUE, ALPHA
+	}
+
+	/**
+	 * The elements added to lists, boxed ahead of time so that boxing isn't
+	 * counted as the lists' allocation.
+	 */
+	private static final Integer[] ELEMENT_VALUES = new Integer[ELEMENTS + 1];
+
+	static {
+		for (int i = 0; i < ELEMENT_VALUES.length; ++i) {
+			ELEMENT_VALUES[i] = i;
+		}
+	}
+
+	private CollectionsBenchmark() {
+		throw new AssertionError("Instantiation not allowed");
+	}
+
+	private static long scan(final Table<Integer> table) {
+		long sum = 0;
+		final int width = table.width();
+		final int height = table.height();
+		for (int y = 0; y < height; ++y) {
+			for (int x = 0; x < width; ++x) {
+				sum += table.get(x, y);
+			}
+		}
+		return sum;
+	}
+
+	private static long iterate(final TableIterator<Integer> iter) {
+		long sum = 0;
+		while (iter.hasNext()) {
+			sum += iter.next();
+		}
+		return sum;
+	}
+
+	private static ArrayTable<Integer> newArrayTable(final int size) {
+		final ArrayTable<Integer> table = new ArrayTable<Integer>(size, size, 0);
+		for (int y = 0; y < size; ++y) {
+			for (int x = 0; x < size; ++x) {
+				table.put(x, y, x ^ y);
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * A listener that does as little as a listener can, so that the cost of
+	 * firing events is what is measured.
+	 */
+	private static final class CountingListener implements ListDataListener {
+
+		long events;
+
+		@Override
+		public void intervalAdded(final ListDataEvent e) {
+			this.events += e.getIndex1() - e.getIndex0() + 1;
+		}
+
+		@Override
+		public void intervalRemoved(final ListDataEvent e) {
+			this.events += e.getIndex1() - e.getIndex0() + 1;
+		}
+
+		@Override
+		public void contentsChanged(final ListDataEvent e) {
+			this.events += e.getIndex1() - e.getIndex0() + 1;
+		}
+	}
+
+	private static List<Harness.Benchmark> tableBenchmarks() {
+		final List<Harness.Benchmark> benchmarks = new ArrayList<>();
+
+		final ArrayTable<Integer> array = newArrayTable(SIZE);
+		benchmarks.add(new Harness.Benchmark("ArrayTable.get") {
+			@Override
+			protected long run() {
+				return scan(array);
+			}
+		});
+		benchmarks.add(new Harness.Benchmark("ArrayTable.put") {
+			@Override
+			protected long run() {
+				for (int y = 0; y < SIZE; ++y) {
+					for (int x = 0; x < SIZE; ++x) {
+						array.put(x, y, x ^ y);
+					}
+				}
+				return array.get(SIZE - 1, SIZE - 1);
+			}
+		});
+
+		final ChoiceTable<Color> choices = new ChoiceTable<Color>(Color.values(), SIZE, SIZE, Color.RED);
+		benchmarks.add(new Harness.Benchmark("ChoiceTable.get") {
+			@Override
+			protected long run() {
+				long sum = 0;
+				for (int y = 0; y < SIZE; ++y) {
+					for (int x = 0; x < SIZE; ++x) {
+						sum += choices.get(x, y).ordinal();
+					}
+				}
+				return sum;
+			}
+		});
+		benchmarks.add(new Harness.Benchmark("ChoiceTable.put") {
+			private final Color[] values = Color.values();
+
+			@Override
+			protected long run() {
+				for (int y = 0; y < SIZE; ++y) {
+					for (int x = 0; x < SIZE; ++x) {
+						choices.put(x, y, this.values[(x ^ y) & 3]);
+					}
+				}
+				return choices.get(SIZE - 1, SIZE - 1).ordinal();
+			}
+		});
+
+		final Table<Integer> nested = newArrayTable(SIZE + 2).subTable(Vector3i.frozen(1, 1)).subTable(Vector3i.frozen(1, 1));
+		benchmarks.add(new Harness.Benchmark("SubTable.get, nested") {
+			@Override
+			protected long run() {
+				return scan(nested);
+			}
+		});
+
+		benchmarks.add(new Harness.Benchmark("NaturalTableIterator") {
+			@Override
+			protected long run() {
+				return iterate(new NaturalTableIterator<Integer>(array));
+			}
+		});
+		benchmarks.add(new Harness.Benchmark("ColumnarTableIterator") {
+			@Override
+			protected long run() {
+				return iterate(new ColumnarTableIterator<Integer>(array));
+			}
+		});
+		benchmarks.add(new Harness.Benchmark("MortonTableIterator") {
+			@Override
+			protected long run() {
+				return iterate(new MortonTableIterator<Integer>(array));
+			}
+		});
+		return benchmarks;
+	}
+
+	private static Harness.Benchmark observableListBenchmark(final int listenerCount) {
+		return new Harness.Benchmark("ObservableList.add, " + listenerCount + " listeners") {
+			private final ObservableList<Integer> list = new ObservableList<Integer>();
+
+			private final CountingListener listener = new CountingListener();
+
+			@Override
+			protected void setUp() {
+				for (int i = 0; i < listenerCount; ++i) {
+					this.list.addListDataListener(this.listener);
+				}
+			}
+
+			@Override
+			protected long run() {
+				for (int i = 0; i < ELEMENTS; ++i) {
+					this.list.add(ELEMENT_VALUES[i]);
+				}
+				this.list.clear();
+				return this.listener.events;
+			}
+		};
+	}
+
+	private static List<Harness.Benchmark> listBenchmarks() {
+		final List<Harness.Benchmark> benchmarks = new ArrayList<>();
+		benchmarks.add(observableListBenchmark(0));
+		benchmarks.add(observableListBenchmark(1));
+		benchmarks.add(observableListBenchmark(4));
+
+		benchmarks.add(new Harness.Benchmark("ObservableList.set, 1 listener") {
+			private final ObservableList<Integer> list = new ObservableList<Integer>();
+
+			private final CountingListener listener = new CountingListener();
+
+			private int round;
+
+			@Override
+			protected void setUp() {
+				for (int i = 0; i < ELEMENTS; ++i) {
+					this.list.add(ELEMENT_VALUES[i]);
+				}
+				this.list.addListDataListener(this.listener);
+			}
+
+			@Override
+			protected long run() {
+				// Alternate values, so that every set is a change.
+				final int offset = this.round++ & 1;
+				for (int i = 0; i < ELEMENTS; ++i) {
+					this.list.set(i, ELEMENT_VALUES[i + offset]);
+				}
+				return this.listener.events;
+			}
+		});
+
+		benchmarks.add(new Harness.Benchmark("Deques.synchronizeDeques") {
+			private final Deque<Integer> reference = new ArrayDeque<Integer>();
+
+			private final Deque<Integer> target = new ArrayDeque<Integer>();
+
+			@Override
+			protected void setUp() {
+				for (int i = 0; i < ELEMENTS; ++i) {
+					this.reference.addLast(ELEMENT_VALUES[i]);
+				}
+			}
+
+			@Override
+			protected long run() {
+				// Differ in the second half, so half of the target is replaced.
+				Deques.removeFromTail(this.target, Math.min(this.target.size(), ELEMENTS / 2));
+				this.target.addLast(-1);
+				Deques.synchronizeDeques(this.reference, this.target);
+				return this.target.size();
+			}
+		});
+
+		benchmarks.add(new Harness.Benchmark("Deques.synchronizeDeques, ObservableDeque") {
+			private final Deque<Integer> reference = new ArrayDeque<Integer>();
+
+			private final ObservableDeque<Integer> target = new ObservableDeque<Integer>();
+
+			private long events;
+
+			@Override
+			protected void setUp() {
+				for (int i = 0; i < ELEMENTS; ++i) {
+					this.reference.addLast(ELEMENT_VALUES[i]);
+				}
+				this.target.addDequeListener(new DequeAdapter<Integer>() {
+					@Override
+					public void dequeChanged() {
+						++events;
+					}
+				});
+			}
+
+			@Override
+			protected long run() {
+				Deques.removeFromTail(this.target, Math.min(this.target.size(), ELEMENTS / 2));
+				this.target.addLast(-1);
+				Deques.synchronizeDeques(this.reference, this.target);
+				return this.events;
+			}
+		});
+		return benchmarks;
+	}
+
+	public static void main(final String[] args) {
+		final List<Harness.Benchmark> benchmarks = new ArrayList<>();
+		benchmarks.addAll(tableBenchmarks());
+		benchmarks.addAll(listBenchmarks());
+		new Harness(args).run(benchmarks);
+	}
+}
@@ -0,0 +1,257 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Runs {@link Benchmark benchmarks} in timed iterations, and reports their
+ * throughput and allocation rate.
+ * <p>
+ * This follows the model of JMH: each benchmark runs as many operations as it
+ * can for a fixed time, first to warm up and then to measure. The result of
+ * every operation is kept, so that the JIT can't remove the work. Unlike JMH,
+ * every benchmark runs in this JVM, so results for one benchmark can be
+ * affected by the code that the others compiled. Run a single benchmark by
+ * name when that matters.
+ * <p>
+ * The options are named after those of JMH:
+ * <dl>
+ * <dt>{@code -wi count}</dt>
+ * <dd>the number of warmup iterations, 3 by default</dd>
+ * <dt>{@code -i count}</dt>
+ * <dd>the number of measured iterations, 5 by default</dd>
+ * <dt>{@code -r millis}</dt>
+ * <dd>the length of each iteration, 500 by default</dd>
+ * </dl>
+ * Any other argument is a regular expression, and only benchmarks whose names
+ * contain a match are run.
+ * <p>
+ * Allocation is measured with the thread allocation counters of HotSpot, so
+ * this needs a JVM that provides {@code com.sun.management.ThreadMXBean}.
+ * 
+ * @author Aaron Faanes
+ */
+public final class Harness {
+
+	/**
+	 * A single benchmark, whose {@link #run()} method is one operation.
+	 */
+	public static abstract class Benchmark {
+
+		private final String name;
+
+		public Benchmark(final String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		/**
+		 * Prepares this benchmark. This is called once, before any
+		 * operations are run.
+		 */
+		protected void setUp() {
+			// Nothing to prepare by default.
+		}
+
+		/**
+		 * Runs one operation.
+		 * 
+		 * @return any value computed by the operation, so that the operation
+		 *         can't be optimized away
+		 */
+		protected abstract long run();
+
+		@Override
+		public String toString() {
+			return this.name;
+		}
+	}
+
+	private int warmupIterations = 3;
+
+	private int iterations = 5;
+
+	private long iterationMillis = 500;
+
+	private final List<Pattern> includes = new ArrayList<>();
+
+	/**
+	 * Set by the timer thread when the current iteration is over.
+	 */
+	private volatile boolean iterationOver;
+
+	/**
+	 * The time taken and the memory allocated by the last iteration.
+	 */
+	private long iterationNanos;
+
+	private long iterationBytes;
+
+	private long sink;
+
+	/**
+	 * Constructs a harness with the specified command-line options.
+	 * 
+	 * @param args
+	 *            the options, as described in the class documentation
+	 * @throws IllegalArgumentException
+	 *             if an option is missing its value, or its value is not a
+	 *             positive number
+	 */
+	public Harness(final String... args) {
+		for (int i = 0; i < args.length; ++i) {
+			final String arg = args[i];
+			if ("-wi".equals(arg) || "-i".equals(arg) || "-r".equals(arg)) {
+				if (i + 1 >= args.length) {
+					throw new IllegalArgumentException("Missing value for " + arg);
+				}
+				final int value = Integer.parseInt(args[++i]);
+				if (value < 0 || (value == 0 && !"-wi".equals(arg))) {
+					throw new IllegalArgumentException("Value for " + arg + " must be positive, but was " + value);
+				}
+				if ("-wi".equals(arg)) {
+					this.warmupIterations = value;
+				} else if ("-i".equals(arg)) {
+					this.iterations = value;
+				} else {
+					this.iterationMillis = value;
+				}
+			} else {
+				this.includes.add(Pattern.compile(arg));
+			}
+		}
+	}
+
+	private boolean isIncluded(final Benchmark benchmark) {
+		if (this.includes.isEmpty()) {
+			return true;
+		}
+		for (final Pattern include : this.includes) {
+			if (include.matcher(benchmark.getName()).find()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Runs each of the specified benchmarks that matches this harness's
+	 * options, and prints a line of results for each.
+	 * 
+	 * @param benchmarks
+	 *            the benchmarks to run
+	 */
+	public void run(final List<? extends Benchmark> benchmarks) {
+		System.out.printf("# Warmup: %d iterations, %d ms each%n", this.warmupIterations, this.iterationMillis);
+		System.out.printf("# Measurement: %d iterations, %d ms each%n", this.iterations, this.iterationMillis);
+		System.out.printf("%-45s %14s %12s %12s %12s%n", "Benchmark", "ops/s", "error", "B/op", "MB/s");
+		for (final Benchmark benchmark : benchmarks) {
+			if (this.isIncluded(benchmark)) {
+				this.run(benchmark);
+			}
+		}
+		if (this.sink == 42) {
+			System.out.println();
+		}
+	}
+
+	private void run(final Benchmark benchmark) {
+		benchmark.setUp();
+		for (int i = 0; i < this.warmupIterations; ++i) {
+			this.iterate(benchmark);
+		}
+
+		final double[] throughputs = new double[this.iterations];
+		long totalOperations = 0;
+		long totalBytes = 0;
+		long totalNanos = 0;
+		for (int i = 0; i < this.iterations; ++i) {
+			final long operations = this.iterate(benchmark);
+			totalBytes += this.iterationBytes;
+			totalOperations += operations;
+			totalNanos += this.iterationNanos;
+			throughputs[i] = operations * 1e9 / this.iterationNanos;
+		}
+
+		double mean = 0;
+		for (final double throughput : throughputs) {
+			mean += throughput;
+		}
+		mean /= throughputs.length;
+		double variance = 0;
+		for (final double throughput : throughputs) {
+			variance += (throughput - mean) * (throughput - mean);
+		}
+		final double error = throughputs.length > 1 ? Math.sqrt(variance / (throughputs.length - 1)) : Double.NaN;
+
+		System.out.printf("%-45s %14.1f %12.1f %12.1f %12.1f%n", benchmark.getName(), mean, error,
+				(double) totalBytes / totalOperations, totalBytes * 1e9 / totalNanos / (1 << 20));
+	}
+
+	/**
+	 * Runs operations of the specified benchmark until the iteration is over.
+	 * The time taken and memory allocated are measured from the first
+	 * operation, so they don't include starting the timer.
+	 * 
+	 * @return the number of operations that were run
+	 */
+	private long iterate(final Benchmark benchmark) {
+		this.iterationOver = false;
+		final Thread timer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(Harness.this.iterationMillis);
+				} catch (final InterruptedException e) {
+					// End the iteration early.
+				}
+				Harness.this.iterationOver = true;
+			}
+		}, "Benchmark timer");
+		timer.setDaemon(true);
+		timer.start();
+
+		long operations = 0;
+		long result = 0;
+		final long startBytes = allocatedBytes();
+		final long start = System.nanoTime();
+		while (!this.iterationOver) {
+			result += benchmark.run();
+			++operations;
+		}
+		this.iterationNanos = System.nanoTime() - start;
+		this.iterationBytes = allocatedBytes() - startBytes;
+		this.sink += result;
+		return operations;
+	}
+
+	private static long allocatedBytes() {
+		return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+}
@@ -0,0 +1,205 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package benchmarks;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import inspect.Inspectable;
+import inspect.Inspection;
+import inspect.InspectionException;
+import inspect.Inspector;
+
+/**
+ * Compares {@link Inspection#reflect(Inspector, Object)}, which plans each
+ * class once, against the original implementation, which scanned a class's
+ * methods and invoked them reflectively on every call.
+ * <p>
+ * Each operation inspects one object with a handful of fields, an iterable
+ * and a map, into an inspector that only counts what it receives.
+ * <p>
+ * Run with {@code make bench-inspection}, or with
+ * {@code java benchmarks.InspectionBenchmark [options] [patterns]}, where the
+ * options are those of {@link Harness}.
+ * 
+ * @author Aaron Faanes
+ */
+public final class InspectionBenchmark {
+
+	private InspectionBenchmark() {
+		throw new AssertionError("Instantiation not allowed");
+	}
+
+	/**
+	 * A typical inspected object.
+	 */
+	@Inspectable
+	public static final class Sample {
+
+		private final List<String> names = Arrays.asList("first", "second", "third");
+
+		private final Map<String, Integer> counts = new LinkedHashMap<>();
+
+		public Sample() {
+			this.counts.put("alpha", 1);
+			this.counts.put("beta", 2);
+		}
+
+		@Inspectable
+		public String getName() {
+			return "Sample";
+		}
+
+		@Inspectable
+		public Integer getWidth() {
+			return 640;
+		}
+
+		@Inspectable
+		public Integer getHeight() {
+			return 480;
+		}
+
+		@Inspectable("Is Visible")
+		public Boolean isVisible() {
+			return Boolean.TRUE;
+		}
+
+		@Inspectable
+		public List<String> getNames() {
+			return this.names;
+		}
+
+		@Inspectable
+		public Map<String, Integer> getCounts() {
+			return this.counts;
+		}
+
+		@Override
+		public String toString() {
+			return "Sample";
+		}
+	}
+
+	/**
+	 * Counts the values it receives, so that inspection can't be optimized
+	 * away.
+	 */
+	private static final class CountingInspector implements Inspector<Object> {
+
+		long count;
+
+		@Override
+		public void field(final Object name, final Object value) {
+			++this.count;
+		}
+
+		@Override
+		public void value(final Object value) {
+			++this.count;
+		}
+
+		@Override
+		public Inspector<Object> group(final Object groupName) {
+			++this.count;
+			return this;
+		}
+
+		@Override
+		public void comment(final Object note) {
+			++this.count;
+		}
+
+		@Override
+		public void close() {
+			// Nothing to close.
+		}
+	}
+
+	/**
+	 * The implementation of {@link Inspection#reflect(Inspector, Object)}
+	 * before inspections were planned, kept as a baseline.
+	 */
+	private static void reflectUncached(final Inspector<Object> parentInspector, final Object target) {
+		if (target.getClass().getAnnotation(Inspectable.class) == null) {
+			parentInspector.value(target.toString());
+			return;
+		}
+		final Inspector<Object> inspector = parentInspector.group(target.toString());
+		for (final Method method : target.getClass().getMethods()) {
+			final Inspectable inspectable = method.getAnnotation(Inspectable.class);
+			if (inspectable == null) {
+				continue;
+			}
+			String logicalName = inspectable.value();
+			if (logicalName.equals("")) {
+				logicalName = method.getName();
+				if (logicalName.startsWith("get")) {
+					logicalName = logicalName.substring(3);
+				}
+				logicalName = logicalName.replaceAll("([a-z])([A-Z])", "$1 $2");
+			}
+			final Class<?> returned = method.getReturnType();
+			try {
+				if (Iterable.class.isAssignableFrom(returned)) {
+					final Inspector<Object> groupInspector = inspector.group(logicalName);
+					for (final Object v : (Iterable<?>) method.invoke(target)) {
+						groupInspector.value(v);
+					}
+				} else if (Map.class.isAssignableFrom(returned)) {
+					final Inspector<Object> groupInspector = inspector.group(logicalName);
+					for (final Map.Entry<?, ?> e : ((Map<?, ?>) method.invoke(target)).entrySet()) {
+						groupInspector.field(e.getKey() != null ? e.getKey().toString() : "null", e.getValue());
+					}
+				} else {
+					inspector.field(logicalName, method.invoke(target));
+				}
+			} catch (final Exception e) {
+				throw new InspectionException(e);
+			}
+		}
+	}
+
+	public static void main(final String[] args) {
+		final Sample sample = new Sample();
+		final Harness.Benchmark planned = new Harness.Benchmark("Inspection.reflect") {
+			@Override
+			protected long run() {
+				final CountingInspector inspector = new CountingInspector();
+				Inspection.reflect(inspector, sample);
+				return inspector.count;
+			}
+		};
+		final Harness.Benchmark uncached = new Harness.Benchmark("Inspection.reflect, uncached baseline") {
+			@Override
+			protected long run() {
+				final CountingInspector inspector = new CountingInspector();
+				reflectUncached(inspector, sample);
+				return inspector.count;
+			}
+		};
+		new Harness(args).run(Arrays.asList(planned, uncached));
+	}
+}
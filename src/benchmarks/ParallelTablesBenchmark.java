@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package benchmarks;
+
+import java.util.concurrent.ForkJoinPool;
+
+import collections.table.ArrayTable;
+import collections.table.IntTable;
+import collections.table.ParallelTables;
+import collections.table.Table;
+import collections.table.Tables;
+import logic.functions.Function;
+
+/**
+ * Measures how {@link ParallelTables#map} scales with the number of threads,
+ * compared to a sequential pass through a table iterator.
+ * <p>
+ * Run with {@code java benchmarks.ParallelTablesBenchmark [size]}.
+ * 
+ * @author Aaron Faanes
+ */
+public final class ParallelTablesBenchmark {
+
+	private static final int ROUNDS = 10;
+
+	private ParallelTablesBenchmark() {
+		throw new AssertionError("Instantiation not allowed");
+	}
+
+	/**
+	 * A transform with enough arithmetic to stand in for a per-cell rule like
+	 * erosion or lighting.
+	 */
+	private static final Function<Integer, Integer> TRANSFORM = new Function<Integer, Integer>() {
+		@Override
+		public Integer apply(final Integer input) {
+			int value = input;
+			for (int i = 0; i < 8; ++i) {
+				value = value * 1103515245 + 12345;
+			}
+			return (value >>> 16) & 0xff;
+		}
+	};
+
+	private static long sequential(final Table<Integer> table) {
+		final long start = System.nanoTime();
+		for (int i = 0; i < ROUNDS; ++i) {
+			for (int y = 0; y < table.height(); ++y) {
+				for (int x = 0; x < table.width(); ++x) {
+					table.put(x, y, TRANSFORM.apply(table.get(x, y)));
+				}
+			}
+		}
+		return System.nanoTime() - start;
+	}
+
+	private static long parallel(final ForkJoinPool pool, final Table<Integer> table) {
+		final long start = System.nanoTime();
+		for (int i = 0; i < ROUNDS; ++i) {
+			ParallelTables.map(pool, table, TRANSFORM);
+		}
+		return System.nanoTime() - start;
+	}
+
+	private static void run(final String name, final Table<Integer> table) {
+		Tables.fill(table, 1, 2, 3);
+		// Warm up
+		sequential(table);
+		parallel(ParallelTables.defaultPool(), table);
+
+		final double cells = (double) table.size() * ROUNDS;
+		final long baseline = sequential(table);
+		System.out.printf("%-10s sequential: %6.2f ns/cell%n", name, baseline / cells);
+		for (int threads = 1; threads <= Runtime.getRuntime().availableProcessors(); threads *= 2) {
+			final ForkJoinPool pool = new ForkJoinPool(threads);
+			try {
+				parallel(pool, table);
+				final long nanos = parallel(pool, table);
+				System.out.printf("%-10s %2d threads: %6.2f ns/cell, %5.2fx%n", name, threads, nanos / cells, (double) baseline / nanos);
+			} finally {
+				pool.shutdown();
+			}
+		}
+	}
+
+	public static void main(final String[] args) {
+		final int size = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+		System.out.printf("%dx%d table, %d processors%n", size, size, Runtime.getRuntime().availableProcessors());
+		run("ArrayTable", new ArrayTable<Integer>(size, size, 0));
+		run("IntTable", new IntTable(size, size).asTable());
+	}
+}
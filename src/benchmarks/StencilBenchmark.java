@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package benchmarks;
+
+import collections.table.IntTable;
+import collections.table.Morton;
+import collections.table.TableLayout;
+
+/**
+ * Measures a five-point blur over an {@link IntTable}, for each
+ * {@link TableLayout} and for each order of visiting the cells.
+ * <p>
+ * Each cell of the result is the average of a cell and its four neighbours.
+ * Cells are visited by rows, by {@link TableLayout#TILE_SIZE tiles}, or in
+ * {@link Morton} order. A layout usually does best when its cells are
+ * visited in the order that they're stored, and the gap between layouts
+ * grows with the width of the table, since row-major order keeps vertical
+ * neighbours a whole row apart.
+ * <p>
+ * Run with {@code java benchmarks.StencilBenchmark [width] [height] [layout]}.
+ * Layouts are best compared in separate runs, by naming one as the third
+ * argument, since the accessors are otherwise compiled for every layout at
+ * once, which slows all of them.
+ *
+ * @author Aaron Faanes
+ */
+public final class StencilBenchmark {
+
+	private static final int ROUNDS = 10;
+
+	private StencilBenchmark() {
+		throw new AssertionError("Instantiation not allowed");
+	}
+
+	private interface Traversal {
+		void blur(IntTable source, IntTable destination);
+	}
+
+	private static final Traversal ROWS = new Traversal() {
+		@Override
+		public void blur(final IntTable source, final IntTable destination) {
+			for (int y = 1; y < source.height() - 1; ++y) {
+				for (int x = 1; x < source.width() - 1; ++x) {
+					blurCell(source, destination, x, y);
+				}
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "rows";
+		}
+	};
+
+	private static final Traversal TILES = new Traversal() {
+		@Override
+		public void blur(final IntTable source, final IntTable destination) {
+			final int size = TableLayout.TILE_SIZE;
+			for (int tileY = 0; tileY < source.height(); tileY += size) {
+				for (int tileX = 0; tileX < source.width(); tileX += size) {
+					final int endY = Math.min(tileY + size, source.height() - 1);
+					final int endX = Math.min(tileX + size, source.width() - 1);
+					for (int y = Math.max(tileY, 1); y < endY; ++y) {
+						for (int x = Math.max(tileX, 1); x < endX; ++x) {
+							blurCell(source, destination, x, y);
+						}
+					}
+				}
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "tiles";
+		}
+	};
+
+	private static final Traversal Z_ORDER = new Traversal() {
+		@Override
+		public void blur(final IntTable source, final IntTable destination) {
+			final int width = source.width();
+			final int height = source.height();
+			for (long code = Morton.next(0, width, height); code != -1; code = Morton.next(code + 1, width, height)) {
+				final int x = Morton.decodeX(code);
+				final int y = Morton.decodeY(code);
+				if (x > 0 && y > 0 && x < width - 1 && y < height - 1) {
+					blurCell(source, destination, x, y);
+				}
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "Morton order";
+		}
+	};
+
+	private static void blurCell(final IntTable source, final IntTable destination, final int x, final int y) {
+		final int sum = source.get(x, y) + source.get(x - 1, y) + source.get(x + 1, y) + source.get(x, y - 1) + source.get(x, y + 1);
+		destination.put(x, y, sum / 5);
+	}
+
+	private static void run(final TableLayout layout, final Traversal traversal, final int width, final int height) {
+		final IntTable source = new IntTable(width, height, 0, layout);
+		final IntTable destination = new IntTable(width, height, 0, layout);
+		for (int y = 0; y < height; ++y) {
+			for (int x = 0; x < width; ++x) {
+				source.put(x, y, x * 31 + y * 17);
+			}
+		}
+
+		// Warm up
+		for (int i = 0; i < ROUNDS; ++i) {
+			traversal.blur(source, destination);
+		}
+
+		final long start = System.nanoTime();
+		for (int i = 0; i < ROUNDS; ++i) {
+			traversal.blur(source, destination);
+		}
+		final long nanos = System.nanoTime() - start;
+
+		final double cells = (double) width * height * ROUNDS;
+		System.out.printf("%-10s %-13s %6.2f ns/cell%n", layout, traversal, nanos / cells);
+	}
+
+	public static void main(final String[] args) {
+		final int width = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+		final int height = args.length > 1 ? Integer.parseInt(args[1]) : width;
+
+		System.out.printf("%dx%d table%n", width, height);
+		for (final TableLayout layout : args.length > 2 ? new TableLayout[] { TableLayout.valueOf(args[2]) } : TableLayout.values()) {
+			for (final Traversal traversal : new Traversal[] { ROWS, TILES, Z_ORDER }) {
+				run(layout, traversal, width, height);
+			}
+		}
+	}
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package benchmarks;
+
+import java.lang.management.ManagementFactory;
+
+import collections.table.ArrayTable;
+import collections.table.IntTable;
+import collections.table.Table;
+import collections.table.Tables;
+import collections.table.iteration.NaturalTableIterator;
+import collections.table.iteration.TableIterator;
+import geom.vectors.Vector3i;
+
+/**
+ * Measures the time and the memory allocated per cell when scanning a whole
+ * table, through an iterator and through {@link Table#get(int, int)}, for
+ * array-backed tables and for subtables nested two deep.
+ * <p>
+ * Allocation is measured with the thread allocation counters of HotSpot, so
+ * this needs a JVM that provides {@code com.sun.management.ThreadMXBean}.
+ * <p>
+ * Run with {@code java benchmarks.TableScanBenchmark [size]}.
+ * 
+ * @author Aaron Faanes
+ */
+public final class TableScanBenchmark {
+
+	private static final int ROUNDS = 20;
+
+	private TableScanBenchmark() {
+		throw new AssertionError("Instantiation not allowed");
+	}
+
+	private interface Scan {
+		long scan(Table<Integer> table);
+	}
+
+	private static final Scan ITERATOR = new Scan() {
+		@Override
+		public long scan(final Table<Integer> table) {
+			long sum = 0;
+			final TableIterator<Integer> iter = new NaturalTableIterator<Integer>(table);
+			while (iter.hasNext()) {
+				sum += iter.next();
+			}
+			return sum;
+		}
+
+		@Override
+		public String toString() {
+			return "iterator";
+		}
+	};
+
+	private static final Scan GET = new Scan() {
+		@Override
+		public long scan(final Table<Integer> table) {
+			long sum = 0;
+			final int width = table.width();
+			final int height = table.height();
+			for (int y = 0; y < height; ++y) {
+				for (int x = 0; x < width; ++x) {
+					sum += table.get(x, y);
+				}
+			}
+			return sum;
+		}
+
+		@Override
+		public String toString() {
+			return "get(x, y)";
+		}
+	};
+
+	private static long allocatedBytes() {
+		return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	private static long sink;
+
+	private static void run(final String name, final Table<Integer> table, final Scan scan) {
+		// Warm up
+		for (int i = 0; i < ROUNDS; ++i) {
+			sink += scan.scan(table);
+		}
+
+		final long startBytes = allocatedBytes();
+		final long start = System.nanoTime();
+		for (int i = 0; i < ROUNDS; ++i) {
+			sink += scan.scan(table);
+		}
+		final long nanos = System.nanoTime() - start;
+		final long bytes = allocatedBytes() - startBytes;
+
+		final double cells = (double) table.size() * ROUNDS;
+		System.out.printf("%-28s %-10s %6.2f ns/cell %8.3f bytes/cell%n", name, scan, nanos / cells, bytes / cells);
+	}
+
+	public static void main(final String[] args) {
+		final int size = args.length > 0 ? Integer.parseInt(args[0]) : 1024;
+
+		final ArrayTable<Integer> array = new ArrayTable<Integer>(size, size, 0);
+		Tables.fill(array, 1, 2, 3, 4, 5);
+
+		final IntTable ints = new IntTable(size, size);
+		Tables.fill(ints.asTable(), 1, 2, 3, 4, 5);
+
+		final ArrayTable<Integer> padded = new ArrayTable<Integer>(size + 2, size + 2, 0);
+		Tables.fill(padded, 1, 2, 3, 4, 5);
+		final Table<Integer> nested = padded.subTable(Vector3i.frozen(1, 1)).subTable(Vector3i.frozen(1, 1));
+
+		System.out.printf("%dx%d table%n", size, size);
+		for (final Scan scan : new Scan[] { ITERATOR, GET }) {
+			run("ArrayTable", array, scan);
+			run("IntTable", ints.asTable(), scan);
+			run("ArrayTable, nested subtable", nested, scan);
+		}
+		if (sink == 42) {
+			System.out.println();
+		}
+	}
+}
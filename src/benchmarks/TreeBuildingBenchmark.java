@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package benchmarks;
+
+import javax.swing.JTree;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreePath;
+
+import logging.LogMessage;
+import logging.TreeBuildingTreeLog;
+
+/**
+ * Measures the cost of building a log tree of one million grouped scopes, with
+ * and without batched model events. Each run is timed twice: once with only
+ * the model, and once with a {@link JTree} listening to it, which is the work
+ * the EDT does for a {@code LogPanel}. Outer scopes are expanded as they are
+ * inserted, as a {@code LogPanel} does.
+ * <p>
+ * Run with {@code java -Djava.awt.headless=true benchmarks.TreeBuildingBenchmark [outer scopes]}.
+ * 
+ * @author Aaron Faanes
+ */
+public final class TreeBuildingBenchmark {
+
+	private static final int GROUP_SIZE = 100;
+
+	/**
+	 * The number of events between batches, which stands in for the flushes
+	 * of a {@code BufferedTreeLog}.
+	 */
+	private static final int BATCH_SIZE = 1000;
+
+	private TreeBuildingBenchmark() {
+		throw new AssertionError("Instantiation not allowed");
+	}
+
+	private static class Result {
+		long nanos;
+		long events;
+	}
+
+	private static Result run(int outerScopes, boolean batching, boolean viewed) {
+		final TreeBuildingTreeLog<String> log = new TreeBuildingTreeLog<>("Benchmark");
+		log.setBatching(batching);
+
+		final Result result = new Result();
+		final JTree tree = viewed ? new JTree(log.getModel()) : null;
+		if (tree != null) {
+			tree.setRootVisible(false);
+		}
+		log.getModel().addTreeModelListener(new TreeModelListener() {
+			@Override
+			public void treeNodesInserted(TreeModelEvent e) {
+				++result.events;
+				if (tree != null && e.getTreePath().getPathCount() == 1) {
+					for (Object child : e.getChildren()) {
+						tree.expandPath(e.getTreePath().pathByAddingChild(child));
+					}
+				}
+			}
+
+			@Override
+			public void treeNodesChanged(TreeModelEvent e) {
+				++result.events;
+			}
+
+			@Override
+			public void treeNodesRemoved(TreeModelEvent e) {
+				++result.events;
+			}
+
+			@Override
+			public void treeStructureChanged(TreeModelEvent e) {
+				++result.events;
+			}
+		});
+
+		long start = System.nanoTime();
+		int pending = 0;
+		for (int i = 0; i < outerScopes; ++i) {
+			log.enter(new LogMessage<String>("Frame " + i));
+			for (int j = 0; j < GROUP_SIZE; ++j) {
+				log.enter(new LogMessage<String>("Group", "Scope " + j));
+				log.log(new LogMessage<String>("Work " + j));
+				log.leave();
+				pending += 3;
+				if (pending >= BATCH_SIZE) {
+					log.fireEvents();
+					pending = 0;
+				}
+			}
+			log.leave();
+		}
+		log.fireEvents();
+		result.nanos = System.nanoTime() - start;
+
+		if (tree != null) {
+			// Make sure the tree agrees with the model.
+			tree.expandPath(new TreePath(log.getModel().getRoot()));
+		}
+		return result;
+	}
+
+	public static void main(String[] args) {
+		int outerScopes = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		// Warm up
+		run(outerScopes / 10, false, true);
+		run(outerScopes / 10, true, true);
+
+		System.out.printf("%d grouped scopes%n", outerScopes * GROUP_SIZE);
+		for (boolean batching : new boolean[] { false, true }) {
+			Result model = run(outerScopes, batching, false);
+			Result viewed = run(outerScopes, batching, true);
+			System.out.printf("%-10s model only: %6d ms, with JTree: %6d ms (EDT load %6d ms), %,d events%n",
+					batching ? "batched" : "unbatched",
+					model.nanos / 1000000,
+					viewed.nanos / 1000000,
+					(viewed.nanos - model.nanos) / 1000000,
+					viewed.events);
+		}
+	}
+}
@@ -0,0 +1,273 @@
+package collections.observable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+
+import javax.swing.SwingUtilities;
+
+import metrics.Counter;
+import metrics.Gauge;
+import metrics.Metrics;
+import metrics.Timer;
+
+/**
+ * Delivers events to listeners on another thread, one at a time and in the
+ * order they were dispatched.
+ * <p>
+ * Observable collections notify their listeners on the thread that changed
+ * them, so a slow listener slows every change. Given a dispatcher, they
+ * instead queue each event here and return. Queued events are delivered by
+ * the dispatcher's executor, which may be the event dispatch thread or a pool
+ * of threads; either way, at most one event is delivered at a time.
+ * <p>
+ * An event that is dispatched while the previous one is still queued may be
+ * {@link Delivery#coalesce(Delivery) coalesced} with it, and the result with
+ * the one before that, and so on. A burst of changes therefore reaches slow
+ * listeners as a few events rather than many.
+ * <p>
+ * Listeners run after the change, and possibly after later changes, so they
+ * should not assume that the source looks as it did when the event was
+ * dispatched. A listener that throws an exception is reported to its
+ * thread's {@link Thread.UncaughtExceptionHandler}, and later events are still
+ * delivered. An {@link Error} is passed on to the executor; events that were
+ * queued behind it are delivered once another event is dispatched.
+ * <p>
+ * A named dispatcher reports its queue depth as the gauge
+ * {@code <name>.queueDepth}, the time from dispatching each event to
+ * delivering it as the timer {@code <name>.latency}, and the number of
+ * coalesced events as the counter {@code <name>.coalesced}.
+ *
+ * @author Aaron Faanes
+ * @see Metrics
+ */
+public final class EventDispatcher {
+
+	/**
+	 * The most events delivered before the dispatcher gives up its thread, so
+	 * that a long queue on the event dispatch thread doesn't delay painting.
+	 */
+	private static final int MAXIMUM_DELIVERIES_PER_RUN = 64;
+
+	private static final Executor EVENT_DISPATCH_THREAD = new Executor() {
+		@Override
+		public void execute(final Runnable command) {
+			SwingUtilities.invokeLater(command);
+		}
+	};
+
+	/**
+	 * An event that has been dispatched, which notifies listeners when it is
+	 * run.
+	 */
+	public static abstract class Delivery implements Runnable {
+
+		/**
+		 * Combines this delivery, which has not yet run, with the specified
+		 * delivery, which was dispatched immediately after it. Listeners will
+		 * receive the returned delivery instead of both.
+		 * <p>
+		 * This may be called from any thread that dispatches events, so it
+		 * should only read the two deliveries. By default, deliveries are
+		 * never combined.
+		 *
+		 * @param next
+		 *            the delivery dispatched after this one. It may be from a
+		 *            different source.
+		 * @return a delivery equivalent to both, or {@code null} if they
+		 *         cannot be combined
+		 */
+		protected Delivery coalesce(final Delivery next) {
+			return null;
+		}
+	}
+
+	private static final class QueuedDelivery {
+
+		final Delivery delivery;
+
+		final long dispatched;
+
+		QueuedDelivery(final Delivery delivery, final long dispatched) {
+			this.delivery = delivery;
+			this.dispatched = dispatched;
+		}
+	}
+
+	private final Executor executor;
+
+	private final Deque<QueuedDelivery> queue = new ArrayDeque<QueuedDelivery>();
+
+	/**
+	 * Whether the executor has been asked to deliver the queued events. This
+	 * is guarded by the queue.
+	 */
+	private boolean scheduled = false;
+
+	private final Gauge queueDepth;
+
+	private final Timer latency;
+
+	private final Counter coalesced;
+
+	private final Runnable deliverQueued = new Runnable() {
+		@Override
+		public void run() {
+			EventDispatcher.this.deliverQueued();
+		}
+	};
+
+	/**
+	 * Constructs a dispatcher that delivers events using the specified
+	 * executor, without reporting metrics.
+	 *
+	 * @param executor
+	 *            the executor that delivers events
+	 */
+	public EventDispatcher(final Executor executor) {
+		this(executor, null);
+	}
+
+	/**
+	 * Constructs a dispatcher that delivers events using the specified
+	 * executor.
+	 *
+	 * @param executor
+	 *            the executor that delivers events
+	 * @param name
+	 *            the prefix of this dispatcher's metrics, or {@code null} if
+	 *            it should not report any
+	 */
+	public EventDispatcher(final Executor executor, final String name) {
+		if (executor == null) {
+			throw new NullPointerException("executor must not be null");
+		}
+		this.executor = executor;
+		if (name != null) {
+			this.queueDepth = Metrics.gauge(name + ".queueDepth");
+			this.latency = Metrics.timer(name + ".latency");
+			this.coalesced = Metrics.counter(name + ".coalesced");
+		} else {
+			this.queueDepth = null;
+			this.latency = null;
+			this.coalesced = null;
+		}
+	}
+
+	/**
+	 * Returns a dispatcher that delivers events on the event dispatch thread.
+	 *
+	 * @param name
+	 *            the prefix of the dispatcher's metrics, or {@code null} if it
+	 *            should not report any
+	 * @return a new dispatcher
+	 */
+	public static EventDispatcher onEventDispatchThread(final String name) {
+		return new EventDispatcher(EVENT_DISPATCH_THREAD, name);
+	}
+
+	/**
+	 * Queues the specified delivery, to be run after every delivery that was
+	 * dispatched before it. It may be coalesced with the deliveries at the end
+	 * of the queue, which have not yet run.
+	 *
+	 * @param delivery
+	 *            the delivery to run
+	 */
+	public void dispatch(final Delivery delivery) {
+		if (delivery == null) {
+			throw new NullPointerException("delivery must not be null");
+		}
+		synchronized (this.queue) {
+			Delivery pending = delivery;
+			long dispatched = System.nanoTime();
+			for (QueuedDelivery last = this.queue.peekLast(); last != null; last = this.queue.peekLast()) {
+				final Delivery combined = last.delivery.coalesce(pending);
+				if (combined == null) {
+					break;
+				}
+				this.queue.removeLast();
+				pending = combined;
+				dispatched = last.dispatched;
+				if (this.coalesced != null) {
+					this.coalesced.increment();
+				}
+			}
+			this.queue.addLast(new QueuedDelivery(pending, dispatched));
+			this.updateQueueDepth();
+			if (this.scheduled) {
+				return;
+			}
+			this.scheduled = true;
+		}
+		this.schedule();
+	}
+
+	/**
+	 * @return the number of deliveries that are waiting to run
+	 */
+	public int getQueueDepth() {
+		synchronized (this.queue) {
+			return this.queue.size();
+		}
+	}
+
+	private void schedule() {
+		try {
+			this.executor.execute(this.deliverQueued);
+		} catch (final RuntimeException e) {
+			synchronized (this.queue) {
+				this.scheduled = false;
+			}
+			throw e;
+		}
+	}
+
+	private void deliverQueued() {
+		boolean completed = false;
+		try {
+			for (int delivered = 0; delivered < MAXIMUM_DELIVERIES_PER_RUN; ++delivered) {
+				final QueuedDelivery queued;
+				synchronized (this.queue) {
+					queued = this.queue.pollFirst();
+					if (queued == null) {
+						this.scheduled = false;
+						completed = true;
+						return;
+					}
+					this.updateQueueDepth();
+				}
+				try {
+					queued.delivery.run();
+				} catch (final RuntimeException e) {
+					final Thread thread = Thread.currentThread();
+					thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+				}
+				if (this.latency != null) {
+					this.latency.stop(queued.dispatched);
+				}
+			}
+			completed = true;
+		} finally {
+			if (!completed) {
+				// A delivery threw an Error, which is left to the executor. The
+				// remaining deliveries are scheduled by the next dispatch.
+				synchronized (this.queue) {
+					this.scheduled = false;
+				}
+			}
+		}
+		// Deliveries remain, so let the executor run other work before them.
+		this.schedule();
+	}
+
+	/**
+	 * Reports the size of the queue. This must be called while holding the
+	 * queue's lock.
+	 */
+	private void updateQueueDepth() {
+		if (this.queueDepth != null) {
+			this.queueDepth.set(this.queue.size());
+		}
+	}
+}
@@ -0,0 +1,267 @@
+package collections.observable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Computes the differences between two lists, as the runs of elements that
+ * must be replaced to turn one into the other.
+ * <p>
+ * Differences are found with Myers' algorithm, which finds the fewest
+ * insertions and deletions in {@code O((N + M) * D)} time, where {@code D}
+ * is the number of insertions and deletions. Common leading and trailing
+ * elements are skipped first, and each element's hash code is computed only
+ * once, so that most comparisons of differing elements never call
+ * {@link Object#equals(Object)}. This makes small changes to large lists
+ * cheap.
+ * <p>
+ * Lists that differ by more than {@link #MAXIMUM_EDIT_DISTANCE} insertions
+ * and deletions are reported as a single hunk, covering everything between
+ * their common leading and trailing elements.
+ *
+ * @author Aaron Faanes
+ *
+ */
+public final class ListDiff {
+
+	/**
+	 * The largest number of insertions and deletions that will be searched
+	 * for. Memory used by the search grows with the square of this number.
+	 */
+	public static final int MAXIMUM_EDIT_DISTANCE = 1000;
+
+	private ListDiff() {
+		// Suppress default constructor to ensure non-instantiability.
+		throw new AssertionError("Instantiation not allowed");
+	}
+
+	/**
+	 * A run of elements in the old list that is replaced by a run of elements
+	 * in the new list. Either run may be empty, but not both.
+	 */
+	public static final class Hunk {
+
+		private final int oldStart;
+
+		private final int oldLength;
+
+		private final int newStart;
+
+		private final int newLength;
+
+		Hunk(final int oldStart, final int oldLength, final int newStart, final int newLength) {
+			this.oldStart = oldStart;
+			this.oldLength = oldLength;
+			this.newStart = newStart;
+			this.newLength = newLength;
+		}
+
+		/**
+		 * @return the index of the first replaced element in the old list
+		 */
+		public int getOldStart() {
+			return this.oldStart;
+		}
+
+		/**
+		 * @return the number of replaced elements in the old list
+		 */
+		public int getOldLength() {
+			return this.oldLength;
+		}
+
+		/**
+		 * @return the index of the first replacing element in the new list
+		 */
+		public int getNewStart() {
+			return this.newStart;
+		}
+
+		/**
+		 * @return the number of replacing elements in the new list
+		 */
+		public int getNewLength() {
+			return this.newLength;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (obj == this) {
+				return true;
+			}
+			if (!(obj instanceof Hunk)) {
+				return false;
+			}
+			final Hunk other = (Hunk) obj;
+			return this.oldStart == other.oldStart && this.oldLength == other.oldLength && this.newStart == other.newStart
+					&& this.newLength == other.newLength;
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(new int[] { this.oldStart, this.oldLength, this.newStart, this.newLength });
+		}
+
+		@Override
+		public String toString() {
+			return String.format("Hunk[old %d+%d, new %d+%d]", this.oldStart, this.oldLength, this.newStart, this.newLength);
+		}
+	}
+
+	/**
+	 * Returns the hunks that turn the old list into the new list, in order.
+	 * Elements outside of every hunk are equal in both lists, and appear in
+	 * the same order.
+	 *
+	 * @param oldList
+	 *            the old list
+	 * @param newList
+	 *            the new list
+	 * @return the hunks, ordered by their position in either list. The list is
+	 *         empty if the two lists are equal.
+	 */
+	public static List<Hunk> diff(final List<?> oldList, final List<?> newList) {
+		final int oldSize = oldList.size();
+		final int newSize = newList.size();
+
+		int prefix = 0;
+		while (prefix < oldSize && prefix < newSize && equal(oldList.get(prefix), newList.get(prefix))) {
+			++prefix;
+		}
+		int suffix = 0;
+		while (suffix < oldSize - prefix && suffix < newSize - prefix
+				&& equal(oldList.get(oldSize - 1 - suffix), newList.get(newSize - 1 - suffix))) {
+			++suffix;
+		}
+
+		final int oldLength = oldSize - prefix - suffix;
+		final int newLength = newSize - prefix - suffix;
+		if (oldLength == 0 && newLength == 0) {
+			return Collections.emptyList();
+		}
+		if (oldLength == 0 || newLength == 0) {
+			return Collections.singletonList(new Hunk(prefix, oldLength, prefix, newLength));
+		}
+
+		final Object[] oldElements = oldList.subList(prefix, prefix + oldLength).toArray();
+		final Object[] newElements = newList.subList(prefix, prefix + newLength).toArray();
+		final boolean[] deleted = new boolean[oldLength];
+		final boolean[] inserted = new boolean[newLength];
+		if (!search(oldElements, newElements, deleted, inserted)) {
+			return Collections.singletonList(new Hunk(prefix, oldLength, prefix, newLength));
+		}
+
+		// Elements that are neither deleted nor inserted pair up in order, so
+		// the hunks are the runs of marked elements between them.
+		final List<Hunk> hunks = new ArrayList<Hunk>();
+		int i = 0;
+		int j = 0;
+		while (i < oldLength || j < newLength) {
+			if (i < oldLength && j < newLength && !deleted[i] && !inserted[j]) {
+				++i;
+				++j;
+				continue;
+			}
+			final int oldStart = i;
+			final int newStart = j;
+			while ((i < oldLength && deleted[i]) || (j < newLength && inserted[j])) {
+				if (i < oldLength && deleted[i]) {
+					++i;
+				} else {
+					++j;
+				}
+			}
+			hunks.add(new Hunk(prefix + oldStart, i - oldStart, prefix + newStart, j - newStart));
+		}
+		return hunks;
+	}
+
+	/**
+	 * Finds the fewest deletions from the old elements and insertions from the
+	 * new elements, using Myers' greedy algorithm.
+	 *
+	 * @return {@code false} if more than {@link #MAXIMUM_EDIT_DISTANCE} edits
+	 *         would be needed, in which case nothing is marked
+	 */
+	private static boolean search(final Object[] oldElements, final Object[] newElements, final boolean[] deleted,
+			final boolean[] inserted) {
+		final int n = oldElements.length;
+		final int m = newElements.length;
+		final int[] oldHashes = hashes(oldElements);
+		final int[] newHashes = hashes(newElements);
+
+		final int limit = Math.min(n + m, MAXIMUM_EDIT_DISTANCE);
+		// The furthest x reached on each diagonal k = x - y, offset by limit.
+		final int[] furthest = new int[2 * limit + 3];
+		// A copy of the reached diagonals after each round, for backtracking.
+		final List<int[]> trace = new ArrayList<int[]>();
+
+		int distance = -1;
+		search: for (int d = 0; d <= limit; ++d) {
+			for (int k = -d; k <= d; k += 2) {
+				int x;
+				if (k == -d || (k != d && furthest[limit + k - 1] < furthest[limit + k + 1])) {
+					x = furthest[limit + k + 1];
+				} else {
+					x = furthest[limit + k - 1] + 1;
+				}
+				int y = x - k;
+				while (x < n && y < m && oldHashes[x] == newHashes[y] && equal(oldElements[x], newElements[y])) {
+					++x;
+					++y;
+				}
+				furthest[limit + k] = x;
+				if (x >= n && y >= m) {
+					distance = d;
+					break search;
+				}
+			}
+			trace.add(Arrays.copyOfRange(furthest, limit - d, limit + d + 1));
+		}
+		if (distance == -1) {
+			return false;
+		}
+
+		int x = n;
+		int y = m;
+		for (int d = distance; d > 0; --d) {
+			final int[] previous = trace.get(d - 1);
+			// The previous round covered diagonals -(d - 1) to d - 1.
+			final int k = x - y;
+			final int previousK;
+			if (k == -d || (k != d && previous[k - 1 + d - 1] < previous[k + 1 + d - 1])) {
+				previousK = k + 1;
+			} else {
+				previousK = k - 1;
+			}
+			final int previousX = previous[previousK + d - 1];
+			final int previousY = previousX - previousK;
+			while (x > previousX && y > previousY) {
+				--x;
+				--y;
+			}
+			if (previousK == k + 1) {
+				inserted[previousY] = true;
+			} else {
+				deleted[previousX] = true;
+			}
+			x = previousX;
+			y = previousY;
+		}
+		return true;
+	}
+
+	private static int[] hashes(final Object[] elements) {
+		final int[] hashes = new int[elements.length];
+		for (int i = 0; i < elements.length; ++i) {
+			hashes[i] = elements[i] == null ? 0 : elements[i].hashCode();
+		}
+		return hashes;
+	}
+
+	private static boolean equal(final Object a, final Object b) {
+		return a == null ? b == null : a.equals(b);
+	}
+}
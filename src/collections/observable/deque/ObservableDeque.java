@@ -1,11 +1,14 @@
 package collections.observable.deque;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+import collections.observable.EventDispatcher;
+import collections.observable.ListDiff;
 import collections.proxies.DequeProxy;
 
 /**
@@ -23,6 +26,37 @@ public final class ObservableDeque<E> extends DequeProxy<E> {
 
 	private final List<DequeListener<E>> listeners = new CopyOnWriteArrayList<DequeListener<E>>();
 
+	private EventDispatcher eventDispatcher;
+
+	/**
+	 * An event for every listener of this deque.
+	 */
+	private abstract class DequeDelivery extends EventDispatcher.Delivery {
+
+		abstract void deliverTo(DequeListener<E> listener);
+
+		@Override
+		public void run() {
+			for (final DequeListener<E> listener : ObservableDeque.this.listeners) {
+				this.deliverTo(listener);
+			}
+		}
+
+		@Override
+		protected EventDispatcher.Delivery coalesce(final EventDispatcher.Delivery next) {
+			// Listeners treat a changed deque as entirely new, so it covers any
+			// change before it.
+			return next == ObservableDeque.this.dequeChanged ? next : null;
+		}
+	}
+
+	private final DequeDelivery dequeChanged = new DequeDelivery() {
+		@Override
+		void deliverTo(final DequeListener<E> listener) {
+			listener.dequeChanged();
+		}
+	};
+
 	/**
 	 * Constructs an empty observable deque.
 	 */
@@ -66,6 +100,30 @@ public final class ObservableDeque<E> extends DequeProxy<E> {
 		this.listeners.remove(listener);
 	}
 
+	/**
+	 * Sets the dispatcher that notifies this deque's listeners. Listeners then
+	 * run on the dispatcher's thread, after this deque has changed and
+	 * possibly after later changes, so the elements they see at either end
+	 * may be newer than the event. Queued events that are followed by
+	 * {@link DequeListener#dequeChanged()} are dropped in its favor.
+	 * 
+	 * @param eventDispatcher
+	 *            the dispatcher that notifies listeners, or {@code null} to
+	 *            notify them on the thread that changes this deque
+	 */
+	public void setEventDispatcher(final EventDispatcher eventDispatcher) {
+		this.eventDispatcher = eventDispatcher;
+	}
+
+	/**
+	 * @return the dispatcher that notifies this deque's listeners, or
+	 *         {@code null} if they are notified on the thread that changes
+	 *         this deque
+	 */
+	public EventDispatcher getEventDispatcher() {
+		return this.eventDispatcher;
+	}
+
 	@Override
 	protected Deque<E> getSourceDeque() {
 		return this.sourceDeque;
@@ -157,33 +215,144 @@ public final class ObservableDeque<E> extends DequeProxy<E> {
 		return false;
 	}
 
+	/**
+	 * Replaces the contents of this deque with the specified elements, using
+	 * as few operations on the ends of this deque as it can.
+	 * <p>
+	 * The longest run of elements that this deque and the new contents share,
+	 * as found by {@link ListDiff}, is kept. Elements before and after it are
+	 * removed from and added to the ends, firing the usual events for each.
+	 * If that would take more operations than there are new elements, the
+	 * contents are replaced at once and a single
+	 * {@link DequeListener#dequeChanged()} is fired instead.
+	 * 
+	 * @param newContents
+	 *            the new contents of this deque, from first to last
+	 * @return {@code true} if this deque changed
+	 */
+	public boolean setAll(final Collection<? extends E> newContents) {
+		if (newContents == null) {
+			throw new NullPointerException("newContents cannot be null");
+		}
+		final List<E> oldElements = new ArrayList<E>(this.sourceDeque);
+		final List<E> newElements = new ArrayList<E>(newContents);
+		final List<ListDiff.Hunk> hunks = ListDiff.diff(oldElements, newElements);
+		if (hunks.isEmpty()) {
+			return false;
+		}
+
+		// Find the longest run of elements outside every hunk.
+		int keptOldStart = 0;
+		int keptNewStart = 0;
+		int keptLength = 0;
+		int oldStart = 0;
+		int newStart = 0;
+		for (int i = 0; i <= hunks.size(); ++i) {
+			final int oldEnd = i < hunks.size() ? hunks.get(i).getOldStart() : oldElements.size();
+			if (oldEnd - oldStart > keptLength) {
+				keptOldStart = oldStart;
+				keptNewStart = newStart;
+				keptLength = oldEnd - oldStart;
+			}
+			if (i < hunks.size()) {
+				final ListDiff.Hunk hunk = hunks.get(i);
+				oldStart = hunk.getOldStart() + hunk.getOldLength();
+				newStart = hunk.getNewStart() + hunk.getNewLength();
+			}
+		}
+
+		final int removedFromEnd = oldElements.size() - keptOldStart - keptLength;
+		final int addedToEnd = newElements.size() - keptNewStart - keptLength;
+		final int operations = keptOldStart + removedFromEnd + keptNewStart + addedToEnd;
+		if (operations > newElements.size()) {
+			this.sourceDeque.clear();
+			this.sourceDeque.addAll(newElements);
+			this.fireDequeChanged();
+			return true;
+		}
+
+		for (int i = 0; i < keptOldStart; ++i) {
+			this.removeFirst();
+		}
+		for (int i = 0; i < removedFromEnd; ++i) {
+			this.removeLast();
+		}
+		for (int i = keptNewStart - 1; i >= 0; --i) {
+			this.addFirst(newElements.get(i));
+		}
+		for (int i = newElements.size() - addedToEnd; i < newElements.size(); ++i) {
+			this.addLast(newElements.get(i));
+		}
+		return true;
+	}
+
 	private void fireFirstElementAdded(final E oldFirstElement) {
-		for (final DequeListener<E> listener : this.listeners) {
-			listener.firstElementAdded(oldFirstElement);
+		if (this.eventDispatcher == null) {
+			for (final DequeListener<E> listener : this.listeners) {
+				listener.firstElementAdded(oldFirstElement);
+			}
+			return;
 		}
+		this.eventDispatcher.dispatch(new DequeDelivery() {
+			@Override
+			void deliverTo(final DequeListener<E> listener) {
+				listener.firstElementAdded(oldFirstElement);
+			}
+		});
 	}
 
 	private void fireLastElementAdded(final E oldLastElement) {
-		for (final DequeListener<E> listener : this.listeners) {
-			listener.lastElementAdded(oldLastElement);
+		if (this.eventDispatcher == null) {
+			for (final DequeListener<E> listener : this.listeners) {
+				listener.lastElementAdded(oldLastElement);
+			}
+			return;
 		}
+		this.eventDispatcher.dispatch(new DequeDelivery() {
+			@Override
+			void deliverTo(final DequeListener<E> listener) {
+				listener.lastElementAdded(oldLastElement);
+			}
+		});
 	}
 
 	private void fireFirstElementRemoved(final E oldFirstElement) {
-		for (final DequeListener<E> listener : this.listeners) {
-			listener.firstElementRemoved(oldFirstElement);
+		if (this.eventDispatcher == null) {
+			for (final DequeListener<E> listener : this.listeners) {
+				listener.firstElementRemoved(oldFirstElement);
+			}
+			return;
 		}
+		this.eventDispatcher.dispatch(new DequeDelivery() {
+			@Override
+			void deliverTo(final DequeListener<E> listener) {
+				listener.firstElementRemoved(oldFirstElement);
+			}
+		});
 	}
 
 	private void fireLastElementRemoved(final E oldLastElement) {
-		for (final DequeListener<E> listener : this.listeners) {
-			listener.lastElementRemoved(oldLastElement);
+		if (this.eventDispatcher == null) {
+			for (final DequeListener<E> listener : this.listeners) {
+				listener.lastElementRemoved(oldLastElement);
+			}
+			return;
 		}
+		this.eventDispatcher.dispatch(new DequeDelivery() {
+			@Override
+			void deliverTo(final DequeListener<E> listener) {
+				listener.lastElementRemoved(oldLastElement);
+			}
+		});
 	}
 
 	private void fireDequeChanged() {
-		for (final DequeListener<E> listener : this.listeners) {
-			listener.dequeChanged();
+		if (this.eventDispatcher == null) {
+			for (final DequeListener<E> listener : this.listeners) {
+				listener.dequeChanged();
+			}
+			return;
 		}
+		this.eventDispatcher.dispatch(this.dequeChanged);
 	}
 }
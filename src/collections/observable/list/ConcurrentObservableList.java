@@ -0,0 +1,600 @@
+package collections.observable.list;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.swing.ListModel;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+import collections.observable.EventDispatcher;
+
+/**
+ * An observable list that may be changed by several threads while others
+ * read it.
+ * <p>
+ * The contents are held in a {@link PersistentVector}. Each change builds a
+ * new vector, which shares most of its structure with the old one, and
+ * publishes it as the next version of this list. Readers never lock: every
+ * read sees one complete version, and iterators and {@link #getSnapshot()
+ * snapshots} keep seeing the version they started with. Changes are made one
+ * at a time, under a lock that only writers take.
+ * <p>
+ * Setting, adding or removing at the end of the list takes {@code O(log n)}
+ * time. Inserting or removing anywhere else copies every element after that
+ * index, and so does {@link #removeAll(Collection)}, as described in
+ * {@link PersistentVector}.
+ * <p>
+ * Listeners are notified in the order that versions are published, with
+ * {@link VersionedListDataEvent}s that carry the version they describe and its
+ * contents. They are notified after the write lock is released, so a listener
+ * may read or change this list freely. Events are delivered by one writing
+ * thread at a time: a writer that finds another thread delivering leaves its
+ * events for that thread, and so may return before its listeners have run,
+ * and a change made by a listener is delivered after the event that listener
+ * is handling.
+ * <p>
+ * Given an {@link #setEventDispatcher(EventDispatcher) event dispatcher},
+ * listeners are instead notified by the dispatcher, still in version order.
+ * Since every event carries its own snapshot, listeners on the dispatcher's
+ * thread can read the list as it was after the change, however far it has
+ * moved on since. Queued events are not merged, so that no version is
+ * skipped.
+ * <p>
+ * Note that {@link #getSize()} and {@link #getElementAt(int)} each read the
+ * latest version, so a reader that needs several consistent reads, like a
+ * {@code JList} painting itself, should make them from one snapshot. A
+ * {@link PinnedListModel} does this for the event dispatch thread.
+ *
+ * @author Aaron Faanes
+ * @param <E>
+ *            the type of element in this list
+ * @see ObservableList
+ * @see PinnedListModel
+ */
+public final class ConcurrentObservableList<E> extends AbstractList<E> implements ListModel<E>, RandomAccess {
+
+	/**
+	 * Collections larger than this are copied into a hash set before bulk
+	 * removals, so that each element is checked in constant time.
+	 */
+	private static final int HASHED_LOOKUP_THRESHOLD = 16;
+
+	/**
+	 * A published version of this list.
+	 */
+	static final class Version<E> {
+
+		final PersistentVector<E> contents;
+
+		final long number;
+
+		Version(final PersistentVector<E> contents, final long number) {
+			this.contents = contents;
+			this.number = number;
+		}
+	}
+
+	private final List<ListDataListener> listeners = new CopyOnWriteArrayList<ListDataListener>();
+
+	private final Object writeLock = new Object();
+
+	private volatile Version<E> current;
+
+	/**
+	 * Events that have been queued but not yet delivered, in version order.
+	 * This is guarded by the write lock.
+	 */
+	private final Queue<VersionedListDataEvent<E>> undelivered = new ArrayDeque<VersionedListDataEvent<E>>();
+
+	/**
+	 * Whether some thread is delivering the queued events. This is guarded by
+	 * the write lock.
+	 */
+	private boolean delivering = false;
+
+	private volatile EventDispatcher eventDispatcher;
+
+	/**
+	 * An event that is waiting in an {@link EventDispatcher}.
+	 */
+	private static final class VersionedDelivery extends EventDispatcher.Delivery {
+
+		private final ConcurrentObservableList<?> source;
+
+		private final VersionedListDataEvent<?> event;
+
+		VersionedDelivery(final ConcurrentObservableList<?> source, final VersionedListDataEvent<?> event) {
+			this.source = source;
+			this.event = event;
+		}
+
+		@Override
+		public void run() {
+			this.source.notifyListeners(this.event);
+		}
+	}
+
+	/**
+	 * Constructs an empty list.
+	 */
+	public ConcurrentObservableList() {
+		this.current = new Version<E>(PersistentVector.<E> empty(), 0);
+	}
+
+	/**
+	 * Constructs a list containing the specified elements.
+	 *
+	 * @param collection
+	 *            the collection that will populate this list
+	 */
+	public ConcurrentObservableList(final Collection<? extends E> collection) {
+		if (collection == null) {
+			throw new NullPointerException("collection cannot be null");
+		}
+		this.current = new Version<E>(PersistentVector.<E> of(collection), 0);
+	}
+
+	/**
+	 * Returns the current contents of this list. The returned list never
+	 * changes.
+	 *
+	 * @return the current version of this list
+	 */
+	public PersistentVector<E> getSnapshot() {
+		return this.current.contents;
+	}
+
+	/**
+	 * Returns the number of the current version of this list. It starts at
+	 * zero, and increases by one with each change.
+	 *
+	 * @return the current version number
+	 */
+	public long getVersion() {
+		return this.current.number;
+	}
+
+	/**
+	 * Returns the current version, so that its number and contents can be
+	 * read together.
+	 */
+	Version<E> getCurrentVersion() {
+		return this.current;
+	}
+
+	@Override
+	public int size() {
+		return this.current.contents.size();
+	}
+
+	@Override
+	public E get(final int index) {
+		return this.current.contents.get(index);
+	}
+
+	@Override
+	public int getSize() {
+		return this.size();
+	}
+
+	@Override
+	public E getElementAt(final int index) {
+		return this.get(index);
+	}
+
+	/**
+	 * Returns an iterator over the current version of this list. The iterator
+	 * does not see later changes. {@link Iterator#remove()} removes the
+	 * element from this list, but only while no other change has been made
+	 * since the iterator was created; otherwise it throws a
+	 * {@link ConcurrentModificationException}.
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return new SnapshotIterator(this.current);
+	}
+
+	/**
+	 * Iterates over one version of this list.
+	 */
+	private final class SnapshotIterator implements Iterator<E> {
+
+		private final PersistentVector<E> contents;
+
+		/**
+		 * The version this list must be at for removal to be allowed.
+		 */
+		private long expectedVersion;
+
+		private int cursor = 0;
+
+		private int removed = 0;
+
+		private boolean canRemove = false;
+
+		SnapshotIterator(final Version<E> version) {
+			this.contents = version.contents;
+			this.expectedVersion = version.number;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.cursor < this.contents.size();
+		}
+
+		@Override
+		public E next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			this.canRemove = true;
+			return this.contents.get(this.cursor++);
+		}
+
+		@Override
+		public void remove() {
+			if (!this.canRemove) {
+				throw new IllegalStateException();
+			}
+			try {
+				synchronized (ConcurrentObservableList.this.writeLock) {
+					if (ConcurrentObservableList.this.current.number != this.expectedVersion) {
+						throw new ConcurrentModificationException();
+					}
+					ConcurrentObservableList.this.remove(this.cursor - 1 - this.removed);
+					this.expectedVersion = ConcurrentObservableList.this.current.number;
+				}
+			} finally {
+				ConcurrentObservableList.this.deliver();
+			}
+			++this.removed;
+			this.canRemove = false;
+		}
+	}
+
+	@Override
+	public E set(final int index, final E element) {
+		try {
+			synchronized (this.writeLock) {
+				final PersistentVector<E> contents = this.current.contents;
+				final E oldElement = contents.get(index);
+				if (element == null ? oldElement != null : !element.equals(oldElement)) {
+					this.publish(contents.with(index, element));
+					this.queue(ListDataEvent.CONTENTS_CHANGED, index, index);
+				}
+				return oldElement;
+			}
+		} finally {
+			this.deliver();
+		}
+	}
+
+	@Override
+	public boolean add(final E element) {
+		try {
+			synchronized (this.writeLock) {
+				this.publish(this.current.contents.plus(element));
+				final int index = this.size() - 1;
+				this.queue(ListDataEvent.INTERVAL_ADDED, index, index);
+				return true;
+			}
+		} finally {
+			this.deliver();
+		}
+	}
+
+	@Override
+	public void add(final int index, final E element) {
+		try {
+			synchronized (this.writeLock) {
+				this.publish(this.current.contents.plus(index, element));
+				this.queue(ListDataEvent.INTERVAL_ADDED, index, index);
+			}
+		} finally {
+			this.deliver();
+		}
+	}
+
+	@Override
+	public boolean addAll(final Collection<? extends E> c) {
+		try {
+			synchronized (this.writeLock) {
+				final int oldSize = this.size();
+				final PersistentVector<E> contents = this.current.contents.plusAll(c);
+				if (contents.size() == oldSize) {
+					return false;
+				}
+				this.publish(contents);
+				this.queue(ListDataEvent.INTERVAL_ADDED, oldSize, contents.size() - 1);
+				return true;
+			}
+		} finally {
+			this.deliver();
+		}
+	}
+
+	@Override
+	public boolean addAll(final int index, final Collection<? extends E> c) {
+		try {
+			synchronized (this.writeLock) {
+				final PersistentVector<E> oldContents = this.current.contents;
+				if (index < 0 || index > oldContents.size()) {
+					throw new IndexOutOfBoundsException("Index: " + index + ", size: " + oldContents.size());
+				}
+				final PersistentVector<E> contents = oldContents.truncate(index).plusAll(c);
+				final int added = contents.size() - index;
+				if (added == 0) {
+					return false;
+				}
+				this.publish(contents.plusAll(oldContents.subList(index, oldContents.size())));
+				this.queue(ListDataEvent.INTERVAL_ADDED, index, index + added - 1);
+				return true;
+			}
+		} finally {
+			this.deliver();
+		}
+	}
+
+	@Override
+	public E remove(final int index) {
+		try {
+			synchronized (this.writeLock) {
+				final PersistentVector<E> contents = this.current.contents;
+				final E oldElement = contents.get(index);
+				this.publish(contents.minus(index, index + 1));
+				this.queue(ListDataEvent.INTERVAL_REMOVED, index, index);
+				return oldElement;
+			}
+		} finally {
+			this.deliver();
+		}
+	}
+
+	@Override
+	public boolean remove(final Object o) {
+		try {
+			synchronized (this.writeLock) {
+				final int index = this.indexOf(o);
+				if (index < 0) {
+					return false;
+				}
+				this.remove(index);
+				return true;
+			}
+		} finally {
+			this.deliver();
+		}
+	}
+
+	@Override
+	public void clear() {
+		try {
+			synchronized (this.writeLock) {
+				final int oldSize = this.size();
+				if (oldSize == 0) {
+					return;
+				}
+				this.publish(PersistentVector.<E> empty());
+				this.queue(ListDataEvent.INTERVAL_REMOVED, 0, oldSize - 1);
+			}
+		} finally {
+			this.deliver();
+		}
+	}
+
+	@Override
+	protected void removeRange(final int fromIndex, final int toIndex) {
+		try {
+			synchronized (this.writeLock) {
+				if (fromIndex == toIndex) {
+					return;
+				}
+				this.publish(this.current.contents.minus(fromIndex, toIndex));
+				this.queue(ListDataEvent.INTERVAL_REMOVED, fromIndex, toIndex - 1);
+			}
+		} finally {
+			this.deliver();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Each run of adjacent removed elements fires its own
+	 * {@link ListDataListener#intervalRemoved(ListDataEvent) intervalRemoved}
+	 * event, from the end of the list to the start. The elements are removed
+	 * as one change, so every event carries the same version and the same
+	 * snapshot, which is the list after all of the runs were removed. A
+	 * listener that replays the events against an earlier copy of the list
+	 * should apply them in the order they arrive, which keeps each event's
+	 * indices valid; it should not read the snapshot until the last of them.
+	 */
+	@Override
+	public boolean removeAll(final Collection<?> c) {
+		return this.removeMatching(c, true);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Removed elements fire events as they do for
+	 * {@link #removeAll(Collection)}.
+	 */
+	@Override
+	public boolean retainAll(final Collection<?> c) {
+		return this.removeMatching(c, false);
+	}
+
+	private boolean removeMatching(final Collection<?> c, final boolean removeContained) {
+		if (c == null) {
+			throw new NullPointerException("collection cannot be null");
+		}
+		final Collection<?> lookup = c.size() > HASHED_LOOKUP_THRESHOLD && !(c instanceof Set) ? new HashSet<Object>(c) : c;
+		try {
+			synchronized (this.writeLock) {
+				final PersistentVector<E> oldContents = this.current.contents;
+				PersistentVector<E> contents = PersistentVector.empty();
+				// Each removed run is stored as its first and last index, in order.
+				final List<int[]> runs = new ArrayList<int[]>();
+				for (int i = 0; i < oldContents.size(); ++i) {
+					final E element = oldContents.get(i);
+					if (lookup.contains(element) != removeContained) {
+						contents = contents.plus(element);
+					} else if (!runs.isEmpty() && runs.get(runs.size() - 1)[1] == i - 1) {
+						runs.get(runs.size() - 1)[1] = i;
+					} else {
+						runs.add(new int[] { i, i });
+					}
+				}
+				if (runs.isEmpty()) {
+					return false;
+				}
+				this.publish(contents);
+				for (int run = runs.size() - 1; run >= 0; --run) {
+					this.queue(ListDataEvent.INTERVAL_REMOVED, runs.get(run)[0], runs.get(run)[1]);
+				}
+				return true;
+			}
+		} finally {
+			this.deliver();
+		}
+	}
+
+	/**
+	 * Sets the dispatcher that notifies this list's listeners. Listeners then
+	 * run on the dispatcher's thread, after this list has changed and
+	 * possibly after later changes, so they should read the event's
+	 * {@link VersionedListDataEvent#getSnapshot() snapshot} rather than this
+	 * list. Events that are being delivered when the dispatcher is changed may
+	 * reach listeners by either route.
+	 *
+	 * @param eventDispatcher
+	 *            the dispatcher that notifies listeners, or {@code null} to
+	 *            notify them on the thread that changes this list
+	 */
+	public void setEventDispatcher(final EventDispatcher eventDispatcher) {
+		this.eventDispatcher = eventDispatcher;
+	}
+
+	/**
+	 * @return the dispatcher that notifies this list's listeners, or
+	 *         {@code null} if they are notified on the thread that changes
+	 *         this list
+	 */
+	public EventDispatcher getEventDispatcher() {
+		return this.eventDispatcher;
+	}
+
+	@Override
+	public void addListDataListener(final ListDataListener listener) {
+		if (listener == null) {
+			throw new NullPointerException("listener is null");
+		}
+		this.listeners.add(listener);
+	}
+
+	@Override
+	public void removeListDataListener(final ListDataListener listener) {
+		this.listeners.remove(listener);
+	}
+
+	/**
+	 * Returns an unmodifiable view of the listeners on this list.
+	 *
+	 * @return an unmodifiable view of the listeners on this list
+	 */
+	public List<? extends ListDataListener> getListDataListeners() {
+		return Collections.unmodifiableList(this.listeners);
+	}
+
+	/**
+	 * Publishes the specified contents as the next version of this list. This
+	 * must be called with the write lock held.
+	 */
+	private void publish(final PersistentVector<E> contents) {
+		this.current = new Version<E>(contents, this.current.number + 1);
+	}
+
+	/**
+	 * Queues an event for a change to the current version. This must be
+	 * called with the write lock held, so that events are queued in order.
+	 */
+	private void queue(final int type, final int index0, final int index1) {
+		final Version<E> version = this.current;
+		this.undelivered.add(new VersionedListDataEvent<E>(this, type, index0, index1, version.number, version.contents));
+	}
+
+	/**
+	 * Notifies listeners of every queued event, in order, unless another call
+	 * is already doing so. This must be called after releasing the write lock,
+	 * so that listeners never run while holding it.
+	 */
+	private void deliver() {
+		if (Thread.holdsLock(this.writeLock)) {
+			// A nested change; the outermost one delivers its events.
+			return;
+		}
+		synchronized (this.writeLock) {
+			if (this.delivering) {
+				return;
+			}
+			this.delivering = true;
+		}
+		boolean delivered = false;
+		try {
+			while (true) {
+				final VersionedListDataEvent<E> event;
+				synchronized (this.writeLock) {
+					event = this.undelivered.poll();
+					if (event == null) {
+						this.delivering = false;
+						delivered = true;
+						return;
+					}
+				}
+				final EventDispatcher dispatcher = this.eventDispatcher;
+				if (dispatcher == null) {
+					this.notifyListeners(event);
+				} else {
+					dispatcher.dispatch(new VersionedDelivery(this, event));
+				}
+			}
+		} finally {
+			if (!delivered) {
+				// A listener threw. The remaining events are delivered after the
+				// next change.
+				synchronized (this.writeLock) {
+					this.delivering = false;
+				}
+			}
+		}
+	}
+
+	private void notifyListeners(final VersionedListDataEvent<?> event) {
+		for (final ListDataListener listener : this.listeners) {
+			switch (event.getType()) {
+			case ListDataEvent.INTERVAL_ADDED:
+				listener.intervalAdded(event);
+				break;
+			case ListDataEvent.INTERVAL_REMOVED:
+				listener.intervalRemoved(event);
+				break;
+			default:
+				listener.contentsChanged(event);
+			}
+		}
+	}
+}
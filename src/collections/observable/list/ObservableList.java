@@ -1,19 +1,44 @@
 package collections.observable.list;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.swing.ListModel;
 import javax.swing.event.ListDataEvent;
 import javax.swing.event.ListDataListener;
 
+import collections.observable.EventDispatcher;
+import collections.observable.ListDiff;
 import collections.proxies.ListProxy;
 
 /**
  * Adapts a {@link List} for use with a {@link ListModel}.
+ * <p>
+ * Every change fires its own event to every listener. Bulk changes should be
+ * made in a batch, using {@link #batch(Runnable)} or {@link #beginBatch()}
+ * and {@link #commitBatch()}, so that listeners see as few events as
+ * possible.
+ * <p>
+ * Listeners are normally notified on the thread that changed this list. Given
+ * an {@link #setEventDispatcher(EventDispatcher) event dispatcher}, they are
+ * instead notified by the dispatcher, and adjacent events that are still
+ * queued are merged as they would be in a batch.
+ * <p>
+ * This list is not thread-safe, and a dispatcher does not make it so: its
+ * listeners read the backing list directly, on the dispatcher's thread, while
+ * the changing thread may be changing it. A dispatcher should only be used if
+ * this list is changed on the dispatcher's thread, such as one that defers
+ * slow listeners on the event dispatch thread. A list that is changed on
+ * another thread should be a {@link ConcurrentObservableList} instead, whose
+ * events carry a snapshot of the list.
  * 
  * @author Aaron Faanes
  * 
@@ -24,8 +49,169 @@ public final class ObservableList<E> extends ListProxy<E> implements ListModel<E
 
 	private final List<ListDataListener> listeners = new CopyOnWriteArrayList<ListDataListener>();
 
+	/**
+	 * Listeners that keep sublists in step with this list. They are always
+	 * notified immediately, before any other listener.
+	 */
+	private final List<ListDataListener> synchronousListeners = new CopyOnWriteArrayList<ListDataListener>();
+
+	private EventDispatcher eventDispatcher;
+
+	/**
+	 * Collections larger than this are copied into a hash set before bulk
+	 * removals, so that each element is checked in constant time.
+	 */
+	private static final int HASHED_LOOKUP_THRESHOLD = 16;
+
+	/**
+	 * The cost of firing an event, measured in the elements a listener could
+	 * have reread in the same time. A batch of sets fires one event per
+	 * changed interval, unless a single event over all of them would cost
+	 * less.
+	 */
+	private static final int EVENT_COST = 16;
+
+	private static final Comparator<PendingEvent> BY_FIRST_INDEX = new Comparator<PendingEvent>() {
+		@Override
+		public int compare(final PendingEvent a, final PendingEvent b) {
+			return Integer.compare(a.index0, b.index0);
+		}
+	};
+
 	private final List<E> targetList;
 
+	/**
+	 * A change that has been made during a batch, but not yet fired. Indices
+	 * are those of the list at the time of the change.
+	 */
+	private static final class PendingEvent {
+
+		final int type;
+
+		int index0;
+
+		int index1;
+
+		PendingEvent(final int type, final int index0, final int index1) {
+			this.type = type;
+			this.index0 = index0;
+			this.index1 = index1;
+		}
+
+		/**
+		 * Merges the specified change, which was made after this one, into
+		 * this change, if the two cover a single interval.
+		 * 
+		 * @return {@code true} if the change was merged
+		 */
+		boolean merge(final int nextType, final int nextIndex0, final int nextIndex1) {
+			final int nextLength = nextIndex1 - nextIndex0 + 1;
+			if (this.type == ListDataEvent.INTERVAL_ADDED) {
+				if (nextIndex0 < this.index0 || nextIndex0 > this.index1 + 1) {
+					return false;
+				}
+				if (nextType == ListDataEvent.INTERVAL_ADDED) {
+					// Added within or right after this interval.
+					this.index1 += nextLength;
+					return true;
+				}
+				// Elements that were just added are reported as added, however
+				// they've changed since.
+				return nextType == ListDataEvent.CONTENTS_CHANGED && nextIndex1 <= this.index1;
+			}
+			if (nextType != this.type) {
+				return false;
+			}
+			if (this.type == ListDataEvent.INTERVAL_REMOVED) {
+				if (nextIndex0 == this.index0) {
+					// Removed the elements that followed this interval.
+					this.index1 += nextLength;
+					return true;
+				}
+				if (nextIndex1 + 1 == this.index0) {
+					// Removed the elements that preceded this interval.
+					this.index0 = nextIndex0;
+					return true;
+				}
+				return false;
+			}
+			if (nextIndex0 > this.index1 + 1 || nextIndex1 + 1 < this.index0) {
+				return false;
+			}
+			this.index0 = Math.min(this.index0, nextIndex0);
+			this.index1 = Math.max(this.index1, nextIndex1);
+			return true;
+		}
+	}
+
+	/**
+	 * The number of batches that have begun but not been committed.
+	 */
+	private int batchDepth;
+
+	/**
+	 * The size of this list when the outermost batch began.
+	 */
+	private int batchStartSize;
+
+	/**
+	 * The lowest index that has changed during the current batch. Elements
+	 * before it are the same as when the batch began.
+	 */
+	private int batchLowestIndex;
+
+	/**
+	 * The number of elements at the end of this list that haven't changed
+	 * during the current batch, though they may have moved.
+	 */
+	private int batchUnchangedTail;
+
+	/**
+	 * Whether every change in the current batch has been a
+	 * {@link ListDataEvent#CONTENTS_CHANGED change} to existing elements.
+	 */
+	private boolean batchChangesOnly;
+
+	/**
+	 * An event that is waiting in an {@link EventDispatcher}.
+	 */
+	private static final class ListDelivery extends EventDispatcher.Delivery {
+
+		private final ObservableList<?> source;
+
+		private final PendingEvent event;
+
+		ListDelivery(final ObservableList<?> source, final PendingEvent event) {
+			this.source = source;
+			this.event = event;
+		}
+
+		@Override
+		public void run() {
+			this.source.notifyListeners(this.source.listeners, this.event.type, this.event.index0, this.event.index1);
+		}
+
+		@Override
+		protected EventDispatcher.Delivery coalesce(final EventDispatcher.Delivery next) {
+			if (!(next instanceof ListDelivery)) {
+				return null;
+			}
+			final ListDelivery other = (ListDelivery) next;
+			if (other.source != this.source) {
+				return null;
+			}
+			// Merge into a copy, since this delivery stays queued if the
+			// dispatcher doesn't use the result.
+			final PendingEvent merged = new PendingEvent(this.event.type, this.event.index0, this.event.index1);
+			if (!merged.merge(other.event.type, other.event.index0, other.event.index1)) {
+				return null;
+			}
+			return new ListDelivery(this.source, merged);
+		}
+	}
+
+	private final List<PendingEvent> pendingEvents = new ArrayList<PendingEvent>();
+
 	/**
 	 * Constructs a proxied list model that proxies an empty list.
 	 */
@@ -80,6 +266,160 @@ public final class ObservableList<E> extends ListProxy<E> implements ListModel<E
 		return collectionChanged;
 	}
 
+	/**
+	 * Begins a batch of changes. Until the batch is committed, changes to this
+	 * list fire no events. Batches may be nested; events are fired when the
+	 * outermost batch is committed.
+	 * 
+	 * @see #commitBatch()
+	 * @see #batch(Runnable)
+	 */
+	public void beginBatch() {
+		if (this.batchDepth++ == 0) {
+			this.batchStartSize = this.size();
+			this.batchLowestIndex = Integer.MAX_VALUE;
+			this.batchUnchangedTail = Integer.MAX_VALUE;
+			this.batchChangesOnly = true;
+		}
+	}
+
+	/**
+	 * Commits the current batch of changes. If this commits the outermost
+	 * batch, listeners are notified of every change made during it.
+	 * <p>
+	 * Changes that cover a single interval are fired as one event for that
+	 * interval. A batch that only changed existing elements fires one
+	 * {@link ListDataListener#contentsChanged(ListDataEvent) contentsChanged}
+	 * event for each disjoint interval, in order, unless one event from the
+	 * first interval to the last would be cheaper.
+	 * <p>
+	 * Otherwise, the changes are fired as one {@code contentsChanged} event,
+	 * from the first changed element to the last element that both the old and
+	 * new lists have before the unchanged elements at their ends. This is
+	 * followed by one event for any elements that were added or removed just
+	 * before those unchanged elements. Every event describes this list as it
+	 * is after the batch, so listeners may read the list as usual.
+	 * 
+	 * @throws IllegalStateException
+	 *             if no batch has begun
+	 */
+	public void commitBatch() {
+		if (this.batchDepth == 0) {
+			throw new IllegalStateException("No batch has begun");
+		}
+		if (--this.batchDepth > 0 || this.pendingEvents.isEmpty()) {
+			return;
+		}
+		if (this.pendingEvents.size() == 1) {
+			final PendingEvent event = this.pendingEvents.remove(0);
+			this.dispatch(event.type, event.index0, event.index1);
+			return;
+		}
+		if (this.batchChangesOnly) {
+			this.dispatchChanges();
+			return;
+		}
+		this.pendingEvents.clear();
+		final int oldSize = this.batchStartSize;
+		final int newSize = this.size();
+		// Elements before the lowest changed index, and the unchanged tail,
+		// are the same in the old and new lists.
+		final int unchangedTail = Math.max(0, Math.min(this.batchUnchangedTail, Math.min(oldSize, newSize) - this.batchLowestIndex));
+		final int oldEnd = oldSize - unchangedTail;
+		final int newEnd = newSize - unchangedTail;
+		final int sharedEnd = Math.min(oldEnd, newEnd);
+		if (this.batchLowestIndex < sharedEnd) {
+			this.dispatch(ListDataEvent.CONTENTS_CHANGED, this.batchLowestIndex, sharedEnd - 1);
+		}
+		if (newEnd > oldEnd) {
+			this.dispatch(ListDataEvent.INTERVAL_ADDED, oldEnd, newEnd - 1);
+		} else if (newEnd < oldEnd) {
+			this.dispatch(ListDataEvent.INTERVAL_REMOVED, newEnd, oldEnd - 1);
+		}
+	}
+
+	/**
+	 * Fires the pending events of a batch that only changed existing
+	 * elements. Such changes never move elements, so they may be sorted and
+	 * merged.
+	 */
+	private void dispatchChanges() {
+		Collections.sort(this.pendingEvents, BY_FIRST_INDEX);
+		final List<PendingEvent> intervals = new ArrayList<PendingEvent>();
+		for (final PendingEvent event : this.pendingEvents) {
+			if (intervals.isEmpty() || !intervals.get(intervals.size() - 1).merge(event.type, event.index0, event.index1)) {
+				intervals.add(event);
+			}
+		}
+		this.pendingEvents.clear();
+		int changed = 0;
+		for (final PendingEvent interval : intervals) {
+			changed += interval.index1 - interval.index0 + 1;
+		}
+		final int first = intervals.get(0).index0;
+		final int last = intervals.get(intervals.size() - 1).index1;
+		if (changed + intervals.size() * EVENT_COST > last - first + 1 + EVENT_COST) {
+			this.dispatch(ListDataEvent.CONTENTS_CHANGED, first, last);
+			return;
+		}
+		for (final PendingEvent interval : intervals) {
+			this.dispatch(ListDataEvent.CONTENTS_CHANGED, interval.index0, interval.index1);
+		}
+	}
+
+	/**
+	 * Runs the specified task as a batch of changes. Listeners are notified of
+	 * the changes once the task is complete, even if it throws.
+	 * 
+	 * @param task
+	 *            the task that changes this list
+	 * @see #beginBatch()
+	 */
+	public void batch(final Runnable task) {
+		this.beginBatch();
+		try {
+			task.run();
+		} finally {
+			this.commitBatch();
+		}
+	}
+
+	/**
+	 * @return {@code true} if a batch has begun and not been committed
+	 */
+	public boolean isBatching() {
+		return this.batchDepth > 0;
+	}
+
+	/**
+	 * Sets the dispatcher that notifies this list's listeners. Listeners then
+	 * run on the dispatcher's thread, after this list has changed and
+	 * possibly after later changes, so they should not assume that this list
+	 * still matches the event's indices. Sublists are still kept in step
+	 * immediately.
+	 * <p>
+	 * Listeners read this list without any locking, so this list must only be
+	 * changed on the dispatcher's thread. Use a
+	 * {@link ConcurrentObservableList} to notify listeners of changes made on
+	 * other threads.
+	 * 
+	 * @param eventDispatcher
+	 *            the dispatcher that notifies listeners, or {@code null} to
+	 *            notify them on the thread that changes this list
+	 */
+	public void setEventDispatcher(final EventDispatcher eventDispatcher) {
+		this.eventDispatcher = eventDispatcher;
+	}
+
+	/**
+	 * @return the dispatcher that notifies this list's listeners, or
+	 *         {@code null} if they are notified on the thread that changes
+	 *         this list
+	 */
+	public EventDispatcher getEventDispatcher() {
+		return this.eventDispatcher;
+	}
+
 	@Override
 	public void addListDataListener(final ListDataListener listener) {
 		if (listener == null) {
@@ -126,28 +466,17 @@ public final class ObservableList<E> extends ListProxy<E> implements ListModel<E
 		return true;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Each run of adjacent removed elements fires its own
+	 * {@link ListDataListener#intervalRemoved(ListDataEvent) intervalRemoved}
+	 * event. Runs are fired from the end of the list to the start, so each
+	 * event's indices are valid once the events after it have been applied.
+	 */
 	@Override
 	public boolean removeAll(final Collection<?> c) {
-		int minimumBounds = -1;
-		int maximumBounds = -1;
-		for (final Object o : c) {
-			int index = this.indexOf(o);
-			if (index >= 0) {
-				minimumBounds = minimumBounds == -1 ? index : Math.min(minimumBounds, index);
-			}
-			index = this.lastIndexOf(o);
-			if (index >= 0) {
-				maximumBounds = maximumBounds == -1 ? index : Math.max(maximumBounds, index);
-			}
-		}
-		if (minimumBounds != -1) {
-			assert maximumBounds != -1;
-			// The list will be affected.
-			super.removeAll(c);
-			this.fireContentsChanged(minimumBounds, maximumBounds);
-			return true;
-		}
-		return false;
+		return this.removeMatching(c, true);
 	}
 
 	/**
@@ -166,32 +495,70 @@ public final class ObservableList<E> extends ListProxy<E> implements ListModel<E
 		this.listeners.remove(listener);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Removed elements fire events as they do for
+	 * {@link #removeAll(Collection)}.
+	 */
 	@Override
 	public boolean retainAll(final Collection<?> c) {
-		int index = 0;
-		int minimumBounds = -1;
-		int maximumBounds = -1;
-		for (final E element : this) {
-			if (c.contains(element) == false) {
-				// It is not contained in the given collection, therefore
-				// it will be removed.
-				if (minimumBounds == -1) {
-					minimumBounds = index;
-				}
-				if (maximumBounds == -1 || maximumBounds < index) {
-					maximumBounds = index;
+		return this.removeMatching(c, false);
+	}
+
+	/**
+	 * Removes every element whose presence in the specified collection
+	 * matches the specified flag, in a single pass over this list.
+	 * 
+	 * @param c
+	 *            the collection to check elements against
+	 * @param removeContained
+	 *            {@code true} to remove the elements that are in the
+	 *            collection, {@code false} to remove those that are not
+	 * @return {@code true} if this list changed
+	 */
+	private boolean removeMatching(final Collection<?> c, final boolean removeContained) {
+		if (c == null) {
+			throw new NullPointerException("collection cannot be null");
+		}
+		final Collection<?> lookup = c.size() > HASHED_LOOKUP_THRESHOLD && !(c instanceof Set) ? new HashSet<Object>(c) : c;
+
+		// Each removed run is stored as its first and last index, in order.
+		int[] runs = new int[8];
+		int runCount = 0;
+
+		final List<E> list = this.getSourceList();
+		final int size = list.size();
+		int kept = 0;
+		for (int i = 0; i < size; ++i) {
+			final E element = list.get(i);
+			if (lookup.contains(element) == removeContained) {
+				if (runCount > 0 && runs[2 * runCount - 1] == i - 1) {
+					runs[2 * runCount - 1] = i;
+				} else {
+					if (2 * runCount == runs.length) {
+						runs = Arrays.copyOf(runs, runs.length * 2);
+					}
+					runs[2 * runCount] = i;
+					runs[2 * runCount + 1] = i;
+					++runCount;
 				}
+				continue;
+			}
+			if (kept != i) {
+				list.set(kept, element);
 			}
-			index++;
+			++kept;
 		}
-		if (minimumBounds != -1) {
-			assert maximumBounds != -1 : "maximumBounds is -1";
-			// The list will be affected.
-			super.retainAll(c);
-			this.fireContentsChanged(minimumBounds, maximumBounds);
-			return true;
+		if (kept == size) {
+			return false;
+		}
+		list.subList(kept, size).clear();
+
+		for (int run = runCount - 1; run >= 0; --run) {
+			this.fireIntervalRemoved(runs[2 * run], runs[2 * run + 1]);
 		}
-		return false;
+		return true;
 	}
 
 	@Override
@@ -203,13 +570,70 @@ public final class ObservableList<E> extends ListProxy<E> implements ListModel<E
 		return oldElement;
 	}
 
+	/**
+	 * Replaces the contents of this list with the specified elements, changing
+	 * only the elements that differ.
+	 * <p>
+	 * The differences are found with {@link ListDiff}, and each differing run
+	 * is applied separately, from the end of the list to the start. Elements
+	 * that are replaced one for one fire
+	 * {@link ListDataListener#contentsChanged(ListDataEvent) contentsChanged};
+	 * any extra elements in a run fire an added or removed event. Unchanged
+	 * elements fire nothing, so selections and scroll positions on them
+	 * survive the refresh.
+	 * 
+	 * @param newContents
+	 *            the new contents of this list
+	 * @return {@code true} if this list changed
+	 */
+	public boolean setAll(final List<? extends E> newContents) {
+		if (newContents == null) {
+			throw new NullPointerException("newContents cannot be null");
+		}
+		final List<? extends E> contents = newContents instanceof RandomAccess ? newContents : new ArrayList<E>(newContents);
+		final List<E> list = this.getSourceList();
+		final List<ListDiff.Hunk> hunks = ListDiff.diff(list, contents);
+		for (int i = hunks.size() - 1; i >= 0; --i) {
+			final ListDiff.Hunk hunk = hunks.get(i);
+			final int start = hunk.getOldStart();
+			final int replaced = Math.min(hunk.getOldLength(), hunk.getNewLength());
+			for (int offset = 0; offset < replaced; ++offset) {
+				list.set(start + offset, contents.get(hunk.getNewStart() + offset));
+			}
+			if (replaced > 0) {
+				this.fireContentsChanged(start, start + replaced - 1);
+			}
+			if (hunk.getOldLength() > replaced) {
+				list.subList(start + replaced, start + hunk.getOldLength()).clear();
+				this.fireIntervalRemoved(start + replaced, start + hunk.getOldLength() - 1);
+			} else if (hunk.getNewLength() > replaced) {
+				list.addAll(start + replaced, contents.subList(hunk.getNewStart() + replaced, hunk.getNewStart() + hunk.getNewLength()));
+				this.fireIntervalAdded(start + replaced, start + hunk.getNewLength() - 1);
+			}
+		}
+		return !hunks.isEmpty();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The returned list is itself an {@code ObservableList}, and changes to it
+	 * are made to this list as they are fired. A batch of changes to the
+	 * sublist therefore reaches this list, and its listeners, when that batch
+	 * is committed. Changes to this list during a batch of its own reach the
+	 * sublist when this list's batch is committed.
+	 * <p>
+	 * The two lists are kept in step immediately, even if either has an
+	 * {@link #setEventDispatcher(EventDispatcher) event dispatcher}; only
+	 * their other listeners are notified by the dispatcher.
+	 */
 	@Override
 	public List<E> subList(final int offset, final int toIndex) {
 		final ObservableList<E> sublist = new ObservableList<E>(super.subList(offset, toIndex));
 
 		final List<E> sourceList = this.getSourceList();
 
-		sublist.addListDataListener(new ListDataListener() {
+		sublist.synchronousListeners.add(new ListDataListener() {
 
 			@Override
 			public void contentsChanged(final ListDataEvent e) {
@@ -239,15 +663,20 @@ public final class ObservableList<E> extends ListProxy<E> implements ListModel<E
 
 		});
 
-		this.addListDataListener(new ListDataAdapter() {
+		this.synchronousListeners.add(new ListDataAdapter() {
 
 			@Override
 			public void contentsChanged(final ListDataEvent e) {
-				for (int index = e.getIndex0(); index <= e.getIndex1(); index++) {
-					if (!this.withinRange(index)) {
-						continue;
+				sublist.beginBatch();
+				try {
+					for (int index = e.getIndex0(); index <= e.getIndex1(); index++) {
+						if (!this.withinRange(index)) {
+							continue;
+						}
+						sublist.set(index - offset, ObservableList.this.get(index));
 					}
-					sublist.set(index - offset, ObservableList.this.get(index));
+				} finally {
+					sublist.commitBatch();
 				}
 			}
 
@@ -273,10 +702,7 @@ public final class ObservableList<E> extends ListProxy<E> implements ListModel<E
 	 *            the index of the last changed element
 	 */
 	protected void fireContentsChanged(final int startIndex, final int endIndex) {
-		final ListDataEvent event = new ListDataEvent(this, ListDataEvent.CONTENTS_CHANGED, startIndex, endIndex);
-		for (final ListDataListener listener : this.listeners) {
-			listener.contentsChanged(event);
-		}
+		this.fireEvent(ListDataEvent.CONTENTS_CHANGED, startIndex, endIndex);
 	}
 
 	/**
@@ -289,10 +715,7 @@ public final class ObservableList<E> extends ListProxy<E> implements ListModel<E
 	 *            the index of the last added element
 	 */
 	protected void fireIntervalAdded(final int startIndex, final int endIndex) {
-		final ListDataEvent event = new ListDataEvent(this, ListDataEvent.INTERVAL_ADDED, startIndex, endIndex);
-		for (final ListDataListener listener : this.listeners) {
-			listener.intervalAdded(event);
-		}
+		this.fireEvent(ListDataEvent.INTERVAL_ADDED, startIndex, endIndex);
 	}
 
 	/**
@@ -306,9 +729,56 @@ public final class ObservableList<E> extends ListProxy<E> implements ListModel<E
 	 * @see ListDataListener#intervalRemoved(ListDataEvent)
 	 */
 	protected void fireIntervalRemoved(final int startIndex, final int endIndex) {
-		final ListDataEvent event = new ListDataEvent(this, ListDataEvent.INTERVAL_REMOVED, startIndex, endIndex);
-		for (final ListDataListener listener : this.listeners) {
-			listener.intervalRemoved(event);
+		this.fireEvent(ListDataEvent.INTERVAL_REMOVED, startIndex, endIndex);
+	}
+
+	private void fireEvent(final int type, final int startIndex, final int endIndex) {
+		if (this.batchDepth == 0) {
+			this.dispatch(type, startIndex, endIndex);
+			return;
+		}
+		this.batchLowestIndex = Math.min(this.batchLowestIndex, startIndex);
+		if (type == ListDataEvent.INTERVAL_REMOVED) {
+			// The elements that followed the removed ones are now at its start.
+			this.batchUnchangedTail = Math.min(this.batchUnchangedTail, this.size() - startIndex);
+		} else {
+			this.batchUnchangedTail = Math.min(this.batchUnchangedTail, this.size() - 1 - endIndex);
+		}
+		this.batchChangesOnly &= type == ListDataEvent.CONTENTS_CHANGED;
+		if (!this.pendingEvents.isEmpty()) {
+			final PendingEvent last = this.pendingEvents.get(this.pendingEvents.size() - 1);
+			if (last.merge(type, startIndex, endIndex)) {
+				return;
+			}
+		}
+		this.pendingEvents.add(new PendingEvent(type, startIndex, endIndex));
+	}
+
+	private void dispatch(final int type, final int startIndex, final int endIndex) {
+		this.notifyListeners(this.synchronousListeners, type, startIndex, endIndex);
+		if (this.eventDispatcher == null) {
+			this.notifyListeners(this.listeners, type, startIndex, endIndex);
+			return;
+		}
+		this.eventDispatcher.dispatch(new ListDelivery(this, new PendingEvent(type, startIndex, endIndex)));
+	}
+
+	private void notifyListeners(final List<ListDataListener> notified, final int type, final int startIndex, final int endIndex) {
+		if (notified.isEmpty()) {
+			return;
+		}
+		final ListDataEvent event = new ListDataEvent(this, type, startIndex, endIndex);
+		for (final ListDataListener listener : notified) {
+			switch (type) {
+			case ListDataEvent.INTERVAL_ADDED:
+				listener.intervalAdded(event);
+				break;
+			case ListDataEvent.INTERVAL_REMOVED:
+				listener.intervalRemoved(event);
+				break;
+			default:
+				listener.contentsChanged(event);
+			}
 		}
 	}
 
@@ -0,0 +1,362 @@
+package collections.observable.list;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list that shares most of its structure with the lists it is
+ * derived from.
+ * <p>
+ * Elements are stored in a tree of 32-element arrays, with the last partial
+ * array kept aside as a tail. Changing an element copies only the arrays on
+ * the path to it, so {@link #with(int, Object)}, {@link #plus(Object)},
+ * {@link #minusLast()} and {@link #truncate(int)} take {@code O(log n)} time,
+ * with a base of 32, and leave this vector untouched.
+ * <p>
+ * The tree is not relaxed, so it cannot be split or joined at an arbitrary
+ * index. {@link #plus(int, Object)} and {@link #minus(int, int)} therefore
+ * truncate the vector and append every element after the change again, which
+ * takes {@code O(n - index)} time and allocates new arrays for all of those
+ * elements. Changes at or near the end are cheap, but inserting or removing
+ * at the front copies the whole vector. Lists that are often changed at the
+ * front should not be kept in a vector.
+ * <p>
+ * Since vectors never change, they may be read from any thread without
+ * synchronization once they are safely published.
+ *
+ * @author Aaron Faanes
+ * @param <E>
+ *            the type of element in this vector
+ * @see ConcurrentObservableList
+ */
+public final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+
+	private static final int BITS = 5;
+
+	private static final int WIDTH = 1 << BITS;
+
+	private static final int MASK = WIDTH - 1;
+
+	private static final Object[] EMPTY_NODE = new Object[WIDTH];
+
+	private static final PersistentVector<Object> EMPTY = new PersistentVector<Object>(0, BITS, EMPTY_NODE, new Object[0]);
+
+	private final int size;
+
+	/**
+	 * The number of bits to shift an index by, to find its slot in the root.
+	 */
+	private final int shift;
+
+	private final Object[] root;
+
+	private final Object[] tail;
+
+	private PersistentVector(final int size, final int shift, final Object[] root, final Object[] tail) {
+		this.size = size;
+		this.shift = shift;
+		this.root = root;
+		this.tail = tail;
+	}
+
+	/**
+	 * Returns the empty vector.
+	 *
+	 * @param <E>
+	 *            the type of element in the vector
+	 * @return an empty vector
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> PersistentVector<E> empty() {
+		return (PersistentVector<E>) EMPTY;
+	}
+
+	/**
+	 * Returns a vector of the specified elements, in iteration order.
+	 *
+	 * @param <E>
+	 *            the type of element in the vector
+	 * @param elements
+	 *            the elements of the vector
+	 * @return a vector of the specified elements
+	 */
+	public static <E> PersistentVector<E> of(final Collection<? extends E> elements) {
+		return PersistentVector.<E> empty().plusAll(elements);
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E get(final int index) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", size: " + this.size);
+		}
+		return (E) this.arrayFor(index)[index & MASK];
+	}
+
+	/**
+	 * Returns a vector with the element at the specified index replaced.
+	 *
+	 * @param index
+	 *            the index of the replaced element
+	 * @param element
+	 *            the new element
+	 * @return a vector with the new element
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is out of range
+	 */
+	public PersistentVector<E> with(final int index, final E element) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", size: " + this.size);
+		}
+		if (index >= this.tailOffset()) {
+			final Object[] newTail = this.tail.clone();
+			newTail[index & MASK] = element;
+			return new PersistentVector<E>(this.size, this.shift, this.root, newTail);
+		}
+		return new PersistentVector<E>(this.size, this.shift, with(this.shift, this.root, index, element), this.tail);
+	}
+
+	/**
+	 * Returns a vector with the specified element added to the end.
+	 *
+	 * @param element
+	 *            the added element
+	 * @return a vector with the new element
+	 */
+	public PersistentVector<E> plus(final E element) {
+		if (this.size - this.tailOffset() < WIDTH) {
+			final Object[] newTail = Arrays.copyOf(this.tail, this.tail.length + 1);
+			newTail[this.tail.length] = element;
+			return new PersistentVector<E>(this.size + 1, this.shift, this.root, newTail);
+		}
+		// The tail is full, so it moves into the tree.
+		Object[] newRoot;
+		int newShift = this.shift;
+		if ((this.size >>> BITS) > (1 << this.shift)) {
+			// The tree is full too, so it gains a level.
+			newRoot = new Object[WIDTH];
+			newRoot[0] = this.root;
+			newRoot[1] = newPath(this.shift, this.tail);
+			newShift += BITS;
+		} else {
+			newRoot = this.pushTail(this.shift, this.root, this.tail);
+		}
+		return new PersistentVector<E>(this.size + 1, newShift, newRoot, new Object[] { element });
+	}
+
+	/**
+	 * Returns a vector with the specified elements added to the end, in
+	 * iteration order.
+	 *
+	 * @param elements
+	 *            the added elements
+	 * @return a vector with the new elements
+	 */
+	public PersistentVector<E> plusAll(final Collection<? extends E> elements) {
+		PersistentVector<E> vector = this;
+		for (final E element : elements) {
+			vector = vector.plus(element);
+		}
+		return vector;
+	}
+
+	/**
+	 * Returns a vector without its last element.
+	 *
+	 * @return a vector without the last element
+	 * @throws IndexOutOfBoundsException
+	 *             if this vector is empty
+	 */
+	public PersistentVector<E> minusLast() {
+		if (this.size == 0) {
+			throw new IndexOutOfBoundsException("Vector is empty");
+		}
+		if (this.size == 1) {
+			return empty();
+		}
+		if (this.size - this.tailOffset() > 1) {
+			return new PersistentVector<E>(this.size - 1, this.shift, this.root, Arrays.copyOf(this.tail, this.tail.length - 1));
+		}
+		// The tail is emptied, so the last leaf of the tree becomes the tail.
+		final Object[] newTail = this.arrayFor(this.size - 2);
+		Object[] newRoot = this.popTail(this.shift, this.root);
+		int newShift = this.shift;
+		if (newRoot == null) {
+			newRoot = EMPTY_NODE;
+		}
+		if (this.shift > BITS && newRoot[1] == null) {
+			newRoot = (Object[]) newRoot[0];
+			newShift -= BITS;
+		}
+		return new PersistentVector<E>(this.size - 1, newShift, newRoot, newTail);
+	}
+
+	/**
+	 * Returns a vector with only the first elements of this vector.
+	 *
+	 * @param length
+	 *            the number of elements to keep
+	 * @return a vector of the first {@code length} elements
+	 * @throws IndexOutOfBoundsException
+	 *             if the length is negative or larger than this vector
+	 */
+	public PersistentVector<E> truncate(final int length) {
+		if (length < 0 || length > this.size) {
+			throw new IndexOutOfBoundsException("Length: " + length + ", size: " + this.size);
+		}
+		if (length == this.size) {
+			return this;
+		}
+		if (length == 0) {
+			return empty();
+		}
+		final int newTailOffset = ((length - 1) >>> BITS) << BITS;
+		final int tailOffset = this.tailOffset();
+		if (newTailOffset == tailOffset) {
+			return new PersistentVector<E>(length, this.shift, this.root, Arrays.copyOf(this.tail, length - tailOffset));
+		}
+		// The leaf holding the new last element becomes the tail, and the tree
+		// keeps only the leaves before it.
+		final Object[] newTail = Arrays.copyOf(this.arrayFor(length - 1), length - newTailOffset);
+		if (newTailOffset == 0) {
+			return new PersistentVector<E>(length, BITS, EMPTY_NODE, newTail);
+		}
+		Object[] newRoot = trim(this.shift, this.root, newTailOffset - 1);
+		int newShift = this.shift;
+		while (newShift > BITS && newRoot[1] == null) {
+			newRoot = (Object[]) newRoot[0];
+			newShift -= BITS;
+		}
+		return new PersistentVector<E>(length, newShift, newRoot, newTail);
+	}
+
+	/**
+	 * Returns a vector with the specified element inserted at the specified
+	 * index. This takes time and allocation proportional to the number of
+	 * elements after the index, which are appended again one at a time.
+	 *
+	 * @param index
+	 *            the index of the inserted element
+	 * @param element
+	 *            the inserted element
+	 * @return a vector with the new element
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is out of range
+	 */
+	public PersistentVector<E> plus(final int index, final E element) {
+		if (index < 0 || index > this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", size: " + this.size);
+		}
+		return this.truncate(index).plus(element).plusAll(this.subList(index, this.size));
+	}
+
+	/**
+	 * Returns a vector without the elements in the specified range. This takes
+	 * time and allocation proportional to the number of elements after the
+	 * range, which are appended again one at a time.
+	 *
+	 * @param fromIndex
+	 *            the index of the first removed element
+	 * @param toIndex
+	 *            the index after the last removed element
+	 * @return a vector without those elements
+	 * @throws IndexOutOfBoundsException
+	 *             if the range is out of bounds
+	 */
+	public PersistentVector<E> minus(final int fromIndex, final int toIndex) {
+		if (fromIndex < 0 || toIndex > this.size || fromIndex > toIndex) {
+			throw new IndexOutOfBoundsException("From: " + fromIndex + ", to: " + toIndex + ", size: " + this.size);
+		}
+		return this.truncate(fromIndex).plusAll(this.subList(toIndex, this.size));
+	}
+
+	private int tailOffset() {
+		if (this.size < WIDTH) {
+			return 0;
+		}
+		return ((this.size - 1) >>> BITS) << BITS;
+	}
+
+	private Object[] arrayFor(final int index) {
+		if (index >= this.tailOffset()) {
+			return this.tail;
+		}
+		Object[] node = this.root;
+		for (int level = this.shift; level > 0; level -= BITS) {
+			node = (Object[]) node[(index >>> level) & MASK];
+		}
+		return node;
+	}
+
+	private static Object[] with(final int level, final Object[] node, final int index, final Object element) {
+		final Object[] copy = node.clone();
+		if (level == 0) {
+			copy[index & MASK] = element;
+		} else {
+			final int slot = (index >>> level) & MASK;
+			copy[slot] = with(level - BITS, (Object[]) node[slot], index, element);
+		}
+		return copy;
+	}
+
+	private Object[] pushTail(final int level, final Object[] parent, final Object[] tailNode) {
+		final int slot = ((this.size - 1) >>> level) & MASK;
+		final Object[] copy = parent.clone();
+		if (level == BITS) {
+			copy[slot] = tailNode;
+		} else {
+			final Object[] child = (Object[]) parent[slot];
+			copy[slot] = child != null ? this.pushTail(level - BITS, child, tailNode) : newPath(level - BITS, tailNode);
+		}
+		return copy;
+	}
+
+	private Object[] popTail(final int level, final Object[] node) {
+		final int slot = ((this.size - 2) >>> level) & MASK;
+		if (level > BITS) {
+			final Object[] child = this.popTail(level - BITS, (Object[]) node[slot]);
+			if (child == null && slot == 0) {
+				return null;
+			}
+			final Object[] copy = node.clone();
+			copy[slot] = child;
+			return copy;
+		}
+		if (slot == 0) {
+			return null;
+		}
+		final Object[] copy = node.clone();
+		copy[slot] = null;
+		return copy;
+	}
+
+	/**
+	 * Returns a copy of the node that keeps only the path to the specified
+	 * index and the slots before it.
+	 */
+	private static Object[] trim(final int level, final Object[] node, final int lastIndex) {
+		final int slot = (lastIndex >>> level) & MASK;
+		final Object[] copy = new Object[WIDTH];
+		System.arraycopy(node, 0, copy, 0, slot + 1);
+		if (level > BITS) {
+			copy[slot] = trim(level - BITS, (Object[]) node[slot], lastIndex);
+		}
+		return copy;
+	}
+
+	private static Object[] newPath(final int level, final Object[] node) {
+		if (level == 0) {
+			return node;
+		}
+		final Object[] path = new Object[WIDTH];
+		path[0] = newPath(level - BITS, node);
+		return path;
+	}
+}
@@ -0,0 +1,173 @@
+package collections.observable.list;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.swing.ListModel;
+import javax.swing.SwingUtilities;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+/**
+ * A {@link ListModel} for the event dispatch thread that shows a
+ * {@link ConcurrentObservableList} one version at a time.
+ * <p>
+ * The model is pinned to the version of the last event it delivered: every
+ * {@link #getSize()} and {@link #getElementAt(int)} reads that version's
+ * snapshot, however far the list has moved on since. Each event from the list
+ * is passed to the event dispatch thread, where the model moves to the
+ * event's version and then notifies its own listeners. A {@code JList} using
+ * this model therefore always sees a size and elements that agree with each
+ * other and with the last event it was sent.
+ * <p>
+ * Every event of a single change, such as the several removed intervals of a
+ * {@code removeAll}, carries the same version, so the model moves to the whole
+ * change at its first event.
+ * <p>
+ * Apart from construction and {@link #dispose()}, this model must only be used
+ * on the event dispatch thread.
+ *
+ * @author Aaron Faanes
+ * @param <E>
+ *            the type of element in the list
+ * @see ConcurrentObservableList
+ * @see VersionedListDataEvent
+ */
+public final class PinnedListModel<E> implements ListModel<E> {
+
+	private final ConcurrentObservableList<E> source;
+
+	private final List<ListDataListener> listeners = new CopyOnWriteArrayList<ListDataListener>();
+
+	private final ListDataListener forwarder = new ListDataListener() {
+
+		@Override
+		public void intervalAdded(final ListDataEvent e) {
+			PinnedListModel.this.forward(e);
+		}
+
+		@Override
+		public void intervalRemoved(final ListDataEvent e) {
+			PinnedListModel.this.forward(e);
+		}
+
+		@Override
+		public void contentsChanged(final ListDataEvent e) {
+			PinnedListModel.this.forward(e);
+		}
+	};
+
+	/**
+	 * The version that this model was created with.
+	 */
+	private final long initialVersion;
+
+	/**
+	 * The snapshot that this model shows. This is only changed on the event
+	 * dispatch thread, apart from its initial value.
+	 */
+	private volatile PersistentVector<E> snapshot;
+
+	/**
+	 * The version of {@link #snapshot}.
+	 */
+	private volatile long version;
+
+	/**
+	 * Constructs a model that shows the current version of the specified list,
+	 * and follows its later changes until it is disposed.
+	 *
+	 * @param source
+	 *            the list to show
+	 * @throws NullPointerException
+	 *             if {@code source} is {@code null}
+	 */
+	public PinnedListModel(final ConcurrentObservableList<E> source) {
+		if (source == null) {
+			throw new NullPointerException("source must not be null");
+		}
+		this.source = source;
+		// Listen before reading the version, so that no later change is
+		// missed. Events for versions the model already shows are ignored.
+		source.addListDataListener(this.forwarder);
+		final ConcurrentObservableList.Version<E> current = source.getCurrentVersion();
+		this.snapshot = current.contents;
+		this.version = current.number;
+		this.initialVersion = current.number;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void forward(final ListDataEvent e) {
+		final VersionedListDataEvent<E> event = (VersionedListDataEvent<E>) e;
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				PinnedListModel.this.deliver(event);
+			}
+		});
+	}
+
+	private void deliver(final VersionedListDataEvent<E> event) {
+		if (event.getVersion() <= this.initialVersion) {
+			// The model was created after this change.
+			return;
+		}
+		this.snapshot = event.getSnapshot();
+		this.version = event.getVersion();
+		final ListDataEvent pinned = new ListDataEvent(this, event.getType(), event.getIndex0(), event.getIndex1());
+		for (final ListDataListener listener : this.listeners) {
+			switch (pinned.getType()) {
+			case ListDataEvent.INTERVAL_ADDED:
+				listener.intervalAdded(pinned);
+				break;
+			case ListDataEvent.INTERVAL_REMOVED:
+				listener.intervalRemoved(pinned);
+				break;
+			default:
+				listener.contentsChanged(pinned);
+			}
+		}
+	}
+
+	/**
+	 * Stops following the list. Events that were already passed to the event
+	 * dispatch thread are still delivered.
+	 */
+	public void dispose() {
+		this.source.removeListDataListener(this.forwarder);
+	}
+
+	/**
+	 * @return the version of the list that this model shows
+	 */
+	public long getVersion() {
+		return this.version;
+	}
+
+	/**
+	 * @return the contents of the list that this model shows
+	 */
+	public PersistentVector<E> getSnapshot() {
+		return this.snapshot;
+	}
+
+	@Override
+	public int getSize() {
+		return this.snapshot.size();
+	}
+
+	@Override
+	public E getElementAt(final int index) {
+		return this.snapshot.get(index);
+	}
+
+	@Override
+	public void addListDataListener(final ListDataListener listener) {
+		this.listeners.add(listener);
+	}
+
+	@Override
+	public void removeListDataListener(final ListDataListener listener) {
+		this.listeners.remove(listener);
+	}
+}
@@ -0,0 +1,67 @@
+package collections.observable.list;
+
+import javax.swing.event.ListDataEvent;
+
+/**
+ * A {@link ListDataEvent} that carries the version of the list that it
+ * describes, along with that version's contents.
+ * <p>
+ * A listener that runs later than the change, such as one that forwards
+ * events to the event dispatch thread, should read the list through
+ * {@link #getSnapshot()} rather than the list itself, which may have changed
+ * again since. Versions increase by one with each change, so a listener can
+ * tell whether it has missed an event. Every event of a single change, such as
+ * the several removed intervals of a {@code removeAll}, carries the same
+ * version and the same snapshot, which describes the list after the whole
+ * change. Only the last of those events brings the list up to its snapshot.
+ *
+ * @author Aaron Faanes
+ * @param <E>
+ *            the type of element in the list
+ * @see ConcurrentObservableList
+ */
+public class VersionedListDataEvent<E> extends ListDataEvent {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long version;
+
+	private final transient PersistentVector<E> snapshot;
+
+	/**
+	 * Constructs an event for the specified version of a list.
+	 *
+	 * @param source
+	 *            the list that changed
+	 * @param type
+	 *            the type of event, as given by {@link ListDataEvent}
+	 * @param index0
+	 *            the first index of the changed interval
+	 * @param index1
+	 *            the last index of the changed interval
+	 * @param version
+	 *            the version of the list after the change
+	 * @param snapshot
+	 *            the contents of the list after the change
+	 */
+	public VersionedListDataEvent(final Object source, final int type, final int index0, final int index1, final long version,
+			final PersistentVector<E> snapshot) {
+		super(source, type, index0, index1);
+		this.version = version;
+		this.snapshot = snapshot;
+	}
+
+	/**
+	 * @return the version of the list after the described change
+	 */
+	public long getVersion() {
+		return this.version;
+	}
+
+	/**
+	 * @return the contents of the list after the described change
+	 */
+	public PersistentVector<E> getSnapshot() {
+		return this.snapshot;
+	}
+}
@@ -6,8 +6,19 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
+import collections.observable.EventDispatcher;
+
 /**
  * Represents a skeletal implementation of a state model.
+ * <p>
+ * Listeners are normally notified on the thread that changes the state. Given
+ * an {@link #setEventDispatcher(EventDispatcher) event dispatcher},
+ * {@link ChangeListener#stateChanged(ChangeEvent)} is instead called by the
+ * dispatcher, and a run of state changes that are still queued reach it as
+ * one change, from the first old state to the last new one.
+ * {@link StateChangeListener#stateChanging(StateChangeEvent)} is always called
+ * on the changing thread, before the state changes, since it could not be
+ * "about to change" once the dispatcher runs.
  * 
  * @author Aaron Faanes
  * 
@@ -18,18 +29,59 @@ public abstract class AbstractStateModel<T> implements StateModel<T> {
 
 	/**
 	 * The currently selected index. Will be {@code -1} if no state is selected.
+	 * It is volatile, since listeners on a dispatcher's thread may read it.
 	 */
-	protected int selectedIndex = -1;
+	protected volatile int selectedIndex = -1;
 
 	/**
-	 * The currently selected state.
+	 * The currently selected state. It is volatile, since listeners on a
+	 * dispatcher's thread may read it.
 	 */
-	protected T state;
+	protected volatile T state;
 
 	private final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<ChangeListener>();
 
 	private final List<StateChangeListener<T>> stateChangeListeners = new CopyOnWriteArrayList<StateChangeListener<T>>();
 
+	private EventDispatcher eventDispatcher;
+
+	/**
+	 * A state change that is waiting in an {@link EventDispatcher}.
+	 */
+	private static final class StateDelivery<T> extends EventDispatcher.Delivery {
+
+		private final AbstractStateModel<T> model;
+
+		private final StateChangeEvent<T> event;
+
+		StateDelivery(final AbstractStateModel<T> model, final StateChangeEvent<T> event) {
+			this.model = model;
+			this.event = event;
+		}
+
+		@Override
+		public void run() {
+			this.model.fireStateChangedEvent(this.event);
+		}
+
+		@Override
+		protected EventDispatcher.Delivery coalesce(final EventDispatcher.Delivery next) {
+			if (!(next instanceof StateDelivery) || ((StateDelivery<?>) next).model != this.model) {
+				return null;
+			}
+			@SuppressWarnings("unchecked")
+			final StateChangeEvent<T> nextEvent = ((StateDelivery<T>) next).event;
+			final T oldState = this.event.getOldState();
+			final T newState = nextEvent.getNewState();
+			if (oldState == null ? newState == null : oldState.equals(newState)) {
+				// The state changed back, but listeners may have acted on the
+				// state in between, so both changes are kept.
+				return null;
+			}
+			return new StateDelivery<T>(this.model, new StateChangeEvent<T>(this.model, oldState, newState));
+		}
+	}
+
 	@Override
 	public T getState() {
 		return this.state;
@@ -52,10 +104,40 @@ public abstract class AbstractStateModel<T> implements StateModel<T> {
 		final StateChangeEvent<T> event = new StateChangeEvent<T>(this, this.getState(), newState);
 		this.fireStateChangingEvent(event);
 		this.doStateChange(newState, index);
+		final EventDispatcher dispatcher = this.eventDispatcher;
+		if (dispatcher != null) {
+			dispatcher.dispatch(new StateDelivery<T>(this, event));
+			return true;
+		}
 		this.fireStateChangedEvent(event);
 		return true;
 	}
 
+	/**
+	 * Sets the dispatcher that calls this model's
+	 * {@link ChangeListener#stateChanged(ChangeEvent)} listeners. They then run
+	 * on the dispatcher's thread, after the state has changed and possibly
+	 * after later changes. {@link StateChangeListener#stateChanging(StateChangeEvent)}
+	 * is still called on the changing thread, before each change, and is never
+	 * coalesced.
+	 * 
+	 * @param eventDispatcher
+	 *            the dispatcher that notifies listeners, or {@code null} to
+	 *            notify them on the thread that changes the state
+	 */
+	public void setEventDispatcher(final EventDispatcher eventDispatcher) {
+		this.eventDispatcher = eventDispatcher;
+	}
+
+	/**
+	 * @return the dispatcher that notifies this model's listeners, or
+	 *         {@code null} if they are notified on the thread that changes the
+	 *         state
+	 */
+	public EventDispatcher getEventDispatcher() {
+		return this.eventDispatcher;
+	}
+
 	/**
 	 * Actually perform a state change.
 	 * 
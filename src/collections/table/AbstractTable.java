@@ -10,7 +10,10 @@ import geom.vectors.Vector3i;
  * Skeletal implementation of the {@link Table} interface.
  * 
  * Be sure to also implement {@link AbstractTable#get(Vector3i)} when
- * implementing this class.
+ * implementing this class. The {@code (x, y)} methods are implemented by
+ * creating a vector, so tables that are accessed frequently should implement
+ * {@link #get(int, int)} and {@link #put(int, int, Object)} directly, and have
+ * the vector methods call them instead.
  * 
  * @author Aaron Faanes
  * @param <T>
@@ -39,6 +42,15 @@ public abstract class AbstractTable<T> implements Table<T> {
 		private final Table<T> owningTable;
 		private final Vector3i size;
 
+		/**
+		 * The table that holds this table's values. This is the owning table,
+		 * unless that is itself a subtable, in which case the offsets of every
+		 * subtable are combined so that values are read and written directly.
+		 */
+		private final Table<T> base;
+		private final int baseX;
+		private final int baseY;
+
 		/**
 		 * Constructs a view into a portion of the specified table.
 		 * 
@@ -69,11 +81,28 @@ public abstract class AbstractTable<T> implements Table<T> {
 			this.owningTable = owningTable;
 			this.origin = origin.toFrozen();
 			this.size = size.toFrozen();
+
+			if (owningTable instanceof SubTable) {
+				final SubTable<T> parent = (SubTable<T>) owningTable;
+				this.base = parent.base;
+				this.baseX = parent.baseX + origin.x();
+				this.baseY = parent.baseY + origin.y();
+			} else {
+				this.base = owningTable;
+				this.baseX = origin.x();
+				this.baseY = origin.y();
+			}
 		}
 
 		@Override
 		public T get(final Vector3i location) {
-			return this.owningTable.get(this.translate(location));
+			return this.get(location.x(), location.y());
+		}
+
+		@Override
+		public T get(final int x, final int y) {
+			AbstractTable.validateLocation(x, y, this.width(), this.height());
+			return this.base.get(this.baseX + x, this.baseY + y);
 		}
 
 		@Override
@@ -95,7 +124,41 @@ public abstract class AbstractTable<T> implements Table<T> {
 
 		@Override
 		public T put(final Vector3i location, final T element) {
-			return this.owningTable.put(this.translate(location), element);
+			return this.put(location.x(), location.y(), element);
+		}
+
+		@Override
+		public T put(final int x, final int y, final T element) {
+			AbstractTable.validateLocation(x, y, this.width(), this.height());
+			return this.base.put(this.baseX + x, this.baseY + y, element);
+		}
+
+		@Override
+		public T remove(final int x, final int y) {
+			AbstractTable.validateLocation(x, y, this.width(), this.height());
+			return this.base.remove(this.baseX + x, this.baseY + y);
+		}
+
+		/**
+		 * @return the table that holds this table's values, which is never a
+		 *         subtable
+		 */
+		Table<T> base() {
+			return this.base;
+		}
+
+		/**
+		 * @return the x value of this table's origin within {@link #base()}
+		 */
+		int baseX() {
+			return this.baseX;
+		}
+
+		/**
+		 * @return the y value of this table's origin within {@link #base()}
+		 */
+		int baseY() {
+			return this.baseY;
 		}
 
 		/**
@@ -133,9 +196,12 @@ public abstract class AbstractTable<T> implements Table<T> {
 
 	@Override
 	public void clear() {
-		for (final TableIterator<T> iterator = this.tableIterator(); iterator.hasNext();) {
-			iterator.next();
-			iterator.remove();
+		final int width = this.width();
+		final int height = this.height();
+		for (int y = 0; y < height; ++y) {
+			for (int x = 0; x < width; ++x) {
+				this.remove(x, y);
+			}
 		}
 	}
 
@@ -155,10 +221,20 @@ public abstract class AbstractTable<T> implements Table<T> {
 		return this.tableIterator();
 	}
 
+	@Override
+	public T put(final int x, final int y, final T element) {
+		return this.put(Vector3i.frozen(x, y), element);
+	}
+
 	@Override
 	public T remove(final Vector3i location) {
-		AbstractTable.validateLocation(location, this.width(), this.height());
-		return this.put(location, this.getDefaultValue());
+		return this.remove(location.x(), location.y());
+	}
+
+	@Override
+	public T remove(final int x, final int y) {
+		AbstractTable.validateLocation(x, y, this.width(), this.height());
+		return this.put(x, y, this.getDefaultValue());
 	}
 
 	@Override
@@ -217,17 +293,67 @@ public abstract class AbstractTable<T> implements Table<T> {
 	 *             if the point is out of bounds
 	 */
 	protected static void validateLocation(final Vector3i point, final int width, final int height) {
-		if (point.x() < 0) {
-			throw new IndexOutOfBoundsException(String.format("X cannot be negative. X: %d", point.x()));
+		AbstractTable.validateLocation(point.x(), point.y(), width, height);
+	}
+
+	/**
+	 * Utility method for ensuring the specified location is within the bounds
+	 * of a table. If the location is outside the bounds, an
+	 * {@link IndexOutOfBoundsException} is thrown.
+	 * 
+	 * @param x
+	 *            the x value of the location to validate
+	 * @param y
+	 *            the y value of the location to validate
+	 * @param width
+	 *            the width of the table
+	 * @param height
+	 *            the height of the table
+	 * @throws IndexOutOfBoundsException
+	 *             if the location is out of bounds
+	 * @see #validateLocation(Vector3i, int, int)
+	 */
+	protected static void validateLocation(final int x, final int y, final int width, final int height) {
+		if (x < 0) {
+			throw new IndexOutOfBoundsException(String.format("X cannot be negative. X: %d", x));
+		}
+		if (y < 0) {
+			throw new IndexOutOfBoundsException(String.format("Y cannot be negative. Y: %d", y));
 		}
-		if (point.y() < 0) {
-			throw new IndexOutOfBoundsException(String.format("Y cannot be negative. Y: %d", point.y()));
+		if (x >= width) {
+			throw new IndexOutOfBoundsException(String.format("X exceeds the width of this table. X: %d, width: %d", x, width));
 		}
-		if (point.x() >= width) {
-			throw new IndexOutOfBoundsException(String.format("X exceeds the width of this table. X: %d, width: %d", point.x(), width));
+		if (y >= height) {
+			throw new IndexOutOfBoundsException(String.format("Y exceeds the height of this table. Y: %d, height: %d", y, height));
+		}
+	}
+
+	/**
+	 * Utility method for ensuring the specified region is within the bounds of
+	 * a table. If any part of the region is outside the bounds, an
+	 * {@link IndexOutOfBoundsException} is thrown.
+	 * 
+	 * @param x
+	 *            the x value of the region's origin
+	 * @param y
+	 *            the y value of the region's origin
+	 * @param regionWidth
+	 *            the width of the region
+	 * @param regionHeight
+	 *            the height of the region
+	 * @param width
+	 *            the width of the table
+	 * @param height
+	 *            the height of the table
+	 * @throws IndexOutOfBoundsException
+	 *             if the region is out of bounds
+	 */
+	protected static void validateRegion(final int x, final int y, final int regionWidth, final int regionHeight, final int width, final int height) {
+		if (regionWidth < 0 || regionHeight < 0) {
+			throw new IndexOutOfBoundsException(String.format("Region size cannot be negative. Width: %d, height: %d", regionWidth, regionHeight));
 		}
-		if (point.y() >= height) {
-			throw new IndexOutOfBoundsException(String.format("Y exceeds the height of this table. Y: %d, height: %d", point.y(), height));
+		if (x < 0 || y < 0 || x > width - regionWidth || y > height - regionHeight) {
+			throw new IndexOutOfBoundsException(String.format("Region is outside of this table. Region: (%d, %d) %dx%d, table: %dx%d", x, y, regionWidth, regionHeight, width, height));
 		}
 	}
 }
@@ -48,11 +48,16 @@ public class ArrayTable<T> extends AbstractTable<T> {
 
 	@Override
 	public T get(final Vector3i location) {
-		final T value = this.array[location.y()][location.x()];
+		return this.get(location.x(), location.y());
+	}
+
+	@Override
+	public T get(final int x, final int y) {
+		final T value = this.array[y][x];
 		if (value != null) {
 			return value;
 		}
-		return super.get(location);
+		return this.getDefaultValue();
 	}
 
 	@Override
@@ -68,10 +73,27 @@ public class ArrayTable<T> extends AbstractTable<T> {
 		return this.array[0].length;
 	}
 
+	/**
+	 * Returns the array that holds the specified row. Unset cells in the row
+	 * are {@code null}.
+	 * 
+	 * @param y
+	 *            the row to return
+	 * @return the backing array for that row
+	 */
+	T[] row(final int y) {
+		return this.array[y];
+	}
+
 	@Override
 	public T put(final Vector3i location, final T element) {
-		final T old = this.array[location.y()][location.x()];
-		this.array[location.y()][location.x()] = element;
+		return this.put(location.x(), location.y(), element);
+	}
+
+	@Override
+	public T put(final int x, final int y, final T element) {
+		final T old = this.array[y][x];
+		this.array[y][x] = element;
 		return old != null ? old : this.getDefaultValue();
 	}
 
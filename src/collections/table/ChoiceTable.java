@@ -9,6 +9,12 @@ import geom.vectors.Vector3i;
 /**
  * A {@code Table} implementation optimized for use with tables that contain a
  * limited number of values, like enumerations.
+ * <p>
+ * Each cell stores the index of its choice, packed into as few bits as the
+ * number of choices allows: one bit for two choices, two bits for four, four
+ * bits for sixteen, and so on. A 4096 by 4096 table of four choices therefore
+ * needs 4 MB. Each row starts on a new word, so different rows may be written
+ * from different threads.
  * 
  * @author Aaron Faanes
  * 
@@ -17,11 +23,47 @@ import geom.vectors.Vector3i;
  */
 public class ChoiceTable<T> extends AbstractTable<T> {
 
-	private final Map<T, Integer> choiceMap = new HashMap<T, Integer>();
+	/**
+	 * Returned by {@link #indexOf(Object)} for values that are not choices.
+	 */
+	private static final int NOT_A_CHOICE = -1;
+
+	/**
+	 * The index of each choice, used when the choices are not all constants of
+	 * a single enumeration.
+	 */
+	private final Map<T, Integer> choiceMap;
+
+	/**
+	 * The index of each choice by its ordinal, used when the choices are all
+	 * constants of a single enumeration. Constants that aren't choices are
+	 * {@link #NOT_A_CHOICE}.
+	 */
+	private final int[] choicesByOrdinal;
+
+	private final Class<?> enumClass;
 
 	private transient final T[] choices;
 
-	private final int[][] internalTable;
+	private final int width;
+
+	private final int height;
+
+	/**
+	 * The base-2 logarithm of the number of bits in each cell.
+	 */
+	private final int bitShift;
+
+	/**
+	 * The base-2 logarithm of the number of cells in each word.
+	 */
+	private final int cellShift;
+
+	private final long cellMask;
+
+	private final int wordsPerRow;
+
+	private final long[] words;
 
 	/**
 	 * Constructs an {@link ChoiceTable} using the specified enumeration.
@@ -40,37 +82,102 @@ public class ChoiceTable<T> extends AbstractTable<T> {
 		super(defaultValue);
 
 		this.choices = Arrays.copyOf(choices, choices.length);
-		for (int i = 0; i < this.choices.length; i++) {
-			this.choiceMap.put(this.choices[i], i);
+		this.enumClass = ChoiceTable.enumClassOf(this.choices);
+		if (this.enumClass != null) {
+			this.choiceMap = null;
+			this.choicesByOrdinal = new int[this.enumClass.getEnumConstants().length];
+			Arrays.fill(this.choicesByOrdinal, NOT_A_CHOICE);
+			for (int i = 0; i < this.choices.length; i++) {
+				this.choicesByOrdinal[((Enum<?>) this.choices[i]).ordinal()] = i;
+			}
+		} else {
+			this.choicesByOrdinal = null;
+			this.choiceMap = new HashMap<T, Integer>();
+			for (int i = 0; i < this.choices.length; i++) {
+				this.choiceMap.put(this.choices[i], i);
+			}
 		}
 
 		if (!this.isValidChoice(defaultValue)) {
 			throw new IllegalArgumentException("Default value is not a valid choice");
 		}
 
-		this.internalTable = new int[height][width];
+		// Use the smallest power-of-two number of bits that can hold every
+		// index, so that cells never straddle two words.
+		int bits = 1;
+		while (bits < Integer.SIZE && (this.choices.length - 1) >>> bits != 0) {
+			bits <<= 1;
+		}
+		this.bitShift = Integer.numberOfTrailingZeros(bits);
+		this.cellShift = 6 - this.bitShift;
+		this.cellMask = (1L << bits) - 1;
+
+		this.width = width;
+		this.height = height;
+		this.wordsPerRow = (width + (1 << this.cellShift) - 1) >>> this.cellShift;
+		this.words = new long[this.wordsPerRow * height];
 
 		// Clear is necessary to set our values to their defaults; otherwise
 		// we'd have to force 0 to be the default value.
 		this.clear();
 	}
 
+	/**
+	 * Returns the enumeration that declares every choice, or {@code null} if
+	 * the choices are not all constants of one enumeration.
+	 */
+	private static Class<?> enumClassOf(final Object[] choices) {
+		Class<?> enumClass = null;
+		for (final Object choice : choices) {
+			if (!(choice instanceof Enum)) {
+				return null;
+			}
+			final Class<?> declaringClass = ((Enum<?>) choice).getDeclaringClass();
+			if (enumClass != null && enumClass != declaringClass) {
+				return null;
+			}
+			enumClass = declaringClass;
+		}
+		return enumClass;
+	}
+
+	/**
+	 * Returns the index of the specified choice.
+	 * 
+	 * @return the index of the choice, or {@link #NOT_A_CHOICE}
+	 */
+	private int indexOf(final Object choice) {
+		if (this.choicesByOrdinal != null) {
+			if (!this.enumClass.isInstance(choice)) {
+				return NOT_A_CHOICE;
+			}
+			return this.choicesByOrdinal[((Enum<?>) choice).ordinal()];
+		}
+		final Integer index = this.choiceMap.get(choice);
+		return index != null ? index : NOT_A_CHOICE;
+	}
+
 	@Override
 	public T get(final Vector3i location) {
-		return this.choices[this.internalTable[location.y()][location.x()]];
+		return this.get(location.x(), location.y());
+	}
+
+	@Override
+	public T get(final int x, final int y) {
+		AbstractTable.validateLocation(x, y, this.width, this.height);
+		final int word = y * this.wordsPerRow + (x >>> this.cellShift);
+		final int shift = (x & ((1 << this.cellShift) - 1)) << this.bitShift;
+		return this.choices[(int) ((this.words[word] >>> shift) & this.cellMask)];
 	}
 
 	@Override
 	public int height() {
-		return this.internalTable.length;
+		return this.height;
 	}
 
 	@Override
 	public int width() {
-		if (this.height() == 0) {
-			return 0;
-		}
-		return this.internalTable[0].length;
+		return this.width;
 	}
 
 	/**
@@ -82,7 +189,12 @@ public class ChoiceTable<T> extends AbstractTable<T> {
 	 *         choice, {@code false} otherwise
 	 */
 	public boolean isValidChoice(final T choice) {
-		return this.choiceMap.containsKey(choice);
+		return this.indexOf(choice) != NOT_A_CHOICE;
+	}
+
+	@Override
+	public T put(final Vector3i location, final T element) {
+		return this.put(location.x(), location.y(), element);
 	}
 
 	/**
@@ -92,16 +204,45 @@ public class ChoiceTable<T> extends AbstractTable<T> {
 	 *             if the valid is not a valid choice
 	 */
 	@Override
-	public T put(final Vector3i location, final T element) {
-		final T old = this.get(location);
+	public T put(final int x, final int y, final T element) {
+		AbstractTable.validateLocation(x, y, this.width, this.height);
+		final int value = this.indexOf(element);
+		if (value == NOT_A_CHOICE) {
+			throw new IllegalArgumentException("Value is not a valid choice");
+		}
+
+		final int word = y * this.wordsPerRow + (x >>> this.cellShift);
+		final int shift = (x & ((1 << this.cellShift) - 1)) << this.bitShift;
+		final long bits = this.words[word];
+		this.words[word] = (bits & ~(this.cellMask << shift)) | ((long) value << shift);
 
-		final Integer value = this.choiceMap.get(element);
-		if (value == null) {
+		return this.choices[(int) ((bits >>> shift) & this.cellMask)];
+	}
+
+	/**
+	 * Sets every cell to the specified choice, writing whole words at a time.
+	 * 
+	 * @param element
+	 *            the new value of every cell
+	 * @throws IllegalArgumentException
+	 *             if the value is not a valid choice
+	 */
+	public void fill(final T element) {
+		final int value = this.indexOf(element);
+		if (value == NOT_A_CHOICE) {
 			throw new IllegalArgumentException("Value is not a valid choice");
 		}
-		this.internalTable[location.y()][location.x()] = value;
+		// Repeat the index across a whole word.
+		long pattern = value;
+		for (int bits = 1 << this.bitShift; bits < Long.SIZE; bits <<= 1) {
+			pattern |= pattern << bits;
+		}
+		Arrays.fill(this.words, pattern);
+	}
 
-		return old;
+	@Override
+	public void clear() {
+		this.fill(this.getDefaultValue());
 	}
 
 	@Override
@@ -0,0 +1,309 @@
+package collections.table;
+
+import geom.vectors.Vector3i;
+
+/**
+ * A {@code Table} implementation for very large tables that are mostly set to
+ * their default value.
+ * <p>
+ * Values are kept in square chunks of {@link #CHUNK_SIZE} cells on a side. A
+ * chunk is only created when a value other than the default is written to it,
+ * and it is freed again when every one of its cells is back to the default, so
+ * memory is only used for the areas of the table that are actually set. A
+ * 100,000 by 100,000 map that is only partly filled in costs no more than its
+ * filled-in chunks.
+ * <p>
+ * Values are compared to the default value using {@link Object#equals}, and
+ * {@code null} is treated as the default value.
+ * <p>
+ * This table may be read from several threads at once, but writes must not
+ * be concurrent with any other access.
+ * 
+ * @author Aaron Faanes
+ * @param <T>
+ *            The type of element in this table
+ * @see ArrayTable
+ */
+public class ChunkedTable<T> extends AbstractTable<T> {
+
+	private static final int CHUNK_BITS = 6;
+
+	/**
+	 * The width and height of every chunk.
+	 */
+	public static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private static class Chunk {
+
+		/**
+		 * The packed coordinates of this chunk.
+		 */
+		final long key;
+
+		final Object[] values = new Object[CHUNK_SIZE * CHUNK_SIZE];
+
+		/**
+		 * The number of cells in this chunk that are not the default value.
+		 */
+		int used;
+
+		Chunk(final long key) {
+			this.key = key;
+		}
+	}
+
+	/**
+	 * An open-addressed hash map of chunks, keyed by their packed chunk
+	 * coordinates. This avoids boxing a key for every access.
+	 */
+	private static class ChunkMap {
+
+		private static final int MINIMUM_CAPACITY = 16;
+
+		private long[] keys = new long[MINIMUM_CAPACITY];
+
+		private Chunk[] chunks = new Chunk[MINIMUM_CAPACITY];
+
+		private int size;
+
+		private int slot(final long key) {
+			// Fibonacci hashing spreads neighbouring chunks across the table.
+			return (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - Integer.numberOfTrailingZeros(this.keys.length)));
+		}
+
+		public Chunk get(final long key) {
+			final int mask = this.keys.length - 1;
+			for (int i = this.slot(key);; i = (i + 1) & mask) {
+				final Chunk chunk = this.chunks[i];
+				if (chunk == null || this.keys[i] == key) {
+					return chunk;
+				}
+			}
+		}
+
+		public void put(final long key, final Chunk chunk) {
+			if ((this.size + 1) * 2 > this.keys.length) {
+				this.resize(this.keys.length * 2);
+			}
+			final int mask = this.keys.length - 1;
+			int i = this.slot(key);
+			while (this.chunks[i] != null) {
+				if (this.keys[i] == key) {
+					this.chunks[i] = chunk;
+					return;
+				}
+				i = (i + 1) & mask;
+			}
+			this.keys[i] = key;
+			this.chunks[i] = chunk;
+			++this.size;
+		}
+
+		public void remove(final long key) {
+			final int mask = this.keys.length - 1;
+			int i = this.slot(key);
+			while (this.keys[i] != key) {
+				if (this.chunks[i] == null) {
+					return;
+				}
+				i = (i + 1) & mask;
+			}
+			// Shift later entries back, so that no lookup stops early at the
+			// emptied slot.
+			for (int j = (i + 1) & mask; this.chunks[j] != null; j = (j + 1) & mask) {
+				final int home = this.slot(this.keys[j]);
+				if (((j - home) & mask) >= ((j - i) & mask)) {
+					this.keys[i] = this.keys[j];
+					this.chunks[i] = this.chunks[j];
+					i = j;
+				}
+			}
+			this.chunks[i] = null;
+			--this.size;
+		}
+
+		public int size() {
+			return this.size;
+		}
+
+		public void clear() {
+			this.keys = new long[MINIMUM_CAPACITY];
+			this.chunks = new Chunk[MINIMUM_CAPACITY];
+			this.size = 0;
+		}
+
+		private void resize(final int capacity) {
+			final long[] oldKeys = this.keys;
+			final Chunk[] oldChunks = this.chunks;
+			this.keys = new long[capacity];
+			this.chunks = new Chunk[capacity];
+			this.size = 0;
+			for (int i = 0; i < oldKeys.length; ++i) {
+				if (oldChunks[i] != null) {
+					this.put(oldKeys[i], oldChunks[i]);
+				}
+			}
+		}
+	}
+
+	private final int width;
+
+	private final int height;
+
+	private final ChunkMap chunks = new ChunkMap();
+
+	/**
+	 * The most recently used chunk. Most access is to neighbouring cells, so
+	 * this saves most lookups. The chunk carries its own key, so that threads
+	 * that only read this table never see a chunk paired with the wrong key.
+	 */
+	private Chunk lastChunk;
+
+	/**
+	 * Constructs a chunked table of the specified size using a default value
+	 * of {@code null}.
+	 * 
+	 * @param width
+	 *            the width of the table
+	 * @param height
+	 *            the height of the table
+	 */
+	public ChunkedTable(final int width, final int height) {
+		this(width, height, null);
+	}
+
+	/**
+	 * Constructs a chunked table of the specified size using the specified
+	 * default value. No chunks are allocated until values are written.
+	 * 
+	 * @param width
+	 *            the width of the table
+	 * @param height
+	 *            the height of the table
+	 * @param defaultValue
+	 *            the default value returned when an element is unset or removed
+	 * @throws IllegalArgumentException
+	 *             if either dimension is negative
+	 */
+	public ChunkedTable(final int width, final int height, final T defaultValue) {
+		super(defaultValue);
+		if (width < 0 || height < 0) {
+			throw new IllegalArgumentException(String.format("Dimensions must not be negative. Width: %d, height: %d", width, height));
+		}
+		this.width = width;
+		this.height = height;
+	}
+
+	@Override
+	public int width() {
+		return this.width;
+	}
+
+	@Override
+	public int height() {
+		return this.height;
+	}
+
+	@Override
+	public int size() {
+		return (int) Math.min(Integer.MAX_VALUE, (long) this.width * this.height);
+	}
+
+	/**
+	 * Returns the number of chunks that are currently allocated.
+	 * 
+	 * @return the number of allocated chunks
+	 */
+	public int chunkCount() {
+		return this.chunks.size();
+	}
+
+	@Override
+	public T get(final Vector3i location) {
+		return this.get(location.x(), location.y());
+	}
+
+	@Override
+	public T get(final int x, final int y) {
+		AbstractTable.validateLocation(x, y, this.width, this.height);
+		final Chunk chunk = this.chunk(ChunkedTable.key(x, y));
+		if (chunk == null) {
+			return this.getDefaultValue();
+		}
+		@SuppressWarnings("unchecked")
+		final T value = (T) chunk.values[ChunkedTable.offset(x, y)];
+		return value != null ? value : this.getDefaultValue();
+	}
+
+	@Override
+	public T put(final Vector3i location, final T element) {
+		return this.put(location.x(), location.y(), element);
+	}
+
+	@Override
+	public T put(final int x, final int y, final T element) {
+		AbstractTable.validateLocation(x, y, this.width, this.height);
+		final long key = ChunkedTable.key(x, y);
+		final boolean isDefault = element == null || element.equals(this.getDefaultValue());
+
+		Chunk chunk = this.chunk(key);
+		if (chunk == null) {
+			if (isDefault) {
+				return this.getDefaultValue();
+			}
+			chunk = new Chunk(key);
+			this.chunks.put(key, chunk);
+			this.lastChunk = chunk;
+		}
+
+		final int offset = ChunkedTable.offset(x, y);
+		@SuppressWarnings("unchecked")
+		final T old = (T) chunk.values[offset];
+		if (isDefault) {
+			if (old != null) {
+				chunk.values[offset] = null;
+				if (--chunk.used == 0) {
+					this.chunks.remove(key);
+					this.lastChunk = null;
+				}
+			}
+		} else {
+			chunk.values[offset] = element;
+			if (old == null) {
+				++chunk.used;
+			}
+		}
+		return old != null ? old : this.getDefaultValue();
+	}
+
+	/**
+	 * Frees every chunk, returning the whole table to the default value.
+	 */
+	@Override
+	public void clear() {
+		this.chunks.clear();
+		this.lastChunk = null;
+	}
+
+	private Chunk chunk(final long key) {
+		final Chunk last = this.lastChunk;
+		if (last != null && last.key == key) {
+			return last;
+		}
+		final Chunk chunk = this.chunks.get(key);
+		if (chunk != null) {
+			this.lastChunk = chunk;
+		}
+		return chunk;
+	}
+
+	private static long key(final int x, final int y) {
+		return ((long) (y >>> CHUNK_BITS) << 32) | (x >>> CHUNK_BITS);
+	}
+
+	private static int offset(final int x, final int y) {
+		return ((y & CHUNK_MASK) << CHUNK_BITS) | (x & CHUNK_MASK);
+	}
+}
@@ -0,0 +1,205 @@
+package collections.table;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A bounded set of rectangles that covers every cell of a table that has
+ * changed since the regions were last drained.
+ * <p>
+ * Changes are recorded as rectangles of cells. A change that touches or
+ * overlaps an existing rectangle grows that rectangle to cover it. Once there
+ * are {@link #getMaximumRegions()} rectangles, a new change is merged into
+ * whichever rectangle grows the least by including it. The rectangles may
+ * therefore cover more cells than actually changed, but never fewer, and
+ * recording a change never allocates.
+ * <p>
+ * This class is thread-safe, so a table may be changed on one thread while
+ * its regions are drained on another.
+ *
+ * @author Aaron Faanes
+ * @see DirtyTrackingTable
+ */
+public class DirtyRegions {
+
+	/**
+	 * The default maximum number of rectangles.
+	 */
+	public static final int DEFAULT_MAXIMUM_REGIONS = 16;
+
+	private final int maximumRegions;
+
+	// Each rectangle is stored as its inclusive left and top, and its
+	// exclusive right and bottom.
+	private final int[] left;
+	private final int[] top;
+	private final int[] right;
+	private final int[] bottom;
+
+	private int size;
+
+	/**
+	 * Constructs an empty set of regions that keeps at most
+	 * {@link #DEFAULT_MAXIMUM_REGIONS} rectangles.
+	 */
+	public DirtyRegions() {
+		this(DEFAULT_MAXIMUM_REGIONS);
+	}
+
+	/**
+	 * Constructs an empty set of regions that keeps at most the specified
+	 * number of rectangles.
+	 *
+	 * @param maximumRegions
+	 *            the maximum number of rectangles. It must be at least one.
+	 */
+	public DirtyRegions(final int maximumRegions) {
+		if (maximumRegions < 1) {
+			throw new IllegalArgumentException("maximumRegions must be at least one, but was " + maximumRegions);
+		}
+		this.maximumRegions = maximumRegions;
+		this.left = new int[maximumRegions];
+		this.top = new int[maximumRegions];
+		this.right = new int[maximumRegions];
+		this.bottom = new int[maximumRegions];
+	}
+
+	public int getMaximumRegions() {
+		return this.maximumRegions;
+	}
+
+	/**
+	 * Records a change to the specified cell.
+	 *
+	 * @param x
+	 *            the x value of the changed cell
+	 * @param y
+	 *            the y value of the changed cell
+	 */
+	public void add(final int x, final int y) {
+		this.add(x, y, 1, 1);
+	}
+
+	/**
+	 * Records a change to every cell in the specified rectangle. Empty
+	 * rectangles are ignored.
+	 *
+	 * @param x
+	 *            the x value of the rectangle's origin
+	 * @param y
+	 *            the y value of the rectangle's origin
+	 * @param width
+	 *            the width of the rectangle
+	 * @param height
+	 *            the height of the rectangle
+	 */
+	public synchronized void add(final int x, final int y, final int width, final int height) {
+		if (width <= 0 || height <= 0) {
+			return;
+		}
+		final int addedRight = x + width;
+		final int addedBottom = y + height;
+
+		// Grow a rectangle that the change touches, preferring the most recent
+		// one, since changes tend to be near each other.
+		for (int i = this.size - 1; i >= 0; --i) {
+			if (x <= this.right[i] && addedRight >= this.left[i] && y <= this.bottom[i] && addedBottom >= this.top[i]) {
+				this.grow(i, x, y, addedRight, addedBottom);
+				return;
+			}
+		}
+
+		if (this.size < this.maximumRegions) {
+			this.left[this.size] = x;
+			this.top[this.size] = y;
+			this.right[this.size] = addedRight;
+			this.bottom[this.size] = addedBottom;
+			++this.size;
+			return;
+		}
+
+		int best = 0;
+		long bestGrowth = Long.MAX_VALUE;
+		for (int i = 0; i < this.size; ++i) {
+			final long grown = (long) (Math.max(this.right[i], addedRight) - Math.min(this.left[i], x))
+					* (Math.max(this.bottom[i], addedBottom) - Math.min(this.top[i], y));
+			final long growth = grown - (long) (this.right[i] - this.left[i]) * (this.bottom[i] - this.top[i]);
+			if (growth < bestGrowth) {
+				best = i;
+				bestGrowth = growth;
+			}
+		}
+		this.grow(best, x, y, addedRight, addedBottom);
+	}
+
+	/**
+	 * Grows the specified rectangle to include the specified bounds, then
+	 * merges any other rectangles that it now touches.
+	 */
+	private void grow(int index, final int addedLeft, final int addedTop, final int addedRight, final int addedBottom) {
+		this.left[index] = Math.min(this.left[index], addedLeft);
+		this.top[index] = Math.min(this.top[index], addedTop);
+		this.right[index] = Math.max(this.right[index], addedRight);
+		this.bottom[index] = Math.max(this.bottom[index], addedBottom);
+
+		for (int i = this.size - 1; i >= 0; --i) {
+			if (i == index) {
+				continue;
+			}
+			if (this.left[i] <= this.right[index] && this.right[i] >= this.left[index] && this.top[i] <= this.bottom[index] && this.bottom[i] >= this.top[index]) {
+				// Remove the other rectangle by moving the last one into its
+				// place, then grow again, since the merged rectangle may now
+				// touch others.
+				final int otherLeft = this.left[i];
+				final int otherTop = this.top[i];
+				final int otherRight = this.right[i];
+				final int otherBottom = this.bottom[i];
+				this.removeAt(i);
+				if (index == this.size) {
+					index = i;
+				}
+				this.grow(index, otherLeft, otherTop, otherRight, otherBottom);
+				return;
+			}
+		}
+	}
+
+	private void removeAt(final int index) {
+		--this.size;
+		this.left[index] = this.left[this.size];
+		this.top[index] = this.top[this.size];
+		this.right[index] = this.right[this.size];
+		this.bottom[index] = this.bottom[this.size];
+	}
+
+	/**
+	 * @return {@code true} if no changes have been recorded since the regions
+	 *         were last drained
+	 */
+	public synchronized boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * Returns the current rectangles, and forgets them.
+	 *
+	 * @return the rectangles covering every change since the last drain, in
+	 *         cells. The list is empty if nothing has changed.
+	 */
+	public synchronized List<Rectangle> drain() {
+		final List<Rectangle> regions = new ArrayList<Rectangle>(this.size);
+		for (int i = 0; i < this.size; ++i) {
+			regions.add(new Rectangle(this.left[i], this.top[i], this.right[i] - this.left[i], this.bottom[i] - this.top[i]));
+		}
+		this.size = 0;
+		return regions;
+	}
+
+	/**
+	 * Forgets every recorded change.
+	 */
+	public synchronized void clear() {
+		this.size = 0;
+	}
+}
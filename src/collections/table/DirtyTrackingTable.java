@@ -0,0 +1,118 @@
+package collections.table;
+
+import geom.vectors.Vector3i;
+
+/**
+ * A view of another {@link Table} that records which of its cells have been
+ * changed, so that only those need to be redrawn.
+ * <p>
+ * Every change made through this table, or through its subtables, is recorded
+ * in its {@link DirtyRegions}. Writes that replace a value with an equal value
+ * are not recorded. Changes made directly to the underlying table are not
+ * seen.
+ *
+ * @author Aaron Faanes
+ * @param <T>
+ *            The type of element in this table
+ * @see graphics.TileMap#setIncremental(boolean)
+ */
+public class DirtyTrackingTable<T> extends AbstractTable<T> {
+
+	private final Table<T> table;
+
+	private final DirtyRegions dirtyRegions;
+
+	/**
+	 * Constructs a view of the specified table that records changes in a new
+	 * {@link DirtyRegions}.
+	 *
+	 * @param table
+	 *            the table that holds the values
+	 */
+	public DirtyTrackingTable(final Table<T> table) {
+		this(table, new DirtyRegions());
+	}
+
+	/**
+	 * Constructs a view of the specified table that records changes in the
+	 * specified regions.
+	 *
+	 * @param table
+	 *            the table that holds the values
+	 * @param dirtyRegions
+	 *            the regions that record changes to the table
+	 */
+	public DirtyTrackingTable(final Table<T> table, final DirtyRegions dirtyRegions) {
+		super(null);
+		if (table == null) {
+			throw new NullPointerException("table must not be null");
+		}
+		if (dirtyRegions == null) {
+			throw new NullPointerException("dirtyRegions must not be null");
+		}
+		this.table = table;
+		this.dirtyRegions = dirtyRegions;
+	}
+
+	/**
+	 * @return the regions that record changes to this table
+	 */
+	public DirtyRegions getDirtyRegions() {
+		return this.dirtyRegions;
+	}
+
+	@Override
+	public T get(final Vector3i location) {
+		return this.table.get(location);
+	}
+
+	@Override
+	public T get(final int x, final int y) {
+		return this.table.get(x, y);
+	}
+
+	@Override
+	public int width() {
+		return this.table.width();
+	}
+
+	@Override
+	public int height() {
+		return this.table.height();
+	}
+
+	@Override
+	public int size() {
+		return this.table.size();
+	}
+
+	@Override
+	public T put(final Vector3i location, final T element) {
+		return this.put(location.x(), location.y(), element);
+	}
+
+	@Override
+	public T put(final int x, final int y, final T element) {
+		final T old = this.table.put(x, y, element);
+		if (old == null ? element != null : !old.equals(element)) {
+			this.dirtyRegions.add(x, y);
+		}
+		return old;
+	}
+
+	@Override
+	public T remove(final int x, final int y) {
+		final T old = this.table.remove(x, y);
+		final T current = this.table.get(x, y);
+		if (old == null ? current != null : !old.equals(current)) {
+			this.dirtyRegions.add(x, y);
+		}
+		return old;
+	}
+
+	@Override
+	public void clear() {
+		this.table.clear();
+		this.dirtyRegions.add(0, 0, this.table.width(), this.table.height());
+	}
+}
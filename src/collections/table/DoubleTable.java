@@ -0,0 +1,258 @@
+package collections.table;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size table of {@code double} values, stored in a single array.
+ * <p>
+ * This table is intended for continuous fields, like elevation, moisture or
+ * influence maps. Each cell costs eight bytes, rather than the reference and
+ * boxed {@code Double} that an {@link ArrayTable} would need. Values are read and
+ * written by {@code (x, y)}, so no vectors are created either.
+ * <p>
+ * Cells are stored row-major, unless another {@link TableLayout} is given.
+ * Algorithms that mostly look at each cell's neighbours may run faster with
+ * a {@link TableLayout#TILED tiled} layout, at the cost of slower row scans.
+ * <p>
+ * This class is not a {@link Table} itself, since its accessors return
+ * primitives. Use {@link #asTable()} when a {@code Table} is needed.
+ *
+ * @author Aaron Faanes
+ * @see IntTable
+ * @see ByteTable
+ */
+public class DoubleTable extends PrimitiveTable<double[], Double> {
+
+	private final double defaultValue;
+
+	/**
+	 * Constructs a table of the specified size, with a default value of
+	 * {@code 0.0}.
+	 *
+	 * @param width
+	 *            the width of the table
+	 * @param height
+	 *            the height of the table
+	 * @throws IllegalArgumentException
+	 *             if either dimension is negative, or if the table would have
+	 *             more than {@link Integer#MAX_VALUE} cells
+	 */
+	public DoubleTable(final int width, final int height) {
+		this(width, height, 0.0);
+	}
+
+	/**
+	 * Constructs a table of the specified size, with every cell set to the
+	 * specified default value.
+	 *
+	 * @param width
+	 *            the width of the table
+	 * @param height
+	 *            the height of the table
+	 * @param defaultValue
+	 *            the value of cells that are unset or removed
+	 * @throws IllegalArgumentException
+	 *             if either dimension is negative, or if the table would have
+	 *             more than {@link Integer#MAX_VALUE} cells
+	 */
+	public DoubleTable(final int width, final int height, final double defaultValue) {
+		this(width, height, defaultValue, TableLayout.ROW_MAJOR);
+	}
+
+	/**
+	 * Constructs a table of the specified size and layout, with every cell set
+	 * to the specified default value.
+	 *
+	 * @param width
+	 *            the width of the table
+	 * @param height
+	 *            the height of the table
+	 * @param defaultValue
+	 *            the value of cells that are unset or removed
+	 * @param layout
+	 *            the order in which cells are stored
+	 * @throws IllegalArgumentException
+	 *             if either dimension is negative, if the layout is
+	 *             {@code null}, or if the table would need more than
+	 *             {@link Integer#MAX_VALUE} cells
+	 */
+	public DoubleTable(final int width, final int height, final double defaultValue, final TableLayout layout) {
+		super(width, height, layout);
+		this.defaultValue = defaultValue;
+		// Compare the bits, so that a default of -0.0 is still filled in.
+		if (Double.doubleToRawLongBits(defaultValue) != 0L) {
+			Arrays.fill(this.values, defaultValue);
+		}
+	}
+
+	/**
+	 * @return the value of cells that are unset or removed
+	 */
+	public double getDefaultValue() {
+		return this.defaultValue;
+	}
+
+	/**
+	 * Returns the value at the specified location.
+	 *
+	 * @param x
+	 *            the x value of the requested cell
+	 * @param y
+	 *            the y value of the requested cell
+	 * @return the value at that location
+	 * @throws IndexOutOfBoundsException
+	 *             if the location is out of bounds
+	 */
+	public double get(final int x, final int y) {
+		return this.values[this.index(x, y)];
+	}
+
+	/**
+	 * Replaces the value at the specified location.
+	 *
+	 * @param x
+	 *            the x value of the cell to change
+	 * @param y
+	 *            the y value of the cell to change
+	 * @param value
+	 *            the new value
+	 * @return the previous value at that location
+	 * @throws IndexOutOfBoundsException
+	 *             if the location is out of bounds
+	 */
+	public double put(final int x, final int y, final double value) {
+		final int index = this.index(x, y);
+		final double old = this.values[index];
+		this.values[index] = value;
+		return old;
+	}
+
+	/**
+	 * Resets the value at the specified location to the default value.
+	 *
+	 * @param x
+	 *            the x value of the cell to reset
+	 * @param y
+	 *            the y value of the cell to reset
+	 * @return the previous value at that location
+	 * @throws IndexOutOfBoundsException
+	 *             if the location is out of bounds
+	 */
+	public double remove(final int x, final int y) {
+		return this.put(x, y, this.defaultValue);
+	}
+
+	@Override
+	public void clear() {
+		this.fill(this.defaultValue);
+	}
+
+	/**
+	 * Sets every cell to the specified value.
+	 *
+	 * @param value
+	 *            the new value of every cell
+	 */
+	public void fill(final double value) {
+		Arrays.fill(this.values, value);
+	}
+
+	/**
+	 * Sets every cell in the specified region to the specified value.
+	 *
+	 * @param x
+	 *            the x value of the region's origin
+	 * @param y
+	 *            the y value of the region's origin
+	 * @param regionWidth
+	 *            the width of the region
+	 * @param regionHeight
+	 *            the height of the region
+	 * @param value
+	 *            the new value of every cell in the region
+	 * @throws IndexOutOfBoundsException
+	 *             if the region is not inside this table
+	 */
+	public void fill(final int x, final int y, final int regionWidth, final int regionHeight, final double value) {
+		AbstractTable.validateRegion(x, y, regionWidth, regionHeight, this.width(), this.height());
+		if (regionWidth > 0 && regionHeight > 0) {
+			this.values[this.index(x, y)] = value;
+			this.fillFromOrigin(x, y, regionWidth, regionHeight);
+		}
+	}
+
+	/**
+	 * Copies a region of the specified table into this table. The source may
+	 * be this table, in which case the regions may overlap.
+	 *
+	 * @param source
+	 *            the table that is copied from
+	 * @param sourceX
+	 *            the x value of the copied region in the source table
+	 * @param sourceY
+	 *            the y value of the copied region in the source table
+	 * @param x
+	 *            the x value of the destination in this table
+	 * @param y
+	 *            the y value of the destination in this table
+	 * @param regionWidth
+	 *            the width of the copied region
+	 * @param regionHeight
+	 *            the height of the copied region
+	 * @throws IndexOutOfBoundsException
+	 *             if either region is not inside its table
+	 */
+	public void copy(final DoubleTable source, final int sourceX, final int sourceY, final int x, final int y, final int regionWidth, final int regionHeight) {
+		this.copyRegion(source, sourceX, sourceY, x, y, regionWidth, regionHeight);
+	}
+
+	/**
+	 * Returns a copy of this table's values, in row-major order.
+	 *
+	 * @return a new array containing this table's values
+	 */
+	public double[] toArray() {
+		return this.copyValues();
+	}
+
+	/**
+	 * Replaces this table's values with the specified values, given in
+	 * row-major order.
+	 *
+	 * @param newValues
+	 *            the new values of this table
+	 * @throws IllegalArgumentException
+	 *             if the number of values does not match the size of this
+	 *             table
+	 */
+	public void setAll(final double[] newValues) {
+		this.replaceValues(newValues);
+	}
+
+	@Override
+	double[] newArray(final int length) {
+		return new double[length];
+	}
+
+	@Override
+	void copyCells(final double[] source, final int[] sourceIndices, final double[] target, final int[] targetIndices, final int count) {
+		for (int i = 0; i < count; ++i) {
+			target[targetIndices[i]] = source[sourceIndices[i]];
+		}
+	}
+
+	@Override
+	Double getElement(final int x, final int y) {
+		return this.get(x, y);
+	}
+
+	@Override
+	Double putElement(final int x, final int y, final Double element) {
+		return this.put(x, y, element);
+	}
+
+	@Override
+	Double getDefaultElement() {
+		return this.defaultValue;
+	}
+}
@@ -0,0 +1,258 @@
+package collections.table;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size table of {@code int} values, stored in a single array.
+ * <p>
+ * This table is intended for grids that are really just numbers, like tile
+ * ids or terrain heights. Each cell costs four bytes, rather than the
+ * reference and boxed {@code Integer} that an {@link ArrayTable} would need.
+ * Values are read and written by {@code (x, y)}, so no vectors are created
+ * either.
+ * <p>
+ * Cells are stored row-major, unless another {@link TableLayout} is given.
+ * Algorithms that mostly look at each cell's neighbours may run faster with
+ * a {@link TableLayout#TILED tiled} layout, at the cost of slower row scans.
+ * <p>
+ * This class is not a {@link Table} itself, since its accessors return
+ * primitives. Use {@link #asTable()} when a {@code Table} is needed.
+ *
+ * @author Aaron Faanes
+ * @see DoubleTable
+ * @see ByteTable
+ */
+public class IntTable extends PrimitiveTable<int[], Integer> {
+
+	private final int defaultValue;
+
+	/**
+	 * Constructs a table of the specified size, with a default value of
+	 * {@code 0}.
+	 *
+	 * @param width
+	 *            the width of the table
+	 * @param height
+	 *            the height of the table
+	 * @throws IllegalArgumentException
+	 *             if either dimension is negative, or if the table would have
+	 *             more than {@link Integer#MAX_VALUE} cells
+	 */
+	public IntTable(final int width, final int height) {
+		this(width, height, 0);
+	}
+
+	/**
+	 * Constructs a table of the specified size, with every cell set to the
+	 * specified default value.
+	 *
+	 * @param width
+	 *            the width of the table
+	 * @param height
+	 *            the height of the table
+	 * @param defaultValue
+	 *            the value of cells that are unset or removed
+	 * @throws IllegalArgumentException
+	 *             if either dimension is negative, or if the table would have
+	 *             more than {@link Integer#MAX_VALUE} cells
+	 */
+	public IntTable(final int width, final int height, final int defaultValue) {
+		this(width, height, defaultValue, TableLayout.ROW_MAJOR);
+	}
+
+	/**
+	 * Constructs a table of the specified size and layout, with every cell set
+	 * to the specified default value.
+	 *
+	 * @param width
+	 *            the width of the table
+	 * @param height
+	 *            the height of the table
+	 * @param defaultValue
+	 *            the value of cells that are unset or removed
+	 * @param layout
+	 *            the order in which cells are stored
+	 * @throws IllegalArgumentException
+	 *             if either dimension is negative, if the layout is
+	 *             {@code null}, or if the table would need more than
+	 *             {@link Integer#MAX_VALUE} cells
+	 */
+	public IntTable(final int width, final int height, final int defaultValue, final TableLayout layout) {
+		super(width, height, layout);
+		this.defaultValue = defaultValue;
+		if (defaultValue != 0) {
+			Arrays.fill(this.values, defaultValue);
+		}
+	}
+
+	/**
+	 * @return the value of cells that are unset or removed
+	 */
+	public int getDefaultValue() {
+		return this.defaultValue;
+	}
+
+	/**
+	 * Returns the value at the specified location.
+	 *
+	 * @param x
+	 *            the x value of the requested cell
+	 * @param y
+	 *            the y value of the requested cell
+	 * @return the value at that location
+	 * @throws IndexOutOfBoundsException
+	 *             if the location is out of bounds
+	 */
+	public int get(final int x, final int y) {
+		return this.values[this.index(x, y)];
+	}
+
+	/**
+	 * Replaces the value at the specified location.
+	 *
+	 * @param x
+	 *            the x value of the cell to change
+	 * @param y
+	 *            the y value of the cell to change
+	 * @param value
+	 *            the new value
+	 * @return the previous value at that location
+	 * @throws IndexOutOfBoundsException
+	 *             if the location is out of bounds
+	 */
+	public int put(final int x, final int y, final int value) {
+		final int index = this.index(x, y);
+		final int old = this.values[index];
+		this.values[index] = value;
+		return old;
+	}
+
+	/**
+	 * Resets the value at the specified location to the default value.
+	 *
+	 * @param x
+	 *            the x value of the cell to reset
+	 * @param y
+	 *            the y value of the cell to reset
+	 * @return the previous value at that location
+	 * @throws IndexOutOfBoundsException
+	 *             if the location is out of bounds
+	 */
+	public int remove(final int x, final int y) {
+		return this.put(x, y, this.defaultValue);
+	}
+
+	@Override
+	public void clear() {
+		this.fill(this.defaultValue);
+	}
+
+	/**
+	 * Sets every cell to the specified value.
+	 *
+	 * @param value
+	 *            the new value of every cell
+	 */
+	public void fill(final int value) {
+		Arrays.fill(this.values, value);
+	}
+
+	/**
+	 * Sets every cell in the specified region to the specified value.
+	 *
+	 * @param x
+	 *            the x value of the region's origin
+	 * @param y
+	 *            the y value of the region's origin
+	 * @param regionWidth
+	 *            the width of the region
+	 * @param regionHeight
+	 *            the height of the region
+	 * @param value
+	 *            the new value of every cell in the region
+	 * @throws IndexOutOfBoundsException
+	 *             if the region is not inside this table
+	 */
+	public void fill(final int x, final int y, final int regionWidth, final int regionHeight, final int value) {
+		AbstractTable.validateRegion(x, y, regionWidth, regionHeight, this.width(), this.height());
+		if (regionWidth > 0 && regionHeight > 0) {
+			this.values[this.index(x, y)] = value;
+			this.fillFromOrigin(x, y, regionWidth, regionHeight);
+		}
+	}
+
+	/**
+	 * Copies a region of the specified table into this table. The source may
+	 * be this table, in which case the regions may overlap.
+	 *
+	 * @param source
+	 *            the table that is copied from
+	 * @param sourceX
+	 *            the x value of the copied region in the source table
+	 * @param sourceY
+	 *            the y value of the copied region in the source table
+	 * @param x
+	 *            the x value of the destination in this table
+	 * @param y
+	 *            the y value of the destination in this table
+	 * @param regionWidth
+	 *            the width of the copied region
+	 * @param regionHeight
+	 *            the height of the copied region
+	 * @throws IndexOutOfBoundsException
+	 *             if either region is not inside its table
+	 */
+	public void copy(final IntTable source, final int sourceX, final int sourceY, final int x, final int y, final int regionWidth, final int regionHeight) {
+		this.copyRegion(source, sourceX, sourceY, x, y, regionWidth, regionHeight);
+	}
+
+	/**
+	 * Returns a copy of this table's values, in row-major order.
+	 *
+	 * @return a new array containing this table's values
+	 */
+	public int[] toArray() {
+		return this.copyValues();
+	}
+
+	/**
+	 * Replaces this table's values with the specified values, given in
+	 * row-major order.
+	 *
+	 * @param newValues
+	 *            the new values of this table
+	 * @throws IllegalArgumentException
+	 *             if the number of values does not match the size of this
+	 *             table
+	 */
+	public void setAll(final int[] newValues) {
+		this.replaceValues(newValues);
+	}
+
+	@Override
+	int[] newArray(final int length) {
+		return new int[length];
+	}
+
+	@Override
+	void copyCells(final int[] source, final int[] sourceIndices, final int[] target, final int[] targetIndices, final int count) {
+		for (int i = 0; i < count; ++i) {
+			target[targetIndices[i]] = source[sourceIndices[i]];
+		}
+	}
+
+	@Override
+	Integer getElement(final int x, final int y) {
+		return this.get(x, y);
+	}
+
+	@Override
+	Integer putElement(final int x, final int y, final Integer element) {
+		return this.put(x, y, element);
+	}
+
+	@Override
+	Integer getDefaultElement() {
+		return this.defaultValue;
+	}
+}
@@ -0,0 +1,704 @@
+package collections.table;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+
+import geom.vectors.Vector3i;
+
+/**
+ * A {@code Table} implementation whose cells are stored in a memory-mapped
+ * file, for grids that are larger than the heap.
+ * <p>
+ * Opening a table maps its file, rather than reading it, so the operating
+ * system's page cache decides which parts of the table are in memory. Files
+ * larger than 2 GB are mapped as several windows. Changes are written to the
+ * file by the operating system at its leisure; use {@link #force()} to write
+ * them immediately.
+ * <p>
+ * Every cell is a fixed-width primitive value, stored in row-major order
+ * after a small header that records the table's dimensions, cell width and
+ * default value. Values are stored little-endian. Use {@link Ints},
+ * {@link Doubles} or {@link Bytes} for the cell type; each of these also
+ * offers primitive accessors that avoid boxing.
+ * <p>
+ * Subtables are the usual views, so they also read and write the mapped file
+ * directly.
+ *
+ * @author Aaron Faanes
+ * @param <T>
+ *            The boxed type of the cells in this table
+ */
+public abstract class MappedTable<T> extends AbstractTable<T> implements Closeable {
+
+	/**
+	 * A mapped table of {@code int} cells.
+	 */
+	public static final class Ints extends MappedTable<Integer> {
+
+		private static final int CELL_SIZE = 4;
+
+		/**
+		 * The default value, unboxed for {@link #clearCell}.
+		 */
+		private final int defaultInt;
+
+		private Ints(final Header header, final int windowSize) throws IOException {
+			super(header, windowSize, (int) header.defaultBits);
+			this.defaultInt = (int) header.defaultBits;
+		}
+
+		/**
+		 * Creates a new table in the specified file, with every cell set to
+		 * the specified default value. Any existing content of the file is
+		 * discarded.
+		 *
+		 * @param file
+		 *            the file that will contain the table
+		 * @param width
+		 *            the width of the table
+		 * @param height
+		 *            the height of the table
+		 * @param defaultValue
+		 *            the value of cells that are unset or removed
+		 * @return the new table, mapped for reading and writing
+		 * @throws IOException
+		 *             if the file cannot be created or mapped
+		 */
+		public static Ints create(final File file, final int width, final int height, final int defaultValue) throws IOException {
+			return Ints.create(file, width, height, defaultValue, WINDOW_SIZE);
+		}
+
+		static Ints create(final File file, final int width, final int height, final int defaultValue, final int windowSize) throws IOException {
+			final Ints table = new Ints(MappedTable.createHeader(file, width, height, CELL_SIZE, defaultValue), windowSize);
+			if (defaultValue != 0) {
+				table.clear();
+			}
+			return table;
+		}
+
+		/**
+		 * Opens a table that was created by
+		 * {@link #create(File, int, int, int)}.
+		 *
+		 * @param file
+		 *            the file that contains the table
+		 * @param mode
+		 *            either {@link MapMode#READ_ONLY} or
+		 *            {@link MapMode#READ_WRITE}
+		 * @return the table
+		 * @throws IOException
+		 *             if the file cannot be mapped, or does not contain a
+		 *             table of {@code int} cells
+		 */
+		public static Ints open(final File file, final MapMode mode) throws IOException {
+			return new Ints(MappedTable.readHeader(file, mode, CELL_SIZE), WINDOW_SIZE);
+		}
+
+		static Ints open(final File file, final MapMode mode, final int windowSize) throws IOException {
+			return new Ints(MappedTable.readHeader(file, mode, CELL_SIZE), windowSize);
+		}
+
+		/**
+		 * Returns the value at the specified location, without boxing it.
+		 *
+		 * @param x
+		 *            the x value of the requested cell
+		 * @param y
+		 *            the y value of the requested cell
+		 * @return the value at that location
+		 * @throws IndexOutOfBoundsException
+		 *             if the location is out of bounds
+		 */
+		public int getInt(final int x, final int y) {
+			final long index = this.byteIndex(x, y);
+			return this.window(index).getInt(this.offset(index));
+		}
+
+		/**
+		 * Replaces the value at the specified location, without boxing it.
+		 *
+		 * @param x
+		 *            the x value of the cell to change
+		 * @param y
+		 *            the y value of the cell to change
+		 * @param value
+		 *            the new value
+		 * @return the previous value at that location
+		 * @throws IndexOutOfBoundsException
+		 *             if the location is out of bounds
+		 * @throws UnsupportedOperationException
+		 *             if this table is read-only
+		 */
+		public int putInt(final int x, final int y, final int value) {
+			this.checkWritable();
+			final long index = this.byteIndex(x, y);
+			final ByteBuffer window = this.window(index);
+			final int offset = this.offset(index);
+			final int old = window.getInt(offset);
+			window.putInt(offset, value);
+			return old;
+		}
+
+		@Override
+		public Integer get(final int x, final int y) {
+			return this.getInt(x, y);
+		}
+
+		@Override
+		public Integer put(final int x, final int y, final Integer element) {
+			if (element == null) {
+				throw new IllegalArgumentException("element must not be null");
+			}
+			return this.putInt(x, y, element);
+		}
+
+		@Override
+		protected void clearCell(final ByteBuffer window, final int offset) {
+			window.putInt(offset, this.defaultInt);
+		}
+	}
+
+	/**
+	 * A mapped table of {@code double} cells.
+	 */
+	public static final class Doubles extends MappedTable<Double> {
+
+		private static final int CELL_SIZE = 8;
+
+		/**
+		 * The default value, unboxed for {@link #clearCell}.
+		 */
+		private final double defaultDouble;
+
+		private Doubles(final Header header, final int windowSize) throws IOException {
+			super(header, windowSize, Double.longBitsToDouble(header.defaultBits));
+			this.defaultDouble = Double.longBitsToDouble(header.defaultBits);
+		}
+
+		/**
+		 * Creates a new table in the specified file, with every cell set to
+		 * the specified default value. Any existing content of the file is
+		 * discarded.
+		 *
+		 * @param file
+		 *            the file that will contain the table
+		 * @param width
+		 *            the width of the table
+		 * @param height
+		 *            the height of the table
+		 * @param defaultValue
+		 *            the value of cells that are unset or removed
+		 * @return the new table, mapped for reading and writing
+		 * @throws IOException
+		 *             if the file cannot be created or mapped
+		 */
+		public static Doubles create(final File file, final int width, final int height, final double defaultValue) throws IOException {
+			final long bits = Double.doubleToRawLongBits(defaultValue);
+			final Doubles table = new Doubles(MappedTable.createHeader(file, width, height, CELL_SIZE, bits), WINDOW_SIZE);
+			if (bits != 0L) {
+				table.clear();
+			}
+			return table;
+		}
+
+		/**
+		 * Opens a table that was created by
+		 * {@link #create(File, int, int, double)}.
+		 *
+		 * @param file
+		 *            the file that contains the table
+		 * @param mode
+		 *            either {@link MapMode#READ_ONLY} or
+		 *            {@link MapMode#READ_WRITE}
+		 * @return the table
+		 * @throws IOException
+		 *             if the file cannot be mapped, or does not contain a
+		 *             table of {@code double} cells
+		 */
+		public static Doubles open(final File file, final MapMode mode) throws IOException {
+			return new Doubles(MappedTable.readHeader(file, mode, CELL_SIZE), WINDOW_SIZE);
+		}
+
+		/**
+		 * Returns the value at the specified location, without boxing it.
+		 *
+		 * @param x
+		 *            the x value of the requested cell
+		 * @param y
+		 *            the y value of the requested cell
+		 * @return the value at that location
+		 * @throws IndexOutOfBoundsException
+		 *             if the location is out of bounds
+		 */
+		public double getDouble(final int x, final int y) {
+			final long index = this.byteIndex(x, y);
+			return this.window(index).getDouble(this.offset(index));
+		}
+
+		/**
+		 * Replaces the value at the specified location, without boxing it.
+		 *
+		 * @param x
+		 *            the x value of the cell to change
+		 * @param y
+		 *            the y value of the cell to change
+		 * @param value
+		 *            the new value
+		 * @return the previous value at that location
+		 * @throws IndexOutOfBoundsException
+		 *             if the location is out of bounds
+		 * @throws UnsupportedOperationException
+		 *             if this table is read-only
+		 */
+		public double putDouble(final int x, final int y, final double value) {
+			this.checkWritable();
+			final long index = this.byteIndex(x, y);
+			final ByteBuffer window = this.window(index);
+			final int offset = this.offset(index);
+			final double old = window.getDouble(offset);
+			window.putDouble(offset, value);
+			return old;
+		}
+
+		@Override
+		public Double get(final int x, final int y) {
+			return this.getDouble(x, y);
+		}
+
+		@Override
+		public Double put(final int x, final int y, final Double element) {
+			if (element == null) {
+				throw new IllegalArgumentException("element must not be null");
+			}
+			return this.putDouble(x, y, element);
+		}
+
+		@Override
+		protected void clearCell(final ByteBuffer window, final int offset) {
+			window.putDouble(offset, this.defaultDouble);
+		}
+	}
+
+	/**
+	 * A mapped table of {@code byte} cells.
+	 */
+	public static final class Bytes extends MappedTable<Byte> {
+
+		private static final int CELL_SIZE = 1;
+
+		/**
+		 * The default value, unboxed for {@link #clearCell}.
+		 */
+		private final byte defaultByte;
+
+		private Bytes(final Header header, final int windowSize) throws IOException {
+			super(header, windowSize, (byte) header.defaultBits);
+			this.defaultByte = (byte) header.defaultBits;
+		}
+
+		/**
+		 * Creates a new table in the specified file, with every cell set to
+		 * the specified default value. Any existing content of the file is
+		 * discarded.
+		 *
+		 * @param file
+		 *            the file that will contain the table
+		 * @param width
+		 *            the width of the table
+		 * @param height
+		 *            the height of the table
+		 * @param defaultValue
+		 *            the value of cells that are unset or removed
+		 * @return the new table, mapped for reading and writing
+		 * @throws IOException
+		 *             if the file cannot be created or mapped
+		 */
+		public static Bytes create(final File file, final int width, final int height, final byte defaultValue) throws IOException {
+			final Bytes table = new Bytes(MappedTable.createHeader(file, width, height, CELL_SIZE, defaultValue), WINDOW_SIZE);
+			if (defaultValue != 0) {
+				table.clear();
+			}
+			return table;
+		}
+
+		/**
+		 * Opens a table that was created by
+		 * {@link #create(File, int, int, byte)}.
+		 *
+		 * @param file
+		 *            the file that contains the table
+		 * @param mode
+		 *            either {@link MapMode#READ_ONLY} or
+		 *            {@link MapMode#READ_WRITE}
+		 * @return the table
+		 * @throws IOException
+		 *             if the file cannot be mapped, or does not contain a
+		 *             table of {@code byte} cells
+		 */
+		public static Bytes open(final File file, final MapMode mode) throws IOException {
+			return new Bytes(MappedTable.readHeader(file, mode, CELL_SIZE), WINDOW_SIZE);
+		}
+
+		/**
+		 * Returns the value at the specified location, without boxing it.
+		 *
+		 * @param x
+		 *            the x value of the requested cell
+		 * @param y
+		 *            the y value of the requested cell
+		 * @return the value at that location
+		 * @throws IndexOutOfBoundsException
+		 *             if the location is out of bounds
+		 */
+		public byte getByte(final int x, final int y) {
+			final long index = this.byteIndex(x, y);
+			return this.window(index).get(this.offset(index));
+		}
+
+		/**
+		 * Replaces the value at the specified location, without boxing it.
+		 *
+		 * @param x
+		 *            the x value of the cell to change
+		 * @param y
+		 *            the y value of the cell to change
+		 * @param value
+		 *            the new value
+		 * @return the previous value at that location
+		 * @throws IndexOutOfBoundsException
+		 *             if the location is out of bounds
+		 * @throws UnsupportedOperationException
+		 *             if this table is read-only
+		 */
+		public byte putByte(final int x, final int y, final byte value) {
+			this.checkWritable();
+			final long index = this.byteIndex(x, y);
+			final ByteBuffer window = this.window(index);
+			final int offset = this.offset(index);
+			final byte old = window.get(offset);
+			window.put(offset, value);
+			return old;
+		}
+
+		@Override
+		public Byte get(final int x, final int y) {
+			return this.getByte(x, y);
+		}
+
+		@Override
+		public Byte put(final int x, final int y, final Byte element) {
+			if (element == null) {
+				throw new IllegalArgumentException("element must not be null");
+			}
+			return this.putByte(x, y, element);
+		}
+
+		@Override
+		protected void clearCell(final ByteBuffer window, final int offset) {
+			window.put(offset, this.defaultByte);
+		}
+	}
+
+	/**
+	 * The header of a table's file, as read before the table is constructed.
+	 */
+	private static final class Header {
+		FileChannel channel;
+		MapMode mode;
+		int width;
+		int height;
+		int cellSize;
+		long defaultBits;
+	}
+
+	private static final int MAGIC = 0x54424c31;
+	private static final int VERSION = 1;
+
+	private static final int MAGIC_OFFSET = 0;
+	private static final int VERSION_OFFSET = 4;
+	private static final int WIDTH_OFFSET = 8;
+	private static final int HEIGHT_OFFSET = 12;
+	private static final int CELL_SIZE_OFFSET = 16;
+	private static final int DEFAULT_OFFSET = 24;
+	private static final int DATA_OFFSET = 64;
+
+	/**
+	 * The size of each mapped window, in bytes. A single mapping cannot be
+	 * larger than 2 GB, so larger tables are mapped as several windows.
+	 */
+	static final int WINDOW_SIZE = 1 << 30;
+
+	private final FileChannel channel;
+
+	private final MapMode mode;
+
+	private final int width;
+
+	private final int height;
+
+	private final int cellSize;
+
+	private final int windowShift;
+
+	private final int windowMask;
+
+	private final MappedByteBuffer[] windows;
+
+	private MappedTable(final Header header, final int windowSize, final T defaultValue) throws IOException {
+		super(defaultValue);
+		if (Integer.bitCount(windowSize) != 1 || windowSize < header.cellSize) {
+			throw new IllegalArgumentException("windowSize must be a power of two, and at least one cell, but was " + windowSize);
+		}
+		this.channel = header.channel;
+		this.mode = header.mode;
+		this.width = header.width;
+		this.height = header.height;
+		this.cellSize = header.cellSize;
+		this.windowShift = Integer.numberOfTrailingZeros(windowSize);
+		this.windowMask = windowSize - 1;
+
+		final long dataSize = (long) this.width * this.height * this.cellSize;
+		final int windowCount = (int) ((dataSize + windowSize - 1) >>> this.windowShift);
+		this.windows = new MappedByteBuffer[windowCount];
+		try {
+			for (int i = 0; i < windowCount; ++i) {
+				final long start = (long) i << this.windowShift;
+				final MappedByteBuffer window = this.channel.map(this.mode, DATA_OFFSET + start, Math.min(windowSize, dataSize - start));
+				window.order(ByteOrder.LITTLE_ENDIAN);
+				this.windows[i] = window;
+			}
+		} catch (IOException | RuntimeException e) {
+			this.channel.close();
+			throw e;
+		}
+	}
+
+	private static Header createHeader(final File file, final int width, final int height, final int cellSize, final long defaultBits) throws IOException {
+		if (width < 0 || height < 0) {
+			throw new IllegalArgumentException(String.format("Dimensions must not be negative. Width: %d, height: %d", width, height));
+		}
+		final FileChannel channel = FileChannel.open(file.toPath(),
+				StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		try {
+			final ByteBuffer header = ByteBuffer.allocate(DATA_OFFSET).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC_OFFSET, MAGIC);
+			header.putInt(VERSION_OFFSET, VERSION);
+			header.putInt(WIDTH_OFFSET, width);
+			header.putInt(HEIGHT_OFFSET, height);
+			header.putInt(CELL_SIZE_OFFSET, cellSize);
+			header.putLong(DEFAULT_OFFSET, defaultBits);
+			while (header.hasRemaining()) {
+				channel.write(header, header.position());
+			}
+			// Extend the file without writing the cells; the operating system
+			// fills the new space with zeroes.
+			final long size = DATA_OFFSET + (long) width * height * cellSize;
+			if (size > DATA_OFFSET) {
+				channel.write(ByteBuffer.allocate(1), size - 1);
+			}
+
+			final Header result = new Header();
+			result.channel = channel;
+			result.mode = MapMode.READ_WRITE;
+			result.width = width;
+			result.height = height;
+			result.cellSize = cellSize;
+			result.defaultBits = defaultBits;
+			return result;
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	private static Header readHeader(final File file, final MapMode mode, final int cellSize) throws IOException {
+		final OpenOption[] options;
+		if (mode == MapMode.READ_ONLY) {
+			options = new OpenOption[] { StandardOpenOption.READ };
+		} else if (mode == MapMode.READ_WRITE) {
+			options = new OpenOption[] { StandardOpenOption.READ, StandardOpenOption.WRITE };
+		} else {
+			throw new IllegalArgumentException("Unsupported mode: " + mode);
+		}
+		final FileChannel channel = FileChannel.open(file.toPath(), options);
+		try {
+			if (channel.size() < DATA_OFFSET) {
+				throw new IOException("File is too small to contain a table: " + file);
+			}
+			final ByteBuffer header = ByteBuffer.allocate(DATA_OFFSET).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining()) {
+				if (channel.read(header, header.position()) < 0) {
+					throw new IOException("Unexpected end of file: " + file);
+				}
+			}
+			if (header.getInt(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION) {
+				throw new IOException("File does not contain a table: " + file);
+			}
+			if (header.getInt(CELL_SIZE_OFFSET) != cellSize) {
+				throw new IOException(String.format("File contains cells of %d bytes, not %d: %s", header.getInt(CELL_SIZE_OFFSET), cellSize, file));
+			}
+
+			final Header result = new Header();
+			result.channel = channel;
+			result.mode = mode;
+			result.width = header.getInt(WIDTH_OFFSET);
+			result.height = header.getInt(HEIGHT_OFFSET);
+			result.cellSize = cellSize;
+			result.defaultBits = header.getLong(DEFAULT_OFFSET);
+			if (result.width < 0 || result.height < 0 || channel.size() < DATA_OFFSET + (long) result.width * result.height * cellSize) {
+				throw new IOException("File is smaller than its table: " + file);
+			}
+			return result;
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	@Override
+	public int width() {
+		return this.width;
+	}
+
+	@Override
+	public int height() {
+		return this.height;
+	}
+
+	@Override
+	public int size() {
+		return (int) Math.min(Integer.MAX_VALUE, (long) this.width * this.height);
+	}
+
+	/**
+	 * @return {@code true} if this table was opened read-only
+	 */
+	public boolean isReadOnly() {
+		return this.mode == MapMode.READ_ONLY;
+	}
+
+	@Override
+	public T get(final Vector3i location) {
+		return this.get(location.x(), location.y());
+	}
+
+	@Override
+	public abstract T get(int x, int y);
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the element is {@code null}
+	 * @throws UnsupportedOperationException
+	 *             if this table is read-only
+	 */
+	@Override
+	public T put(final Vector3i location, final T element) {
+		return this.put(location.x(), location.y(), element);
+	}
+
+	@Override
+	public abstract T put(int x, int y, T element);
+
+	/**
+	 * Sets every cell to the default value. This writes the whole file.
+	 *
+	 * @throws UnsupportedOperationException
+	 *             if this table is read-only
+	 */
+	@Override
+	public void clear() {
+		this.checkWritable();
+		for (final MappedByteBuffer window : this.windows) {
+			final int limit = window.limit();
+			for (int offset = 0; offset < limit; offset += this.cellSize) {
+				this.clearCell(window, offset);
+			}
+		}
+	}
+
+	/**
+	 * Writes any changes to this table to its file.
+	 *
+	 * @see MappedByteBuffer#force()
+	 */
+	public void force() {
+		if (this.isReadOnly()) {
+			return;
+		}
+		for (final MappedByteBuffer window : this.windows) {
+			window.force();
+		}
+	}
+
+	/**
+	 * Closes this table's file. The mapping itself remains until this table
+	 * is garbage-collected, but the table should not be used after it is
+	 * closed. Changes are not forced to the file.
+	 */
+	@Override
+	public void close() throws IOException {
+		this.channel.close();
+	}
+
+	/**
+	 * Sets the cell at the specified offset of the specified window to the
+	 * default value.
+	 *
+	 * @param window
+	 *            the window containing the cell
+	 * @param offset
+	 *            the offset of the cell within the window
+	 */
+	protected abstract void clearCell(ByteBuffer window, int offset);
+
+	/**
+	 * Throws an exception if this table is read-only.
+	 *
+	 * @throws UnsupportedOperationException
+	 *             if this table is read-only
+	 */
+	protected void checkWritable() {
+		if (this.isReadOnly()) {
+			throw new UnsupportedOperationException("Table is read-only");
+		}
+	}
+
+	/**
+	 * Returns the position of the specified cell, in bytes from the start of
+	 * the table's data.
+	 *
+	 * @throws IndexOutOfBoundsException
+	 *             if the location is out of bounds
+	 */
+	protected long byteIndex(final int x, final int y) {
+		AbstractTable.validateLocation(x, y, this.width, this.height);
+		return ((long) y * this.width + x) * this.cellSize;
+	}
+
+	/**
+	 * @return the window that contains the specified byte index
+	 */
+	protected ByteBuffer window(final long byteIndex) {
+		return this.windows[(int) (byteIndex >>> this.windowShift)];
+	}
+
+	/**
+	 * @return the offset of the specified byte index within its window
+	 */
+	protected int offset(final long byteIndex) {
+		return (int) byteIndex & this.windowMask;
+	}
+}
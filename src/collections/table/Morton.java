@@ -0,0 +1,187 @@
+package collections.table;
+
+/**
+ * Collection of static methods for Morton codes, which order the cells of a
+ * table along a Z-order curve.
+ * <p>
+ * A Morton code interleaves the bits of a location, with x in the even bits
+ * and y in the odd bits:
+ *
+ * <pre>
+ *  0  1  4  5
+ *  2  3  6  7
+ *  8  9 12 13
+ * 10 11 14 15
+ * </pre>
+ *
+ * Cells that are near each other in the table tend to be near each other in
+ * this order, so algorithms that look at a cell's neighbours, like blurs or
+ * flood fills, touch fewer cache lines when they visit cells in this order.
+ * <p>
+ * Tables are rarely square powers of two, so a walk over a table's Morton
+ * codes will find codes that are outside the table. {@link #next(long, int, int)}
+ * and {@link #previous(long, int, int)} skip over them, whole blocks at a
+ * time.
+ *
+ * @author Aaron Faanes
+ * @see collections.table.iteration.MortonTableIterator
+ * @see TableLayout#MORTON
+ */
+public final class Morton {
+
+	private Morton() {
+		// Suppresses default constructor, ensuring non-instantiability.
+		throw new AssertionError("This class cannot be instantiated");
+	}
+
+	/**
+	 * Returns the Morton code of the specified location.
+	 *
+	 * @param x
+	 *            the x value of the location. It must not be negative.
+	 * @param y
+	 *            the y value of the location. It must not be negative.
+	 * @return the Morton code of that location
+	 */
+	public static long encode(final int x, final int y) {
+		return spread(x) | spread(y) << 1;
+	}
+
+	/**
+	 * Returns the Morton code of the specified location, which must be within
+	 * the first {@code 0x10000} cells of each dimension. This is cheaper than
+	 * {@link #encode(int, int)}, and is meant for indexing arrays.
+	 */
+	static int encodeShort(final int x, final int y) {
+		return spreadShort(x) | spreadShort(y) << 1;
+	}
+
+	/**
+	 * Returns the x value of the location with the specified Morton code.
+	 *
+	 * @param code
+	 *            the Morton code of a location
+	 * @return the x value of that location
+	 */
+	public static int decodeX(final long code) {
+		return compact(code);
+	}
+
+	/**
+	 * Returns the y value of the location with the specified Morton code.
+	 *
+	 * @param code
+	 *            the Morton code of a location
+	 * @return the y value of that location
+	 */
+	public static int decodeY(final long code) {
+		return compact(code >>> 1);
+	}
+
+	/**
+	 * Returns the first Morton code, at or after the specified code, whose
+	 * location is inside a table of the specified size.
+	 *
+	 * @param code
+	 *            the code to start from
+	 * @param width
+	 *            the width of the table
+	 * @param height
+	 *            the height of the table
+	 * @return the first code at or after {@code code} that is in the table, or
+	 *         {@code -1} if there is none
+	 */
+	public static long next(long code, final int width, final int height) {
+		if (width <= 0 || height <= 0) {
+			return -1;
+		}
+		final long end = encode(width - 1, height - 1);
+		while (code <= end) {
+			if (decodeX(code) < width && decodeY(code) < height) {
+				return code;
+			}
+			// The code is the first corner of an aligned square for each pair of
+			// trailing zero bits. Since that corner is already out of the
+			// table, so is the rest of the square.
+			final int level = Long.numberOfTrailingZeros(code) / 2;
+			code += 1L << 2 * level;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the last Morton code, at or before the specified code, whose
+	 * location is inside a table of the specified size.
+	 *
+	 * @param code
+	 *            the code to start from
+	 * @param width
+	 *            the width of the table
+	 * @param height
+	 *            the height of the table
+	 * @return the last code at or before {@code code} that is in the table, or
+	 *         {@code -1} if there is none
+	 */
+	public static long previous(long code, final int width, final int height) {
+		if (width <= 0 || height <= 0) {
+			return -1;
+		}
+		while (code >= 0) {
+			if (decodeX(code) < width && decodeY(code) < height) {
+				return code;
+			}
+			// The code is the last corner of an aligned square for each pair of
+			// trailing one bits. Skip the largest of those squares whose first
+			// corner is out of the table, since all of it is out too.
+			int level = Long.numberOfTrailingZeros(~code) / 2;
+			while (level > 0) {
+				final long first = code & -(1L << 2 * level);
+				if (decodeX(first) >= width || decodeY(first) >= height) {
+					break;
+				}
+				--level;
+			}
+			code = (code & -(1L << 2 * level)) - 1;
+		}
+		return -1;
+	}
+
+	/**
+	 * Spreads the bits of the specified value into the even bits of a long.
+	 */
+	private static long spread(final int value) {
+		long bits = value & 0xffffffffL;
+		bits = (bits | bits << 16) & 0x0000ffff0000ffffL;
+		bits = (bits | bits << 8) & 0x00ff00ff00ff00ffL;
+		bits = (bits | bits << 4) & 0x0f0f0f0f0f0f0f0fL;
+		bits = (bits | bits << 2) & 0x3333333333333333L;
+		bits = (bits | bits << 1) & 0x5555555555555555L;
+		return bits;
+	}
+
+	/**
+	 * Spreads the low 16 bits of the specified value into the even bits of an
+	 * int.
+	 */
+	private static int spreadShort(final int value) {
+		int bits = value & 0xffff;
+		bits = (bits | bits << 8) & 0x00ff00ff;
+		bits = (bits | bits << 4) & 0x0f0f0f0f;
+		bits = (bits | bits << 2) & 0x33333333;
+		bits = (bits | bits << 1) & 0x55555555;
+		return bits;
+	}
+
+	/**
+	 * Gathers the even bits of the specified long into an int.
+	 */
+	private static int compact(final long code) {
+		long bits = code & 0x5555555555555555L;
+		bits = (bits | bits >>> 1) & 0x3333333333333333L;
+		bits = (bits | bits >>> 2) & 0x0f0f0f0f0f0f0f0fL;
+		bits = (bits | bits >>> 4) & 0x00ff00ff00ff00ffL;
+		bits = (bits | bits >>> 8) & 0x0000ffff0000ffffL;
+		bits = (bits | bits >>> 16) & 0x00000000ffffffffL;
+		return (int) bits;
+	}
+}
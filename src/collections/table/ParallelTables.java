@@ -0,0 +1,449 @@
+package collections.table;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import collections.table.AbstractTable.SubTable;
+import logic.functions.Function;
+
+/**
+ * Collection of static methods that work on every cell of a {@link Table} in
+ * parallel.
+ * <p>
+ * Tables are split into bands of rows, which are processed as tasks on a
+ * {@link ForkJoinPool}. Small tables are processed on the calling thread.
+ * {@link ArrayTable}s, and subtables of them, are written a row at a time
+ * rather than cell by cell.
+ * <p>
+ * Operations that write to a table need it to allow different rows to be
+ * written from different threads at once. Only {@link ArrayTable},
+ * {@link ChoiceTable}, {@link MappedTable}, the views of {@link IntTable},
+ * {@link DoubleTable} and {@link ByteTable}, and subtables of these are known
+ * to allow this, so they are the only tables that are written in parallel.
+ * Every other table, including subclasses and decorators like
+ * {@link DirtyTrackingTable}, is written on the calling thread. Any table may
+ * be reduced in parallel, as long as nothing writes to it at the same time.
+ *
+ * @author Aaron Faanes
+ * @see Tables
+ */
+public final class ParallelTables {
+
+	/**
+	 * Combines two values into a result.
+	 *
+	 * @param <A>
+	 *            the type of the first value
+	 * @param <B>
+	 *            the type of the second value
+	 * @param <R>
+	 *            the type of the result
+	 */
+	public interface Combiner<A, B, R> {
+
+		/**
+		 * Combines the specified values. This may be called from several
+		 * threads at once.
+		 *
+		 * @param first
+		 *            the first value
+		 * @param second
+		 *            the second value
+		 * @return the combined value
+		 */
+		R combine(A first, B second);
+	}
+
+	/**
+	 * Work on a band of rows.
+	 */
+	private interface RowOperation {
+		void rows(int top, int bottom);
+	}
+
+	/**
+	 * The number of cells below which a band of rows is no longer split.
+	 */
+	static final int THRESHOLD = 1 << 13;
+
+	private static class DefaultPool {
+		static final ForkJoinPool POOL = new ForkJoinPool();
+	}
+
+	private ParallelTables() {
+		// Suppresses default constructor, ensuring non-instantiability.
+		throw new AssertionError("This class cannot be instantiated");
+	}
+
+	/**
+	 * Returns the pool that is used when none is specified. It has one thread
+	 * per available processor.
+	 *
+	 * @return the default pool
+	 */
+	public static ForkJoinPool defaultPool() {
+		return DefaultPool.POOL;
+	}
+
+	private static class Band extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final RowOperation operation;
+		private final int width;
+		private final int top;
+		private final int bottom;
+
+		public Band(final RowOperation operation, final int width, final int top, final int bottom) {
+			this.operation = operation;
+			this.width = width;
+			this.top = top;
+			this.bottom = bottom;
+		}
+
+		@Override
+		protected void compute() {
+			if (ParallelTables.isSplittable(this.width, this.top, this.bottom)) {
+				final int middle = (this.top + this.bottom) >>> 1;
+				RecursiveAction.invokeAll(
+						new Band(this.operation, this.width, this.top, middle),
+						new Band(this.operation, this.width, middle, this.bottom));
+				return;
+			}
+			this.operation.rows(this.top, this.bottom);
+		}
+	}
+
+	private static class ReduceBand<T> extends RecursiveTask<T> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Table<? extends T> table;
+		private final T identity;
+		private final Combiner<T, ? super T, T> combiner;
+		private final int top;
+		private final int bottom;
+
+		public ReduceBand(final Table<? extends T> table, final T identity, final Combiner<T, ? super T, T> combiner, final int top, final int bottom) {
+			this.table = table;
+			this.identity = identity;
+			this.combiner = combiner;
+			this.top = top;
+			this.bottom = bottom;
+		}
+
+		@Override
+		protected T compute() {
+			if (ParallelTables.isSplittable(this.table.width(), this.top, this.bottom)) {
+				final int middle = (this.top + this.bottom) >>> 1;
+				final ReduceBand<T> upper = new ReduceBand<T>(this.table, this.identity, this.combiner, this.top, middle);
+				final ReduceBand<T> lower = new ReduceBand<T>(this.table, this.identity, this.combiner, middle, this.bottom);
+				lower.fork();
+				final T first = upper.compute();
+				return this.combiner.combine(first, lower.join());
+			}
+			T result = this.identity;
+			final int width = this.table.width();
+			for (int y = this.top; y < this.bottom; ++y) {
+				for (int x = 0; x < width; ++x) {
+					result = this.combiner.combine(result, this.table.get(x, y));
+				}
+			}
+			return result;
+		}
+	}
+
+	private static boolean isSplittable(final int width, final int top, final int bottom) {
+		return bottom - top > 1 && (long) (bottom - top) * width > THRESHOLD;
+	}
+
+	/**
+	 * Runs the specified operation over every row of the specified table.
+	 */
+	private static void run(final ForkJoinPool pool, final Table<?> table, final boolean writes, final RowOperation operation) {
+		final int height = table.height();
+		if (!ParallelTables.isSplittable(table.width(), 0, height) || (writes && !ParallelTables.allowsConcurrentWrites(table))) {
+			operation.rows(0, height);
+			return;
+		}
+		pool.invoke(new Band(operation, table.width(), 0, height));
+	}
+
+	/**
+	 * Returns whether different rows of the specified table may be written by
+	 * different threads at once. Classes must be listed here to be written in
+	 * parallel; subclasses are not, since they may keep state of their own.
+	 */
+	static boolean allowsConcurrentWrites(final Table<?> table) {
+		final Table<?> base = ParallelTables.base(table);
+		final Class<?> type = base.getClass();
+		return type == ArrayTable.class
+				|| type == ChoiceTable.class
+				|| type == MappedTable.Ints.class
+				|| type == MappedTable.Doubles.class
+				|| type == MappedTable.Bytes.class
+				|| PrimitiveTable.isView(base);
+	}
+
+	private static Table<?> base(final Table<?> table) {
+		if (table instanceof SubTable) {
+			return ((SubTable<?>) table).base();
+		}
+		return table;
+	}
+
+	/**
+	 * Fills the table with the provided value, using the default pool.
+	 *
+	 * @param <T>
+	 *            the type of elements in the table
+	 * @param table
+	 *            the table to fill
+	 * @param value
+	 *            the value used to fill the table
+	 * @see Tables#fill(Table, Object)
+	 */
+	public static <T> void fill(final Table<T> table, final T value) {
+		ParallelTables.fill(ParallelTables.defaultPool(), table, value);
+	}
+
+	/**
+	 * Fills the table with the provided value.
+	 *
+	 * @param <T>
+	 *            the type of elements in the table
+	 * @param pool
+	 *            the pool that will fill the table
+	 * @param table
+	 *            the table to fill
+	 * @param value
+	 *            the value used to fill the table
+	 * @see Tables#fill(Table, Object)
+	 */
+	public static <T> void fill(final ForkJoinPool pool, final Table<T> table, final T value) {
+		final int width = table.width();
+		final ArrayTable<T> array = ParallelTables.arrayBase(table);
+		if (array != null) {
+			final int left = ParallelTables.baseX(table);
+			final int offset = ParallelTables.baseY(table);
+			ParallelTables.run(pool, table, true, new RowOperation() {
+				@Override
+				public void rows(final int top, final int bottom) {
+					for (int y = top; y < bottom; ++y) {
+						Arrays.fill(array.row(offset + y), left, left + width, value);
+					}
+				}
+			});
+			return;
+		}
+		ParallelTables.run(pool, table, true, new RowOperation() {
+			@Override
+			public void rows(final int top, final int bottom) {
+				for (int y = top; y < bottom; ++y) {
+					for (int x = 0; x < width; ++x) {
+						table.put(x, y, value);
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Replaces every value in the table with the result of the specified
+	 * function, using the default pool.
+	 *
+	 * @param <T>
+	 *            the type of elements in the table
+	 * @param table
+	 *            the table whose values are replaced
+	 * @param function
+	 *            the function applied to every value. It may be called from
+	 *            several threads at once.
+	 */
+	public static <T> void map(final Table<T> table, final Function<? super T, ? extends T> function) {
+		ParallelTables.map(ParallelTables.defaultPool(), table, function);
+	}
+
+	/**
+	 * Replaces every value in the table with the result of the specified
+	 * function.
+	 *
+	 * @param <T>
+	 *            the type of elements in the table
+	 * @param pool
+	 *            the pool that will apply the function
+	 * @param table
+	 *            the table whose values are replaced
+	 * @param function
+	 *            the function applied to every value. It may be called from
+	 *            several threads at once.
+	 */
+	public static <T> void map(final ForkJoinPool pool, final Table<T> table, final Function<? super T, ? extends T> function) {
+		final int width = table.width();
+		final ArrayTable<T> array = ParallelTables.arrayBase(table);
+		if (array != null) {
+			final int left = ParallelTables.baseX(table);
+			final int offset = ParallelTables.baseY(table);
+			final T defaultValue = array.getDefaultValue();
+			ParallelTables.run(pool, table, true, new RowOperation() {
+				@Override
+				public void rows(final int top, final int bottom) {
+					for (int y = top; y < bottom; ++y) {
+						final T[] row = array.row(offset + y);
+						for (int x = left; x < left + width; ++x) {
+							final T value = row[x];
+							row[x] = function.apply(value != null ? value : defaultValue);
+						}
+					}
+				}
+			});
+			return;
+		}
+		ParallelTables.run(pool, table, true, new RowOperation() {
+			@Override
+			public void rows(final int top, final int bottom) {
+				for (int y = top; y < bottom; ++y) {
+					for (int x = 0; x < width; ++x) {
+						table.put(x, y, function.apply(table.get(x, y)));
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Combines every value in the target table with the value at the same
+	 * location in the other table, using the default pool.
+	 *
+	 * @param <T>
+	 *            the type of elements in the target table
+	 * @param <U>
+	 *            the type of elements in the other table
+	 * @param target
+	 *            the table whose values are replaced
+	 * @param other
+	 *            the table whose values are combined with the target's
+	 * @param combiner
+	 *            combines a target value with the other value, returning the
+	 *            new target value. It may be called from several threads at
+	 *            once.
+	 * @throws IllegalArgumentException
+	 *             if the tables are not the same size
+	 */
+	public static <T, U> void zip(final Table<T> target, final Table<U> other, final Combiner<? super T, ? super U, ? extends T> combiner) {
+		ParallelTables.zip(ParallelTables.defaultPool(), target, other, combiner);
+	}
+
+	/**
+	 * Combines every value in the target table with the value at the same
+	 * location in the other table.
+	 *
+	 * @param <T>
+	 *            the type of elements in the target table
+	 * @param <U>
+	 *            the type of elements in the other table
+	 * @param pool
+	 *            the pool that will combine the tables
+	 * @param target
+	 *            the table whose values are replaced
+	 * @param other
+	 *            the table whose values are combined with the target's. It
+	 *            must not be written to while this runs.
+	 * @param combiner
+	 *            combines a target value with the other value, returning the
+	 *            new target value. It may be called from several threads at
+	 *            once.
+	 * @throws IllegalArgumentException
+	 *             if the tables are not the same size
+	 */
+	public static <T, U> void zip(final ForkJoinPool pool, final Table<T> target, final Table<U> other, final Combiner<? super T, ? super U, ? extends T> combiner) {
+		if (target.width() != other.width() || target.height() != other.height()) {
+			throw new IllegalArgumentException(String.format("Tables must be the same size. Target: %dx%d, other: %dx%d",
+					target.width(), target.height(), other.width(), other.height()));
+		}
+		final int width = target.width();
+		ParallelTables.run(pool, target, true, new RowOperation() {
+			@Override
+			public void rows(final int top, final int bottom) {
+				for (int y = top; y < bottom; ++y) {
+					for (int x = 0; x < width; ++x) {
+						target.put(x, y, combiner.combine(target.get(x, y), other.get(x, y)));
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Combines every value in the table into a single result, using the
+	 * default pool.
+	 *
+	 * @param <T>
+	 *            the type of elements in the table
+	 * @param table
+	 *            the table to reduce
+	 * @param identity
+	 *            the result for an empty table. Combining it with any value
+	 *            must return that value.
+	 * @param combiner
+	 *            an associative function that combines two values. It may be
+	 *            called from several threads at once, and values are not
+	 *            necessarily combined in order.
+	 * @return the combination of every value in the table
+	 */
+	public static <T> T reduce(final Table<? extends T> table, final T identity, final Combiner<T, ? super T, T> combiner) {
+		return ParallelTables.reduce(ParallelTables.defaultPool(), table, identity, combiner);
+	}
+
+	/**
+	 * Combines every value in the table into a single result.
+	 *
+	 * @param <T>
+	 *            the type of elements in the table
+	 * @param pool
+	 *            the pool that will reduce the table
+	 * @param table
+	 *            the table to reduce. It must not be written to while this
+	 *            runs.
+	 * @param identity
+	 *            the result for an empty table. Combining it with any value
+	 *            must return that value.
+	 * @param combiner
+	 *            an associative function that combines two values. It may be
+	 *            called from several threads at once, and values are not
+	 *            necessarily combined in order.
+	 * @return the combination of every value in the table
+	 */
+	public static <T> T reduce(final ForkJoinPool pool, final Table<? extends T> table, final T identity, final Combiner<T, ? super T, T> combiner) {
+		final ReduceBand<T> task = new ReduceBand<T>(table, identity, combiner, 0, table.height());
+		if (!ParallelTables.isSplittable(table.width(), 0, table.height())) {
+			return task.compute();
+		}
+		return pool.invoke(task);
+	}
+
+	/**
+	 * Returns the array table that holds the values of the specified table,
+	 * or {@code null} if it isn't backed by one. Subclasses of
+	 * {@link ArrayTable} may override {@code put}, so their rows are never
+	 * written directly.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> ArrayTable<T> arrayBase(final Table<T> table) {
+		final Table<?> base = ParallelTables.base(table);
+		if (base != null && base.getClass() == ArrayTable.class) {
+			return (ArrayTable<T>) base;
+		}
+		return null;
+	}
+
+	private static int baseX(final Table<?> table) {
+		return table instanceof SubTable ? ((SubTable<?>) table).baseX() : 0;
+	}
+
+	private static int baseY(final Table<?> table) {
+		return table instanceof SubTable ? ((SubTable<?>) table).baseY() : 0;
+	}
+}
@@ -0,0 +1,339 @@
+package collections.table;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
+import geom.vectors.Vector3i;
+
+/**
+ * The skeleton of a fixed-size table of primitive values, stored in a single
+ * array.
+ * <p>
+ * This class holds everything that doesn't depend on the type of the values:
+ * the dimensions and layout, the mapping from locations to indices, and the
+ * region, copy and conversion operations. Row-major tables move whole rows
+ * with {@link System#arraycopy(Object, int, Object, int, int)}; other layouts
+ * scatter each row, so their cells are copied one at a time by
+ * {@link #copyCells(Object, int[], Object, int[], int)}, a row per call.
+ * Subclasses provide the typed accessors.
+ *
+ * @author Aaron Faanes
+ * @param <A>
+ *            the type of array that holds the values, like {@code int[]}
+ * @param <E>
+ *            the boxed type of each value, like {@code Integer}
+ * @see IntTable
+ * @see DoubleTable
+ * @see ByteTable
+ */
+public abstract class PrimitiveTable<A, E> {
+
+	/**
+	 * A {@link Table} view of a primitive table. Values are boxed as they are
+	 * read.
+	 */
+	private class TableView extends AbstractTable<E> {
+
+		public TableView() {
+			super(PrimitiveTable.this.getDefaultElement());
+		}
+
+		@Override
+		public E get(final Vector3i location) {
+			return PrimitiveTable.this.getElement(location.x(), location.y());
+		}
+
+		@Override
+		public E get(final int x, final int y) {
+			return PrimitiveTable.this.getElement(x, y);
+		}
+
+		@Override
+		public int width() {
+			return PrimitiveTable.this.width();
+		}
+
+		@Override
+		public int height() {
+			return PrimitiveTable.this.height();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @throws IllegalArgumentException
+		 *             if the element is {@code null}
+		 */
+		@Override
+		public E put(final Vector3i location, final E element) {
+			return this.put(location.x(), location.y(), element);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @throws IllegalArgumentException
+		 *             if the element is {@code null}
+		 */
+		@Override
+		public E put(final int x, final int y, final E element) {
+			if (element == null) {
+				throw new IllegalArgumentException("element must not be null");
+			}
+			return PrimitiveTable.this.putElement(x, y, element);
+		}
+
+		@Override
+		public void clear() {
+			PrimitiveTable.this.clear();
+		}
+	}
+
+	private final int width;
+
+	private final int height;
+
+	private final TableLayout layout;
+
+	/**
+	 * The values of this table, stored in the order given by the layout.
+	 */
+	protected final A values;
+
+	private Table<E> view;
+
+	/**
+	 * Constructs a table of the specified size and layout. Its array is
+	 * created by {@link #newArray(int)}, and left for the subclass to fill.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if either dimension is negative, if the layout is
+	 *             {@code null}, or if the table would need more than
+	 *             {@link Integer#MAX_VALUE} cells
+	 */
+	PrimitiveTable(final int width, final int height, final TableLayout layout) {
+		if (width < 0 || height < 0) {
+			throw new IllegalArgumentException(String.format("Dimensions must not be negative. Width: %d, height: %d", width, height));
+		}
+		if (layout == null) {
+			throw new IllegalArgumentException("layout must not be null");
+		}
+		this.width = width;
+		this.height = height;
+		this.layout = layout;
+		this.values = this.newArray(layout.capacity(width, height));
+	}
+
+	/**
+	 * Creates an array of this table's type. This is called by the
+	 * constructor, so it must not depend on the subclass's fields.
+	 */
+	abstract A newArray(int length);
+
+	/**
+	 * Copies {@code count} cells between arrays of this table's type, in
+	 * order: the value at {@code sourceIndices[i]} is copied to
+	 * {@code targetIndices[i]}.
+	 */
+	abstract void copyCells(A source, int[] sourceIndices, A target, int[] targetIndices, int count);
+
+	/**
+	 * @return the boxed value at the specified location
+	 */
+	abstract E getElement(int x, int y);
+
+	/**
+	 * Replaces the value at the specified location with the unboxed element.
+	 *
+	 * @return the boxed previous value at that location
+	 */
+	abstract E putElement(int x, int y, E element);
+
+	/**
+	 * @return the boxed default value
+	 */
+	abstract E getDefaultElement();
+
+	/**
+	 * Resets every cell to the default value.
+	 */
+	public abstract void clear();
+
+	public int width() {
+		return this.width;
+	}
+
+	public int height() {
+		return this.height;
+	}
+
+	/**
+	 * @return the number of cells in this table
+	 */
+	public int size() {
+		return this.width * this.height;
+	}
+
+	/**
+	 * @return the order in which this table's cells are stored
+	 */
+	public TableLayout getLayout() {
+		return this.layout;
+	}
+
+	/**
+	 * Returns a {@link Table} that is backed by this table. Changes to either
+	 * are visible in the other. The view does not accept {@code null} values.
+	 *
+	 * @return a {@code Table} view of this table
+	 */
+	public Table<E> asTable() {
+		if (this.view == null) {
+			this.view = new TableView();
+		}
+		return this.view;
+	}
+
+	/**
+	 * Returns whether the specified table is a view of a primitive table,
+	 * returned by {@link #asTable()}.
+	 */
+	static boolean isView(final Table<?> table) {
+		return table instanceof PrimitiveTable.TableView;
+	}
+
+	/**
+	 * Returns the index of the specified location in {@link #values}.
+	 *
+	 * @throws IndexOutOfBoundsException
+	 *             if the location is out of bounds
+	 */
+	protected final int index(final int x, final int y) {
+		if (x < 0 || y < 0 || x >= this.width || y >= this.height) {
+			AbstractTable.validateLocation(x, y, this.width, this.height);
+		}
+		if (this.layout == TableLayout.ROW_MAJOR) {
+			return y * this.width + x;
+		}
+		return this.layout.index(x, y, this.width, this.height);
+	}
+
+	/**
+	 * Copies the value at the origin of the specified region to every other
+	 * cell in the region. Subclasses fill a region by validating it, setting
+	 * its origin, and then calling this method. The region must be inside this
+	 * table, and must not be empty.
+	 */
+	final void fillFromOrigin(final int x, final int y, final int regionWidth, final int regionHeight) {
+		final int origin = this.index(x, y);
+		if (this.layout != TableLayout.ROW_MAJOR) {
+			final int[] origins = new int[regionWidth];
+			Arrays.fill(origins, origin);
+			final int[] targets = new int[regionWidth];
+			for (int row = y; row < y + regionHeight; ++row) {
+				for (int i = 0; i < regionWidth; ++i) {
+					targets[i] = this.layout.index(x + i, row, this.width, this.height);
+				}
+				this.copyCells(this.values, origins, this.values, targets, regionWidth);
+			}
+			return;
+		}
+		// Fill the first row by doubling the filled run, then copy that row.
+		for (int filled = 1; filled < regionWidth; filled *= 2) {
+			System.arraycopy(this.values, origin, this.values, origin + filled, Math.min(filled, regionWidth - filled));
+		}
+		for (int row = 1; row < regionHeight; ++row) {
+			System.arraycopy(this.values, origin, this.values, origin + row * this.width, regionWidth);
+		}
+	}
+
+	/**
+	 * Copies a region of the specified table into this table. The source may
+	 * be this table, in which case the regions may overlap.
+	 *
+	 * @throws IndexOutOfBoundsException
+	 *             if either region is not inside its table
+	 */
+	final void copyRegion(final PrimitiveTable<A, E> source, final int sourceX, final int sourceY, final int x, final int y, final int regionWidth, final int regionHeight) {
+		AbstractTable.validateRegion(sourceX, sourceY, regionWidth, regionHeight, source.width, source.height);
+		AbstractTable.validateRegion(x, y, regionWidth, regionHeight, this.width, this.height);
+		if (source.layout != TableLayout.ROW_MAJOR || this.layout != TableLayout.ROW_MAJOR) {
+			// Copy away from the destination, so that overlapping cells aren't
+			// overwritten before they're copied.
+			final boolean upward = source == this && sourceY < y;
+			final boolean leftward = source == this && sourceX < x;
+			final int[] sources = new int[regionWidth];
+			final int[] targets = new int[regionWidth];
+			for (int i = 0; i < regionHeight; ++i) {
+				final int row = upward ? regionHeight - 1 - i : i;
+				for (int j = 0; j < regionWidth; ++j) {
+					final int column = leftward ? regionWidth - 1 - j : j;
+					sources[j] = source.layout.index(sourceX + column, sourceY + row, source.width, source.height);
+					targets[j] = this.layout.index(x + column, y + row, this.width, this.height);
+				}
+				this.copyCells(source.values, sources, this.values, targets, regionWidth);
+			}
+			return;
+		}
+		if (source == this && sourceY < y) {
+			// Copy from the bottom up, so rows aren't overwritten before
+			// they're copied.
+			for (int row = regionHeight - 1; row >= 0; --row) {
+				System.arraycopy(source.values, (sourceY + row) * source.width + sourceX, this.values, (y + row) * this.width + x, regionWidth);
+			}
+			return;
+		}
+		for (int row = 0; row < regionHeight; ++row) {
+			System.arraycopy(source.values, (sourceY + row) * source.width + sourceX, this.values, (y + row) * this.width + x, regionWidth);
+		}
+	}
+
+	/**
+	 * @return a new array of this table's values, in row-major order
+	 */
+	final A copyValues() {
+		final A array = this.newArray(this.size());
+		if (this.layout == TableLayout.ROW_MAJOR) {
+			System.arraycopy(this.values, 0, array, 0, this.size());
+			return array;
+		}
+		final int[] sources = new int[this.width];
+		final int[] targets = new int[this.width];
+		for (int y = 0; y < this.height; ++y) {
+			for (int x = 0; x < this.width; ++x) {
+				sources[x] = this.layout.index(x, y, this.width, this.height);
+				targets[x] = y * this.width + x;
+			}
+			this.copyCells(this.values, sources, array, targets, this.width);
+		}
+		return array;
+	}
+
+	/**
+	 * Replaces this table's values with the specified values, given in
+	 * row-major order.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the number of values does not match the size of this
+	 *             table
+	 */
+	final void replaceValues(final A newValues) {
+		final int length = Array.getLength(newValues);
+		if (length != this.size()) {
+			throw new IllegalArgumentException(String.format("Expected %d values, but got %d", this.size(), length));
+		}
+		if (this.layout == TableLayout.ROW_MAJOR) {
+			System.arraycopy(newValues, 0, this.values, 0, length);
+			return;
+		}
+		final int[] sources = new int[this.width];
+		final int[] targets = new int[this.width];
+		for (int y = 0; y < this.height; ++y) {
+			for (int x = 0; x < this.width; ++x) {
+				sources[x] = y * this.width + x;
+				targets[x] = this.layout.index(x, y, this.width, this.height);
+			}
+			this.copyCells(newValues, sources, this.values, targets, this.width);
+		}
+	}
+}
@@ -97,6 +97,24 @@ public interface Table<T> extends Iterable<T> {
 	 */
 	public T put(Vector3i location, T element);
 
+	/**
+	 * Replaces the element at the specified position with the specified
+	 * element.
+	 * 
+	 * @param x
+	 *            the x value of the element to change
+	 * @param y
+	 *            the y value of the element to change
+	 * @param element
+	 *            element to be stored at the specified position
+	 * @throws IndexOutOfBoundsException
+	 *             if the position is out of range
+	 * @return the old element that was at this position. If no element was at
+	 *         the specified position, the default value will be returned.
+	 * @see Table#put(Vector3i, Object)
+	 */
+	public T put(int x, int y, T element);
+
 	/**
 	 * Resets the element at the specified location to an "empty" state. This
 	 * state might be null values, or it may be defaults, depending on the
@@ -109,6 +127,21 @@ public interface Table<T> extends Iterable<T> {
 	 */
 	public T remove(Vector3i location);
 
+	/**
+	 * Resets the element at the specified position to an "empty" state.
+	 * 
+	 * @param x
+	 *            the x value of the position to reset
+	 * @param y
+	 *            the y value of the position to reset
+	 * @return the element that was removed, if any. If no element was removed,
+	 *         the default value will be returned.
+	 * @throws IndexOutOfBoundsException
+	 *             if the position is out of range
+	 * @see Table#remove(Vector3i)
+	 */
+	public T remove(int x, int y);
+
 	/**
 	 * Returns the area of this table. If the area is greater than
 	 * Integer.MAX_VALUE, this returns Integer.MAX_VALUE.
@@ -0,0 +1,138 @@
+package collections.table;
+
+/**
+ * The order in which an array-backed table stores its cells.
+ * <p>
+ * Row-major order suits code that scans a table row by row. Algorithms that
+ * look at each cell's neighbours above and below, like blurs, flood fills or
+ * path finding, touch one cache line per row they look at, which may be far
+ * apart on wide tables. The other layouts keep cells that are near each other
+ * in both dimensions near each other in memory, at the cost of a few more
+ * instructions per access and some padding.
+ *
+ * @author Aaron Faanes
+ * @see IntTable
+ * @see DoubleTable
+ * @see ByteTable
+ */
+public enum TableLayout {
+
+	/**
+	 * Stores each row after the previous one. This is the default layout, and
+	 * the cheapest one to index.
+	 */
+	ROW_MAJOR {
+		@Override
+		public int capacity(final int width, final int height) {
+			return checkCapacity((long) width * height, width, height);
+		}
+
+		@Override
+		public int index(final int x, final int y, final int width, final int height) {
+			return y * width + x;
+		}
+	},
+
+	/**
+	 * Stores the table as square tiles of {@link #TILE_SIZE} cells a side,
+	 * each of which is stored row-major, and which are themselves stored
+	 * row-major. The last row and column of tiles are padded.
+	 */
+	TILED {
+		@Override
+		public int capacity(final int width, final int height) {
+			final long tilesX = (width + TILE_SIZE - 1) >> TILE_BITS;
+			final long tilesY = (height + TILE_SIZE - 1) >> TILE_BITS;
+			return checkCapacity((tilesX * tilesY) << 2 * TILE_BITS, width, height);
+		}
+
+		@Override
+		public int index(final int x, final int y, final int width, final int height) {
+			final int tilesX = (width + TILE_SIZE - 1) >> TILE_BITS;
+			final int tile = (y >> TILE_BITS) * tilesX + (x >> TILE_BITS);
+			return tile << 2 * TILE_BITS | (y & TILE_SIZE - 1) << TILE_BITS | x & TILE_SIZE - 1;
+		}
+	},
+
+	/**
+	 * Stores the table in {@link Morton} order. Each dimension is padded to a
+	 * power of two, so a table may need up to four times as many cells as it
+	 * holds. If one dimension is larger than the other, the table is stored as
+	 * a row or column of Morton-ordered squares.
+	 */
+	MORTON {
+		@Override
+		public int capacity(final int width, final int height) {
+			if (width == 0 || height == 0) {
+				return 0;
+			}
+			return checkCapacity(1L << (bits(width) + bits(height)), width, height);
+		}
+
+		@Override
+		public int index(final int x, final int y, final int width, final int height) {
+			final int squareBits = Math.min(bits(width), bits(height));
+			final int mask = (1 << squareBits) - 1;
+			// At most one of these is non-zero, and it selects the square.
+			final int square = x >>> squareBits | y >>> squareBits;
+			// The square holds fewer than 2^31 cells, so its sides are shorter
+			// than 2^16.
+			return Morton.encodeShort(x & mask, y & mask) | square << 2 * squareBits;
+		}
+	};
+
+	/**
+	 * The number of cells along each side of a tile, for the {@link #TILED}
+	 * layout. Eight {@code int} values fill half of a typical cache line, so a
+	 * tile of them covers eight lines.
+	 */
+	public static final int TILE_SIZE = 8;
+
+	private static final int TILE_BITS = 3;
+
+	/**
+	 * Returns the length of the array that stores a table of the specified
+	 * size in this layout.
+	 *
+	 * @param width
+	 *            the width of the table
+	 * @param height
+	 *            the height of the table
+	 * @return the number of cells to allocate
+	 * @throws IllegalArgumentException
+	 *             if the table would need more than {@link Integer#MAX_VALUE}
+	 *             cells
+	 */
+	public abstract int capacity(int width, int height);
+
+	/**
+	 * Returns the index of the specified cell, in the array that stores a table
+	 * of the specified size in this layout. The location is not checked.
+	 *
+	 * @param x
+	 *            the x value of the cell
+	 * @param y
+	 *            the y value of the cell
+	 * @param width
+	 *            the width of the table
+	 * @param height
+	 *            the height of the table
+	 * @return the index of the cell
+	 */
+	public abstract int index(int x, int y, int width, int height);
+
+	/**
+	 * Returns the number of bits needed for indexes below the specified
+	 * length, which is also the power of two that the length is padded to.
+	 */
+	private static int bits(final int length) {
+		return 32 - Integer.numberOfLeadingZeros(length - 1);
+	}
+
+	private static int checkCapacity(final long capacity, final int width, final int height) {
+		if (capacity > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException(String.format("Table is too large. Width: %d, height: %d", width, height));
+		}
+		return (int) capacity;
+	}
+}
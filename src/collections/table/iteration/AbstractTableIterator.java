@@ -38,7 +38,7 @@ public abstract class AbstractTableIterator<T> implements TableIterator<T> {
 		if (this.position == null) {
 			this.next();
 		}
-		return this.table.get(this.position);
+		return this.table.get(this.position.x(), this.position.y());
 	}
 
 	@Override
@@ -49,12 +49,28 @@ public abstract class AbstractTableIterator<T> implements TableIterator<T> {
 		return this.position.toFrozen();
 	}
 
+	@Override
+	public int x() {
+		if (this.position == null) {
+			this.next();
+		}
+		return this.position.x();
+	}
+
+	@Override
+	public int y() {
+		if (this.position == null) {
+			this.next();
+		}
+		return this.position.y();
+	}
+
 	@Override
 	public T put(final T value) {
 		if (this.position == null) {
 			this.next();
 		}
-		return this.table.put(this.position, value);
+		return this.table.put(this.position.x(), this.position.y(), value);
 	}
 
 	@Override
@@ -62,6 +78,6 @@ public abstract class AbstractTableIterator<T> implements TableIterator<T> {
 		if (this.position == null) {
 			this.next();
 		}
-		this.table.remove(this.position);
+		this.table.remove(this.position.x(), this.position.y());
 	}
 }
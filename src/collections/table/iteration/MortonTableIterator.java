@@ -0,0 +1,149 @@
+package collections.table.iteration;
+
+import collections.table.Morton;
+import collections.table.Table;
+import geom.vectors.Vector3i;
+
+/**
+ * A {@link TableIterator} that orders elements along a Z-order curve.
+ * <p>
+ *
+ * <pre>
+ *  1  2  5  6
+ *  3  4  7  8
+ *  9 10 13 14
+ * 11 12 15 16
+ * </pre>
+ *
+ * Consecutive elements are usually near each other in both dimensions, so
+ * this order suits algorithms that look at each element's neighbours. Tables
+ * of any size may be iterated; locations of the curve that are outside the
+ * table are skipped.
+ *
+ * @author Aaron Faanes
+ * @param <T>
+ *            the type of iterated value
+ * @see Morton
+ */
+public class MortonTableIterator<T> extends AbstractTableIterator<T> {
+
+	private boolean started = false;
+
+	private final Vector3i previous = Vector3i.mutable();
+
+	/**
+	 * The Morton code of the current position.
+	 */
+	private long code;
+
+	/**
+	 * Whether the location after the current one has been found. If so, its
+	 * code is {@link #nextCode}, or {@code -1} if there is none.
+	 */
+	private boolean nextFound = false;
+
+	private long nextCode;
+
+	private int nextX;
+
+	private int nextY;
+
+	public MortonTableIterator(Table<T> table) {
+		super(table);
+	}
+
+	private boolean hasStarted() {
+		return started;
+	}
+
+	@Override
+	public Vector3i offset() {
+		return position.toMutable().subtract(previous);
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (!this.hasStarted()) {
+			return table.size() > 0;
+		}
+		return this.findNext();
+	}
+
+	@Override
+	public T next() {
+		if (this.hasStarted()) {
+			if (!this.findNext()) {
+				throw new IndexOutOfBoundsException();
+			}
+			previous.set(position);
+			code = nextCode;
+			position.set(nextX, nextY);
+			nextFound = false;
+		}
+		started = true;
+		return table.get(position.x(), position.y());
+	}
+
+	@Override
+	public boolean hasPrevious() {
+		if (!this.hasStarted()) {
+			return false;
+		}
+		return Morton.previous(code - 1, table.width(), table.height()) != -1;
+	}
+
+	@Override
+	public T previous() {
+		if (this.hasStarted()) {
+			previous.set(position);
+			this.moveTo(Morton.previous(code - 1, table.width(), table.height()));
+		}
+		return table.get(position.x(), position.y());
+	}
+
+	/**
+	 * Finds the location after the current one, if it hasn't been found
+	 * already.
+	 * 
+	 * @return {@code true} if there is a location after the current one
+	 */
+	private boolean findNext() {
+		if (nextFound) {
+			return nextCode != -1;
+		}
+		nextFound = true;
+		// Adding one to the code clears its trailing ones and sets the bit
+		// above them. The trailing ones are the low bits of both values, so
+		// one value is incremented and the other has its low bits cleared,
+		// with no need to decode the new code.
+		final int trailingOnes = Long.numberOfTrailingZeros(~code);
+		nextCode = code + 1;
+		if ((trailingOnes & 1) == 0) {
+			nextX = position.x() + 1;
+			nextY = position.y() & -(1 << (trailingOnes >> 1));
+		} else {
+			nextX = position.x() & -(1 << ((trailingOnes + 1) >> 1));
+			nextY = position.y() + 1;
+		}
+		if (nextX < table.width() && nextY < table.height()) {
+			return true;
+		}
+		nextCode = Morton.next(nextCode, table.width(), table.height());
+		if (nextCode == -1) {
+			return false;
+		}
+		nextX = Morton.decodeX(nextCode);
+		nextY = Morton.decodeY(nextCode);
+		return true;
+	}
+
+	private void moveTo(final long newCode) {
+		if (newCode == -1) {
+			throw new IndexOutOfBoundsException();
+		}
+		code = newCode;
+		position.set(Morton.decodeX(code), Morton.decodeY(code));
+		nextFound = false;
+	}
+
+}
@@ -57,7 +57,7 @@ public class NaturalTableIterator<T> extends AbstractTableIterator<T> {
 			this.doNext();
 		}
 		started = true;
-		return table.get(position);
+		return table.get(position.x(), position.y());
 	}
 
 	protected void doNext() {
@@ -89,7 +89,7 @@ public class NaturalTableIterator<T> extends AbstractTableIterator<T> {
 			previous.set(position);
 			this.doPrevious();
 		}
-		return table.get(position);
+		return table.get(position.x(), position.y());
 	}
 
 	protected void doPrevious() {
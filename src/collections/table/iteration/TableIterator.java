@@ -41,6 +41,32 @@ public interface TableIterator<T> extends Iterator<T> {
 	 */
 	public Vector3i location();
 
+	/**
+	 * Gets the x value of the current location of this iterator. Unlike
+	 * {@link #location()}, this does not create a vector.
+	 * <p>
+	 * This method will implicitly call {@link TableIterator#next} if the
+	 * iteration hasn't been explicitly started.
+	 * 
+	 * @return the x value of the current location
+	 * @throws NoSuchElementException
+	 *             if iteration was implicitly started, but the table was empty
+	 */
+	public int x();
+
+	/**
+	 * Gets the y value of the current location of this iterator. Unlike
+	 * {@link #location()}, this does not create a vector.
+	 * <p>
+	 * This method will implicitly call {@link TableIterator#next} if the
+	 * iteration hasn't been explicitly started.
+	 * 
+	 * @return the y value of the current location
+	 * @throws NoSuchElementException
+	 *             if iteration was implicitly started, but the table was empty
+	 */
+	public int y();
+
 	/**
 	 * Returns the magnitude of movement from the previous position to the
 	 * current position.
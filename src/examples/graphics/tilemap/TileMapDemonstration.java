@@ -12,6 +12,7 @@ import javax.swing.BorderFactory;
 import javax.swing.JPanel;
 
 import collections.table.ArrayTable;
+import collections.table.DirtyTrackingTable;
 import collections.table.Table;
 import collections.table.iteration.TableIterator;
 import demonstration.Demonstration;
@@ -27,7 +28,7 @@ public class TileMapDemonstration extends Demonstration {
 		Demonstration.launch(TileMapDemonstration.class);
 	}
 
-	private final Table<Color> grid = new ArrayTable<Color>(100, 100);
+	private final Table<Color> grid = new DirtyTrackingTable<Color>(new ArrayTable<Color>(100, 100));
 
 	public TileMapDemonstration() {
 		super();
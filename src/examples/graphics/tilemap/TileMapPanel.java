@@ -9,6 +9,7 @@ import java.awt.Graphics2D;
 
 import javax.swing.JComponent;
 
+import collections.table.DirtyTrackingTable;
 import collections.table.Table;
 import geom.vectors.Vector3i;
 import graphics.TileMap;
@@ -37,6 +38,9 @@ public class TileMapPanel extends JComponent {
 				g.drawRect(0, 0, tileSize.x(), tileSize.y());
 			}
 		};
+		if (grid instanceof DirtyTrackingTable) {
+			this.map.setIncremental(true);
+		}
 		new DragBridge(this, new Actor<Vector3i>() {
 
 			@Override
@@ -53,6 +57,6 @@ public class TileMapPanel extends JComponent {
 	@Override
 	protected void paintComponent(Graphics g) {
 		super.paintComponent(g);
-		map.paint((Graphics2D) g, origin);
+		map.paint((Graphics2D) g, origin, getVisibleRect());
 	}
 }
@@ -4,10 +4,13 @@ import java.util.List;
 
 import asset.Terrestrial;
 import logging.Logs;
+import metrics.Metrics;
+import metrics.Timer;
 
 public class PolygonPipeline extends Thread {
 	public static final String POLYGONPIPELINESTRING = "Polygon Pipeline";
 	private static int threadNum = 0;
+	private static final Timer TIMER = Metrics.timer(POLYGONPIPELINESTRING);
 
 	private final DiscreteRegion region;
 	private final Terrestrial terrestrial;
@@ -26,7 +29,15 @@ public class PolygonPipeline extends Thread {
 
 	@Override
 	public void run() {
-		Logs.hitStopWatch();
+		long started = TIMER.start();
+		try {
+			convert();
+		} finally {
+			TIMER.stop(started);
+		}
+	}
+
+	private void convert() {
 		assert Logs.openNode("Polygon Pipeline Executions", "Executing Polygon Pipeline");
 		assert Logs.addNode(this.region);
 		List<DiscreteRegion> polygonList = Polygons.convertPolyToConvex(this.region);
@@ -38,6 +49,5 @@ public class PolygonPipeline extends Thread {
 		polygonList = Polygons.optimizePolygons(polygonList);
 		this.terrestrial.addValidatedRegions(polygonList);
 		assert Logs.closeNode();
-		Logs.hitStopWatch();
 	}
 }
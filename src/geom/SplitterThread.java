@@ -6,6 +6,8 @@ import java.util.Set;
 
 import asset.Terrestrial;
 import logging.Logs;
+import metrics.Metrics;
+import metrics.Timer;
 
 public class SplitterThread extends Thread {
 	private DiscreteRegionBSPNode root;
@@ -13,6 +15,7 @@ public class SplitterThread extends Thread {
 	private boolean recurse;
 	private static int threadNum = 0;
 	public static final String SPLITTERTHREADSTRING = "Splitter Pipeline";
+	private static final Timer TIMER = Metrics.timer(SPLITTERTHREADSTRING);
 	private Terrestrial terrestrial;
 
 	public SplitterThread(Terrestrial terrestrial, DiscreteRegionBSPNode root, Collection<DiscreteRegion> regions, boolean recurse) {
@@ -34,7 +37,15 @@ public class SplitterThread extends Thread {
 
 	@Override
 	public void run() {
-		Logs.hitStopWatch();
+		long started = TIMER.start();
+		try {
+			split();
+		} finally {
+			TIMER.stop(started);
+		}
+	}
+
+	private void split() {
 		assert Logs.openNode("Splitter Thread Executions", "Executing Splitter Thread (" + this.regions.size() + " region(s))");
 		assert Logs.addSnapNode("Regions (" + this.regions.size() + " region(s))", this.regions);
 		for (DiscreteRegion region : this.regions) {
@@ -65,6 +76,5 @@ public class SplitterThread extends Thread {
 		}
 		this.terrestrial.decrementOpenThreads();
 		assert Logs.closeNode(this.root);
-		Logs.hitStopWatch();
 	}
 }
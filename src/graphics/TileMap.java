@@ -1,8 +1,13 @@
 package graphics;
 
+import java.awt.AlphaComposite;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.List;
 
+import collections.table.DirtyTrackingTable;
 import collections.table.Table;
 import collections.table.iteration.NaturalTableIterator;
 import collections.table.iteration.TableIterator;
@@ -26,6 +31,17 @@ public abstract class TileMap<T> {
 	 */
 	protected final Table<T> table;
 
+	private boolean incremental;
+
+	/**
+	 * The image of the view, when painting incrementally.
+	 */
+	private BufferedImage cache;
+
+	private Vector3i cachedOrigin;
+
+	private Rectangle cachedView;
+
 	/**
 	 * Constructs a tile map that will output the specified table.
 	 * 
@@ -57,7 +73,150 @@ public abstract class TileMap<T> {
 		return this.tileSize;
 	}
 
+	/**
+	 * Returns whether this tile map is painted incrementally.
+	 * 
+	 * @return {@code true} if only changed tiles are repainted
+	 * @see #setIncremental(boolean)
+	 */
+	public boolean isIncremental() {
+		return this.incremental;
+	}
+
+	/**
+	 * Sets whether this tile map is painted incrementally. An incremental tile
+	 * map keeps an image of the tiles it last painted, and only repaints the
+	 * tiles that have changed since then, along with any area that the view
+	 * has newly scrolled over. This is much cheaper for maps where little
+	 * changes between frames.
+	 * <p>
+	 * Changes are only seen if they're made through the
+	 * {@link DirtyTrackingTable} that this map draws. Tiles should be opaque,
+	 * or the view's background will show through gaps in the cached image.
+	 * 
+	 * @param incremental
+	 *            {@code true} to repaint only changed tiles
+	 * @throws IllegalStateException
+	 *             if this map's table is not a {@link DirtyTrackingTable}
+	 */
+	public void setIncremental(final boolean incremental) {
+		if (incremental && !(this.table instanceof DirtyTrackingTable)) {
+			throw new IllegalStateException("Incremental painting requires a DirtyTrackingTable");
+		}
+		this.incremental = incremental;
+		this.cache = null;
+	}
+
+	/**
+	 * Forces the next paint to redraw every tile.
+	 */
+	public void invalidate() {
+		this.cache = null;
+	}
+
 	public void paint(final Graphics2D originalG, Vector3i origin) {
+		this.paint(originalG, origin, originalG.getClipBounds());
+	}
+
+	/**
+	 * Paints this tile map within the specified view.
+	 * <p>
+	 * When painting incrementally, the cached image covers the view, and
+	 * only the part within the graphics' clip is copied. Components should
+	 * pass their visible area here, so that a repaint of a small part of the
+	 * component doesn't discard the cached image.
+	 * 
+	 * @param originalG
+	 *            the graphics to paint with
+	 * @param origin
+	 *            the location of the map's first tile
+	 * @param view
+	 *            the area of the component that is visible
+	 */
+	public void paint(final Graphics2D originalG, Vector3i origin, final Rectangle view) {
+		if (!this.incremental) {
+			this.paintTiles(originalG, origin);
+			return;
+		}
+		if (view == null || view.isEmpty()) {
+			return;
+		}
+		final List<Rectangle> changes = ((DirtyTrackingTable<?>) this.table).getDirtyRegions().drain();
+
+		if (this.cache == null || this.cache.getWidth() != view.width || this.cache.getHeight() != view.height) {
+			this.cache = new BufferedImage(view.width, view.height, BufferedImage.TYPE_INT_ARGB_PRE);
+			this.redraw(view, origin, view);
+		} else {
+			// Scroll what's already drawn, then draw what was scrolled into
+			// view.
+			final int dx = (origin.x() - this.cachedOrigin.x()) - (view.x - this.cachedView.x);
+			final int dy = (origin.y() - this.cachedOrigin.y()) - (view.y - this.cachedView.y);
+			if (dx != 0 || dy != 0) {
+				if (Math.abs(dx) >= view.width || Math.abs(dy) >= view.height) {
+					this.redraw(view, origin, view);
+				} else {
+					final Graphics2D g = this.cache.createGraphics();
+					try {
+						g.setComposite(AlphaComposite.Src);
+						g.copyArea(0, 0, view.width, view.height, dx, dy);
+					} finally {
+						g.dispose();
+					}
+					if (dx > 0) {
+						this.redraw(view, origin, new Rectangle(view.x, view.y, dx, view.height));
+					} else if (dx < 0) {
+						this.redraw(view, origin, new Rectangle(view.x + view.width + dx, view.y, -dx, view.height));
+					}
+					if (dy > 0) {
+						this.redraw(view, origin, new Rectangle(view.x, view.y, view.width, dy));
+					} else if (dy < 0) {
+						this.redraw(view, origin, new Rectangle(view.x, view.y + view.height + dy, view.width, -dy));
+					}
+				}
+			}
+			for (final Rectangle change : changes) {
+				final Rectangle pixels = new Rectangle(
+						origin.x() + change.x * this.tileSize.x(),
+						origin.y() + change.y * this.tileSize.y(),
+						change.width * this.tileSize.x(),
+						change.height * this.tileSize.y());
+				this.redraw(view, origin, pixels.intersection(view));
+			}
+		}
+		this.cachedOrigin = origin.toFrozen();
+		this.cachedView = view;
+
+		originalG.drawImage(this.cache, view.x, view.y, null);
+	}
+
+	/**
+	 * Clears and repaints the specified area of the cached image.
+	 * 
+	 * @param view
+	 *            the area of the view that the cached image holds
+	 * @param origin
+	 *            the origin of the map
+	 * @param area
+	 *            the area to repaint, in view coordinates
+	 */
+	private void redraw(final Rectangle view, final Vector3i origin, final Rectangle area) {
+		if (area.isEmpty()) {
+			return;
+		}
+		final Graphics2D g = this.cache.createGraphics();
+		try {
+			g.translate(-view.x, -view.y);
+			g.clip(area);
+			g.setComposite(AlphaComposite.Clear);
+			g.fill(area);
+			g.setComposite(AlphaComposite.SrcOver);
+			this.paintTiles(g, origin);
+		} finally {
+			g.dispose();
+		}
+	}
+
+	private void paintTiles(final Graphics2D originalG, Vector3i origin) {
 		Graphics2D g = (Graphics2D) originalG.create();
 		try {
 			Vector3i firstTile = Vector3i.mutable(g.getClipBounds().getLocation()).subtract(origin);
@@ -67,30 +226,23 @@ public abstract class TileMap<T> {
 				return;
 			}
 
-			Vector3i lastTile = Vector3i.mutable(g.getClipBounds().getSize());
+			Vector3i lastTile = Vector3i.mutable(g.getClipBounds().getLocation()).add(Vector3i.mutable(g.getClipBounds().getSize())).subtract(origin);
 			lastTile.ceilDivide(tileSize);
-			lastTile.add(firstTile);
 
 			if (lastTile.x() < 0 || lastTile.y() < 0) {
 				return;
 			}
 
-			if (origin.x() < 0) {
-				g.translate(origin.x() % tileSize.x(), 0);
-			} else {
-				g.translate(origin.x(), 0);
-			}
-			if (origin.y() < 0) {
-				g.translate(0, origin.y() % tileSize.y());
-			} else {
-				g.translate(0, origin.y());
-			}
-
 			lastTile.setX(Math.min(this.table.width() - 1, Math.max(0, lastTile.x())));
 			lastTile.setY(Math.min(this.table.height() - 1, Math.max(0, lastTile.y())));
 			firstTile.setX(Math.min(this.table.width() - 1, Math.max(0, firstTile.x())));
 			firstTile.setY(Math.min(this.table.height() - 1, Math.max(0, firstTile.y())));
 
+			// Start drawing at the first visible tile, rather than at the
+			// origin, so that clips away from the view's corner are drawn in
+			// the right place.
+			g.translate(origin.x() + firstTile.x() * tileSize.x(), origin.y() + firstTile.y() * tileSize.y());
+
 			Table<T> subtable = this.table.subTable(firstTile, lastTile.toMutable().subtract(firstTile).add(1));
 			this.renderTable(g, subtable);
 		} finally {
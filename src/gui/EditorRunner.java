@@ -1,6 +1,8 @@
 package gui;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.logging.Logger;
 
 import javax.swing.JFrame;
 import javax.swing.SwingUtilities;
@@ -11,7 +13,9 @@ import gui.logging.LogViewer;
 import gui.script.ScriptEditor;
 import logging.BufferedTreeLog;
 import logging.Logs;
+import logging.TreeLog;
 import logging.TreeLogServer;
+import logging.handlers.AsyncTreeLogHandler;
 
 /**
  * Create a new editing environment.
@@ -32,6 +36,10 @@ public class EditorRunner implements Runnable {
                 System.err.println(ex.toString());
             }
         }
+        if(args.length > 1) {
+            // The second argument names a shared memory ring for local producers.
+            runner.setSharedMemoryFile(new File(args[1]));
+        }
 
         // Invoke the runner.
 		SwingUtilities.invokeLater(runner);
@@ -47,8 +55,53 @@ public class EditorRunner implements Runnable {
 		Logs.addListener(new Actor<BufferedTreeLog<Object>>() {
 
 			@Override
-			public void receive(BufferedTreeLog<Object> log) {
-				logFrame.addLogPanel(log, Thread.currentThread().getName());
+			public void receive(final BufferedTreeLog<Object> log) {
+				final String name = Logs.getName(log);
+				SwingUtilities.invokeLater(new Runnable() {
+					@Override
+					public void run() {
+						logFrame.addLogPanel(log, name);
+					}
+				});
+			}
+		});
+
+		// Drop the panels of logs whose threads have died.
+		Logs.addReclaimListener(new Actor<BufferedTreeLog<Object>>() {
+
+			@Override
+			public void receive(final BufferedTreeLog<Object> log) {
+				SwingUtilities.invokeLater(new Runnable() {
+					@Override
+					public void run() {
+						logFrame.removeLogPanels(log);
+					}
+				});
+			}
+		});
+
+		// Show java.util.logging output too, with a tab for each live thread.
+		Logger.getLogger("").addHandler(new AsyncTreeLogHandler() {
+			@Override
+			protected TreeLog<? super String> newTreeLog(final int threadId) {
+				final BufferedTreeLog<String> log = new BufferedTreeLog<>();
+				SwingUtilities.invokeLater(new Runnable() {
+					@Override
+					public void run() {
+						logFrame.addLogPanel(log, "java.util.logging, thread " + threadId);
+					}
+				});
+				return log;
+			}
+
+			@Override
+			protected void releaseTreeLog(int threadId, final TreeLog<? super String> log) {
+				SwingUtilities.invokeLater(new Runnable() {
+					@Override
+					public void run() {
+						logFrame.removeLogPanels((BufferedTreeLog<?>) log);
+					}
+				});
 			}
 		});
 
@@ -70,6 +123,10 @@ public class EditorRunner implements Runnable {
 			server.setSink(viewer);
 
 			new Thread(server).start();
+
+			if (sharedMemoryFile != null) {
+				server.serve(sharedMemoryFile, SHARED_MEMORY_CAPACITY);
+			}
 		} catch (IOException e) {
 			// TODO Auto-generated catch block
 			e.printStackTrace();
@@ -91,6 +148,14 @@ public class EditorRunner implements Runnable {
 		//createScriptEditor();
 	}
 
+    private static final int SHARED_MEMORY_CAPACITY = 1 << 24;
+
+    private File sharedMemoryFile;
+    public void setSharedMemoryFile(File sharedMemoryFile)
+    {
+        this.sharedMemoryFile = sharedMemoryFile;
+    }
+
     private int _loggingPort = 28122;
     public void setLoggingPort(int loggingPort)
     {
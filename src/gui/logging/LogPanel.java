@@ -1,6 +1,7 @@
 package gui.logging;
 
 import java.awt.BorderLayout;
+import java.awt.Component;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
@@ -19,8 +20,10 @@ import javax.swing.SwingUtilities;
 import javax.swing.event.TreeModelEvent;
 import javax.swing.event.TreeModelListener;
 import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeCellRenderer;
 import javax.swing.tree.TreePath;
 
+import formatting.Times;
 import logic.predicates.Predicate;
 import swing.Dialogs;
 import swing.Dialogs.CancelledException;
@@ -28,8 +31,11 @@ import logging.BufferedTreeLog;
 import logging.CompositeTreeLog;
 import logging.LogMessage;
 import logging.ProxyTreeLog;
+import logging.RepeatedLogMessage;
 import logging.ReplayableTreeLog;
+import logging.ScopeProfile;
 import logging.ScopeGuardedTreeLog;
+import logging.TemplateCounts;
 import logging.TreeBuildingTreeLog;
 import logging.TreeLog;
 
@@ -68,6 +74,21 @@ public class LogPanel<Message> extends JPanel {
 
 	private ReplayableTreeLog<Message> replayLog = new ReplayableTreeLog<>();
 
+	/**
+	 * Flushes the source on the EDT, then reports the resulting changes to the
+	 * tree all at once.
+	 */
+	private final Runnable flusher = new Runnable() {
+		@Override
+		public void run() {
+			BufferedTreeLog<? extends Message> source = sourceLog;
+			if (source != null) {
+				source.run();
+			}
+			treeBuilder.fireEvents();
+		}
+	};
+
 	public LogPanel(LogViewer<Message> viewer, BufferedTreeLog<? extends Message> source) {
 		this(viewer, source, "<untitled>");
 	}
@@ -84,6 +105,7 @@ public class LogPanel<Message> extends JPanel {
 
 		add(buildButtons(), BorderLayout.NORTH);
 		add(new JScrollPane(this.logTree), BorderLayout.CENTER);
+		logTree.setCellRenderer(new DurationRenderer());
 
 		setParent(parent);
 		setSource(source);
@@ -108,7 +130,7 @@ public class LogPanel<Message> extends JPanel {
 			sourceLog.setNotifier(new Runnable() {
 				@Override
 				public void run() {
-					SwingUtilities.invokeLater(sourceLog);
+					SwingUtilities.invokeLater(flusher);
 				}
 			});
 		}
@@ -121,6 +143,7 @@ public class LogPanel<Message> extends JPanel {
 		}
 
 		treeBuilder = new TreeBuildingTreeLog<Message>(getName());
+		treeBuilder.setBatching(true);
 		logTree.setModel(treeBuilder.getModel());
 
 		// Clean up the display of the root node.
@@ -163,6 +186,65 @@ public class LogPanel<Message> extends JPanel {
 		log.addListener(treeBuilder);
 	}
 
+	/**
+	 * Shows the duration of scopes that have been left next to their
+	 * messages, and how many times a collapsed message was repeated.
+	 */
+	private static class DurationRenderer extends DefaultTreeCellRenderer {
+		@Override
+		public Component getTreeCellRendererComponent(JTree tree, Object value, boolean selected, boolean expanded, boolean leaf, int row, boolean hasFocus) {
+			super.getTreeCellRendererComponent(tree, value, selected, expanded, leaf, row, hasFocus);
+			if (value instanceof DefaultMutableTreeNode) {
+				Object userObject = ((DefaultMutableTreeNode) value).getUserObject();
+				if (userObject instanceof LogMessage && ((LogMessage<?>) userObject).hasDuration()) {
+					setText(getText() + "  [" + Times.NANOSECONDS.express(((LogMessage<?>) userObject).getDuration()).trim() + "]");
+				}
+				if (userObject instanceof RepeatedLogMessage) {
+					RepeatedLogMessage<?> run = (RepeatedLogMessage<?>) userObject;
+					setText(getText() + "  (" + run.getCount() + " times over " + Times.MILLISECONDS.express(run.getLastTimestamp() - run.getFirstTimestamp()).trim() + ")");
+				}
+			}
+			return this;
+		}
+
+		private static final long serialVersionUID = -2725372208950565446L;
+	}
+
+	private TemplateCountPanel<Message> createTemplatePanel() {
+		TemplateCounts<Message> counts = new TemplateCounts<>();
+		addListener(counts);
+
+		TemplateCountPanel<Message> panel = new TemplateCountPanel<>(log, counts, "Templates of " + getName());
+		viewer.addView(panel);
+		return panel;
+	}
+
+	/**
+	 * Send everything this panel has shown, and everything it will show, to
+	 * the specified log.
+	 * 
+	 * @param listener
+	 *            the log that will receive this panel's events
+	 */
+	public void addListener(TreeLog<? super Message> listener) {
+		replayLog.play(listener);
+		log.addListener(listener);
+	}
+
+	public void removeListener(TreeLog<? super Message> listener) {
+		log.removeListener(listener);
+	}
+
+	private ScopeProfilePanel<Message> createProfilePanel() {
+		ScopeProfile<Message> profile = new ScopeProfile<>();
+		replayLog.play(profile);
+		log.addListener(profile);
+
+		ScopeProfilePanel<Message> panel = new ScopeProfilePanel<>(log, profile, "Profile of " + getName());
+		viewer.addView(panel);
+		return panel;
+	}
+
 	private LogPanel<Message> createLogPanel(ProxyTreeLog<Message> childSource, String name) {
 		BufferedTreeLog<Message> bufferedLog = new BufferedTreeLog<>();
 		childSource.setSink(bufferedLog);
@@ -364,6 +446,26 @@ public class LogPanel<Message> extends JPanel {
 		});
 		buttons.add(filterByText);
 
+		JButton profile = new JButton("Profile");
+		profile.setMnemonic(KeyEvent.VK_P);
+		profile.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				viewer.setSelectedView(createProfilePanel());
+			}
+		});
+		buttons.add(profile);
+
+		JButton templates = new JButton("Templates");
+		templates.setMnemonic(KeyEvent.VK_T);
+		templates.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				viewer.setSelectedView(createTemplatePanel());
+			}
+		});
+		buttons.add(templates);
+
 		buttons.add(Box.createHorizontalGlue());
 
 		JButton clear = new JButton("Clear");
@@ -420,6 +522,13 @@ public class LogPanel<Message> extends JPanel {
 		logTree.scrollPathToVisible(path);
 	}
 
+	/**
+	 * @return the log shown by this panel, or null if it has none
+	 */
+	public BufferedTreeLog<? extends Message> getSourceLog() {
+		return sourceLog;
+	}
+
 	public void prepareToRemove() {
 		for (LogPanel<Message> child : children) {
 			child.setParent(this.parent);
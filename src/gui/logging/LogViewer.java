@@ -22,22 +22,29 @@
 package gui.logging;
 
 import java.awt.BorderLayout;
+import java.awt.Component;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.swing.DefaultListModel;
 import javax.swing.JFrame;
+import javax.swing.JList;
 import javax.swing.JMenu;
 import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
+import javax.swing.JScrollPane;
 import javax.swing.JTabbedPane;
 import javax.swing.KeyStroke;
+import javax.swing.Timer;
 
 import logging.BufferedTreeLog;
+import logging.MergedTreeLog;
 
 /**
  * @author Aaron Faanes
@@ -47,6 +54,11 @@ import logging.BufferedTreeLog;
  */
 public class LogViewer<Message> extends JFrame {
 
+	/**
+	 * The delay between drains of a merged timeline, in milliseconds.
+	 */
+	private static final int MERGE_DELAY = 250;
+
 	/**
 	 * The list of {@link LogPanel}s that are shown by this viewer.
 	 */
@@ -54,6 +66,8 @@ public class LogViewer<Message> extends JFrame {
 
 	private final JMenuBar menuBar = new JMenuBar();
 
+	private MetricsPanel metricsPanel;
+
 	final Map<String, List<LogPanel<Message>>> filteredOutputMap = new HashMap<String, List<LogPanel<Message>>>();
 
 	public LogViewer() {
@@ -94,14 +108,179 @@ public class LogViewer<Message> extends JFrame {
 		removeTab.addActionListener(new ActionListener() {
 			@Override
 			public void actionPerformed(ActionEvent e) {
+				if (getSelectedLogPanel() == null) {
+					removeView(logPanelTabs.getSelectedComponent());
+					return;
+				}
 				removeLogPanel(getSelectedLogPanel());
 			}
 		});
 		listenerMenu.add(removeTab);
+
+		JMenu viewMenu = new JMenu("View");
+		this.menuBar.add(viewMenu);
+		viewMenu.setMnemonic('V');
+
+		JMenuItem showMetrics = new JMenuItem("Metrics", 'M');
+		showMetrics.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				showMetrics();
+			}
+		});
+		viewMenu.add(showMetrics);
+
+		JMenuItem mergeTabs = new JMenuItem("Merge Tabs...", 'T');
+		mergeTabs.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				showMergeDialog();
+			}
+		});
+		viewMenu.add(mergeTabs);
+	}
+
+	/**
+	 * Ask which log panels should be merged, and show their merged timeline.
+	 */
+	public void showMergeDialog() {
+		List<LogPanel<Message>> panels = getLogPanels();
+		if (panels.isEmpty()) {
+			return;
+		}
+
+		DefaultListModel<String> names = new DefaultListModel<>();
+		for (LogPanel<Message> panel : panels) {
+			names.addElement(panel.getName());
+		}
+		JList<String> list = new JList<>(names);
+		list.setSelectionInterval(0, names.size() - 1);
+
+		int result = JOptionPane.showConfirmDialog(
+				this,
+				new JScrollPane(list),
+				"Merge Tabs",
+				JOptionPane.OK_CANCEL_OPTION,
+				JOptionPane.QUESTION_MESSAGE
+				);
+		if (result != JOptionPane.OK_OPTION || list.isSelectionEmpty()) {
+			return;
+		}
+
+		List<LogPanel<Message>> selected = new ArrayList<>();
+		for (int index : list.getSelectedIndices()) {
+			selected.add(panels.get(index));
+		}
+		setSelectedLogPanel(mergeLogPanels(selected));
+	}
+
+	/**
+	 * Show one timeline of the events of the specified panels, ordered by
+	 * their timestamps.
+	 * 
+	 * @param panels
+	 *            the panels to merge
+	 * @return the panel that shows the merged timeline
+	 * @see MergedTreeLog
+	 */
+	public LogPanel<Message> mergeLogPanels(final List<LogPanel<Message>> panels) {
+		final MergedTreeLog<Message> merged = new MergedTreeLog<>();
+
+		BufferedTreeLog<Message> timeline = new BufferedTreeLog<>();
+		timeline.setRecordingDurations(false);
+		merged.setSink(timeline);
+
+		final List<MergedTreeLog<Message>.Source> sources = new ArrayList<>();
+		for (LogPanel<Message> panel : panels) {
+			MergedTreeLog<Message>.Source source = merged.addSource(panel.getName());
+			sources.add(source);
+			panel.addListener(source);
+		}
+
+		final LogPanel<Message> mergedPanel = new LogPanel<>(this, timeline, "Merged timeline");
+		addLogPanel(mergedPanel);
+		merged.drain();
+
+		final Timer timer = new Timer(MERGE_DELAY, null);
+		timer.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				if (logPanelTabs.indexOfComponent(mergedPanel) < 0) {
+					timer.stop();
+					for (int i = 0; i < panels.size(); ++i) {
+						panels.get(i).removeListener(sources.get(i));
+					}
+					return;
+				}
+				merged.drain();
+			}
+		});
+		timer.start();
+
+		return mergedPanel;
+	}
+
+	/**
+	 * @return every log panel shown by this viewer, in tab order
+	 */
+	@SuppressWarnings("unchecked")
+	public List<LogPanel<Message>> getLogPanels() {
+		List<LogPanel<Message>> panels = new ArrayList<>();
+		for (Component component : logPanelTabs.getComponents()) {
+			if (component instanceof LogPanel) {
+				panels.add((LogPanel<Message>) component);
+			}
+		}
+		return panels;
+	}
+
+	/**
+	 * Show the live metrics tab, adding it if it is not already shown.
+	 * 
+	 * @see MetricsPanel
+	 */
+	public void showMetrics() {
+		if (metricsPanel == null || logPanelTabs.indexOfComponent(metricsPanel) < 0) {
+			metricsPanel = new MetricsPanel();
+			addView(metricsPanel);
+		}
+		setSelectedView(metricsPanel);
+	}
+
+	/**
+	 * Add a tab that is not a {@link LogPanel}, such as a view derived from
+	 * one.
+	 * 
+	 * @param view
+	 *            the view to add. Its name is used as the tab's title.
+	 */
+	public void addView(Component view) {
+		if (view == null) {
+			throw new NullPointerException("View must not be null");
+		}
+		logPanelTabs.add(view);
+	}
+
+	public void setSelectedView(Component view) {
+		logPanelTabs.setSelectedComponent(view);
+	}
+
+	public void removeView(Component view) {
+		if (view == null) {
+			return;
+		}
+		logPanelTabs.remove(view);
 	}
 
+	/**
+	 * @return the selected log panel, or null if the selected tab is not a log
+	 *         panel
+	 */
 	@SuppressWarnings("unchecked")
 	public LogPanel<? extends Message> getSelectedLogPanel() {
+		if (!(logPanelTabs.getSelectedComponent() instanceof LogPanel)) {
+			return null;
+		}
 		return (LogPanel<? extends Message>) logPanelTabs.getSelectedComponent();
 	}
 
@@ -134,5 +313,20 @@ public class LogViewer<Message> extends JFrame {
 		logPanelTabs.remove(panel);
 	}
 
+	/**
+	 * Remove every log panel that shows the specified log, such as one that
+	 * has been reclaimed because its thread has died.
+	 * 
+	 * @param log
+	 *            the log whose panels should be removed
+	 */
+	public void removeLogPanels(BufferedTreeLog<?> log) {
+		for (LogPanel<Message> panel : getLogPanels()) {
+			if (panel.getSourceLog() == log) {
+				removeLogPanel(panel);
+			}
+		}
+	}
+
 	private static final long serialVersionUID = 4926830382755122234L;
 }
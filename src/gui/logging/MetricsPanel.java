@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package gui.logging;
+
+import java.awt.BorderLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+
+import metrics.MetricSnapshot;
+import metrics.Metrics;
+
+/**
+ * A panel that shows a live table of every registered metric.
+ * 
+ * @author Aaron Faanes
+ * @see Metrics
+ */
+public class MetricsPanel extends JPanel {
+
+	/**
+	 * The delay between refreshes, in milliseconds.
+	 */
+	private static final int REFRESH_DELAY = 500;
+
+	private static final String[] COLUMNS = { "Name", "Kind", "Value" };
+
+	private List<MetricSnapshot> snapshots = Collections.emptyList();
+
+	private final AbstractTableModel model = new AbstractTableModel() {
+		@Override
+		public int getRowCount() {
+			return snapshots.size();
+		}
+
+		@Override
+		public int getColumnCount() {
+			return COLUMNS.length;
+		}
+
+		@Override
+		public String getColumnName(int column) {
+			return COLUMNS[column];
+		}
+
+		@Override
+		public Object getValueAt(int row, int column) {
+			MetricSnapshot snapshot = snapshots.get(row);
+			switch (column) {
+			case 0:
+				return snapshot.getName();
+			case 1:
+				return snapshot.getKind().toString().toLowerCase();
+			case 2:
+				return snapshot.summarize();
+			default:
+				throw new IndexOutOfBoundsException("Column out of bounds: " + column);
+			}
+		}
+
+		private static final long serialVersionUID = -2240133939562839587L;
+	};
+
+	private final Timer refresher = new Timer(REFRESH_DELAY, new ActionListener() {
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			refresh();
+		}
+	});
+
+	public MetricsPanel() {
+		setName("Metrics");
+		setLayout(new BorderLayout());
+
+		JTable table = new JTable(model);
+		table.getColumnModel().getColumn(0).setPreferredWidth(200);
+		table.getColumnModel().getColumn(1).setPreferredWidth(80);
+		table.getColumnModel().getColumn(2).setPreferredWidth(600);
+		add(new JScrollPane(table), BorderLayout.CENTER);
+
+		refresh();
+	}
+
+	/**
+	 * Immediately replace the displayed metrics with a new snapshot.
+	 */
+	public void refresh() {
+		List<MetricSnapshot> newSnapshots = Metrics.snapshot();
+		if (newSnapshots.size() == snapshots.size()) {
+			snapshots = newSnapshots;
+			if (!snapshots.isEmpty()) {
+				model.fireTableRowsUpdated(0, snapshots.size() - 1);
+			}
+		} else {
+			snapshots = newSnapshots;
+			model.fireTableDataChanged();
+		}
+	}
+
+	@Override
+	public void addNotify() {
+		super.addNotify();
+		refresher.start();
+	}
+
+	@Override
+	public void removeNotify() {
+		refresher.stop();
+		super.removeNotify();
+	}
+
+	private static final long serialVersionUID = 2706532001339301183L;
+}
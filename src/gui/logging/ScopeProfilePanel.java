@@ -0,0 +1,359 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package gui.logging;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseEvent;
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.BoxLayout;
+import javax.swing.JComponent;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JSplitPane;
+import javax.swing.JTable;
+import javax.swing.JToggleButton;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableRowSorter;
+
+import formatting.Times;
+import logging.CompositeTreeLog;
+import logging.ScopeProfile;
+import logging.ScopeProfile.Node;
+
+/**
+ * A panel that shows a {@link ScopeProfile} as a flame graph (or an icicle
+ * graph, which is a flame graph drawn from the top down) alongside a table of
+ * every merged scope path, ranked by total or self time.
+ * 
+ * @author Aaron Faanes
+ * @param <Message>
+ *            the type of log message
+ * @see ScopeProfile
+ */
+public class ScopeProfilePanel<Message> extends JPanel {
+
+	/**
+	 * The delay between refreshes, in milliseconds.
+	 */
+	private static final int REFRESH_DELAY = 500;
+
+	private static final int ROW_HEIGHT = 18;
+
+	private static final String[] COLUMNS = { "Scope", "Count", "Total", "Self" };
+
+	private final ScopeProfile<Message> profile;
+
+	private final CompositeTreeLog<Message> source;
+
+	/**
+	 * Whether the profile is listening to the source. It is when this panel
+	 * is constructed, and stops while this panel is removed.
+	 */
+	private boolean listening = true;
+
+	private int lastModifications = -1;
+
+	private List<Node> nodes = Collections.emptyList();
+
+	private boolean icicle = false;
+
+	private final Graph graph = new Graph();
+
+	private final AbstractTableModel model = new AbstractTableModel() {
+		@Override
+		public int getRowCount() {
+			return nodes.size();
+		}
+
+		@Override
+		public int getColumnCount() {
+			return COLUMNS.length;
+		}
+
+		@Override
+		public String getColumnName(int column) {
+			return COLUMNS[column];
+		}
+
+		@Override
+		public Class<?> getColumnClass(int column) {
+			return column == 0 ? String.class : Long.class;
+		}
+
+		@Override
+		public Object getValueAt(int row, int column) {
+			Node node = nodes.get(row);
+			switch (column) {
+			case 0:
+				return node.getPath();
+			case 1:
+				return node.getCount();
+			case 2:
+				return node.getTotalTime();
+			case 3:
+				return node.getSelfTime();
+			default:
+				throw new IndexOutOfBoundsException("Column out of bounds: " + column);
+			}
+		}
+
+		private static final long serialVersionUID = -1181591011474409123L;
+	};
+
+	private final Timer refresher = new Timer(REFRESH_DELAY, new ActionListener() {
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			refresh();
+		}
+	});
+
+	/**
+	 * @param source
+	 *            the log that feeds the profile, which must already be
+	 *            listening to it. The profile is detached from the source
+	 *            while this panel is removed, and attached again when it is
+	 *            added; scopes logged in between are not counted.
+	 * @param profile
+	 *            the profile to show
+	 * @param name
+	 *            the name of this panel
+	 */
+	public ScopeProfilePanel(CompositeTreeLog<Message> source, ScopeProfile<Message> profile, String name) {
+		this.source = source;
+		this.profile = profile;
+		setName(name);
+		setLayout(new BorderLayout());
+
+		JPanel buttons = new JPanel();
+		buttons.setLayout(new BoxLayout(buttons, BoxLayout.LINE_AXIS));
+		final JToggleButton icicleButton = new JToggleButton("Icicle");
+		icicleButton.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				icicle = icicleButton.isSelected();
+				graph.repaint();
+			}
+		});
+		buttons.add(icicleButton);
+		add(buttons, BorderLayout.NORTH);
+
+		JTable table = new JTable(model);
+		TableRowSorter<AbstractTableModel> sorter = new TableRowSorter<>(model);
+		sorter.setSortKeys(Collections.singletonList(new RowSorter.SortKey(2, SortOrder.DESCENDING)));
+		table.setRowSorter(sorter);
+		table.getColumnModel().getColumn(0).setPreferredWidth(500);
+		DefaultTableCellRenderer timeRenderer = new DefaultTableCellRenderer() {
+			@Override
+			protected void setValue(Object value) {
+				setText(value instanceof Long ? formatTime((Long) value) : "");
+			}
+
+			private static final long serialVersionUID = 8402757461231994917L;
+		};
+		timeRenderer.setHorizontalAlignment(DefaultTableCellRenderer.RIGHT);
+		table.getColumnModel().getColumn(2).setCellRenderer(timeRenderer);
+		table.getColumnModel().getColumn(3).setCellRenderer(timeRenderer);
+
+		JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JScrollPane(graph), new JScrollPane(table));
+		split.setResizeWeight(0.6);
+		add(split, BorderLayout.CENTER);
+
+		refresh();
+	}
+
+	public ScopeProfile<Message> getProfile() {
+		return profile;
+	}
+
+	/**
+	 * Update the graph and table if the profile has changed.
+	 */
+	public void refresh() {
+		if (profile.getModifications() == lastModifications) {
+			return;
+		}
+		lastModifications = profile.getModifications();
+		nodes = profile.getNodes();
+		model.fireTableDataChanged();
+		graph.revalidate();
+		graph.repaint();
+	}
+
+	@Override
+	public void addNotify() {
+		super.addNotify();
+		if (!listening) {
+			source.addListener(profile);
+			listening = true;
+		}
+		refresher.start();
+	}
+
+	@Override
+	public void removeNotify() {
+		refresher.stop();
+		source.removeListener(profile);
+		listening = false;
+		super.removeNotify();
+	}
+
+	private static String formatTime(long nanos) {
+		return Times.NANOSECONDS.express(nanos).trim();
+	}
+
+	private static int depthOf(Node node) {
+		int depth = 0;
+		for (Node child : node.getChildren()) {
+			depth = Math.max(depth, depthOf(child));
+		}
+		return depth + 1;
+	}
+
+	/**
+	 * Draws each merged scope as a bar whose width is proportional to its
+	 * total time. Child scopes are drawn above their parents in a flame
+	 * graph, and below them in an icicle graph.
+	 */
+	private class Graph extends JComponent {
+
+		public Graph() {
+			setToolTipText("");
+			setBackground(Color.WHITE);
+			setOpaque(true);
+		}
+
+		@Override
+		public Dimension getPreferredSize() {
+			return new Dimension(400, depthOf(profile.getRoot()) * ROW_HEIGHT);
+		}
+
+		private int rowY(int depth) {
+			if (icicle) {
+				return depth * ROW_HEIGHT;
+			}
+			return getHeight() - (depth + 1) * ROW_HEIGHT;
+		}
+
+		@Override
+		protected void paintComponent(Graphics g) {
+			g.setColor(getBackground());
+			g.fillRect(0, 0, getWidth(), getHeight());
+			Node root = profile.getRoot();
+			long total = root.getTotalTime();
+			if (total <= 0) {
+				return;
+			}
+			paintChildren(g, root, 0, 0, getWidth(), total);
+		}
+
+		private void paintChildren(Graphics g, Node parent, int depth, double x, double width, long parentTotal) {
+			double offset = x;
+			for (Node child : parent.getChildren()) {
+				double childWidth = width * child.getTotalTime() / parentTotal;
+				if (childWidth >= 1) {
+					paintNode(g, child, depth, offset, childWidth);
+					if (child.getTotalTime() > 0) {
+						paintChildren(g, child, depth + 1, offset, childWidth, child.getTotalTime());
+					}
+				}
+				offset += childWidth;
+			}
+		}
+
+		private void paintNode(Graphics g, Node node, int depth, double x, double width) {
+			int left = (int) x;
+			int right = (int) (x + width);
+			int y = rowY(depth);
+			// Warm colors, varied by name so adjacent bars are distinguishable.
+			int hash = node.getName().hashCode();
+			g.setColor(new Color(205 + (hash & 0x31), 80 + ((hash >> 8) & 0x7f), 40 + ((hash >> 16) & 0x3f)));
+			g.fillRect(left, y, Math.max(1, right - left - 1), ROW_HEIGHT - 1);
+
+			FontMetrics metrics = g.getFontMetrics();
+			String label = node.getName();
+			if (right - left > 8 + metrics.stringWidth("...")) {
+				while (label.length() > 0 && metrics.stringWidth(label) > right - left - 4) {
+					label = label.substring(0, label.length() - 1);
+				}
+				if (!label.equals(node.getName())) {
+					label = label.length() > 3 ? label.substring(0, label.length() - 3) + "..." : "";
+				}
+				g.setColor(Color.BLACK);
+				g.drawString(label, left + 2, y + ROW_HEIGHT - 5);
+			}
+		}
+
+		private Node nodeAt(Node parent, int depth, double x, double width, long parentTotal, int targetX, int targetDepth) {
+			double offset = x;
+			for (Node child : parent.getChildren()) {
+				double childWidth = width * child.getTotalTime() / parentTotal;
+				if (targetX >= offset && targetX < offset + childWidth) {
+					if (depth == targetDepth) {
+						return child;
+					}
+					if (child.getTotalTime() <= 0) {
+						return null;
+					}
+					return nodeAt(child, depth + 1, offset, childWidth, child.getTotalTime(), targetX, targetDepth);
+				}
+				offset += childWidth;
+			}
+			return null;
+		}
+
+		@Override
+		public String getToolTipText(MouseEvent event) {
+			Node root = profile.getRoot();
+			long total = root.getTotalTime();
+			if (total <= 0) {
+				return null;
+			}
+			int depth = icicle ? event.getY() / ROW_HEIGHT : (getHeight() - event.getY()) / ROW_HEIGHT;
+			Node node = nodeAt(root, 0, 0, getWidth(), total, event.getX(), depth);
+			if (node == null) {
+				return null;
+			}
+			return String.format("%s: %d call(s), %s total, %s self (%.1f%%)",
+					node.getPath(),
+					node.getCount(),
+					formatTime(node.getTotalTime()),
+					formatTime(node.getSelfTime()),
+					100.0 * node.getTotalTime() / total);
+		}
+
+		private static final long serialVersionUID = 5497706498133787462L;
+	}
+
+	private static final long serialVersionUID = -4212406316542916301L;
+}
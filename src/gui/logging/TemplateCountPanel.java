@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package gui.logging;
+
+import java.awt.BorderLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableRowSorter;
+
+import logging.CompositeTreeLog;
+import logging.TemplateCounts;
+import logging.TemplateCounts.Entry;
+
+/**
+ * A panel that shows how many messages of a log share each template, most
+ * frequent first.
+ * 
+ * @author Aaron Faanes
+ * @param <Message>
+ *            the type of log message
+ * @see TemplateCounts
+ */
+public class TemplateCountPanel<Message> extends JPanel {
+
+	/**
+	 * The delay between refreshes, in milliseconds.
+	 */
+	private static final int REFRESH_DELAY = 500;
+
+	private static final String[] COLUMNS = { "Template", "Count" };
+
+	private final TemplateCounts<Message> counts;
+
+	private final CompositeTreeLog<Message> source;
+
+	private int lastModifications = -1;
+
+	private List<Entry> entries = Collections.emptyList();
+
+	private final AbstractTableModel model = new AbstractTableModel() {
+		@Override
+		public int getRowCount() {
+			return entries.size();
+		}
+
+		@Override
+		public int getColumnCount() {
+			return COLUMNS.length;
+		}
+
+		@Override
+		public String getColumnName(int column) {
+			return COLUMNS[column];
+		}
+
+		@Override
+		public Class<?> getColumnClass(int column) {
+			return column == 0 ? String.class : Long.class;
+		}
+
+		@Override
+		public Object getValueAt(int row, int column) {
+			Entry entry = entries.get(row);
+			switch (column) {
+			case 0:
+				return entry.getLabel();
+			case 1:
+				return entry.getCount();
+			default:
+				throw new IndexOutOfBoundsException("Column out of bounds: " + column);
+			}
+		}
+
+		private static final long serialVersionUID = 3817447410953628717L;
+	};
+
+	private final Timer refresher = new Timer(REFRESH_DELAY, new ActionListener() {
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			refresh();
+		}
+	});
+
+	/**
+	 * @param source
+	 *            the log that feeds the counts. The counts will be detached
+	 *            from the source when this panel is removed.
+	 * @param counts
+	 *            the counts to show
+	 * @param name
+	 *            the name of this panel
+	 */
+	public TemplateCountPanel(CompositeTreeLog<Message> source, TemplateCounts<Message> counts, String name) {
+		this.source = source;
+		this.counts = counts;
+		setName(name);
+		setLayout(new BorderLayout());
+
+		JTable table = new JTable(model);
+		TableRowSorter<AbstractTableModel> sorter = new TableRowSorter<>(model);
+		sorter.setSortKeys(Collections.singletonList(new RowSorter.SortKey(1, SortOrder.DESCENDING)));
+		table.setRowSorter(sorter);
+		table.getColumnModel().getColumn(0).setPreferredWidth(600);
+		add(new JScrollPane(table), BorderLayout.CENTER);
+
+		refresh();
+	}
+
+	public TemplateCounts<Message> getCounts() {
+		return counts;
+	}
+
+	/**
+	 * Update the table if the counts have changed.
+	 */
+	public void refresh() {
+		if (counts.getModifications() == lastModifications) {
+			return;
+		}
+		lastModifications = counts.getModifications();
+		entries = counts.getEntries();
+		model.fireTableDataChanged();
+	}
+
+	@Override
+	public void addNotify() {
+		super.addNotify();
+		refresher.start();
+	}
+
+	@Override
+	public void removeNotify() {
+		refresher.stop();
+		source.removeListener(counts);
+		super.removeNotify();
+	}
+
+	private static final long serialVersionUID = -7467163263092962290L;
+}
@@ -3,9 +3,10 @@
  */
 package inspect;
 
-import java.lang.reflect.Method;
 import java.util.Map;
 
+import inspect.InspectionPlan.Accessor;
+
 /**
  * A collection of methods that deal with inspection.
  * 
@@ -20,7 +21,8 @@ public final class Inspection {
 
 	/**
 	 * Inspect the specified object using reflection. Methods marked with
-	 * {@link Inspectable} will be inspected.
+	 * {@link Inspectable} will be inspected. The inspectable methods of each
+	 * class are only discovered once.
 	 * 
 	 * @param parentInspector
 	 *            the inspector used to inspect the object
@@ -34,46 +36,42 @@ public final class Inspection {
 			parentInspector.value("null");
 			return;
 		}
-		Inspectable typeInspectable = target.getClass().getAnnotation(Inspectable.class);
-		if (typeInspectable == null) {
+		InspectionPlan plan = InspectionPlan.of(target.getClass());
+		if (!plan.isInspectable()) {
 			parentInspector.value(target.toString());
 			return;
 		}
 		Inspector<Object> inspector = parentInspector.group(target.toString());
-		for (Method method : target.getClass().getMethods()) {
-			Inspectable inspectable = method.getAnnotation(Inspectable.class);
-			if (inspectable == null) {
-				continue;
-			}
-			if (method.getParameterTypes().length > 0) {
-				throw new UnsupportedOperationException("Inspectable method must not require parameters");
-			}
-			String logicalName = inspectable.value();
-			if (logicalName.equals("")) {
-				logicalName = method.getName();
-				if (logicalName.startsWith("get")) {
-					logicalName = logicalName.substring(3);
-				}
-				logicalName = logicalName.replaceAll("([a-z])([A-Z])", "$1 $2");
-			}
-			Class<?> returned = method.getReturnType();
+		for (Accessor accessor : plan.getAccessors()) {
 			try {
-				if (Iterable.class.isAssignableFrom(returned)) {
-					Inspector<Object> groupInspector = inspector.group(logicalName);
-					for (Object v : (Iterable<?>) method.invoke(target)) {
-						groupInspector.value(v);
-					}
-				} else if (Map.class.isAssignableFrom(returned)) {
-					Inspector<Object> groupInspector = inspector.group(logicalName);
-					for (Map.Entry<?, ?> e : ((Map<?, ?>) method.invoke(target)).entrySet()) {
-						groupInspector.field(e.getKey() != null ? e.getKey().toString() : "null", e.getValue());
-					}
-				} else {
-					inspector.field(logicalName, method.invoke(target));
-				}
-			} catch (Exception e) {
+				inspect(inspector, accessor, target);
+			} catch (InspectionException e) {
+				throw e;
+			} catch (RuntimeException e) {
 				throw new InspectionException(e);
 			}
 		}
 	}
+
+	private static void inspect(Inspector<Object> inspector, Accessor accessor, Object target) {
+		switch (accessor.getKind()) {
+		case ITERABLE: {
+			Inspector<Object> groupInspector = inspector.group(accessor.getName());
+			for (Object v : (Iterable<?>) accessor.get(target)) {
+				groupInspector.value(v);
+			}
+			break;
+		}
+		case MAP: {
+			Inspector<Object> groupInspector = inspector.group(accessor.getName());
+			for (Map.Entry<?, ?> e : ((Map<?, ?>) accessor.get(target)).entrySet()) {
+				groupInspector.field(e.getKey() != null ? e.getKey().toString() : "null", e.getValue());
+			}
+			break;
+		}
+		case FIELD:
+			inspector.field(accessor.getName(), accessor.get(target));
+			break;
+		}
+	}
 }
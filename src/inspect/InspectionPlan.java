@@ -0,0 +1,162 @@
+/**
+ * 
+ */
+package inspect;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The precomputed inspection of an {@link Inspectable} class. Plans are
+ * created once per class, so inspecting an object does not require any
+ * reflection beyond invoking its accessors.
+ * 
+ * @author Aaron Faanes
+ * @see Inspection#reflect(Inspector, Object)
+ */
+final class InspectionPlan {
+
+	private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	static enum Kind {
+		FIELD,
+		ITERABLE,
+		MAP
+	}
+
+	/**
+	 * A single {@link Inspectable} method of a class.
+	 */
+	static final class Accessor {
+		private final String name;
+		private final Kind kind;
+		private final MethodHandle handle;
+
+		Accessor(String name, Kind kind, MethodHandle handle) {
+			this.name = name;
+			this.kind = kind;
+			this.handle = handle;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public Kind getKind() {
+			return kind;
+		}
+
+		public Object get(Object target) throws InspectionException {
+			try {
+				return (Object) handle.invokeExact(target);
+			} catch (Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new InspectionException(e);
+			}
+		}
+	}
+
+	private static final ClassValue<InspectionPlan> PLANS = new ClassValue<InspectionPlan>() {
+		@Override
+		protected InspectionPlan computeValue(Class<?> type) {
+			return new InspectionPlan(type);
+		}
+	};
+
+	/**
+	 * Returns the plan for the specified class, creating it if necessary.
+	 * 
+	 * @param type
+	 *            the inspected class
+	 * @return the plan for the specified class
+	 * @throws UnsupportedOperationException
+	 *             if an inspectable method requires parameters
+	 * @throws InspectionException
+	 *             if an inspectable method cannot be accessed
+	 */
+	public static InspectionPlan of(Class<?> type) {
+		return PLANS.get(type);
+	}
+
+	private final boolean inspectable;
+	private final List<Accessor> accessors;
+
+	private InspectionPlan(Class<?> type) {
+		this.inspectable = type.isAnnotationPresent(Inspectable.class);
+		if (!inspectable) {
+			this.accessors = Collections.emptyList();
+			return;
+		}
+		List<Accessor> accessors = new ArrayList<Accessor>();
+		for (Method method : type.getMethods()) {
+			Inspectable inspectable = method.getAnnotation(Inspectable.class);
+			if (inspectable == null) {
+				continue;
+			}
+			if (method.getParameterTypes().length > 0) {
+				throw new UnsupportedOperationException("Inspectable method must not require parameters");
+			}
+			accessors.add(new Accessor(getLogicalName(method, inspectable), getKind(method), unreflect(method)));
+		}
+		this.accessors = Collections.unmodifiableList(accessors);
+	}
+
+	private static String getLogicalName(Method method, Inspectable inspectable) {
+		String logicalName = inspectable.value();
+		if (logicalName.equals("")) {
+			logicalName = method.getName();
+			if (logicalName.startsWith("get")) {
+				logicalName = logicalName.substring(3);
+			}
+			logicalName = logicalName.replaceAll("([a-z])([A-Z])", "$1 $2");
+		}
+		return logicalName;
+	}
+
+	private static Kind getKind(Method method) {
+		Class<?> returned = method.getReturnType();
+		if (Iterable.class.isAssignableFrom(returned)) {
+			return Kind.ITERABLE;
+		}
+		if (Map.class.isAssignableFrom(returned)) {
+			return Kind.MAP;
+		}
+		return Kind.FIELD;
+	}
+
+	private static MethodHandle unreflect(Method method) {
+		try {
+			return MethodHandles.publicLookup().unreflect(method).asType(ACCESSOR_TYPE);
+		} catch (IllegalAccessException e) {
+			// The method is public, but its declaring class is not.
+			try {
+				method.setAccessible(true);
+				return MethodHandles.lookup().unreflect(method).asType(ACCESSOR_TYPE);
+			} catch (IllegalAccessException | SecurityException ex) {
+				throw new InspectionException(ex);
+			}
+		}
+	}
+
+	/**
+	 * @return {@code true} if the planned class is marked with
+	 *         {@link Inspectable}
+	 */
+	public boolean isInspectable() {
+		return inspectable;
+	}
+
+	/**
+	 * @return the inspectable methods of the planned class
+	 */
+	public List<Accessor> getAccessors() {
+		return accessors;
+	}
+}
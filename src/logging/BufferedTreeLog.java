@@ -21,9 +21,17 @@
  */
 package logging;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+
 import logic.runnables.Runnables;
 
 /**
+ * A log that buffers messages until they are flushed to its sink.
+ * <p>
+ * This log also records the duration of every scope that it sees left, since
+ * it receives events as they happen rather than when they are flushed.
+ * 
  * @author Aaron Faanes
  * @param <Message>
  *            the type of log message
@@ -40,6 +48,49 @@ public class BufferedTreeLog<Message> extends ProxyTreeLog<Message> implements R
 
 	private int flushSize = 0;
 
+	private boolean recordingDurations = true;
+
+	/**
+	 * The scopes that have been entered but not left. Several threads may
+	 * write to one log, such as a context log from {@link Logs}, so this is
+	 * guarded by {@link #scopeLock}, along with {@link #recordingDurations}.
+	 */
+	private final Deque<LogMessage<?>> openScopes = new ArrayDeque<>();
+
+	/**
+	 * Held while a scope is entered or left, so that the open scopes stay in
+	 * the same order as the scopes in the buffer.
+	 */
+	private final Object scopeLock = new Object();
+
+	/**
+	 * Stands in for null scopes, which the deque cannot hold.
+	 */
+	private static final LogMessage<?> NULL_SCOPE = new LogMessage<Object>(null);
+
+	public boolean isRecordingDurations() {
+		synchronized (scopeLock) {
+			return recordingDurations;
+		}
+	}
+
+	/**
+	 * Set whether this log records the duration of the scopes it sees left.
+	 * Logs that relay scopes that were timed elsewhere, such as the output of a
+	 * {@link MergedTreeLog}, should not.
+	 * 
+	 * @param recordingDurations
+	 *            {@code true} if durations should be recorded
+	 */
+	public void setRecordingDurations(boolean recordingDurations) {
+		synchronized (scopeLock) {
+			this.recordingDurations = recordingDurations;
+			if (!recordingDurations) {
+				openScopes.clear();
+			}
+		}
+	}
+
 	public void setFlushSize(int flushSize) {
 		this.flushSize = flushSize;
 	}
@@ -59,6 +110,13 @@ public class BufferedTreeLog<Message> extends ProxyTreeLog<Message> implements R
 		return actuallyRemoved;
 	}
 
+	/**
+	 * @return {@code true} if this log has no messages waiting to be flushed
+	 */
+	public boolean isEmpty() {
+		return buffer.isEmpty();
+	}
+
 	@Override
 	public void log(LogMessage<? extends Message> message) {
 		buffer.log(message);
@@ -67,22 +125,44 @@ public class BufferedTreeLog<Message> extends ProxyTreeLog<Message> implements R
 
 	@Override
 	public void enter(LogMessage<? extends Message> scope) {
-		buffer.enter(scope);
+		synchronized (scopeLock) {
+			if (recordingDurations) {
+				openScopes.push(scope != null ? scope : NULL_SCOPE);
+			}
+			buffer.enter(scope);
+		}
 		dispatch();
 	}
 
 	@Override
 	public void leave() {
-		buffer.leave();
+		synchronized (scopeLock) {
+			if (!openScopes.isEmpty()) {
+				leaveScope(openScopes.pop(), System.nanoTime());
+			}
+			buffer.leave();
+		}
 		dispatch();
 	}
 
 	@Override
 	public void reset() {
-		buffer.reset();
+		synchronized (scopeLock) {
+			long now = System.nanoTime();
+			while (!openScopes.isEmpty()) {
+				leaveScope(openScopes.pop(), now);
+			}
+			buffer.reset();
+		}
 		dispatch();
 	}
 
+	private static void leaveScope(LogMessage<?> scope, long nanoTime) {
+		if (scope != NULL_SCOPE) {
+			scope.leave(nanoTime);
+		}
+	}
+
 	private void dispatch() {
 		if (!hasNotified || alwaysNotify) {
 			hasNotified = true;
@@ -23,6 +23,10 @@ package logging;
 
 /**
  * A simple message.
+ * <p>
+ * Messages that are used as scopes may also record how long the scope was
+ * open. This is recorded by the {@link TreeLog} that sees the scope being
+ * left, so it is unavailable until then.
  * 
  * @author Aaron Faanes
  * @param <T>
@@ -32,6 +36,8 @@ package logging;
 public class LogMessage<T> {
 
 	private long timestamp;
+	private long nanoTime;
+	private volatile long duration = -1;
 	private Object sender;
 	private String category;
 	private T message;
@@ -49,7 +55,12 @@ public class LogMessage<T> {
 	}
 
 	public LogMessage(long timestamp, Object sender, String category, T message) {
+		this(timestamp, System.nanoTime(), sender, category, message);
+	}
+
+	protected LogMessage(long timestamp, long nanoTime, Object sender, String category, T message) {
 		this.timestamp = timestamp;
+		this.nanoTime = nanoTime;
 		this.sender = sender;
 		this.category = category;
 		this.message = message;
@@ -60,15 +71,15 @@ public class LogMessage<T> {
 	}
 
 	public <U> LogMessage<U> changeMessage(U newMessage) {
-		return new LogMessage<U>(timestamp, sender, category, newMessage);
+		return new LogMessage<U>(timestamp, nanoTime, sender, category, newMessage);
 	}
 
 	public LogMessage<T> changeSender(Object sender) {
-		return new LogMessage<T>(timestamp, sender, category, message);
+		return new LogMessage<T>(timestamp, nanoTime, sender, category, getMessage());
 	}
 
 	public <U> LogMessage<U> changeSender(Object sender, U message) {
-		return new LogMessage<U>(timestamp, sender, category, message);
+		return new LogMessage<U>(timestamp, nanoTime, sender, category, message);
 	}
 
 	/**
@@ -93,6 +104,44 @@ public class LogMessage<T> {
 		return this.timestamp;
 	}
 
+	/**
+	 * The value of {@link System#nanoTime()} when this message was created.
+	 * It is only meaningful relative to other messages created by the same
+	 * process.
+	 * 
+	 * @return the creation time of this message, in nanoseconds
+	 */
+	public long getNanoTime() {
+		return this.nanoTime;
+	}
+
+	/**
+	 * @return the time this scope was open, in nanoseconds, or -1 if this
+	 *         message has not been used as a scope that has been left
+	 * @see #leave(long)
+	 */
+	public long getDuration() {
+		return this.duration;
+	}
+
+	public boolean hasDuration() {
+		return this.duration >= 0;
+	}
+
+	/**
+	 * Record that this scope was left at the specified time. Only the first
+	 * call has any effect, so logs that replay this scope will not disturb
+	 * the original duration.
+	 * 
+	 * @param nanoTime
+	 *            the value of {@link System#nanoTime()} when the scope was left
+	 */
+	public void leave(long nanoTime) {
+		if (this.duration < 0) {
+			this.duration = Math.max(0, nanoTime - this.nanoTime);
+		}
+	}
+
 	@Override
 	public String toString() {
 		String message = "";
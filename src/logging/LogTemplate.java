@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package logging;
+
+import java.util.Arrays;
+
+/**
+ * The shape of a family of log messages, such as
+ * {@code "Adding line to BSP tree <*>"}. Messages are split into tokens at
+ * spaces, and tokens that vary between messages are replaced by parameters.
+ * <p>
+ * Templates are immutable. When a {@link LogTemplateMiner} finds that a
+ * template must be generalized, it creates a new version with the same id, so
+ * messages that were compacted with an older version remain valid.
+ * 
+ * @author Aaron Faanes
+ * @see LogTemplateMiner
+ * @see TemplatedLogMessage
+ */
+public final class LogTemplate {
+
+	/**
+	 * The text that stands in for a parameter when a template is shown.
+	 */
+	public static final String WILDCARD = "<*>";
+
+	private final int id;
+
+	/**
+	 * The tokens of this template. Parameters are null.
+	 */
+	private final String[] tokens;
+
+	private final int parameterCount;
+
+	/**
+	 * @param tokens
+	 *            the tokens of the template, with null for each parameter.
+	 *            Tokens that contain digits are made parameters as well, since
+	 *            they are almost always numbers that vary.
+	 */
+	LogTemplate(int id, String[] tokens) {
+		this.id = id;
+		this.tokens = new String[tokens.length];
+		int parameterCount = 0;
+		for (int i = 0; i < tokens.length; ++i) {
+			if (tokens[i] == null || hasDigit(tokens[i])) {
+				++parameterCount;
+			} else {
+				this.tokens[i] = tokens[i];
+			}
+		}
+		this.parameterCount = parameterCount;
+	}
+
+	/**
+	 * @return {@code true} if the specified token contains a digit, and so is
+	 *         treated as a parameter
+	 */
+	static boolean hasDigit(String token) {
+		for (int i = 0; i < token.length(); ++i) {
+			if (Character.isDigit(token.charAt(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the id of this template, which is shared by every version of it
+	 */
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * @return the number of tokens in this template, including parameters
+	 */
+	public int getLength() {
+		return tokens.length;
+	}
+
+	public int getParameterCount() {
+		return parameterCount;
+	}
+
+	public boolean isParameter(int index) {
+		return tokens[index] == null;
+	}
+
+	/**
+	 * Create the text of a message from this template.
+	 * 
+	 * @param parameters
+	 *            the values of this template's parameters, in order
+	 * @return the text of the message
+	 */
+	public String format(String[] parameters) {
+		if (parameters.length != parameterCount) {
+			throw new IllegalArgumentException(String.format("Template requires %d parameter(s), but %d were given", parameterCount, parameters.length));
+		}
+		StringBuilder builder = new StringBuilder();
+		int parameter = 0;
+		for (int i = 0; i < tokens.length; ++i) {
+			if (i > 0) {
+				builder.append(' ');
+			}
+			builder.append(tokens[i] != null ? tokens[i] : parameters[parameter++]);
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * @return the parameters of the specified tokens, which must match this
+	 *         template
+	 */
+	String[] extract(String[] tokens) {
+		String[] parameters = new String[parameterCount];
+		int parameter = 0;
+		for (int i = 0; i < tokens.length; ++i) {
+			if (this.tokens[i] == null) {
+				parameters[parameter++] = tokens[i];
+			}
+		}
+		return parameters;
+	}
+
+	/**
+	 * @return the fraction of the specified tokens that match this template,
+	 *         counting tokens with digits as matching its parameters
+	 */
+	double similarity(String[] tokens) {
+		int same = 0;
+		for (int i = 0; i < tokens.length; ++i) {
+			if (this.tokens[i] != null ? this.tokens[i].equals(tokens[i]) : hasDigit(tokens[i])) {
+				++same;
+			}
+		}
+		return (double) same / tokens.length;
+	}
+
+	/**
+	 * @return a version of this template that also matches the specified
+	 *         tokens, or this template if it already does. Since constant
+	 *         tokens never contain digits, tokens that do always become
+	 *         parameters.
+	 */
+	LogTemplate generalize(String[] tokens) {
+		String[] generalized = null;
+		for (int i = 0; i < tokens.length; ++i) {
+			if (this.tokens[i] != null && !this.tokens[i].equals(tokens[i])) {
+				if (generalized == null) {
+					generalized = Arrays.copyOf(this.tokens, this.tokens.length);
+				}
+				generalized[i] = null;
+			}
+		}
+		if (generalized == null) {
+			return this;
+		}
+		return new LogTemplate(id, generalized);
+	}
+
+	@Override
+	public String toString() {
+		String[] shown = new String[parameterCount];
+		Arrays.fill(shown, WILDCARD);
+		return format(shown);
+	}
+}
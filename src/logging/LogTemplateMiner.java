@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package logging;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the templates of log messages as they arrive, so that each message can
+ * be stored as a template and its parameters rather than as text.
+ * <p>
+ * This follows the Drain algorithm. Messages are split into tokens at spaces,
+ * and then routed through a tree of fixed depth: first by their number of
+ * tokens, then by each of their leading tokens. Tokens that contain digits are
+ * always parameters, and tokens that would give a node too many children are
+ * routed as though they were. Each leaf holds a short list of templates, and a
+ * message joins the most similar one, or starts a new template if none are
+ * similar enough. Joining a template replaces the tokens that differ with
+ * parameters.
+ * <p>
+ * Messages whose text cannot be recreated from its tokens, such as those with
+ * repeated spaces, are left as they are.
+ * <p>
+ * This class is thread-safe.
+ * 
+ * @author Aaron Faanes
+ * @see LogTemplate
+ * @see TemplatedLogMessage
+ */
+public class LogTemplateMiner {
+
+	public static final int DEFAULT_DEPTH = 2;
+
+	public static final double DEFAULT_SIMILARITY = 0.5;
+
+	public static final int DEFAULT_MAX_CHILDREN = 100;
+
+	private static class Node {
+		final Map<String, Node> children = new HashMap<>();
+		final List<LogTemplate> templates = new ArrayList<>(1);
+	}
+
+	private final int depth;
+	private final double similarity;
+	private final int maxChildren;
+
+	private final Map<Integer, Node> lengths = new HashMap<>();
+
+	/**
+	 * The latest version of every template, indexed by id.
+	 */
+	private final List<LogTemplate> templates = new ArrayList<>();
+
+	public LogTemplateMiner() {
+		this(DEFAULT_DEPTH, DEFAULT_SIMILARITY, DEFAULT_MAX_CHILDREN);
+	}
+
+	/**
+	 * @param depth
+	 *            the number of leading tokens used to route messages
+	 * @param similarity
+	 *            the fraction of tokens that must match for a message to join
+	 *            a template
+	 * @param maxChildren
+	 *            the maximum number of distinct tokens that are routed
+	 *            separately at each level of the tree
+	 */
+	public LogTemplateMiner(int depth, double similarity, int maxChildren) {
+		if (depth < 0) {
+			throw new IllegalArgumentException("Depth must not be negative. Given: " + depth);
+		}
+		if (similarity < 0 || similarity > 1) {
+			throw new IllegalArgumentException("Similarity must be between 0 and 1. Given: " + similarity);
+		}
+		if (maxChildren < 1) {
+			throw new IllegalArgumentException("Max children must be positive. Given: " + maxChildren);
+		}
+		this.depth = depth;
+		this.similarity = similarity;
+		this.maxChildren = maxChildren;
+	}
+
+	/**
+	 * Return a compact version of the specified message, if its text fits a
+	 * template.
+	 * 
+	 * @param message
+	 *            the message to compact. May be null.
+	 * @return a {@link TemplatedLogMessage} with the same text, or the
+	 *         specified message if it could not be compacted
+	 */
+	public LogMessage<String> compact(LogMessage<String> message) {
+		if (message == null || message instanceof TemplatedLogMessage || message.getMessage() == null) {
+			return message;
+		}
+		String[] tokens = tokenize(message.getMessage());
+		if (tokens == null) {
+			return message;
+		}
+		LogTemplate template = match(tokens);
+		return new TemplatedLogMessage(message, template, template.extract(tokens));
+	}
+
+	/**
+	 * Find the template for the specified tokens, creating or generalizing one
+	 * if necessary.
+	 */
+	private synchronized LogTemplate match(String[] tokens) {
+		Node node = lengths.get(tokens.length);
+		if (node == null) {
+			node = new Node();
+			lengths.put(tokens.length, node);
+		}
+		for (int i = 0; i < Math.min(depth, tokens.length); ++i) {
+			node = child(node, LogTemplate.hasDigit(tokens[i]) ? LogTemplate.WILDCARD : tokens[i]);
+		}
+
+		int best = -1;
+		double bestSimilarity = -1;
+		for (int i = 0; i < node.templates.size(); ++i) {
+			double candidate = node.templates.get(i).similarity(tokens);
+			if (candidate > bestSimilarity) {
+				best = i;
+				bestSimilarity = candidate;
+			}
+		}
+
+		if (best < 0 || bestSimilarity < similarity) {
+			LogTemplate template = new LogTemplate(templates.size(), tokens);
+			templates.add(template);
+			node.templates.add(template);
+			return template;
+		}
+
+		LogTemplate template = node.templates.get(best).generalize(tokens);
+		node.templates.set(best, template);
+		templates.set(template.getId(), template);
+		return template;
+	}
+
+	private Node child(Node node, String token) {
+		Node child = node.children.get(token);
+		if (child != null) {
+			return child;
+		}
+		if (node.children.size() >= maxChildren) {
+			token = LogTemplate.WILDCARD;
+			child = node.children.get(token);
+			if (child != null) {
+				return child;
+			}
+		}
+		child = new Node();
+		node.children.put(token, child);
+		return child;
+	}
+
+	/**
+	 * @return the latest version of the template with the specified id
+	 */
+	public synchronized LogTemplate getTemplate(int id) {
+		return templates.get(id);
+	}
+
+	/**
+	 * @return the latest version of every template, in order of id
+	 */
+	public synchronized List<LogTemplate> getTemplates() {
+		return Collections.unmodifiableList(new ArrayList<>(templates));
+	}
+
+	/**
+	 * Split the specified text into tokens at spaces.
+	 * 
+	 * @return the tokens, or null if joining them with single spaces would not
+	 *         recreate the text
+	 */
+	static String[] tokenize(String text) {
+		if (text.isEmpty()) {
+			return null;
+		}
+		String[] tokens = text.split(" ", -1);
+		for (String token : tokens) {
+			if (token.isEmpty()) {
+				return null;
+			}
+		}
+		return tokens;
+	}
+}
@@ -10,6 +10,8 @@ import java.util.Map;
 import logic.actors.Actor;
 import logic.handlers.ChainedHandler;
 import logic.handlers.Handler;
+import metrics.Metrics;
+import metrics.Timer;
 import script.exceptions.InternalException;
 import script.exceptions.ScriptException;
 
@@ -39,9 +41,14 @@ public final class Logs {
 			protected BufferedTreeLog<? super Object> newTreeLog(Thread thread) {
 				return new BufferedTreeLog<>();
 			}
+
+			@Override
+			protected boolean isDrained(BufferedTreeLog<Object> log) {
+				return log.isEmpty();
+			}
 		};
 
-		masterHandler = new ChainedHandler<>();
+		masterHandler = TreeLogHandlers.newChainedHandler();
 
 		masterLog = new HandledTreeLog<>();
 		masterLog.setHandler(masterHandler);
@@ -102,6 +109,54 @@ public final class Logs {
 		getThreadLocalLog().removeListener(listener);
 	}
 
+	/**
+	 * Immediately add the specified reclaim listener. It will receive every
+	 * log that is forgotten, such as the log of a thread that has died. See
+	 * {@link ThreadLocalTreeLog#addReclaimListener(Actor)} for details.
+	 * 
+	 * @param listener
+	 *            the listener that will receive forgotten logs
+	 * @see ThreadLocalTreeLog#addReclaimListener(Actor)
+	 */
+	public static void addReclaimListener(Actor<? super BufferedTreeLog<? super Object>> listener) {
+		getThreadLocalLog().addReclaimListener(listener);
+	}
+
+	/**
+	 * Immediately remove the specified reclaim listener.
+	 * 
+	 * @param listener
+	 *            the listener to remove
+	 * @see ThreadLocalTreeLog#removeReclaimListener(Actor)
+	 */
+	public static void removeReclaimListener(Actor<? super BufferedTreeLog<? super Object>> listener) {
+		getThreadLocalLog().removeReclaimListener(listener);
+	}
+
+	/**
+	 * @param log
+	 *            a log given to a listener
+	 * @return the name of the thread or logical context of the specified log
+	 * @see ThreadLocalTreeLog#getName(TreeLog)
+	 */
+	public static String getName(TreeLog<?> log) {
+		return getThreadLocalLog().getName(log);
+	}
+
+	/**
+	 * Direct all subsequent messages from the current thread to the log for the
+	 * specified logical context. See {@link ThreadLocalTreeLog#setContext(Object)}
+	 * for details.
+	 * 
+	 * @param context
+	 *            the logical context, or null to use the current thread's log
+	 * @return the previous context of the current thread
+	 * @see ThreadLocalTreeLog#setContext(Object)
+	 */
+	public static Object setContext(Object context) {
+		return getThreadLocalLog().setContext(context);
+	}
+
 	public static void addHandler(Handler<? super LogMessage<? extends Object>> handler) {
 		getMasterHandler().addHandler(handler);
 	}
@@ -219,32 +274,53 @@ public final class Logs {
 		return (int) ((((double) Runtime.getRuntime().freeMemory()) / ((double) Runtime.getRuntime().totalMemory())) * 100);
 	}
 
-	private static final Map<String, Long> stopWatches = new HashMap<String, Long>();
+	/**
+	 * The one timer that records every stopwatch. Stopwatches are often named
+	 * after threads, so a timer per name would grow the metrics registry
+	 * without bound.
+	 */
+	private static final Timer STOP_WATCH_TIMER = Metrics.timer("Logs.stopWatch");
+
+	private static final ThreadLocal<Map<String, Long>> stopWatches = new ThreadLocal<Map<String, Long>>() {
+		@Override
+		protected Map<String, Long> initialValue() {
+			return new HashMap<String, Long>();
+		}
+	};
 
 	/**
 	 * Hit a stopwatch named {@code Thread.currentThread().getName()}.
 	 * 
 	 * @see Logs#hitStopWatch(String)
+	 * @deprecated use a {@link Timer} from {@link Metrics#timer(String)}, which
+	 *             is not keyed by thread name
 	 */
+	@Deprecated
 	public static void hitStopWatch() {
 		Logs.hitStopWatch(Thread.currentThread().getName());
 	}
 
 	/**
-	 * Start or stop a stop watch.
+	 * Start or stop a stop watch. Stopwatches are private to the calling
+	 * thread, and the elapsed times of all of them are recorded in the single
+	 * {@link Timer} named {@code Logs.stopWatch}.
 	 * 
 	 * @param name
 	 *            the name of the stop watch. If no stopwatch is running with
 	 *            this name, a stopwatch is begun. Otherwise, the stopwatch is
 	 *            stopped.
+	 * @deprecated use a {@link Timer} from {@link Metrics#timer(String)}
+	 *             directly
 	 */
+	@Deprecated
 	public static void hitStopWatch(String name) {
-		if (stopWatches.get(name) == null) {
-			stopWatches.put(name, Long.valueOf(System.currentTimeMillis()));
+		Map<String, Long> running = stopWatches.get();
+		Long started = running.remove(name);
+		if (started == null) {
+			running.put(name, Long.valueOf(System.nanoTime()));
 			return;
 		}
-		System.out.println("StopWatcher: " + name + " executed in " + (((double) (System.currentTimeMillis() - stopWatches.get(name).longValue())) / 1000) + " seconds");
-		stopWatches.remove(name);
+		STOP_WATCH_TIMER.record(System.nanoTime() - started.longValue());
 	}
 
-}
\ No newline at end of file
+}
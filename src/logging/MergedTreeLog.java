@@ -0,0 +1,512 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package logging;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+
+/**
+ * Merges the events of many logs into one timeline, ordered by
+ * {@link LogMessage#getTimestamp()}.
+ * <p>
+ * Each log writes to its own {@link Source}. Events are held briefly so that
+ * sources that arrive late, or out of order relative to one another, can still
+ * be merged in order. An event is released once every source has reported a
+ * later event, or once it is older than the reorder window, whichever comes
+ * first. Release is a k-way merge: the sources are kept in a heap keyed by
+ * their earliest pending event, so each event costs O(log k) for k sources.
+ * <p>
+ * Events from a single source are never reordered, since doing so would break
+ * their nesting. Timestamps that run backwards within a source are treated as
+ * though they happened at the same time as the previous event. A constant
+ * clock offset can be applied to each source to correct for skew between
+ * hosts.
+ * <p>
+ * The sink receives one timeline that keeps the nesting of each source. Each
+ * run of events from the same source is placed within a scope named after
+ * that source, and any scopes that source still has open are entered again so
+ * its events stay where they belong. The reentered scopes are the original
+ * messages, so the sink should not record durations for them; see
+ * {@link BufferedTreeLog#setRecordingDurations(boolean)}.
+ * <p>
+ * This class is thread-safe. Events are only sent to the sink from
+ * {@link #drain()} and {@link #flush()}, so the sink is only used by the
+ * threads that call those.
+ * 
+ * @author Aaron Faanes
+ * @param <Message>
+ *            the type of log message
+ */
+public class MergedTreeLog<Message> {
+
+	/**
+	 * The default reorder window, in milliseconds.
+	 */
+	public static final long DEFAULT_REORDER_WINDOW = 500;
+
+	/**
+	 * The default number of events that may be pending before the oldest are
+	 * released regardless of the reorder window.
+	 */
+	public static final int DEFAULT_MAX_PENDING = 1 << 16;
+
+	private static enum Kind {
+		LOG,
+		ENTER,
+		LEAVE,
+		RESET
+	}
+
+	private static final class Event<Message> {
+		final Kind kind;
+		final LogMessage<? extends Message> message;
+		final long timestamp;
+
+		Event(Kind kind, LogMessage<? extends Message> message, long timestamp) {
+			this.kind = kind;
+			this.message = message;
+			this.timestamp = timestamp;
+		}
+	}
+
+	private static final Comparator<MergedTreeLog<?>.Source> EARLIEST_FIRST = new Comparator<MergedTreeLog<?>.Source>() {
+		@Override
+		public int compare(MergedTreeLog<?>.Source a, MergedTreeLog<?>.Source b) {
+			int result = Long.compare(a.peekTimestamp(), b.peekTimestamp());
+			if (result != 0) {
+				return result;
+			}
+			return Integer.compare(a.id, b.id);
+		}
+	};
+
+	/**
+	 * One of the logs that is merged. Writing to a source is cheap: events are
+	 * only queued until the next drain.
+	 * <p>
+	 * A source is not safe for use by multiple threads at once, since its
+	 * events must be written in order.
+	 */
+	public final class Source implements TreeLog<Message> {
+
+		private final int id;
+		private final String name;
+
+		private final Queue<Event<Message>> pending = new ArrayDeque<>();
+
+		/**
+		 * The scopes that this source has open, as of the last released event.
+		 */
+		private final Deque<LogMessage<? extends Message>> openScopes = new ArrayDeque<>();
+
+		/**
+		 * Scopes that have been entered but not yet left, as written. These are
+		 * used to timestamp leave events.
+		 */
+		private final Deque<LogMessage<? extends Message>> writtenScopes = new ArrayDeque<>();
+
+		private long clockOffset;
+
+		/**
+		 * The adjusted timestamp of the latest event written to this source, or
+		 * {@link Long#MIN_VALUE} if none has been.
+		 */
+		private long latest = Long.MIN_VALUE;
+
+		private boolean removed;
+
+		private Source(int id, String name) {
+			this.id = id;
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the number of milliseconds added to the timestamps of this
+		 *         source
+		 */
+		public long getClockOffset() {
+			synchronized (MergedTreeLog.this) {
+				return clockOffset;
+			}
+		}
+
+		/**
+		 * Correct for the skew of this source's clock. Only events written
+		 * after this call are affected.
+		 * 
+		 * @param clockOffset
+		 *            the number of milliseconds to add to the timestamps of
+		 *            this source. It is negative if this source's clock is
+		 *            ahead.
+		 */
+		public void setClockOffset(long clockOffset) {
+			synchronized (MergedTreeLog.this) {
+				this.clockOffset = clockOffset;
+			}
+		}
+
+		private long peekTimestamp() {
+			return pending.peek().timestamp;
+		}
+
+		@Override
+		public void log(LogMessage<? extends Message> message) {
+			add(Kind.LOG, message, timestampOf(message));
+		}
+
+		@Override
+		public void enter(LogMessage<? extends Message> scope) {
+			writtenScopes.push(scope != null ? scope : nullScope());
+			add(Kind.ENTER, scope, timestampOf(scope));
+		}
+
+		@Override
+		public void leave() {
+			long timestamp = latest;
+			if (!writtenScopes.isEmpty()) {
+				LogMessage<? extends Message> scope = writtenScopes.pop();
+				if (scope.hasDuration()) {
+					timestamp = timestampOf(scope) + scope.getDuration() / 1000000;
+				}
+			}
+			add(Kind.LEAVE, null, timestamp);
+		}
+
+		@Override
+		public void reset() {
+			writtenScopes.clear();
+			add(Kind.RESET, null, latest);
+		}
+
+		private long timestampOf(LogMessage<? extends Message> message) {
+			if (message == null) {
+				return latest;
+			}
+			return message.getTimestamp() + clockOffset;
+		}
+
+		private void add(Kind kind, LogMessage<? extends Message> message, long timestamp) {
+			synchronized (MergedTreeLog.this) {
+				if (removed) {
+					return;
+				}
+				if (timestamp < latest) {
+					timestamp = latest;
+				}
+				latest = timestamp;
+
+				boolean wasEmpty = pending.isEmpty();
+				pending.add(new Event<Message>(kind, message, timestamp));
+				if (wasEmpty) {
+					heap.add(this);
+				}
+				if (++pendingCount > maxPending) {
+					release(1);
+				}
+			}
+		}
+
+		private void releaseHead() {
+			Event<Message> event = pending.remove();
+			if (event.timestamp < released) {
+				++lateCount;
+			} else {
+				released = event.timestamp;
+			}
+			switch (event.kind) {
+			case LOG:
+				switchTo(this);
+				sink.log(event.message);
+				break;
+			case ENTER:
+				switchTo(this);
+				sink.enter(event.message);
+				openScopes.push(event.message != null ? event.message : nullScope());
+				break;
+			case LEAVE:
+				if (!openScopes.isEmpty()) {
+					if (current == this) {
+						sink.leave();
+					}
+					openScopes.pop();
+				}
+				break;
+			case RESET:
+				if (current == this) {
+					for (int i = 0; i < openScopes.size(); ++i) {
+						sink.leave();
+					}
+				}
+				openScopes.clear();
+				break;
+			}
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	private TreeLog<? super Message> sink = new NoopTreeLog();
+
+	private final List<Source> sources = new ArrayList<>();
+
+	private final PriorityQueue<Source> heap;
+
+	private int nextId;
+
+	private long reorderWindow = DEFAULT_REORDER_WINDOW;
+
+	private int maxPending = DEFAULT_MAX_PENDING;
+
+	private int pendingCount;
+
+	private long lateCount;
+
+	/**
+	 * The latest timestamp that has been released.
+	 */
+	private long released = Long.MIN_VALUE;
+
+	/**
+	 * The source whose scopes are currently entered in the sink, or null.
+	 */
+	private Source current;
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public MergedTreeLog() {
+		heap = new PriorityQueue<Source>(11, (Comparator) EARLIEST_FIRST);
+	}
+
+	public synchronized TreeLog<? super Message> getSink() {
+		return sink;
+	}
+
+	public synchronized void setSink(TreeLog<? super Message> sink) {
+		if (sink == null) {
+			sink = new NoopTreeLog();
+		}
+		this.sink = sink;
+		current = null;
+	}
+
+	/**
+	 * Add a new source to this timeline.
+	 * 
+	 * @param name
+	 *            the name of the source, which is used to label its events
+	 * @return the log that the source should write to
+	 */
+	public synchronized Source addSource(String name) {
+		Source source = new Source(nextId++, name);
+		sources.add(source);
+		return source;
+	}
+
+	/**
+	 * Remove a source from this timeline. Its pending events are released
+	 * first.
+	 * 
+	 * @param source
+	 *            the source to remove
+	 */
+	public synchronized void removeSource(Source source) {
+		if (!sources.remove(source)) {
+			return;
+		}
+		// Release everything up to this source's last event, since nothing
+		// else will hold them back once it is gone.
+		if (!source.pending.isEmpty()) {
+			releaseUntil(source.latest);
+		}
+		source.removed = true;
+		if (current == source) {
+			leaveCurrent();
+		}
+	}
+
+	public synchronized List<Source> getSources() {
+		return Collections.unmodifiableList(new ArrayList<>(sources));
+	}
+
+	/**
+	 * @return the number of milliseconds that events are held while waiting
+	 *         for other sources
+	 */
+	public synchronized long getReorderWindow() {
+		return reorderWindow;
+	}
+
+	public synchronized void setReorderWindow(long reorderWindow) {
+		if (reorderWindow < 0) {
+			throw new IllegalArgumentException("Reorder window must not be negative. Given: " + reorderWindow);
+		}
+		this.reorderWindow = reorderWindow;
+	}
+
+	public synchronized int getMaxPending() {
+		return maxPending;
+	}
+
+	/**
+	 * Set the number of events that may be pending before the oldest are
+	 * released early. This bounds the memory used by sources that are far
+	 * behind.
+	 * 
+	 * @param maxPending
+	 *            the maximum number of pending events
+	 */
+	public synchronized void setMaxPending(int maxPending) {
+		if (maxPending < 1) {
+			throw new IllegalArgumentException("Max pending must be positive. Given: " + maxPending);
+		}
+		this.maxPending = maxPending;
+	}
+
+	public synchronized int getPendingCount() {
+		return pendingCount;
+	}
+
+	/**
+	 * @return the number of events that were released after a later event
+	 *         from another source, because they arrived outside of the reorder
+	 *         window
+	 */
+	public synchronized long getLateCount() {
+		return lateCount;
+	}
+
+	/**
+	 * Release every event that can no longer be preceded by another, using the
+	 * current time to expire the reorder window.
+	 * 
+	 * @return the number of events that were released
+	 */
+	public int drain() {
+		return drain(System.currentTimeMillis());
+	}
+
+	/**
+	 * Release every event that can no longer be preceded by another.
+	 * 
+	 * @param now
+	 *            the current time, in milliseconds. Events older than this,
+	 *            less the reorder window, are released even if some sources
+	 *            have not caught up to them.
+	 * @return the number of events that were released
+	 */
+	public synchronized int drain(long now) {
+		long watermark = Long.MAX_VALUE;
+		for (Source source : sources) {
+			watermark = Math.min(watermark, source.latest);
+		}
+		return releaseUntil(Math.max(watermark, now - reorderWindow));
+	}
+
+	/**
+	 * Release every pending event, regardless of the reorder window.
+	 * 
+	 * @return the number of events that were released
+	 */
+	public synchronized int flush() {
+		return release(pendingCount);
+	}
+
+	private int releaseUntil(long watermark) {
+		int count = 0;
+		while (!heap.isEmpty() && heap.peek().peekTimestamp() <= watermark) {
+			releaseNext();
+			++count;
+		}
+		return count;
+	}
+
+	private int release(int maxReleased) {
+		int count = 0;
+		while (count < maxReleased && !heap.isEmpty()) {
+			releaseNext();
+			++count;
+		}
+		return count;
+	}
+
+	private void releaseNext() {
+		Source source = heap.poll();
+		source.releaseHead();
+		--pendingCount;
+		if (!source.pending.isEmpty()) {
+			heap.add(source);
+		}
+	}
+
+	/**
+	 * Make the specified source the current one, leaving the scopes of the
+	 * previous source and entering those that are open in the new one.
+	 */
+	private void switchTo(Source source) {
+		if (current == source) {
+			return;
+		}
+		leaveCurrent();
+		current = source;
+		sink.enter(new LogMessage<Message>(released, null, source.getName(), null));
+
+		// The open scopes are stored innermost first.
+		List<LogMessage<? extends Message>> scopes = new ArrayList<>(source.openScopes);
+		for (int i = scopes.size() - 1; i >= 0; --i) {
+			LogMessage<? extends Message> scope = scopes.get(i);
+			sink.enter(scope != NULL_SCOPE ? scope : null);
+		}
+	}
+
+	private void leaveCurrent() {
+		if (current == null) {
+			return;
+		}
+		for (int i = 0; i < current.openScopes.size(); ++i) {
+			sink.leave();
+		}
+		sink.leave();
+		current = null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <Message> LogMessage<Message> nullScope() {
+		return (LogMessage<Message>) NULL_SCOPE;
+	}
+
+	/**
+	 * Stands in for null scopes, which the deques cannot hold.
+	 */
+	private static final LogMessage<?> NULL_SCOPE = new LogMessage<Object>(null);
+}
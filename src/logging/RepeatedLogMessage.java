@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package logging;
+
+/**
+ * A log message that stands for a run of identical consecutive messages.
+ * 
+ * @author Aaron Faanes
+ * @param <T>
+ *            the type of message
+ * @see #isRepeat(LogMessage)
+ */
+public class RepeatedLogMessage<T> extends LogMessage<T> {
+
+	private int count = 1;
+
+	private long lastTimestamp;
+
+	/**
+	 * @param first
+	 *            the first message of the run
+	 */
+	public RepeatedLogMessage(LogMessage<? extends T> first) {
+		super(first.getTimestamp(), first.getNanoTime(), first.getSender(), first.getCategory(), first.getMessage());
+		this.lastTimestamp = first.getTimestamp();
+	}
+
+	/**
+	 * @return {@code true} if the specified message has the same category,
+	 *         sender and message as this one
+	 */
+	public boolean isRepeat(LogMessage<?> message) {
+		return isRepeat(this, message);
+	}
+
+	/**
+	 * Add the specified message to this run.
+	 * 
+	 * @param message
+	 *            the repeated message
+	 */
+	public void repeat(LogMessage<?> message) {
+		++count;
+		lastTimestamp = Math.max(lastTimestamp, message.getTimestamp());
+	}
+
+	/**
+	 * @return the number of messages in this run
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	public long getFirstTimestamp() {
+		return getTimestamp();
+	}
+
+	public long getLastTimestamp() {
+		return lastTimestamp;
+	}
+
+	/**
+	 * @return {@code true} if the specified messages have the same category,
+	 *         sender and message
+	 */
+	public static boolean isRepeat(LogMessage<?> first, LogMessage<?> second) {
+		if (first == null || second == null) {
+			return false;
+		}
+		return equals(first.getCategory(), second.getCategory())
+				&& equals(first.getSender(), second.getSender())
+				&& equals(first.getMessage(), second.getMessage());
+	}
+
+	private static boolean equals(Object a, Object b) {
+		return a == null ? b == null : a.equals(b);
+	}
+}
@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package logging;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link TreeLog} that aggregates the duration of scopes. Scopes with the
+ * same path of names are merged, so the profile shows where time was spent
+ * across the entire session, rather than within any single scope.
+ * <p>
+ * A scope is named by its category, if it has one, since categories group
+ * similar scopes together. Otherwise, the scope is named by its message.
+ * Individual messages are ignored, as they have no duration.
+ * <p>
+ * This log is not thread-safe. It is intended to be used on the EDT, behind a
+ * {@link BufferedTreeLog} that records scope durations as they occur.
+ * 
+ * @author Aaron Faanes
+ * @param <Message>
+ *            the type of log message
+ * @see LogMessage#getDuration()
+ */
+public class ScopeProfile<Message> implements TreeLog<Message> {
+
+	/**
+	 * A merged scope path within a {@link ScopeProfile}.
+	 */
+	public static class Node {
+		private final String name;
+		private final Node parent;
+		private final Map<String, Node> children = new LinkedHashMap<>();
+
+		private long count;
+		private long totalTime;
+
+		private Node(Node parent, String name) {
+			this.parent = parent;
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public Node getParent() {
+			return parent;
+		}
+
+		/**
+		 * @return the number of scopes that were merged into this node
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * @return the total time spent within this node's scopes, in
+		 *         nanoseconds
+		 */
+		public long getTotalTime() {
+			if (parent == null) {
+				long total = 0;
+				for (Node child : children.values()) {
+					total += child.getTotalTime();
+				}
+				return total;
+			}
+			return totalTime;
+		}
+
+		/**
+		 * @return the time spent within this node's scopes, but not within any
+		 *         of their child scopes, in nanoseconds
+		 */
+		public long getSelfTime() {
+			long self = getTotalTime();
+			for (Node child : children.values()) {
+				self -= child.getTotalTime();
+			}
+			return Math.max(0, self);
+		}
+
+		public Collection<Node> getChildren() {
+			return Collections.unmodifiableCollection(children.values());
+		}
+
+		/**
+		 * @return the names of this node and its ancestors, from the outermost
+		 *         scope to this one
+		 */
+		public String getPath() {
+			if (parent == null || parent.parent == null) {
+				return name;
+			}
+			return parent.getPath() + " > " + name;
+		}
+
+		private Node child(String name) {
+			Node child = children.get(name);
+			if (child == null) {
+				child = new Node(this, name);
+				children.put(name, child);
+			}
+			return child;
+		}
+
+		private void collect(List<Node> nodes) {
+			for (Node child : children.values()) {
+				nodes.add(child);
+				child.collect(nodes);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	private Node root = new Node(null, "<root>");
+
+	private Node cursor = root;
+
+	private final Deque<LogMessage<? extends Message>> openScopes = new ArrayDeque<>();
+
+	private int modifications;
+
+	/**
+	 * Returns the name used to merge the specified scope.
+	 * 
+	 * @param scope
+	 *            the entered scope
+	 * @return the name of the scope
+	 */
+	protected String getName(LogMessage<? extends Message> scope) {
+		if (scope == null) {
+			return "<null>";
+		}
+		if (scope.getCategory() != null && !scope.getCategory().equals("")) {
+			return scope.getCategory();
+		}
+		return String.valueOf(scope.getMessage());
+	}
+
+	public Node getRoot() {
+		return root;
+	}
+
+	/**
+	 * @return every merged scope path in this profile, in depth-first order
+	 */
+	public List<Node> getNodes() {
+		List<Node> nodes = new ArrayList<>();
+		root.collect(nodes);
+		return nodes;
+	}
+
+	/**
+	 * @return a count that changes whenever this profile is updated
+	 */
+	public int getModifications() {
+		return modifications;
+	}
+
+	/**
+	 * Discard every recorded scope.
+	 */
+	public void clear() {
+		root = new Node(null, "<root>");
+		cursor = root;
+		openScopes.clear();
+		++modifications;
+	}
+
+	@Override
+	public void log(LogMessage<? extends Message> message) {
+		// Messages have no duration, so they're ignored.
+	}
+
+	@Override
+	public void enter(LogMessage<? extends Message> scope) {
+		cursor = cursor.child(getName(scope));
+		openScopes.push(scope != null ? scope : new LogMessage<Message>(null));
+	}
+
+	@Override
+	public void leave() {
+		if (cursor == root) {
+			return;
+		}
+		LogMessage<? extends Message> scope = openScopes.pop();
+		++cursor.count;
+		if (scope.hasDuration()) {
+			cursor.totalTime += scope.getDuration();
+		}
+		cursor = cursor.getParent();
+		++modifications;
+	}
+
+	@Override
+	public void reset() {
+		while (cursor != root) {
+			leave();
+		}
+	}
+}
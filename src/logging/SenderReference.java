@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package logging;
+
+/**
+ * Identifies the sender of a message that was received from another process.
+ * Senders are compared by their reference, such as an identity hash code,
+ * while their name is used for display.
+ * 
+ * @author Aaron Faanes
+ */
+class SenderReference {
+	private final Object reference;
+	private final Object name;
+
+	public SenderReference(Object reference, Object name) {
+		this.reference = reference;
+		this.name = name;
+	}
+
+	public Object getReference() {
+		return reference;
+	}
+
+	@Override
+	public String toString() {
+		return name.toString();
+	}
+
+	@Override
+	public int hashCode() {
+		return reference.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		if (!(obj instanceof SenderReference)) {
+			return false;
+		}
+		SenderReference other = (SenderReference) obj;
+		return reference.equals(other.getReference());
+	}
+}
@@ -0,0 +1,229 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package logging;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A single-producer, single-consumer ring of bytes that lives in a
+ * memory-mapped file, so that it may be shared between processes on the same
+ * host.
+ * <p>
+ * The file begins with a header, followed by the ring's data. The producer and
+ * the consumer each own a sequence counter in the header, which counts the
+ * bytes they have written or read since the ring was created. Each counter
+ * lives on its own cache line, and is only ever written by its owner.
+ * <p>
+ * Java offers no fences for mapped memory, so volatile accesses are used to
+ * order the data with respect to the sequence counters. On HotSpot, these
+ * prevent the compiler from reordering the surrounding accesses, and the
+ * hardware preserves the order of stores on common platforms.
+ * 
+ * @author Aaron Faanes
+ * @see SharedMemoryTreeLog
+ * @see SharedMemoryTreeLogReader
+ */
+final class SharedMemoryRing implements Closeable {
+
+	private static final int MAGIC = 0x52544c31;
+	private static final int VERSION = 1;
+
+	private static final int MAGIC_OFFSET = 0;
+	private static final int VERSION_OFFSET = 4;
+	private static final int CAPACITY_OFFSET = 8;
+	private static final int WRITE_SEQUENCE_OFFSET = 64;
+	private static final int READ_SEQUENCE_OFFSET = 128;
+	private static final int DATA_OFFSET = 192;
+
+	/**
+	 * Records are aligned to this many bytes, so that each record's header is
+	 * never split across the end of the ring.
+	 */
+	static final int ALIGNMENT = 8;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+	private final int capacity;
+
+	/**
+	 * Accessed to order the ring's data with its sequence counters.
+	 */
+	private volatile int fence;
+
+	private SharedMemoryRing(FileChannel channel, MappedByteBuffer buffer, int capacity) {
+		this.channel = channel;
+		this.buffer = buffer;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Create a new, empty ring in the specified file. Any existing content of
+	 * the file is discarded.
+	 * 
+	 * @param file
+	 *            the file that will contain the ring
+	 * @param capacity
+	 *            the size of the ring's data, in bytes. It must be a power of
+	 *            two, and at least 64 bytes.
+	 * @return the new ring
+	 * @throws IOException
+	 *             if the file cannot be mapped
+	 */
+	public static SharedMemoryRing create(File file, int capacity) throws IOException {
+		if (capacity < 64 || Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("capacity must be a power of two of at least 64 bytes, but was " + capacity);
+		}
+		FileChannel channel = FileChannel.open(file.toPath(),
+				StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		try {
+			MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, DATA_OFFSET + capacity);
+			buffer.putLong(WRITE_SEQUENCE_OFFSET, 0);
+			buffer.putLong(READ_SEQUENCE_OFFSET, 0);
+			buffer.putInt(CAPACITY_OFFSET, capacity);
+			buffer.putInt(VERSION_OFFSET, VERSION);
+			buffer.putInt(MAGIC_OFFSET, MAGIC);
+			return new SharedMemoryRing(channel, buffer, capacity);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Open an existing ring that was created by {@link #create(File, int)}.
+	 * 
+	 * @param file
+	 *            the file that contains the ring
+	 * @return the existing ring
+	 * @throws IOException
+	 *             if the file cannot be mapped, or does not contain a ring
+	 */
+	public static SharedMemoryRing open(File file) throws IOException {
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			if (channel.size() < DATA_OFFSET) {
+				throw new IOException("File is too small to contain a ring: " + file);
+			}
+			MappedByteBuffer header = channel.map(MapMode.READ_ONLY, 0, DATA_OFFSET);
+			if (header.getInt(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION) {
+				throw new IOException("File does not contain a ring: " + file);
+			}
+			int capacity = header.getInt(CAPACITY_OFFSET);
+			if (channel.size() < DATA_OFFSET + (long) capacity) {
+				throw new IOException("File is smaller than its ring: " + file);
+			}
+			return new SharedMemoryRing(channel, channel.map(MapMode.READ_WRITE, 0, DATA_OFFSET + capacity), capacity);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * @param sequence
+	 *            a producer or consumer sequence
+	 * @return the absolute offset in the mapped buffer for the specified
+	 *         sequence
+	 */
+	public int offsetOf(long sequence) {
+		return DATA_OFFSET + (int) (sequence & (capacity - 1));
+	}
+
+	/**
+	 * @return the remaining bytes between the specified sequence and the end
+	 *         of the ring
+	 */
+	public int remainingBeforeWrap(long sequence) {
+		return capacity - (int) (sequence & (capacity - 1));
+	}
+
+	public MappedByteBuffer getBuffer() {
+		return buffer;
+	}
+
+	/**
+	 * Read the producer's sequence. Data written before that sequence was
+	 * published is visible once this method returns.
+	 * 
+	 * @return the number of bytes the producer has written
+	 */
+	@SuppressWarnings("unused")
+	public long getWriteSequence() {
+		long sequence = buffer.getLong(WRITE_SEQUENCE_OFFSET);
+		int ignored = fence;
+		return sequence;
+	}
+
+	/**
+	 * Publish the producer's sequence, after all data before it has been
+	 * written.
+	 * 
+	 * @param sequence
+	 *            the number of bytes the producer has written
+	 */
+	public void setWriteSequence(long sequence) {
+		fence = 0;
+		buffer.putLong(WRITE_SEQUENCE_OFFSET, sequence);
+		fence = 0;
+	}
+
+	/**
+	 * @return the number of bytes the consumer has read
+	 */
+	@SuppressWarnings("unused")
+	public long getReadSequence() {
+		long sequence = buffer.getLong(READ_SEQUENCE_OFFSET);
+		int ignored = fence;
+		return sequence;
+	}
+
+	/**
+	 * Publish the consumer's sequence, after all data before it has been read.
+	 * 
+	 * @param sequence
+	 *            the number of bytes the consumer has read
+	 */
+	public void setReadSequence(long sequence) {
+		fence = 0;
+		buffer.putLong(READ_SEQUENCE_OFFSET, sequence);
+		fence = 0;
+	}
+
+	@Override
+	public void close() throws IOException {
+		buffer.force();
+		channel.close();
+	}
+}
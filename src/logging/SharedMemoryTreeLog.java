@@ -0,0 +1,432 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package logging;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link TreeLog} that writes binary events into a ring that is shared with
+ * a {@link SharedMemoryTreeLogReader}, typically in the log viewer's process.
+ * This avoids the socket, text encoding, and parsing costs of the
+ * {@link TreeLogServer}'s network protocol for producers on the same host.
+ * <p>
+ * Each event is a record of the form:
+ * 
+ * <pre>
+ * int length    // the total size of the record, aligned to 8 bytes
+ * int type      // ENTER, LOG, LEAVE, RESET, CLOSE, or PADDING
+ * long nanoTime // for all but PADDING
+ * // ENTER and LOG only:
+ * long timestamp
+ * int senderId
+ * string sender, category, message
+ * </pre>
+ * 
+ * Strings are written as a char count, or -1 for null, followed by UTF-16
+ * chars. If a record does not fit before the end of the ring, a PADDING record
+ * fills the remaining space and the record is written at the start of the
+ * ring.
+ * <p>
+ * Only one producer may write to a ring, so this log's methods are
+ * synchronized. If the ring is full, writers wait for the reader to catch up,
+ * but only for the {@link #setFullTimeout(long, TimeUnit) full timeout}, so
+ * that a reader that has stalled or died cannot hang the producer. When a
+ * wait times out, the event is dropped, and so is every later event until
+ * the reader frees enough space, without waiting again. Dropped scopes are
+ * dropped along with everything in them, and scopes that were left while the
+ * ring was full are left as soon as there is room. The reader is then sent a
+ * message with the number of dropped events.
+ * 
+ * @author Aaron Faanes
+ * @param <T>
+ *            the type of log message
+ * @see SharedMemoryTreeLogReader
+ */
+public class SharedMemoryTreeLog<T> implements TreeLog<T>, Closeable {
+
+	static final int HEADER_SIZE = 8;
+
+	static final int ENTER = 1;
+	static final int LOG = 2;
+	static final int LEAVE = 3;
+	static final int RESET = 4;
+	static final int CLOSE = 5;
+	static final int PADDING = 6;
+
+	/**
+	 * How long writers wait for space by default.
+	 */
+	private static final long DEFAULT_FULL_TIMEOUT = TimeUnit.SECONDS.toNanos(1);
+
+	private final SharedMemoryRing ring;
+	private final MappedByteBuffer buffer;
+
+	private long writeSequence;
+
+	/**
+	 * The last known read sequence. It's only refreshed when the ring
+	 * appears to be full.
+	 */
+	private long readSequence;
+
+	private boolean closed;
+
+	private long fullTimeout = DEFAULT_FULL_TIMEOUT;
+
+	/**
+	 * Whether an event has been dropped since the ring was last known to have
+	 * room. Events are not waited for while this is set.
+	 */
+	private boolean overflowing;
+
+	/**
+	 * The number of events dropped since the reader was last told.
+	 */
+	private long dropped;
+
+	/**
+	 * The total number of events dropped.
+	 */
+	private long totalDropped;
+
+	/**
+	 * The number of dropped scopes that have not been left.
+	 */
+	private int droppedDepth;
+
+	/**
+	 * The number of written scopes that were left while the ring was full.
+	 */
+	private int pendingLeaves;
+
+	/**
+	 * Whether this log was reset while the ring was full.
+	 */
+	private boolean pendingReset;
+
+	/**
+	 * Attach to the ring that was created by a reader in the specified file.
+	 * 
+	 * @param file
+	 *            the file containing the ring
+	 * @throws IOException
+	 *             if the file does not contain a ring
+	 * @see SharedMemoryTreeLogReader#SharedMemoryTreeLogReader(File, int,
+	 *      BufferedTreeLog)
+	 */
+	public SharedMemoryTreeLog(File file) throws IOException {
+		this.ring = SharedMemoryRing.open(file);
+		this.buffer = ring.getBuffer();
+		this.writeSequence = ring.getWriteSequence();
+		this.readSequence = ring.getReadSequence();
+	}
+
+	private static int align(int size) {
+		return (size + SharedMemoryRing.ALIGNMENT - 1) & -SharedMemoryRing.ALIGNMENT;
+	}
+
+	private static int sizeOf(String value) {
+		return 4 + (value == null ? 0 : 2 * value.length());
+	}
+
+	private static int messageSize(String sender, String category, String text) {
+		return align(HEADER_SIZE + 8 + 8 + 4 + sizeOf(sender) + sizeOf(category) + sizeOf(text));
+	}
+
+	private static String stringOf(Object value) {
+		return value == null ? null : value.toString();
+	}
+
+	/**
+	 * Wait until the ring has room for the specified number of bytes, or until
+	 * the deadline has passed.
+	 * 
+	 * @return {@code true} if there is room
+	 */
+	private boolean waitForSpace(int size, long deadline) {
+		while (writeSequence + size - readSequence > ring.getCapacity()) {
+			readSequence = ring.getReadSequence();
+			if (writeSequence + size - readSequence > ring.getCapacity()) {
+				if (System.nanoTime() - deadline >= 0) {
+					return false;
+				}
+				Thread.yield();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Reserve space for a record of the specified size, wrapping to the start
+	 * of the ring if necessary.
+	 * <p>
+	 * The padding is published before waiting for the record's space, so
+	 * that the reader can skip it and free the start of the ring. Otherwise, a
+	 * record larger than half the ring could never fit alongside its padding.
+	 *
+	 * @param timeout
+	 *            the most nanoseconds to wait for space
+	 * @return the offset at which the record should be written, or -1 if there
+	 *         was no room in time
+	 */
+	private int claim(int size, long timeout) {
+		if (size > ring.getCapacity()) {
+			throw new IllegalArgumentException("Record of " + size + " bytes is larger than the ring");
+		}
+		long deadline = System.nanoTime() + timeout;
+		int remaining = ring.remainingBeforeWrap(writeSequence);
+		if (remaining < size) {
+			if (!waitForSpace(remaining, deadline)) {
+				return -1;
+			}
+			int offset = ring.offsetOf(writeSequence);
+			buffer.putInt(offset, remaining);
+			buffer.putInt(offset + 4, PADDING);
+			publish(remaining);
+		}
+		if (!waitForSpace(size, deadline)) {
+			return -1;
+		}
+		return ring.offsetOf(writeSequence);
+	}
+
+	/**
+	 * @return how long to wait for space before dropping an event
+	 */
+	private long currentTimeout() {
+		return overflowing ? 0 : fullTimeout;
+	}
+
+	private void publish(int size) {
+		writeSequence += size;
+		ring.setWriteSequence(writeSequence);
+	}
+
+	private int putString(int offset, String value) {
+		if (value == null) {
+			buffer.putInt(offset, -1);
+			return offset + 4;
+		}
+		buffer.putInt(offset, value.length());
+		offset += 4;
+		for (int i = 0; i < value.length(); ++i) {
+			buffer.putChar(offset, value.charAt(i));
+			offset += 2;
+		}
+		return offset;
+	}
+
+	/**
+	 * @return {@code false} if there was no room for the message
+	 */
+	private boolean writeMessage(int type, LogMessage<?> message, long timeout) {
+		if (message == null) {
+			message = new LogMessage<T>(null);
+		}
+		String sender = stringOf(message.getSender());
+		String category = message.getCategory();
+		String text = stringOf(message.getMessage());
+
+		int size = messageSize(sender, category, text);
+		int offset = claim(size, timeout);
+		if (offset < 0) {
+			return false;
+		}
+		buffer.putInt(offset, size);
+		buffer.putInt(offset + 4, type);
+		buffer.putLong(offset + 8, message.getNanoTime());
+		buffer.putLong(offset + 16, message.getTimestamp());
+		buffer.putInt(offset + 24, message.getSender() == null ? 0 : System.identityHashCode(message.getSender()));
+		int position = putString(offset + 28, sender);
+		position = putString(position, category);
+		putString(position, text);
+		publish(size);
+		return true;
+	}
+
+	/**
+	 * @return {@code false} if there was no room for the event
+	 */
+	private boolean writeEvent(int type, long timeout) {
+		int size = HEADER_SIZE + 8;
+		int offset = claim(size, timeout);
+		if (offset < 0) {
+			return false;
+		}
+		buffer.putInt(offset, size);
+		buffer.putInt(offset + 4, type);
+		buffer.putLong(offset + 8, System.nanoTime());
+		publish(size);
+		return true;
+	}
+
+	/**
+	 * Write the events that were held back while the ring was full, if there
+	 * is room for them in time.
+	 * 
+	 * @param timeout
+	 *            the most nanoseconds to wait for each event
+	 * @return {@code true} if new events may be written
+	 */
+	private boolean recover(long timeout) {
+		if (!overflowing) {
+			return true;
+		}
+		if (pendingReset) {
+			if (!writeEvent(RESET, timeout)) {
+				return false;
+			}
+			pendingReset = false;
+		}
+		while (pendingLeaves > 0) {
+			if (!writeEvent(LEAVE, timeout)) {
+				return false;
+			}
+			--pendingLeaves;
+		}
+		if (dropped > 0) {
+			String notice = "Dropped " + dropped + " events while the ring was full";
+			// A tiny ring may not hold the notice at all.
+			if (messageSize(null, null, notice) <= ring.getCapacity() && !writeMessage(LOG, new LogMessage<String>(notice), timeout)) {
+				return false;
+			}
+			dropped = 0;
+		}
+		overflowing = false;
+		return true;
+	}
+
+	private void drop() {
+		overflowing = true;
+		++dropped;
+		++totalDropped;
+	}
+
+	@Override
+	public synchronized void log(LogMessage<? extends T> message) {
+		if (closed) {
+			return;
+		}
+		if (!recover(currentTimeout()) || !writeMessage(LOG, message, currentTimeout())) {
+			drop();
+		}
+	}
+
+	@Override
+	public synchronized void enter(LogMessage<? extends T> scope) {
+		if (closed) {
+			return;
+		}
+		if (droppedDepth > 0 || !recover(currentTimeout()) || !writeMessage(ENTER, scope, currentTimeout())) {
+			// Everything in a dropped scope is dropped with it.
+			drop();
+			++droppedDepth;
+		}
+	}
+
+	@Override
+	public synchronized void leave() {
+		if (closed) {
+			return;
+		}
+		if (droppedDepth > 0) {
+			--droppedDepth;
+			return;
+		}
+		if (!recover(currentTimeout()) || !writeEvent(LEAVE, currentTimeout())) {
+			overflowing = true;
+			++pendingLeaves;
+		}
+	}
+
+	@Override
+	public synchronized void reset() {
+		if (closed) {
+			return;
+		}
+		droppedDepth = 0;
+		if (overflowing) {
+			// A reset leaves every scope, so the pending leaves don't matter.
+			pendingLeaves = 0;
+			pendingReset = false;
+		}
+		if (!recover(currentTimeout()) || !writeEvent(RESET, currentTimeout())) {
+			overflowing = true;
+			pendingReset = true;
+		}
+	}
+
+	/**
+	 * @return how long, in nanoseconds, writers wait for space when the ring
+	 *         is full
+	 */
+	public synchronized long getFullTimeout() {
+		return fullTimeout;
+	}
+
+	/**
+	 * Set how long writers wait for space when the ring is full, before
+	 * dropping events.
+	 * 
+	 * @param timeout
+	 *            the time to wait, which may be zero to never wait
+	 * @param unit
+	 *            the unit of the timeout
+	 * @throws IllegalArgumentException
+	 *             if the timeout is negative
+	 */
+	public synchronized void setFullTimeout(long timeout, TimeUnit unit) {
+		if (timeout < 0) {
+			throw new IllegalArgumentException("timeout must not be negative");
+		}
+		this.fullTimeout = unit.toNanos(timeout);
+	}
+
+	/**
+	 * @return the number of events that have been dropped because the ring
+	 *         was full
+	 */
+	public synchronized long getDroppedCount() {
+		return totalDropped;
+	}
+
+	/**
+	 * Tell the reader that no more events will be written, and release the
+	 * ring.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		// Wait as usual, since the reader can't stop until it sees this.
+		if (recover(fullTimeout)) {
+			writeEvent(CLOSE, fullTimeout);
+		}
+		closed = true;
+		ring.close();
+	}
+}
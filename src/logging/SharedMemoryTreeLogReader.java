@@ -0,0 +1,283 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reads the events written by a {@link SharedMemoryTreeLog} in another
+ * process, and replays them into a {@link BufferedTreeLog}.
+ * <p>
+ * The reader polls the ring. It spins briefly when the ring is empty, then
+ * yields, and finally parks for short intervals, so an idle producer costs
+ * very little while a busy one is read with minimal latency.
+ * <p>
+ * The ring is shared with another process, so every record is checked before
+ * it is read. If a record's length or strings do not fit where they should,
+ * the reader logs that the ring is corrupt and stops.
+ * 
+ * @author Aaron Faanes
+ * @see SharedMemoryTreeLog
+ */
+public class SharedMemoryTreeLogReader implements Runnable {
+
+	private static final int SPINS = 100;
+	private static final int YIELDS = 100;
+	private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+	private final File file;
+	private final SharedMemoryRing ring;
+	private final MappedByteBuffer buffer;
+	private final BufferedTreeLog<String> log;
+
+	private long readSequence;
+
+	private volatile boolean closed;
+
+	private volatile LogTemplateMiner miner;
+
+	/**
+	 * The scopes that are open, along with the producer's time for each, so
+	 * the producer's durations can be restored.
+	 */
+	private final Deque<LogMessage<String>> openScopes = new ArrayDeque<>();
+	private final Deque<Long> openScopeTimes = new ArrayDeque<>();
+
+	/**
+	 * Create a new ring in the specified file. Producers attach to the ring
+	 * using {@link SharedMemoryTreeLog#SharedMemoryTreeLog(File)}.
+	 * 
+	 * @param file
+	 *            the file that will contain the ring
+	 * @param capacity
+	 *            the size of the ring, in bytes. It must be a power of two.
+	 * @param log
+	 *            the log that will receive events
+	 * @throws IOException
+	 *             if the ring cannot be created
+	 */
+	public SharedMemoryTreeLogReader(File file, int capacity, BufferedTreeLog<String> log) throws IOException {
+		this.file = file;
+		this.ring = SharedMemoryRing.create(file, capacity);
+		this.buffer = ring.getBuffer();
+		this.log = log;
+	}
+
+	public LogTemplateMiner getTemplateMiner() {
+		return miner;
+	}
+
+	/**
+	 * Compact every message read from the ring with the specified miner.
+	 * 
+	 * @param miner
+	 *            the miner to use, or null to keep messages as they are
+	 */
+	public void setTemplateMiner(LogTemplateMiner miner) {
+		this.miner = miner;
+	}
+
+	/**
+	 * Stop reading as soon as possible. Events that have not yet been read are
+	 * lost.
+	 */
+	public void close() {
+		closed = true;
+	}
+
+	@Override
+	public void run() {
+		log.enter(new LogMessage<String>("Shared memory ring opened at " + file));
+		try {
+			int idle = 0;
+			while (!closed) {
+				long writeSequence = ring.getWriteSequence();
+				if (readSequence == writeSequence) {
+					idle(idle++);
+					continue;
+				}
+				idle = 0;
+				while (readSequence < writeSequence) {
+					int offset = ring.offsetOf(readSequence);
+					int length = buffer.getInt(offset);
+					if (!isValidLength(length, writeSequence)) {
+						closed = true;
+						log.log(new LogMessage<String>("Ring is corrupt: record of " + length + " bytes at sequence " + readSequence));
+						break;
+					}
+					try {
+						if (!read(buffer.getInt(offset + 4), offset, offset + length)) {
+							closed = true;
+							log.log(new LogMessage<String>("Ring closed by producer."));
+							break;
+						}
+					} catch (IllegalStateException e) {
+						closed = true;
+						log.log(new LogMessage<String>("Ring is corrupt: " + e.getMessage()));
+						break;
+					}
+					readSequence += length;
+				}
+				ring.setReadSequence(readSequence);
+			}
+		} finally {
+			try {
+				ring.close();
+			} catch (IOException e) {
+				log.log(new LogMessage<String>("Ring could not be closed: " + e.toString()));
+			}
+			log.reset();
+		}
+	}
+
+	/**
+	 * Check the length of the record at the read sequence. Records are never
+	 * split by the end of the ring, so a valid record ends before it, and
+	 * before the end of what has been written.
+	 */
+	private boolean isValidLength(int length, long writeSequence) {
+		return length >= SharedMemoryTreeLog.HEADER_SIZE
+				&& length % SharedMemoryRing.ALIGNMENT == 0
+				&& length <= ring.remainingBeforeWrap(readSequence)
+				&& length <= writeSequence - readSequence;
+	}
+
+	private void idle(int iteration) {
+		if (iteration < SPINS) {
+			return;
+		}
+		if (iteration < SPINS + YIELDS) {
+			Thread.yield();
+			return;
+		}
+		LockSupport.parkNanos(PARK_NANOS);
+	}
+
+	/**
+	 * @throws IllegalStateException
+	 *             if the string does not fit before the end of its record
+	 */
+	private String getString(int offset, int end) {
+		if (offset + 4 > end) {
+			throw new IllegalStateException("String runs past its record at sequence " + readSequence);
+		}
+		int length = buffer.getInt(offset);
+		if (length == -1) {
+			return null;
+		}
+		if (length < 0 || length > (end - offset - 4) / 2) {
+			throw new IllegalStateException("String of " + length + " chars runs past its record at sequence " + readSequence);
+		}
+		char[] chars = new char[length];
+		offset += 4;
+		for (int i = 0; i < length; ++i) {
+			chars[i] = buffer.getChar(offset);
+			offset += 2;
+		}
+		return new String(chars);
+	}
+
+	private static int skipString(int offset, String value) {
+		return offset + 4 + (value == null ? 0 : 2 * value.length());
+	}
+
+	private LogMessage<String> getMessage(int offset, int end) {
+		if (offset + 28 > end) {
+			throw new IllegalStateException("Message record is too short at sequence " + readSequence);
+		}
+		long timestamp = buffer.getLong(offset + 16);
+		int senderId = buffer.getInt(offset + 24);
+		int position = offset + 28;
+		String senderName = getString(position, end);
+		position = skipString(position, senderName);
+		String category = getString(position, end);
+		position = skipString(position, category);
+		String message = getString(position, end);
+
+		Object sender = senderName;
+		if (senderName != null) {
+			sender = new SenderReference(Integer.valueOf(senderId), senderName);
+		}
+		LogMessage<String> logMessage = new LogMessage<String>(timestamp, sender, category, message);
+		LogTemplateMiner miner = this.miner;
+		if (miner != null) {
+			return miner.compact(logMessage);
+		}
+		return logMessage;
+	}
+
+	/**
+	 * Replay the record at the specified offset.
+	 * 
+	 * @return {@code false} if the record indicates the producer has closed the
+	 *         ring
+	 * @throws IllegalStateException
+	 *             if the record is corrupt
+	 */
+	private boolean read(int type, int offset, int end) {
+		if (type != SharedMemoryTreeLog.PADDING && end - offset < SharedMemoryTreeLog.HEADER_SIZE + 8) {
+			throw new IllegalStateException("Record of type " + type + " is too short at sequence " + readSequence);
+		}
+		switch (type) {
+		case SharedMemoryTreeLog.PADDING:
+			return true;
+		case SharedMemoryTreeLog.LOG:
+			log.log(getMessage(offset, end));
+			return true;
+		case SharedMemoryTreeLog.ENTER: {
+			LogMessage<String> scope = getMessage(offset, end);
+			openScopes.push(scope);
+			openScopeTimes.push(buffer.getLong(offset + 8));
+			log.enter(scope);
+			return true;
+		}
+		case SharedMemoryTreeLog.LEAVE:
+			if (!openScopes.isEmpty()) {
+				// Use the producer's duration, rather than the time it took us to notice it.
+				LogMessage<String> scope = openScopes.pop();
+				long entered = openScopeTimes.pop();
+				scope.leave(scope.getNanoTime() + Math.max(0, buffer.getLong(offset + 8) - entered));
+			}
+			log.leave();
+			return true;
+		case SharedMemoryTreeLog.RESET: {
+			long now = buffer.getLong(offset + 8);
+			while (!openScopes.isEmpty()) {
+				LogMessage<String> scope = openScopes.pop();
+				scope.leave(scope.getNanoTime() + Math.max(0, now - openScopeTimes.pop()));
+			}
+			log.reset();
+			return true;
+		}
+		case SharedMemoryTreeLog.CLOSE:
+			return false;
+		default:
+			throw new IllegalStateException("Unknown record type " + type + " at sequence " + readSequence);
+		}
+	}
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package logging;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link TreeLog} that counts messages by their {@link LogTemplate}.
+ * Messages that were not compacted by a {@link LogTemplateMiner} are counted
+ * by their text instead.
+ * <p>
+ * This log is not thread-safe. It is intended to be used on the EDT.
+ * 
+ * @author Aaron Faanes
+ * @param <Message>
+ *            the type of log message
+ */
+public class TemplateCounts<Message> implements TreeLog<Message> {
+
+	/**
+	 * The number of messages seen for a single template or text.
+	 */
+	public static class Entry {
+		private String label;
+		private int parameterCount = -1;
+		private long count;
+
+		private Entry(String label) {
+			this.label = label;
+		}
+
+		/**
+		 * @return the template or text of this entry's messages
+		 */
+		public String getLabel() {
+			return label;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		@Override
+		public String toString() {
+			return label;
+		}
+	}
+
+	/**
+	 * Entries keyed by template id, for templated messages, or by text.
+	 */
+	private final Map<Object, Entry> entries = new HashMap<>();
+
+	private int modifications;
+
+	public List<Entry> getEntries() {
+		return new ArrayList<>(entries.values());
+	}
+
+	/**
+	 * @return a count that changes whenever these counts are updated
+	 */
+	public int getModifications() {
+		return modifications;
+	}
+
+	public void clear() {
+		entries.clear();
+		++modifications;
+	}
+
+	private void count(LogMessage<? extends Message> message) {
+		if (message == null) {
+			return;
+		}
+		Entry entry;
+		if (message instanceof TemplatedLogMessage) {
+			LogTemplate template = ((TemplatedLogMessage) message).getTemplate();
+			entry = entries.get(template.getId());
+			if (entry == null) {
+				entry = new Entry(null);
+				entries.put(template.getId(), entry);
+			}
+			// Show the most general version of the template that has been seen.
+			if (template.getParameterCount() > entry.parameterCount) {
+				entry.parameterCount = template.getParameterCount();
+				entry.label = template.toString();
+			}
+		} else {
+			String text = String.valueOf(message.getMessage());
+			entry = entries.get(text);
+			if (entry == null) {
+				entry = new Entry(text);
+				entries.put(text, entry);
+			}
+		}
+		++entry.count;
+		++modifications;
+	}
+
+	@Override
+	public void log(LogMessage<? extends Message> message) {
+		count(message);
+	}
+
+	@Override
+	public void enter(LogMessage<? extends Message> scope) {
+		count(scope);
+	}
+
+	@Override
+	public void leave() {
+		// Scopes are counted when entered.
+	}
+
+	@Override
+	public void reset() {
+		// Scopes are counted when entered.
+	}
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package logging;
+
+/**
+ * A message whose text is stored as a {@link LogTemplate} and its parameters.
+ * The text is only created when it is asked for, so a log of many similar
+ * messages stores each shape once.
+ * 
+ * @author Aaron Faanes
+ * @see LogTemplateMiner
+ */
+public class TemplatedLogMessage extends LogMessage<String> {
+
+	private static final String[] NO_PARAMETERS = new String[0];
+
+	private final LogTemplate template;
+
+	/**
+	 * The parameters, joined by spaces. Tokens never contain spaces, so this
+	 * is unambiguous, and it is much smaller than an array of strings.
+	 */
+	private final String parameters;
+
+	TemplatedLogMessage(LogMessage<String> message, LogTemplate template, String[] parameters) {
+		super(message.getTimestamp(), message.getNanoTime(), message.getSender(), message.getCategory(), null);
+		this.template = template;
+		if (parameters.length == 0) {
+			this.parameters = null;
+		} else {
+			StringBuilder builder = new StringBuilder(parameters[0]);
+			for (int i = 1; i < parameters.length; ++i) {
+				builder.append(' ').append(parameters[i]);
+			}
+			this.parameters = builder.toString();
+		}
+	}
+
+	public LogTemplate getTemplate() {
+		return template;
+	}
+
+	public String[] getParameters() {
+		if (parameters == null) {
+			return NO_PARAMETERS;
+		}
+		return parameters.split(" ", -1);
+	}
+
+	@Override
+	public String getMessage() {
+		return template.format(getParameters());
+	}
+}
@@ -23,13 +23,30 @@ package logging;
 
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 import logic.actors.Actor;
 
 /**
+ * A {@link TreeLog} that dispatches messages to a separate log for each
+ * logging context. By default, each thread is its own context, but a thread
+ * may instead log to a shared logical context, like a pool name or a task id,
+ * using {@link #setContext(Object)}.
+ * <p>
+ * Logs for threads that have died are forgotten once they have been drained,
+ * so long-running applications that create many threads do not retain a log
+ * for every thread they have ever created. A dead thread's log that is never
+ * drained is forgotten anyway once the {@link #setDrainTimeout(long, TimeUnit)
+ * drain timeout} has passed.
+ * 
  * @author Aaron Faanes
  * @param <T>
  *            the type of log message
@@ -41,7 +58,21 @@ public abstract class ThreadLocalTreeLog<T, Log extends TreeLog<? super T>> impl
 
 	private List<Actor<? super Log>> listeners = new CopyOnWriteArrayList<>();
 
-	private Set<Log> logs = new HashSet<>();
+	private List<Actor<? super Log>> reclaimListeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * The logs created by this log, keyed by their context. Thread contexts are
+	 * keyed by the {@link Thread} itself, which uses identity equality.
+	 */
+	private final ConcurrentMap<Object, Log> logs = new ConcurrentHashMap<>();
+
+	/**
+	 * When each dead thread's log was first found to be undrained, in
+	 * nanoseconds. This is guarded by this log.
+	 */
+	private final Map<Log, Long> undrainedSince = new IdentityHashMap<>();
+
+	private volatile long drainTimeout = TimeUnit.MINUTES.toNanos(1);
 
 	/**
 	 * Creates a new log for the specified thread. The implementation of this
@@ -53,22 +84,166 @@ public abstract class ThreadLocalTreeLog<T, Log extends TreeLog<? super T>> impl
 	 */
 	protected abstract Log newTreeLog(Thread thread);
 
+	/**
+	 * Creates a new log for the specified logical context. The implementation
+	 * of this method must be thread-safe. By default, this creates a log as if
+	 * for the current thread.
+	 * 
+	 * @param context
+	 *            the logical context for the log
+	 * @return a new log for the specified context
+	 * @see #setContext(Object)
+	 */
+	protected Log newContextTreeLog(Object context) {
+		return newTreeLog(Thread.currentThread());
+	}
+
+	/**
+	 * Returns whether the specified log has no pending messages, and therefore
+	 * may be forgotten once its thread has died. Subclasses that buffer their
+	 * messages should override this method.
+	 * 
+	 * @param log
+	 *            the log that is a candidate for reclamation
+	 * @return {@code true} if the specified log may be safely forgotten
+	 */
+	protected boolean isDrained(Log log) {
+		return true;
+	}
+
 	private ThreadLocal<Log> log = new ThreadLocal<Log>() {
 		@Override
 		protected Log initialValue() {
-			Log log = newTreeLog(Thread.currentThread());
-			logs.add(log);
-			dispatchNewTreeLog(log);
-			return log;
+			return forContext(Thread.currentThread());
 		}
 	};
 
+	private ThreadLocal<Object> context = new ThreadLocal<>();
+
+	private Log forContext(Object context) {
+		Log log = logs.get(context);
+		if (log != null) {
+			return log;
+		}
+		synchronized (this) {
+			log = logs.get(context);
+			if (log == null) {
+				reclaim();
+				if (context instanceof Thread) {
+					log = newTreeLog((Thread) context);
+				} else {
+					log = newContextTreeLog(context);
+				}
+				logs.put(context, log);
+				dispatchNewTreeLog(log);
+			}
+			return log;
+		}
+	}
+
 	private synchronized void dispatchNewTreeLog(Log log) {
 		for (Actor<? super Log> listener : listeners) {
 			listener.receive(log);
 		}
 	}
 
+	/**
+	 * Forget the logs of all dead threads, as long as those logs have been
+	 * drained or the drain timeout has passed. This is called automatically
+	 * whenever a new log is created, so clients rarely need to call it
+	 * directly.
+	 * 
+	 * @return the number of logs that were forgotten
+	 * @see #isDrained(TreeLog)
+	 * @see #setDrainTimeout(long, TimeUnit)
+	 */
+	public synchronized int reclaim() {
+		int reclaimed = 0;
+		long now = System.nanoTime();
+		Iterator<Map.Entry<Object, Log>> iter = logs.entrySet().iterator();
+		while (iter.hasNext()) {
+			Map.Entry<Object, Log> entry = iter.next();
+			if (!(entry.getKey() instanceof Thread)) {
+				continue;
+			}
+			Thread thread = (Thread) entry.getKey();
+			if (thread.isAlive()) {
+				continue;
+			}
+			Log log = entry.getValue();
+			if (!isDrained(log)) {
+				Long since = undrainedSince.get(log);
+				if (since == null) {
+					since = now;
+					undrainedSince.put(log, since);
+				}
+				if (now - since < drainTimeout) {
+					continue;
+				}
+			}
+			undrainedSince.remove(log);
+			iter.remove();
+			++reclaimed;
+			dispatchReclaimedTreeLog(log);
+		}
+		return reclaimed;
+	}
+
+	private void dispatchReclaimedTreeLog(Log log) {
+		for (Actor<? super Log> listener : reclaimListeners) {
+			listener.receive(log);
+		}
+	}
+
+	/**
+	 * Sets how long a dead thread's log may go undrained before it is
+	 * forgotten anyway, losing its pending messages. The timeout is measured
+	 * from the first {@link #reclaim()} that found the log undrained.
+	 * 
+	 * @param timeout
+	 *            the longest time to wait for a log to be drained
+	 * @param unit
+	 *            the unit of the timeout
+	 */
+	public void setDrainTimeout(long timeout, TimeUnit unit) {
+		if (timeout < 0) {
+			throw new IllegalArgumentException("Timeout must not be negative");
+		}
+		drainTimeout = unit.toNanos(timeout);
+	}
+
+	/**
+	 * Returns the context of the specified log: the {@link Thread} that it was
+	 * created for, or the logical context given to {@link #setContext(Object)}.
+	 * 
+	 * @param log
+	 *            a log created by this log
+	 * @return the context of the log, or null if the log has been forgotten
+	 */
+	public Object getContextOf(TreeLog<?> log) {
+		for (Map.Entry<Object, Log> entry : logs.entrySet()) {
+			if (entry.getValue() == log) {
+				return entry.getKey();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns a name for the specified log, suitable for showing to a user.
+	 * 
+	 * @param log
+	 *            a log created by this log
+	 * @return the name of the log's thread, or the name of its logical context
+	 */
+	public String getName(TreeLog<?> log) {
+		Object context = getContextOf(log);
+		if (context instanceof Thread) {
+			return ((Thread) context).getName();
+		}
+		return String.valueOf(context);
+	}
+
 	/**
 	 * Adds a listener that will be called once for every log that is created,
 	 * including those that have already been created. Logs are created whenever
@@ -77,7 +252,7 @@ public abstract class ThreadLocalTreeLog<T, Log extends TreeLog<? super T>> impl
 	 * @param listener
 	 *            the listener that will receive newly created logs
 	 */
-	public void addListener(Actor<? super Log> listener) {
+	public synchronized void addListener(Actor<? super Log> listener) {
 		listeners.add(listener);
 		for (Log log : getLogs()) {
 			listener.receive(log);
@@ -95,10 +270,83 @@ public abstract class ThreadLocalTreeLog<T, Log extends TreeLog<? super T>> impl
 	}
 
 	/**
-	 * @return the set of all logs created by this log
+	 * Adds a listener that will be called once for every log that is forgotten
+	 * by this log.
+	 * 
+	 * @param listener
+	 *            the listener that will receive reclaimed logs
+	 * @see #reclaim()
+	 */
+	public void addReclaimListener(Actor<? super Log> listener) {
+		reclaimListeners.add(listener);
+	}
+
+	/**
+	 * Immediately remove the specified reclaim listener.
+	 * 
+	 * @param listener
+	 *            the listener to remove
+	 */
+	public void removeReclaimListener(Actor<? super Log> listener) {
+		reclaimListeners.remove(listener);
+	}
+
+	/**
+	 * Direct all subsequent messages from the current thread to the log for
+	 * the specified logical context, rather than the log for the current
+	 * thread. This lets many short-lived threads, like those in a pool or
+	 * those running a single task, share one log.
+	 * 
+	 * @param context
+	 *            the logical context, such as a pool name or a task id. If
+	 *            null, the current thread's own log will be used.
+	 * @return the previous context of the current thread, or null if the
+	 *         thread was using its own log
+	 */
+	public Object setContext(Object context) {
+		Object previous = this.context.get();
+		if (context == null) {
+			this.context.remove();
+		} else {
+			this.context.set(context);
+		}
+		return previous;
+	}
+
+	/**
+	 * @return the logical context of the current thread, or null if the thread
+	 *         is using its own log
+	 */
+	public Object getContext() {
+		return context.get();
+	}
+
+	/**
+	 * Forget the log for the specified logical context. Subsequent messages
+	 * for that context will create a new log.
+	 * 
+	 * @param context
+	 *            the context to forget
+	 * @return the forgotten log, or null if no log existed for the context
+	 */
+	public synchronized Log removeContext(Object context) {
+		if (context == null) {
+			return null;
+		}
+		Log removed = logs.remove(context);
+		if (removed != null) {
+			undrainedSince.remove(removed);
+			dispatchReclaimedTreeLog(removed);
+		}
+		return removed;
+	}
+
+	/**
+	 * @return the set of all logs created by this log that have not yet been
+	 *         reclaimed
 	 */
 	public Set<Log> getLogs() {
-		return Collections.unmodifiableSet(logs);
+		return Collections.unmodifiableSet(new HashSet<>(logs.values()));
 	}
 
 	@Override
@@ -122,6 +370,10 @@ public abstract class ThreadLocalTreeLog<T, Log extends TreeLog<? super T>> impl
 	}
 
 	private TreeLog<? super T> get() {
-		return log.get();
+		Object context = this.context.get();
+		if (context == null) {
+			return log.get();
+		}
+		return forContext(context);
 	}
 }
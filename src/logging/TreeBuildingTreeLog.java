@@ -22,9 +22,13 @@
 package logging;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
@@ -32,6 +36,13 @@ import javax.swing.tree.TreeModel;
 
 /**
  * A {@link TreeLog} that creates a {@link TreeModel}.
+ * <p>
+ * By default, every change to the tree fires its own model event. If
+ * {@link #setBatching(boolean) batching} is enabled, nodes that are appended
+ * to the same parent are reported together by {@link #fireEvents()}, and
+ * nodes that are changed before they have been reported fire no events at
+ * all. This is much cheaper for a {@link javax.swing.JTree} that shows a busy
+ * log, as long as the events are fired before the tree is next painted.
  * 
  * @author Aaron Faanes
  * @param <Message>
@@ -53,6 +64,26 @@ public class TreeBuildingTreeLog<Message> implements TreeLog<Message> {
 
 	private Map<LogMessage<? extends Message>, DefaultMutableTreeNode> nodeMapping = new HashMap<>();
 
+	/**
+	 * The node created by the latest call to {@link #log(LogMessage)}, which
+	 * is the only node that repeated messages may be collapsed into.
+	 */
+	private DefaultMutableTreeNode lastLoggedNode;
+
+	private boolean batching;
+
+	/**
+	 * The parents that have had children appended since events were last
+	 * fired, along with the index of the first appended child.
+	 */
+	private final Map<DefaultMutableTreeNode, Integer> pendingParents = new LinkedHashMap<>();
+
+	/**
+	 * The nodes that have been added since events were last fired. Their
+	 * descendants need no events of their own.
+	 */
+	private final Set<DefaultMutableTreeNode> pendingNodes = Collections.newSetFromMap(new IdentityHashMap<DefaultMutableTreeNode, Boolean>());
+
 	public TreeBuildingTreeLog(String name, Inserter<? super Message> rootInserter) {
 		root.setUserObject(name);
 
@@ -61,8 +92,14 @@ public class TreeBuildingTreeLog<Message> implements TreeLog<Message> {
 		this.rootInserter = rootInserter;
 	}
 
+	/**
+	 * Create a log that merges scope groups and collapses repeated messages.
+	 * 
+	 * @param name
+	 *            the name of the root node
+	 */
 	public TreeBuildingTreeLog(String name) {
-		this(name, new MergingInserter<Message>());
+		this(name, new CollapsingInserter<Message>(new MergingInserter<Message>()));
 	}
 
 	private DefaultMutableTreeNode newNode(LogMessage<? extends Message> message) {
@@ -79,13 +116,120 @@ public class TreeBuildingTreeLog<Message> implements TreeLog<Message> {
 		return model;
 	}
 
+	public boolean isBatching() {
+		return batching;
+	}
+
+	/**
+	 * Set whether model events are held until {@link #fireEvents()} is called.
+	 * Pending events are fired when batching is disabled.
+	 * 
+	 * @param batching
+	 *            {@code true} if model events should be batched
+	 */
+	public void setBatching(boolean batching) {
+		this.batching = batching;
+		if (!batching) {
+			fireEvents();
+		}
+	}
+
+	/**
+	 * Fire the model events for every change made since the last call.
+	 */
+	public void fireEvents() {
+		if (pendingParents.isEmpty()) {
+			return;
+		}
+		for (Map.Entry<DefaultMutableTreeNode, Integer> entry : pendingParents.entrySet()) {
+			DefaultMutableTreeNode parent = entry.getKey();
+			int first = entry.getValue();
+			int[] indices = new int[parent.getChildCount() - first];
+			for (int i = 0; i < indices.length; ++i) {
+				indices[i] = first + i;
+			}
+			model.nodesWereInserted(parent, indices);
+		}
+		pendingParents.clear();
+		pendingNodes.clear();
+	}
+
 	public void addNodeAtCursor(DefaultMutableTreeNode node) {
-		model.insertNodeInto(node, cursor, cursor.getChildCount());
+		addNode(node, cursor);
+	}
+
+	/**
+	 * Append the specified node to the specified parent.
+	 */
+	void addNode(DefaultMutableTreeNode node, DefaultMutableTreeNode parent) {
+		if (!batching) {
+			model.insertNodeInto(node, parent, parent.getChildCount());
+			return;
+		}
+		if (!pendingNodes.contains(parent) && !pendingParents.containsKey(parent)) {
+			pendingParents.put(parent, parent.getChildCount());
+		}
+		parent.add(node);
+		pendingNodes.add(node);
+	}
+
+	/**
+	 * Move the specified node into the given group, and put the group in the
+	 * node's place. The node must be the last child of its parent.
+	 */
+	void groupLastNode(DefaultMutableTreeNode node, DefaultMutableTreeNode group) {
+		DefaultMutableTreeNode parent = (DefaultMutableTreeNode) node.getParent();
+		if (batching && pendingNodes.contains(node)) {
+			// Nothing has seen the node yet, so it can be moved silently.
+			int index = parent.getIndex(node);
+			group.add(node);
+			parent.insert(group, index);
+			pendingNodes.add(group);
+			return;
+		}
+		fireEvents();
+		model.removeNodeFromParent(node);
+		group.add(node);
+		addNode(group, parent);
+	}
+
+	/**
+	 * Update the display of the specified node, which has been left.
+	 */
+	void leaveNode(DefaultMutableTreeNode node) {
+		if (!node.isLeaf()) {
+			// Its children have already been reported.
+			return;
+		}
+		node.setAllowsChildren(false);
+		nodeChanged(node);
+	}
+
+	/**
+	 * Report that the specified node's user object has changed.
+	 */
+	void nodeChanged(DefaultMutableTreeNode node) {
+		if (batching && (pendingNodes.contains(node) || pendingNodes.contains(node.getParent()))) {
+			return;
+		}
+		model.nodeChanged(node);
+	}
+
+	/**
+	 * Record that the specified message is shown by an existing node.
+	 */
+	@SuppressWarnings("unchecked")
+	void mapNode(LogMessage<?> message, DefaultMutableTreeNode node) {
+		nodeMapping.put((LogMessage<? extends Message>) message, node);
 	}
 
 	@Override
 	public void log(LogMessage<? extends Message> message) {
+		if (level < inserterStack.size() && inserterStack.get(level).collapse(this, message)) {
+			return;
+		}
 		enter(message);
+		lastLoggedNode = cursor;
 		leave();
 	}
 
@@ -135,6 +279,15 @@ public class TreeBuildingTreeLog<Message> implements TreeLog<Message> {
 		return rootInserter.newInserter();
 	}
 
+	/**
+	 * @return the node created by the latest call to {@link #log(LogMessage)},
+	 *         or null if nothing has been logged. Scopes are never returned,
+	 *         even if they are empty.
+	 */
+	DefaultMutableTreeNode getLastLoggedNode() {
+		return lastLoggedNode;
+	}
+
 	public DefaultMutableTreeNode getNodeFor(LogMessage<? extends Message> message) {
 		return nodeMapping.get(message);
 	}
@@ -147,6 +300,15 @@ interface Inserter<Message> {
 	public DefaultMutableTreeNode enter(TreeBuildingTreeLog<? extends Message> treeLog, DefaultMutableTreeNode scope, LogMessage<? extends Message> message);
 
 	public DefaultMutableTreeNode leave(TreeBuildingTreeLog<? extends Message> treeLog);
+
+	/**
+	 * Fold the specified message into a node at the cursor, rather than
+	 * inserting a new node for it.
+	 * 
+	 * @return {@code true} if the message was folded into an existing node, or
+	 *         {@code false} if it should be inserted as usual
+	 */
+	public boolean collapse(TreeBuildingTreeLog<? extends Message> treeLog, LogMessage<? extends Message> message);
 }
 
 class DefaultInserter<Message> implements Inserter<Message> {
@@ -165,12 +327,14 @@ class DefaultInserter<Message> implements Inserter<Message> {
 	@Override
 	public DefaultMutableTreeNode leave(TreeBuildingTreeLog<? extends Message> treeLog) {
 		DefaultMutableTreeNode cursor = treeLog.getCursor();
-		if (cursor.isLeaf()) {
-			cursor.setAllowsChildren(false);
-		}
-		treeLog.getModel().nodeStructureChanged(cursor);
+		treeLog.leaveNode(cursor);
 		return (DefaultMutableTreeNode) cursor.getParent();
 	}
+
+	@Override
+	public boolean collapse(TreeBuildingTreeLog<? extends Message> treeLog, LogMessage<? extends Message> message) {
+		return false;
+	}
 }
 
 class MergingInserter<Message> implements Inserter<Message> {
@@ -194,15 +358,14 @@ class MergingInserter<Message> implements Inserter<Message> {
 
 		if (merged) {
 			// we've already merged before, so the last child is our merge node.
-			treeLog.getModel().insertNodeInto(scope, lastChild, lastChild.getChildCount());
+			treeLog.addNode(scope, lastChild);
 		} else {
 			merged = true;
-			// We've never merged before, so we need to create a new merge node and add the last child to it.
+			// We've never merged before, so we need to create a new merge node and move the last child into it. This
+			// is the only time the tree is restructured, and it costs at most one removal and one insertion.
 			DefaultMutableTreeNode scopeGroupNode = new DefaultMutableTreeNode(message.changeSender(null, null));
-			treeLog.getModel().removeNodeFromParent(lastChild);
-			scopeGroupNode.add(lastChild);
-			scopeGroupNode.add(scope);
-			treeLog.addNodeAtCursor(scopeGroupNode);
+			treeLog.groupLastNode(lastChild, scopeGroupNode);
+			treeLog.addNode(scope, scopeGroupNode);
 		}
 		return scope;
 	}
@@ -210,10 +373,7 @@ class MergingInserter<Message> implements Inserter<Message> {
 	@Override
 	public DefaultMutableTreeNode leave(TreeBuildingTreeLog<? extends Message> treeLog) {
 		DefaultMutableTreeNode cursor = treeLog.getCursor();
-		if (cursor.isLeaf()) {
-			cursor.setAllowsChildren(false);
-		}
-		treeLog.getModel().nodeStructureChanged(cursor);
+		treeLog.leaveNode(cursor);
 		DefaultMutableTreeNode parent = (DefaultMutableTreeNode) cursor.getParent();
 		if (hasMerged()) {
 			assert parent != null : "A merged scope group must always have its merged node as its parent";
@@ -230,4 +390,71 @@ class MergingInserter<Message> implements Inserter<Message> {
 	public boolean hasMerged() {
 		return this.merged;
 	}
+
+	@Override
+	public boolean collapse(TreeBuildingTreeLog<? extends Message> treeLog, LogMessage<? extends Message> message) {
+		return false;
+	}
+}
+
+/**
+ * Collapses identical consecutive messages into a single node, which holds a
+ * {@link RepeatedLogMessage}. The node is updated in place, so a loop that
+ * logs the same message many times only creates one node. Messages are only
+ * collapsed into the node created by the latest {@link TreeLog#log(LogMessage)
+ * log}, never into a scope, even an empty one. Everything else is left to the
+ * wrapped inserter.
+ */
+class CollapsingInserter<Message> implements Inserter<Message> {
+	private final Inserter<? super Message> inserter;
+
+	public CollapsingInserter(Inserter<? super Message> inserter) {
+		if (inserter == null) {
+			throw new NullPointerException("Inserter must not be null");
+		}
+		this.inserter = inserter;
+	}
+
+	@Override
+	public Inserter<? super Message> newInserter() {
+		return new CollapsingInserter<Message>(inserter.newInserter());
+	}
+
+	@Override
+	public DefaultMutableTreeNode enter(TreeBuildingTreeLog<? extends Message> treeLog, DefaultMutableTreeNode scope, LogMessage<? extends Message> message) {
+		return inserter.enter(treeLog, scope, message);
+	}
+
+	@Override
+	public DefaultMutableTreeNode leave(TreeBuildingTreeLog<? extends Message> treeLog) {
+		return inserter.leave(treeLog);
+	}
+
+	@Override
+	public boolean collapse(TreeBuildingTreeLog<? extends Message> treeLog, LogMessage<? extends Message> message) {
+		DefaultMutableTreeNode cursor = treeLog.getCursor();
+		if (message == null || cursor.getChildCount() == 0) {
+			return inserter.collapse(treeLog, message);
+		}
+		DefaultMutableTreeNode lastChild = (DefaultMutableTreeNode) cursor.getLastChild();
+		if (lastChild != treeLog.getLastLoggedNode() || !(lastChild.getUserObject() instanceof LogMessage)) {
+			return inserter.collapse(treeLog, message);
+		}
+		LogMessage<?> last = (LogMessage<?>) lastChild.getUserObject();
+		if (!RepeatedLogMessage.isRepeat(last, message)) {
+			return inserter.collapse(treeLog, message);
+		}
+
+		RepeatedLogMessage<?> run;
+		if (last instanceof RepeatedLogMessage) {
+			run = (RepeatedLogMessage<?>) last;
+		} else {
+			run = new RepeatedLogMessage<Object>(last);
+			lastChild.setUserObject(run);
+		}
+		run.repeat(message);
+		treeLog.mapNode(message, lastChild);
+		treeLog.nodeChanged(lastChild);
+		return true;
+	}
 }
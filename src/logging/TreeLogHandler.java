@@ -21,15 +21,19 @@
  */
 package logging;
 
-import logic.handlers.Handler;
+import logic.handlers.SelectiveHandler;
 
 /**
+ * A handler of log messages. By default, a handler is offered every message,
+ * but subclasses may override {@link #acceptsValue(Class)} to declare the types
+ * of message values they handle.
+ * 
  * @author Aaron Faanes
  * @param <Message>
  *            the type of log message
  * 
  */
-public abstract class TreeLogHandler<Message> implements Handler<LogMessage<? extends Message>> {
+public abstract class TreeLogHandler<Message> implements SelectiveHandler<LogMessage<? extends Message>> {
 
 	private TreeLog<? super Message> log;
 
@@ -43,4 +47,37 @@ public abstract class TreeLogHandler<Message> implements Handler<LogMessage<? ex
 		}
 		return log;
 	}
+
+	/**
+	 * Returns whether this handler could handle a message of the specified
+	 * type. Only chains made by {@link TreeLogHandlers#newChainedHandler()}
+	 * classify messages by the type of their value; other chains classify
+	 * them by the type of the message itself, which says nothing about the
+	 * value, so this handler is always offered those messages.
+	 * 
+	 * @param type
+	 *            the type of the message's value, or of the message itself
+	 * @return {@code true} if this handler may handle the message
+	 * @see #acceptsValue(Class)
+	 */
+	@Override
+	public final boolean accepts(Class<?> type) {
+		if (LogMessage.class.isAssignableFrom(type)) {
+			return true;
+		}
+		return acceptsValue(type);
+	}
+
+	/**
+	 * Returns whether this handler could handle a message whose value is of
+	 * the specified type. Messages with null values are always offered to
+	 * every handler.
+	 * 
+	 * @param type
+	 *            the type of the message's value
+	 * @return {@code true}, unless overridden
+	 */
+	protected boolean acceptsValue(Class<?> type) {
+		return true;
+	}
 }
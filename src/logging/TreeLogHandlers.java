@@ -28,6 +28,7 @@ import inspect.Inspectable;
 import inspect.Inspection;
 import inspect.Nodeable;
 import inspect.NodeableInspector;
+import logic.handlers.ChainedHandler;
 
 /**
  * @author Aaron Faanes
@@ -40,7 +41,33 @@ public final class TreeLogHandlers {
 		throw new AssertionError("Instantiation not allowed");
 	}
 
+	/**
+	 * Creates a {@link ChainedHandler} that selects its handlers using the
+	 * class of each message's value, rather than the class of the message
+	 * itself. {@link TreeLogHandler#acceptsValue(Class)} expects to be used with this
+	 * kind of handler.
+	 * 
+	 * @return a new chained handler for log messages
+	 */
+	public static <T> ChainedHandler<LogMessage<? extends T>> newChainedHandler() {
+		return new ChainedHandler<LogMessage<? extends T>>() {
+			@Override
+			protected Class<?> typeOf(LogMessage<? extends T> message) {
+				if (message == null || message.getMessage() == null) {
+					return null;
+				}
+				return message.getMessage().getClass();
+			}
+		};
+	}
+
 	private static TreeLogHandler<Object> NULL = new TreeLogHandler<Object>() {
+		@Override
+		protected boolean acceptsValue(Class<?> type) {
+			// Only null values, which are never classified, are handled.
+			return false;
+		}
+
 		@Override
 		public boolean handle(LogMessage<? extends Object> message) {
 			if (message == null) {
@@ -60,6 +87,11 @@ public final class TreeLogHandlers {
 	}
 
 	private static TreeLogHandler<Object> COMMON_STRINGS = new TreeLogHandler<Object>() {
+		@Override
+		protected boolean acceptsValue(Class<?> type) {
+			return CommonString.class.isAssignableFrom(type);
+		}
+
 		@Override
 		public boolean handle(LogMessage<? extends Object> message) {
 			if (message == null || message.getMessage() == null || !(message.getMessage() instanceof CommonString)) {
@@ -76,6 +108,11 @@ public final class TreeLogHandlers {
 	}
 
 	private static TreeLogHandler<Object> INSPECTABLE = new TreeLogHandler<Object>() {
+		@Override
+		protected boolean acceptsValue(Class<?> type) {
+			return type.isAnnotationPresent(Inspectable.class);
+		}
+
 		@Override
 		public boolean handle(LogMessage<? extends Object> message) {
 			if (message == null || message.getMessage() == null) {
@@ -98,6 +135,11 @@ public final class TreeLogHandlers {
 	}
 
 	private static TreeLogHandler<Object> NODEABLE = new TreeLogHandler<Object>() {
+		@Override
+		protected boolean acceptsValue(Class<?> type) {
+			return Nodeable.class.isAssignableFrom(type);
+		}
+
 		@Override
 		public boolean handle(LogMessage<? extends Object> message) {
 			if (message == null || message.getMessage() == null) {
@@ -119,6 +161,11 @@ public final class TreeLogHandlers {
 	}
 
 	private static TreeLogHandler<Object> ITERABLE = new TreeLogHandler<Object>() {
+		@Override
+		protected boolean acceptsValue(Class<?> type) {
+			return Iterable.class.isAssignableFrom(type);
+		}
+
 		@Override
 		public boolean handle(LogMessage<? extends Object> message) {
 			if (message == null || message.getMessage() == null) {
@@ -142,6 +189,11 @@ public final class TreeLogHandlers {
 	}
 
 	private static TreeLogHandler<Object> MAP = new TreeLogHandler<Object>() {
+		@Override
+		protected boolean acceptsValue(Class<?> type) {
+			return Map.class.isAssignableFrom(type);
+		}
+
 		@Override
 		public boolean handle(LogMessage<? extends Object> message) {
 			if (message == null || message.getMessage() == null || !(message.getMessage() instanceof Map)) {
@@ -22,6 +22,7 @@
 package logging;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.ServerSocket;
@@ -31,42 +32,6 @@ import java.util.regex.Pattern;
 
 import gui.logging.LogViewer;
 
-class SenderReference {
-	private final Object reference;
-	private final Object name;
-
-	public SenderReference(Object reference, Object name) {
-		this.reference = reference;
-		this.name = name;
-	}
-
-	public Object getReference() {
-		return reference;
-	}
-
-	@Override
-	public String toString() {
-		return name.toString();
-	}
-
-	@Override
-	public int hashCode() {
-		return reference.hashCode();
-	}
-
-	@Override
-	public boolean equals(Object obj) {
-		if (obj == this) {
-			return true;
-		}
-		if (!(obj instanceof SenderReference)) {
-			return false;
-		}
-		SenderReference other = (SenderReference) obj;
-		return reference.equals(other.getReference());
-	}
-}
-
 class ClientLoggingThread extends Thread {
 	private static final String space = "\\s*";
     // >>> timestamp (category) [sender]@0x123abc message
@@ -97,9 +62,11 @@ class ClientLoggingThread extends Thread {
 
     private BufferedTreeLog<String> log;
     private Socket connection;
-    public ClientLoggingThread(BufferedTreeLog<String> log, Socket connection) {
+    private LogTemplateMiner miner;
+    public ClientLoggingThread(BufferedTreeLog<String> log, Socket connection, LogTemplateMiner miner) {
         this.log = log;
         this.connection = connection;
+        this.miner = miner;
     }
 
     public void run() {
@@ -164,7 +131,7 @@ class ClientLoggingThread extends Thread {
 			}
 		}
 
-		LogMessage<String> logMessage = new LogMessage<String>(timestamp, sender, category, message);
+		LogMessage<String> logMessage = miner.compact(new LogMessage<String>(timestamp, sender, category, message));
 
 		switch (action) {
 		case ENTER:
@@ -198,6 +165,12 @@ public class TreeLogServer implements Runnable {
 	private ServerSocket serverSocket;
 	private LogViewer<? super String> sink;
 
+	/**
+	 * Shared by every connection, so that messages of the same shape share a
+	 * template regardless of who sent them.
+	 */
+	private final LogTemplateMiner miner = new LogTemplateMiner();
+
 	public TreeLogServer(int port) throws IOException {
 		serverSocket = new ServerSocket(port);
 	}
@@ -207,7 +180,33 @@ public class TreeLogServer implements Runnable {
 		}
 		BufferedTreeLog<String> log = new BufferedTreeLog<>();
 		sink.addLogPanel(log, String.format("%s:%d", connection.getInetAddress().getHostAddress(), connection.getPort()));
-        new ClientLoggingThread(log, connection).start();
+        new ClientLoggingThread(log, connection, miner).start();
+	}
+
+	/**
+	 * Create a shared memory ring in the specified file, and show the events
+	 * written into it by a {@link SharedMemoryTreeLog}. This is much cheaper
+	 * than a socket connection for producers on the same host.
+	 * 
+	 * @param file
+	 *            the file that will contain the ring
+	 * @param capacity
+	 *            the size of the ring, in bytes. It must be a power of two.
+	 * @return the reader of the ring, which is already running
+	 * @throws IOException
+	 *             if the ring cannot be created
+	 */
+	public SharedMemoryTreeLogReader serve(File file, int capacity) throws IOException {
+		BufferedTreeLog<String> log = new BufferedTreeLog<>();
+		SharedMemoryTreeLogReader reader = new SharedMemoryTreeLogReader(file, capacity, log);
+		reader.setTemplateMiner(miner);
+		if (sink != null) {
+			sink.addLogPanel(log, file.getName());
+		}
+		Thread thread = new Thread(reader, "Shared memory reader for " + file);
+		thread.setDaemon(true);
+		thread.start();
+		return reader;
 	}
 
 	@Override
@@ -224,6 +223,13 @@ public class TreeLogServer implements Runnable {
 		}
 	}
 
+	/**
+	 * @return the miner that compacts the messages received by this server
+	 */
+	public LogTemplateMiner getTemplateMiner() {
+		return miner;
+	}
+
 	public void setSink(LogViewer<? super String> sink) {
 		this.sink = sink;
 	}
@@ -0,0 +1,326 @@
+package logging.handlers;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.ErrorManager;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+
+import logging.LogMessage;
+import logging.Logging;
+import logging.TreeLog;
+
+/**
+ * Publishes LogRecords to a {@link TreeLog}, so that output from
+ * {@link java.util.logging} appears in the log viewer.
+ * <p>
+ * Method entries, such as those from {@link Logging#logEntry()} or
+ * {@link java.util.logging.Logger#entering(String, String)}, enter a scope
+ * named after the method, and the matching returns leave it. Every other
+ * record is logged with its level as its category and its logger's name as
+ * its sender. Note that entries and returns are logged at {@link Level#FINER},
+ * so the loggers must be configured to pass them along.
+ * <p>
+ * Publishing only adds the record to a lock-free queue. A background thread
+ * converts the records and writes them to the log, so the threads that log
+ * never wait on the log or on each other. Since records are converted later,
+ * their parameters should not be modified after they are logged.
+ * <p>
+ * Records from different threads are kept apart by {@link #newTreeLog(int)},
+ * so that each thread's scopes nest properly. By default, every thread shares
+ * the log given to the constructor. Once a thread has died and its records have
+ * been written, its log is forgotten and passed to
+ * {@link #releaseTreeLog(int, TreeLog)}.
+ *
+ * @author Aaron Faanes
+ */
+public class AsyncTreeLogHandler extends Handler {
+
+	private static final String RECORD_ENTRY = "ENTRY";
+
+	private static final String RECORD_RETURN = "RETURN";
+
+	/**
+	 * How long the background thread sleeps when there is nothing to do, in
+	 * nanoseconds. It is woken sooner when a record arrives.
+	 */
+	private static final long IDLE_PARK = TimeUnit.MILLISECONDS.toNanos(100);
+
+	/**
+	 * How often the background thread looks for the logs of dead threads, in
+	 * nanoseconds. It only looks while the queue is empty.
+	 */
+	private static final long RECLAIM_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+	private final Queue<LogRecord> queue = new ConcurrentLinkedQueue<>();
+
+	private final Thread drainer;
+
+	private volatile boolean drainerWaiting;
+
+	/**
+	 * Whether the background thread may be holding a record that it has taken
+	 * from the queue but not yet written.
+	 */
+	private volatile boolean draining;
+
+	private volatile boolean closed;
+
+	private final TreeLog<? super String> sink;
+
+	/**
+	 * The logs for each thread, by thread id. This is only used by the
+	 * background thread.
+	 */
+	private final Map<Integer, TreeLog<? super String>> logs = new HashMap<>();
+
+	/**
+	 * When the background thread last looked for the logs of dead threads.
+	 */
+	private long lastReclaim = System.nanoTime();
+
+	private final Formatter formatter = new SimpleFormatter();
+
+	/**
+	 * Constructs a handler whose logs are provided by {@link #newTreeLog(int)}.
+	 */
+	protected AsyncTreeLogHandler() {
+		this(null);
+	}
+
+	/**
+	 * Constructs a handler that publishes every record to the specified log.
+	 *
+	 * @param sink
+	 *            the log that will receive records from every thread
+	 */
+	public AsyncTreeLogHandler(final TreeLog<? super String> sink) {
+		this.sink = sink;
+		this.drainer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				drain();
+			}
+		}, "java.util.logging to TreeLog");
+		this.drainer.setDaemon(true);
+		this.drainer.start();
+	}
+
+	/**
+	 * Returns the log for the specified thread. This is called on the
+	 * background thread, the first time a record from the specified thread is
+	 * published.
+	 *
+	 * @param threadId
+	 *            the thread id of the record, as given by
+	 *            {@link LogRecord#getThreadID()}
+	 * @return the log for that thread
+	 */
+	protected TreeLog<? super String> newTreeLog(final int threadId) {
+		if (this.sink == null) {
+			throw new IllegalStateException("Subclasses without a sink must override newTreeLog");
+		}
+		return this.sink;
+	}
+
+	/**
+	 * Releases the log of a thread that has died. This is called on the
+	 * background thread, after every record from that thread has been
+	 * written. If the thread's id reappears, a new log is requested from
+	 * {@link #newTreeLog(int)}. By default, this does nothing.
+	 *
+	 * @param threadId
+	 *            the id of the thread that has died
+	 * @param log
+	 *            the log that was returned by {@link #newTreeLog(int)} for that
+	 *            thread
+	 */
+	protected void releaseTreeLog(final int threadId, final TreeLog<? super String> log) {
+		// Nothing to release by default.
+	}
+
+	@Override
+	public void publish(final LogRecord record) {
+		if (this.closed || !this.isLoggable(record)) {
+			return;
+		}
+		this.queue.offer(record);
+		if (this.drainerWaiting) {
+			LockSupport.unpark(this.drainer);
+		}
+	}
+
+	/**
+	 * Waits until every record published so far has been written.
+	 */
+	@Override
+	public void flush() {
+		// The queue must be checked first, since the background thread marks
+		// itself as draining before it takes anything from the queue.
+		while ((!this.queue.isEmpty() || this.draining) && this.drainer.isAlive()) {
+			LockSupport.unpark(this.drainer);
+			Thread.yield();
+		}
+	}
+
+	/**
+	 * Writes any remaining records, then stops the background thread.
+	 */
+	@Override
+	public void close() throws SecurityException {
+		this.closed = true;
+		LockSupport.unpark(this.drainer);
+		try {
+			this.drainer.join();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void drain() {
+		while (true) {
+			this.draining = true;
+			LogRecord record;
+			while ((record = this.queue.poll()) != null) {
+				try {
+					this.dispatch(record);
+				} catch (final RuntimeException e) {
+					this.reportError(null, e, ErrorManager.WRITE_FAILURE);
+				}
+			}
+			this.draining = false;
+			if (this.closed) {
+				return;
+			}
+			this.reclaimIfDue();
+			// Publishers only wake us if they see this flag, so check the queue
+			// again after setting it.
+			this.drainerWaiting = true;
+			if (this.queue.isEmpty() && !this.closed) {
+				LockSupport.parkNanos(this, IDLE_PARK);
+			}
+			this.drainerWaiting = false;
+		}
+	}
+
+	/**
+	 * Forgets the logs of threads that have died, if enough time has passed
+	 * since this was last done. This must only be called by the background
+	 * thread.
+	 */
+	private void reclaimIfDue() {
+		final long now = System.nanoTime();
+		if (this.logs.isEmpty() || now - this.lastReclaim < RECLAIM_INTERVAL) {
+			return;
+		}
+		this.lastReclaim = now;
+
+		ThreadGroup root = Thread.currentThread().getThreadGroup();
+		while (root.getParent() != null) {
+			root = root.getParent();
+		}
+		Thread[] threads;
+		int count;
+		do {
+			threads = new Thread[root.activeCount() * 2 + 1];
+			count = root.enumerate(threads, true);
+		} while (count == threads.length);
+		final HashSet<Integer> live = new HashSet<>();
+		for (int i = 0; i < count; ++i) {
+			live.add((int) threads[i].getId());
+		}
+		// A thread that was dead before the enumeration has published all of
+		// its records, so they have all been written if the queue is empty.
+		if (!this.queue.isEmpty()) {
+			return;
+		}
+
+		final Iterator<Map.Entry<Integer, TreeLog<? super String>>> entries = this.logs.entrySet().iterator();
+		while (entries.hasNext()) {
+			final Map.Entry<Integer, TreeLog<? super String>> entry = entries.next();
+			if (!live.contains(entry.getKey())) {
+				entries.remove();
+				try {
+					this.releaseTreeLog(entry.getKey(), entry.getValue());
+				} catch (final RuntimeException e) {
+					this.reportError(null, e, ErrorManager.GENERIC_FAILURE);
+				}
+			}
+		}
+	}
+
+	private TreeLog<? super String> logFor(final int threadId) {
+		TreeLog<? super String> log = this.logs.get(threadId);
+		if (log == null) {
+			log = this.newTreeLog(threadId);
+			this.logs.put(threadId, log);
+		}
+		return log;
+	}
+
+	/**
+	 * Returns whether the message is exactly the format that
+	 * {@link java.util.logging.Logger#entering(String, String, Object[])} or
+	 * {@link java.util.logging.Logger#exiting(String, String, Object)} give for
+	 * the specified number of parameters: the keyword, followed by
+	 * {@code " {0}"}, {@code " {1}"}, and so on.
+	 */
+	private static boolean isCallFormat(final String message, final String keyword, final int parameterCount) {
+		final StringBuilder format = new StringBuilder(keyword);
+		for (int i = 0; i < parameterCount; ++i) {
+			format.append(" {").append(i).append('}');
+		}
+		return message.contentEquals(format);
+	}
+
+	// LogRecord.getThreadID is deprecated in favor of getLongThreadID, which
+	// needs Java 16; this code still builds for older releases.
+	@SuppressWarnings("deprecation")
+	private void dispatch(final LogRecord record) {
+		final TreeLog<? super String> log = this.logFor(record.getThreadID());
+		final String message = record.getMessage();
+		final Object[] parameters = record.getParameters();
+		final int parameterCount = parameters == null ? 0 : parameters.length;
+
+		if (record.getLevel() == Level.FINER && message != null) {
+			if (isCallFormat(message, RECORD_ENTRY, parameterCount)) {
+				final String method = record.getSourceClassName() + "." + record.getSourceMethodName();
+				final StringBuilder text = new StringBuilder(method).append('(');
+				if (parameters != null) {
+					for (int i = 0; i < parameters.length; ++i) {
+						if (i > 0) {
+							text.append(", ");
+						}
+						text.append(parameters[i]);
+					}
+				}
+				text.append(')');
+				log.enter(new LogMessage<String>(record.getMillis(), record.getLoggerName(), method, text.toString()));
+				return;
+			}
+			if (parameterCount <= 1 && isCallFormat(message, RECORD_RETURN, parameterCount)) {
+				if (parameterCount > 0) {
+					log.log(new LogMessage<String>(record.getMillis(), record.getLoggerName(), record.getLevel().getName(), "Returned " + parameters[0]));
+				}
+				log.leave();
+				return;
+			}
+		}
+
+		String text = this.formatter.formatMessage(record);
+		if (record.getThrown() != null) {
+			text = text + ": " + record.getThrown();
+		}
+		log.log(new LogMessage<String>(record.getMillis(), record.getLoggerName(), record.getLevel().getName(), text));
+	}
+
+}
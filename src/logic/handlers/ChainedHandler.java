@@ -22,9 +22,19 @@
 package logic.handlers;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
+ * A {@link Handler} that offers a value to each of its handlers in turn,
+ * stopping at the first handler that accepts it.
+ * <p>
+ * Handlers that implement {@link SelectiveHandler} are only offered values
+ * whose type they accept. The applicable handlers are computed once per type
+ * and cached, so values that no handler could apply to are dismissed with a
+ * single lookup.
+ * 
  * @author Aaron Faanes
  * @param <T>
  *            the type of handled value
@@ -37,40 +47,100 @@ public class ChainedHandler<T> implements Handler<T> {
 		FIRST_TO_LAST
 	};
 
-	private List<Handler<? super T>> handlers = new ArrayList<Handler<? super T>>();
+	private List<Handler<? super T>> handlers = new CopyOnWriteArrayList<Handler<? super T>>();
+
+	/**
+	 * The handlers in the order they are offered values. This is rebuilt
+	 * whenever the handlers or their order changes.
+	 */
+	private volatile List<Handler<? super T>> orderedHandlers = Collections.emptyList();
+
+	/**
+	 * The applicable handlers, in order, for each classified type. This is
+	 * replaced rather than cleared whenever the handlers change, since a
+	 * {@link ClassValue} cannot be cleared in bulk.
+	 */
+	private volatile ClassValue<List<Handler<? super T>>> dispatch = newDispatch();
 
 	public void addHandler(Handler<? super T> handler) {
 		handlers.add(handler);
+		invalidate();
 	}
 
 	public void removeHandler(Handler<? super T> handler) {
 		handlers.remove(handler);
+		invalidate();
 	}
 
 	private Order order = Order.LAST_TO_FIRST;
 
 	public void setOrder(Order order) {
 		this.order = order;
+		invalidate();
 	}
 
 	public Order getOrder() {
 		return this.order;
 	}
 
-	@Override
-	public boolean handle(T value) {
-		if (order == Order.FIRST_TO_LAST) {
-			for (Handler<? super T> handler : handlers) {
-				if (handler.handle(value)) {
-					return true;
+	/**
+	 * Returns the type used to select the handlers for the specified value.
+	 * Subclasses may override this to classify values by something other than
+	 * their runtime class, such as the class of a wrapped value.
+	 * 
+	 * @param value
+	 *            the value that will be handled
+	 * @return the type of the value, or null if every handler should be
+	 *         offered the value
+	 * @see SelectiveHandler#accepts(Class)
+	 */
+	protected Class<?> typeOf(T value) {
+		if (value == null) {
+			return null;
+		}
+		return value.getClass();
+	}
+
+	private synchronized void invalidate() {
+		List<Handler<? super T>> ordered = new ArrayList<Handler<? super T>>(handlers);
+		if (order == Order.LAST_TO_FIRST) {
+			Collections.reverse(ordered);
+		}
+		orderedHandlers = Collections.unmodifiableList(ordered);
+		dispatch = newDispatch();
+	}
+
+	private ClassValue<List<Handler<? super T>>> newDispatch() {
+		return new ClassValue<List<Handler<? super T>>>() {
+			@Override
+			protected List<Handler<? super T>> computeValue(Class<?> type) {
+				List<Handler<? super T>> applicable = new ArrayList<Handler<? super T>>();
+				for (Handler<? super T> handler : orderedHandlers) {
+					if (handler instanceof SelectiveHandler && !((SelectiveHandler<?>) handler).accepts(type)) {
+						continue;
+					}
+					applicable.add(handler);
+				}
+				if (applicable.isEmpty()) {
+					return Collections.emptyList();
 				}
+				return applicable;
 			}
+		};
+	}
+
+	@Override
+	public boolean handle(T value) {
+		Class<?> type = typeOf(value);
+		List<Handler<? super T>> applicable;
+		if (type == null) {
+			applicable = orderedHandlers;
 		} else {
-			for (int i = handlers.size() - 1; i >= 0; --i) {
-				Handler<? super T> handler = handlers.get(i);
-				if (handler.handle(value)) {
-					return true;
-				}
+			applicable = dispatch.get(type);
+		}
+		for (int i = 0; i < applicable.size(); ++i) {
+			if (applicable.get(i).handle(value)) {
+				return true;
 			}
 		}
 		return false;
@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package logic.handlers;
+
+/**
+ * A {@link Handler} that declares, ahead of time, which types of values it may
+ * handle. {@link ChainedHandler} uses this declaration to skip handlers that
+ * could never apply to a given value.
+ * 
+ * @author Aaron Faanes
+ * @param <T>
+ *            the type of handled value
+ * @see ChainedHandler#typeOf(Object)
+ */
+public interface SelectiveHandler<T> extends Handler<T> {
+
+	/**
+	 * Returns whether this handler could handle a value of the specified type.
+	 * The result must depend only on the specified type, as it will be cached.
+	 * 
+	 * @param type
+	 *            the type of the value, as classified by the calling
+	 *            {@link ChainedHandler}. It is never null.
+	 * @return {@code false} if this handler will never handle values of the
+	 *         specified type
+	 */
+	public boolean accepts(Class<?> type);
+}
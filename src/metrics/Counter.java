@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A {@link Metric} that counts events. Updates are striped, so a counter may
+ * be incremented from many threads without contention.
+ * 
+ * @author Aaron Faanes
+ * @see Metrics#counter(String)
+ */
+public class Counter extends Metric {
+
+	/**
+	 * The number of longs between each stripe's cell, so that each cell
+	 * resides on its own cache line.
+	 */
+	private static final int PADDING = 8;
+
+	private final AtomicLongArray cells = new AtomicLongArray(Stripes.COUNT * PADDING);
+
+	public Counter(String name) {
+		super(name);
+	}
+
+	public void increment() {
+		add(1);
+	}
+
+	public void add(long amount) {
+		cells.addAndGet(Stripes.index() * PADDING, amount);
+	}
+
+	public long get() {
+		long sum = 0;
+		for (int i = 0; i < Stripes.COUNT; ++i) {
+			sum += cells.get(i * PADDING);
+		}
+		return sum;
+	}
+
+	@Override
+	public MetricSnapshot snapshot() {
+		return MetricSnapshot.value(getName(), MetricSnapshot.Kind.COUNTER, get());
+	}
+}
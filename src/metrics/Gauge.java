@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package metrics;
+
+/**
+ * A {@link Metric} that reports the most recently set value, such as a queue
+ * depth or the number of open connections.
+ * 
+ * @author Aaron Faanes
+ * @see Metrics#gauge(String)
+ */
+public class Gauge extends Metric {
+
+	private volatile long value;
+
+	public Gauge(String name) {
+		super(name);
+	}
+
+	public void set(long value) {
+		this.value = value;
+	}
+
+	public long get() {
+		return value;
+	}
+
+	@Override
+	public MetricSnapshot snapshot() {
+		return MetricSnapshot.value(getName(), MetricSnapshot.Kind.GAUGE, get());
+	}
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A {@link Metric} that records the distribution of non-negative values using
+ * a fixed set of log-scaled buckets. Each power of two is divided into four
+ * buckets, so any recorded value is reported to within 25% of its actual
+ * value. Updates are striped, and recording a value never allocates.
+ * 
+ * @author Aaron Faanes
+ * @see Metrics#histogram(String)
+ */
+public class Histogram extends Metric {
+
+	/**
+	 * The number of buckets within each power of two.
+	 */
+	private static final int SUB_BUCKETS = 4;
+	private static final int SUB_BUCKET_BITS = 2;
+
+	/**
+	 * The number of buckets needed to cover every non-negative long.
+	 */
+	static final int BUCKETS = SUB_BUCKETS * (Long.SIZE - SUB_BUCKET_BITS);
+
+	/**
+	 * Each stripe stores its bucket counts, followed by its total count and
+	 * its sum.
+	 */
+	private static final int COUNT = BUCKETS;
+	private static final int SUM = BUCKETS + 1;
+	private static final int STRIPE_LENGTH = BUCKETS + 2;
+
+	private final AtomicLongArray[] stripes = new AtomicLongArray[Stripes.COUNT];
+
+	private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+	private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+	public Histogram(String name) {
+		super(name);
+		for (int i = 0; i < stripes.length; ++i) {
+			stripes[i] = new AtomicLongArray(STRIPE_LENGTH);
+		}
+	}
+
+	/**
+	 * Returns the bucket for the specified value.
+	 * 
+	 * @param value
+	 *            a non-negative value
+	 * @return the index of the bucket that contains the specified value
+	 */
+	static int bucketOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return SUB_BUCKETS * (exponent - SUB_BUCKET_BITS + 1) + sub;
+	}
+
+	/**
+	 * Returns the smallest value contained by the specified bucket.
+	 * 
+	 * @param bucket
+	 *            the index of the bucket
+	 * @return the lower bound of the bucket, inclusive
+	 */
+	static long lowerBoundOf(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long sub = bucket % SUB_BUCKETS;
+		return (SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS);
+	}
+
+	/**
+	 * Record the specified value. Negative values are recorded as zero.
+	 * 
+	 * @param value
+	 *            the recorded value
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		AtomicLongArray stripe = stripes[Stripes.index()];
+		stripe.incrementAndGet(bucketOf(value));
+		stripe.incrementAndGet(COUNT);
+		stripe.addAndGet(SUM, value);
+		updateMin(value);
+		updateMax(value);
+	}
+
+	private void updateMin(long value) {
+		long current = min.get();
+		while (value < current && !min.compareAndSet(current, value)) {
+			current = min.get();
+		}
+	}
+
+	private void updateMax(long value) {
+		long current = max.get();
+		while (value > current && !max.compareAndSet(current, value)) {
+			current = max.get();
+		}
+	}
+
+	/**
+	 * @return the kind of snapshot produced by this histogram
+	 */
+	protected MetricSnapshot.Kind getKind() {
+		return MetricSnapshot.Kind.HISTOGRAM;
+	}
+
+	@Override
+	public MetricSnapshot snapshot() {
+		long[] buckets = new long[BUCKETS];
+		long count = 0;
+		long sum = 0;
+		for (AtomicLongArray stripe : stripes) {
+			for (int i = 0; i < BUCKETS; ++i) {
+				buckets[i] += stripe.get(i);
+			}
+			count += stripe.get(COUNT);
+			sum += stripe.get(SUM);
+		}
+		if (count == 0) {
+			return MetricSnapshot.distribution(getName(), getKind(), 0, 0, 0, 0, buckets);
+		}
+		return MetricSnapshot.distribution(getName(), getKind(), count, sum, min.get(), max.get(), buckets);
+	}
+}
@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package metrics;
+
+/**
+ * A named measurement of some aspect of the running application.
+ * Implementations are thread-safe, and are designed to be cheap to update from
+ * many threads at once.
+ * 
+ * @author Aaron Faanes
+ * @see Metrics
+ */
+public abstract class Metric {
+
+	private final String name;
+
+	protected Metric(String name) {
+		if (name == null) {
+			throw new NullPointerException("name must not be null");
+		}
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns an immutable copy of this metric's current state. Updates that
+	 * occur while the snapshot is taken may or may not be included.
+	 * 
+	 * @return a snapshot of this metric
+	 */
+	public abstract MetricSnapshot snapshot();
+
+	@Override
+	public String toString() {
+		return snapshot().toString();
+	}
+}
@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package metrics;
+
+import formatting.Times;
+
+/**
+ * An immutable copy of a {@link Metric}'s state at some point in time.
+ * 
+ * @author Aaron Faanes
+ * @see Metric#snapshot()
+ * @see Metrics#snapshot()
+ */
+public final class MetricSnapshot {
+
+	public static enum Kind {
+		COUNTER,
+		GAUGE,
+		HISTOGRAM,
+		TIMER
+	}
+
+	private static final long[] NO_BUCKETS = new long[0];
+
+	private final String name;
+	private final Kind kind;
+	private final long count;
+	private final long sum;
+	private final long min;
+	private final long max;
+	private final long[] buckets;
+
+	private MetricSnapshot(String name, Kind kind, long count, long sum, long min, long max, long[] buckets) {
+		this.name = name;
+		this.kind = kind;
+		this.count = count;
+		this.sum = sum;
+		this.min = min;
+		this.max = max;
+		this.buckets = buckets;
+	}
+
+	static MetricSnapshot value(String name, Kind kind, long value) {
+		return new MetricSnapshot(name, kind, value, value, value, value, NO_BUCKETS);
+	}
+
+	static MetricSnapshot distribution(String name, Kind kind, long count, long sum, long min, long max, long[] buckets) {
+		return new MetricSnapshot(name, kind, count, sum, min, max, buckets);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Kind getKind() {
+		return kind;
+	}
+
+	public boolean isDistribution() {
+		return kind == Kind.HISTOGRAM || kind == Kind.TIMER;
+	}
+
+	/**
+	 * @return the value of a counter or gauge, or the number of recorded
+	 *         values of a histogram or timer
+	 */
+	public long getValue() {
+		return count;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getSum() {
+		return sum;
+	}
+
+	public long getMin() {
+		return min;
+	}
+
+	public long getMax() {
+		return max;
+	}
+
+	public double getMean() {
+		if (count == 0) {
+			return 0;
+		}
+		return (double) sum / count;
+	}
+
+	/**
+	 * Returns an approximation of the specified percentile. The result is
+	 * accurate to the resolution of the underlying histogram's buckets.
+	 * 
+	 * @param percentile
+	 *            the percentile, from 0 to 100
+	 * @return the approximate value at the specified percentile
+	 */
+	public long getPercentile(double percentile) {
+		if (!isDistribution()) {
+			return count;
+		}
+		if (count == 0) {
+			return 0;
+		}
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("percentile must be between 0 and 100, but was " + percentile);
+		}
+		long rank = (long) Math.ceil(count * percentile / 100);
+		if (rank < 1) {
+			rank = 1;
+		}
+		long seen = 0;
+		for (int i = 0; i < buckets.length; ++i) {
+			seen += buckets[i];
+			if (seen >= rank) {
+				return Math.max(min, Math.min(max, Histogram.lowerBoundOf(i)));
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * @return a copy of the bucket counts of a histogram or timer, or an empty
+	 *         array for other metrics
+	 */
+	public long[] getBuckets() {
+		return buckets.clone();
+	}
+
+	private String format(double value) {
+		if (kind == Kind.TIMER) {
+			return Times.NANOSECONDS.express(value).trim();
+		}
+		return String.format("%,.1f", value);
+	}
+
+	/**
+	 * @return a short, human-readable summary of this snapshot's value
+	 */
+	public String summarize() {
+		if (!isDistribution()) {
+			return String.format("%,d", count);
+		}
+		if (count == 0) {
+			return "(none)";
+		}
+		return String.format("n=%,d mean=%s p50=%s p99=%s max=%s",
+				count,
+				format(getMean()),
+				format(getPercentile(50)),
+				format(getPercentile(99)),
+				format(max));
+	}
+
+	@Override
+	public String toString() {
+		return name + ": " + summarize();
+	}
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The registry of named {@link Metric}s. Metrics are created on first use and
+ * live for the lifetime of the application, so callers should typically hold
+ * their metrics in static fields.
+ * 
+ * @author Aaron Faanes
+ */
+public final class Metrics {
+
+	private Metrics() {
+		// Suppress default constructor to ensure non-instantiability.
+		throw new AssertionError("Instantiation not allowed");
+	}
+
+	private static final ConcurrentMap<String, Metric> metrics = new ConcurrentHashMap<String, Metric>();
+
+	private static <M extends Metric> M register(Class<M> type, M candidate) {
+		Metric existing = metrics.putIfAbsent(candidate.getName(), candidate);
+		if (existing == null) {
+			return candidate;
+		}
+		if (existing.getClass() != type) {
+			throw new IllegalArgumentException("Metric '" + candidate.getName() + "' is already registered as a " + existing.getClass().getSimpleName());
+		}
+		return type.cast(existing);
+	}
+
+	private static <M extends Metric> M lookup(Class<M> type, String name) {
+		Metric existing = metrics.get(name);
+		if (existing == null) {
+			return null;
+		}
+		if (existing.getClass() != type) {
+			throw new IllegalArgumentException("Metric '" + name + "' is already registered as a " + existing.getClass().getSimpleName());
+		}
+		return type.cast(existing);
+	}
+
+	/**
+	 * @param name
+	 *            the name of the counter
+	 * @return the counter with the specified name, creating it if necessary
+	 */
+	public static Counter counter(String name) {
+		Counter counter = lookup(Counter.class, name);
+		if (counter != null) {
+			return counter;
+		}
+		return register(Counter.class, new Counter(name));
+	}
+
+	/**
+	 * @param name
+	 *            the name of the gauge
+	 * @return the gauge with the specified name, creating it if necessary
+	 */
+	public static Gauge gauge(String name) {
+		Gauge gauge = lookup(Gauge.class, name);
+		if (gauge != null) {
+			return gauge;
+		}
+		return register(Gauge.class, new Gauge(name));
+	}
+
+	/**
+	 * @param name
+	 *            the name of the histogram
+	 * @return the histogram with the specified name, creating it if necessary
+	 */
+	public static Histogram histogram(String name) {
+		Histogram histogram = lookup(Histogram.class, name);
+		if (histogram != null) {
+			return histogram;
+		}
+		return register(Histogram.class, new Histogram(name));
+	}
+
+	/**
+	 * @param name
+	 *            the name of the timer
+	 * @return the timer with the specified name, creating it if necessary
+	 */
+	public static Timer timer(String name) {
+		Timer timer = lookup(Timer.class, name);
+		if (timer != null) {
+			return timer;
+		}
+		return register(Timer.class, new Timer(name));
+	}
+
+	/**
+	 * Immediately remove the metric with the specified name. Existing
+	 * references to the metric remain usable, but are no longer reported.
+	 * 
+	 * @param name
+	 *            the name of the metric to remove
+	 */
+	public static void remove(String name) {
+		metrics.remove(name);
+	}
+
+	/**
+	 * @return snapshots of every registered metric, sorted by name
+	 */
+	public static List<MetricSnapshot> snapshot() {
+		List<Metric> registered = new ArrayList<Metric>(metrics.values());
+		List<MetricSnapshot> snapshots = new ArrayList<MetricSnapshot>(registered.size());
+		for (Metric metric : registered) {
+			snapshots.add(metric.snapshot());
+		}
+		Collections.sort(snapshots, new Comparator<MetricSnapshot>() {
+			@Override
+			public int compare(MetricSnapshot a, MetricSnapshot b) {
+				return a.getName().compareTo(b.getName());
+			}
+		});
+		return snapshots;
+	}
+}
@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package metrics;
+
+/**
+ * Chooses the stripe used by the current thread for striped accumulators.
+ * Striping spreads concurrent updates across several cells, so threads that
+ * update the same metric rarely contend with one another.
+ * 
+ * @author Aaron Faanes
+ */
+final class Stripes {
+
+	private Stripes() {
+		throw new AssertionError("Instantiation not allowed");
+	}
+
+	/**
+	 * The number of stripes. It is always a power of two.
+	 */
+	static final int COUNT;
+
+	static {
+		int processors = Runtime.getRuntime().availableProcessors();
+		int count = 1;
+		while (count < processors && count < 16) {
+			count <<= 1;
+		}
+		COUNT = count;
+	}
+
+	/**
+	 * @return the stripe for the current thread
+	 */
+	static int index() {
+		long id = Thread.currentThread().getId();
+		return (int) (id ^ (id >>> 16)) & (COUNT - 1);
+	}
+}
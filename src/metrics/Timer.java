@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2013 Aaron Faanes
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package metrics;
+
+/**
+ * A {@link Histogram} of elapsed nanoseconds.
+ * 
+ * <pre>
+ * private static final Timer TIMER = Metrics.timer(&quot;Parsing&quot;);
+ * 
+ * long started = TIMER.start();
+ * try {
+ * 	parse();
+ * } finally {
+ * 	TIMER.stop(started);
+ * }
+ * </pre>
+ * 
+ * @author Aaron Faanes
+ * @see Metrics#timer(String)
+ */
+public class Timer extends Histogram {
+
+	public Timer(String name) {
+		super(name);
+	}
+
+	/**
+	 * @return the current time, in nanoseconds, to be passed to
+	 *         {@link #stop(long)}
+	 */
+	public long start() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Record the time that has elapsed since the specified start time.
+	 * 
+	 * @param started
+	 *            the value returned by {@link #start()}
+	 * @return the elapsed time, in nanoseconds
+	 */
+	public long stop(long started) {
+		long elapsed = System.nanoTime() - started;
+		record(elapsed);
+		return elapsed;
+	}
+
+	@Override
+	protected MetricSnapshot.Kind getKind() {
+		return MetricSnapshot.Kind.TIMER;
+	}
+}
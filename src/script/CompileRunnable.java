@@ -7,11 +7,14 @@ import java.util.List;
 
 import gui.script.ScriptEditor;
 import logging.Logs;
+import metrics.Metrics;
+import metrics.Timer;
 import script.parsing.Parser;
 
 public class CompileRunnable implements Runnable {
 	public static final String COMPILETHREADSTRING = "Compilation";
 	private static int threadNum = 0;
+	private static final Timer TIMER = Metrics.timer(COMPILETHREADSTRING);
 
 	private final ScriptEditor scriptEditor;
 	private final boolean shouldExecute;
@@ -32,8 +35,8 @@ public class CompileRunnable implements Runnable {
 
 	@Override
 	public void run() {
+		long started = TIMER.start();
 		try {
-			Logs.hitStopWatch();
 			this.scriptEnvironment.reset();
 			Parser.clearPreparseLists();
 			if (!scriptEditor.compileAll()) {
@@ -55,7 +58,7 @@ public class CompileRunnable implements Runnable {
 				this.scriptEditor.addExceptions(exceptions);
 			}
 		} finally {
-			Logs.hitStopWatch();
+			TIMER.stop(started);
 		}
 	}
 }
\ No newline at end of file
@@ -3,12 +3,14 @@
  */
 package script;
 
-import logging.Logs;
+import metrics.Metrics;
+import metrics.Timer;
 
 public class ExecutionThread extends Thread {
 	private ScriptEnvironment scriptEnvironment;
 	public static final String EXECUTIONTHREADSTRING = "Script Execution";
 	private static int threadNum = 0;
+	private static final Timer TIMER = Metrics.timer(EXECUTIONTHREADSTRING);
 
 	public ExecutionThread(ScriptEnvironment env) {
 		super(EXECUTIONTHREADSTRING + " " + threadNum++);
@@ -17,11 +19,11 @@ public class ExecutionThread extends Thread {
 
 	@Override
 	public void run() {
-		Logs.hitStopWatch();
+		long started = TIMER.start();
 		try {
 			this.scriptEnvironment.execute();
 		} finally {
-			Logs.hitStopWatch();
+			TIMER.stop(started);
 		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,205 @@
+package collections.observable;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.event.ChangeEvent;
+
+import org.junit.Test;
+
+import collections.observable.list.ObservableList;
+import collections.observable.state.ObservableListStateModel;
+import collections.observable.state.StateChangeEvent;
+import collections.observable.state.StateChangeListener;
+import metrics.Metrics;
+import metrics.MetricSnapshot;
+
+public class EventDispatcherTest {
+
+	/**
+	 * Holds submitted tasks until they're explicitly run.
+	 */
+	private final Queue<Runnable> tasks = new ArrayDeque<Runnable>();
+
+	private final EventDispatcher dispatcher = new EventDispatcher(new Executor() {
+		@Override
+		public void execute(final Runnable command) {
+			EventDispatcherTest.this.tasks.add(command);
+		}
+	});
+
+	private void runTasks() {
+		while (!this.tasks.isEmpty()) {
+			this.tasks.remove().run();
+		}
+	}
+
+	private static final class Recorded extends EventDispatcher.Delivery {
+
+		private final List<String> log;
+
+		private final String value;
+
+		Recorded(final List<String> log, final String value) {
+			this.log = log;
+			this.value = value;
+		}
+
+		@Override
+		public void run() {
+			this.log.add(this.value);
+		}
+
+		@Override
+		protected EventDispatcher.Delivery coalesce(final EventDispatcher.Delivery next) {
+			if (next instanceof Recorded && ((Recorded) next).value.equals(this.value)) {
+				return this;
+			}
+			return null;
+		}
+	}
+
+	@Test
+	public void deliveriesRunInOrderOffTheCallersThread() {
+		final List<String> log = new ArrayList<String>();
+		this.dispatcher.dispatch(new Recorded(log, "A"));
+		this.dispatcher.dispatch(new Recorded(log, "B"));
+		assertThat(log.isEmpty(), is(true));
+		assertThat(this.dispatcher.getQueueDepth(), is(2));
+		assertThat("Only one task is scheduled at a time", this.tasks.size(), is(1));
+		this.runTasks();
+		assertThat(log, is(Arrays.asList("A", "B")));
+		assertThat(this.dispatcher.getQueueDepth(), is(0));
+	}
+
+	@Test
+	public void onlyAdjacentDeliveriesAreCoalesced() {
+		final List<String> log = new ArrayList<String>();
+		this.dispatcher.dispatch(new Recorded(log, "A"));
+		this.dispatcher.dispatch(new Recorded(log, "A"));
+		this.dispatcher.dispatch(new Recorded(log, "B"));
+		this.dispatcher.dispatch(new Recorded(log, "A"));
+		this.runTasks();
+		assertThat(log, is(Arrays.asList("A", "B", "A")));
+	}
+
+	@Test
+	public void longQueuesAreDeliveredInSeveralRuns() {
+		final List<String> log = new ArrayList<String>();
+		for (int i = 0; i < 200; ++i) {
+			this.dispatcher.dispatch(new Recorded(log, Integer.toString(i)));
+		}
+		this.tasks.remove().run();
+		assertThat(log.size() < 200, is(true));
+		assertThat(this.tasks.size(), is(1));
+		this.runTasks();
+		assertThat(log.size(), is(200));
+	}
+
+	@Test
+	public void failingDeliveriesDoNotStopLaterOnes() {
+		final List<String> log = new ArrayList<String>();
+		final Thread.UncaughtExceptionHandler handler = Thread.currentThread().getUncaughtExceptionHandler();
+		Thread.currentThread().setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+			@Override
+			public void uncaughtException(final Thread t, final Throwable e) {
+				log.add("failed");
+			}
+		});
+		try {
+			this.dispatcher.dispatch(new EventDispatcher.Delivery() {
+				@Override
+				public void run() {
+					throw new IllegalStateException();
+				}
+			});
+			this.dispatcher.dispatch(new Recorded(log, "A"));
+			this.runTasks();
+		} finally {
+			Thread.currentThread().setUncaughtExceptionHandler(handler);
+		}
+		assertThat(log, is(Arrays.asList("failed", "A")));
+	}
+
+	@Test
+	public void errorsDoNotStopLaterDeliveries() {
+		final List<String> log = new ArrayList<String>();
+		this.dispatcher.dispatch(new EventDispatcher.Delivery() {
+			@Override
+			public void run() {
+				throw new AssertionError("Delivery failed");
+			}
+		});
+		try {
+			this.runTasks();
+		} catch (final AssertionError e) {
+			log.add(e.getMessage());
+		}
+		this.dispatcher.dispatch(new Recorded(log, "A"));
+		this.runTasks();
+		assertThat(log, is(Arrays.asList("Delivery failed", "A")));
+	}
+
+	@Test
+	public void namedDispatchersReportMetrics() throws InterruptedException {
+		final ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			final EventDispatcher named = new EventDispatcher(pool, "EventDispatcherTest");
+			final CountDownLatch delivered = new CountDownLatch(1);
+			named.dispatch(new EventDispatcher.Delivery() {
+				@Override
+				public void run() {
+					delivered.countDown();
+				}
+			});
+			assertThat(delivered.await(10, TimeUnit.SECONDS), is(true));
+		} finally {
+			pool.shutdown();
+		}
+		boolean foundLatency = false;
+		for (final MetricSnapshot snapshot : Metrics.snapshot()) {
+			if (snapshot.getName().equals("EventDispatcherTest.latency")) {
+				foundLatency = true;
+			}
+		}
+		assertThat(foundLatency, is(true));
+	}
+
+	@Test
+	public void stateChangesAreCoalesced() {
+		final ObservableListStateModel<String> model = new ObservableListStateModel<String>(new ObservableList<String>(
+				Arrays.asList("A", "B", "C")));
+		model.setEventDispatcher(this.dispatcher);
+		final List<String> log = new ArrayList<String>();
+		model.addStateChangeListener(new StateChangeListener<String>() {
+			@Override
+			public void stateChanging(final StateChangeEvent<String> event) {
+				log.add(event.getOldState() + "->" + event.getNewState());
+			}
+
+			@Override
+			public void stateChanged(final ChangeEvent e) {
+				log.add("changed");
+			}
+		});
+		model.changeState("A");
+		model.changeState("B");
+		model.changeState("C");
+		assertThat(model.getState(), is("C"));
+		// Each change is announced before it happens, on the changing thread.
+		assertThat(log, is(Arrays.asList("null->A", "A->B", "B->C")));
+		this.runTasks();
+		assertThat(log, is(Arrays.asList("null->A", "A->B", "B->C", "changed")));
+	}
+}
@@ -0,0 +1,77 @@
+package collections.observable;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import collections.observable.ListDiff.Hunk;
+
+public class ListDiffTest {
+
+	@Test
+	public void testEqualListsHaveNoHunks() {
+		assertThat(ListDiff.diff(Arrays.asList("A", "B"), Arrays.asList("A", "B")).isEmpty(), is(true));
+	}
+
+	@Test
+	public void testInsertionsAndDeletions() {
+		final List<Hunk> hunks = ListDiff.diff(Arrays.asList("A", "B", "C", "D", "E"), Arrays.asList("A", "C", "X", "D", "E", "F"));
+		assertThat(hunks, is(Arrays.asList(new Hunk(1, 1, 1, 0), new Hunk(3, 0, 2, 1), new Hunk(5, 0, 5, 1))));
+	}
+
+	@Test
+	public void testReplacement() {
+		final List<Hunk> hunks = ListDiff.diff(Arrays.asList("A", "B", "C"), Arrays.asList("A", "X", "C"));
+		assertThat(hunks, is(Collections.singletonList(new Hunk(1, 1, 1, 1))));
+	}
+
+	@Test
+	public void testHunksRebuildTheNewList() {
+		final Random random = new Random(7);
+		for (int round = 0; round < 50; ++round) {
+			final List<Integer> oldList = new ArrayList<Integer>();
+			for (int i = 0; i < 200; ++i) {
+				oldList.add(random.nextInt(20));
+			}
+			final List<Integer> newList = new ArrayList<Integer>(oldList);
+			for (int i = 0; i < 10; ++i) {
+				if (random.nextBoolean() && !newList.isEmpty()) {
+					newList.remove(random.nextInt(newList.size()));
+				} else {
+					newList.add(random.nextInt(newList.size() + 1), 100 + i);
+				}
+			}
+			final List<Integer> rebuilt = new ArrayList<Integer>(oldList);
+			int edits = 0;
+			final List<Hunk> hunks = ListDiff.diff(oldList, newList);
+			for (int i = hunks.size() - 1; i >= 0; --i) {
+				final Hunk hunk = hunks.get(i);
+				rebuilt.subList(hunk.getOldStart(), hunk.getOldStart() + hunk.getOldLength()).clear();
+				rebuilt.addAll(hunk.getOldStart(), newList.subList(hunk.getNewStart(), hunk.getNewStart() + hunk.getNewLength()));
+				edits += hunk.getOldLength() + hunk.getNewLength();
+			}
+			assertThat(rebuilt, is(newList));
+			assertThat(edits <= 10, is(true));
+		}
+	}
+
+	@Test
+	public void testDistantListsAreOneHunk() {
+		final List<Integer> oldList = new ArrayList<Integer>();
+		final List<Integer> newList = new ArrayList<Integer>();
+		for (int i = 0; i < 2 * ListDiff.MAXIMUM_EDIT_DISTANCE; ++i) {
+			oldList.add(i);
+			newList.add(-i - 1);
+		}
+		oldList.add(0, 42);
+		newList.add(0, 42);
+		assertThat(ListDiff.diff(oldList, newList), is(Collections.singletonList(new Hunk(1, oldList.size() - 1, 1, newList.size() - 1))));
+	}
+}
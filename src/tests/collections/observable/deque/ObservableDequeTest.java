@@ -0,0 +1,94 @@
+package collections.observable.deque;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import collections.observable.EventDispatcher;
+
+public class ObservableDequeTest {
+
+	private ObservableDeque<String> deque;
+
+	private final List<String> events = new ArrayList<String>();
+
+	@Before
+	public void setUp() {
+		this.deque = new ObservableDeque<String>(Arrays.asList("A", "B", "C", "D"));
+		this.deque.addDequeListener(new DequeListener<String>() {
+			@Override
+			public void dequeChanged() {
+				ObservableDequeTest.this.events.add("changed");
+			}
+
+			@Override
+			public void firstElementAdded(final String oldFirstElement) {
+				ObservableDequeTest.this.events.add("addFirst");
+			}
+
+			@Override
+			public void firstElementRemoved(final String oldFirstElement) {
+				ObservableDequeTest.this.events.add("removeFirst");
+			}
+
+			@Override
+			public void lastElementAdded(final String oldLastElement) {
+				ObservableDequeTest.this.events.add("addLast");
+			}
+
+			@Override
+			public void lastElementRemoved(final String oldLastElement) {
+				ObservableDequeTest.this.events.add("removeLast");
+			}
+		});
+	}
+
+	@Test
+	public void testSetAllSlidesWindow() {
+		assertThat(this.deque.setAll(Arrays.asList("B", "C", "D", "E")), is(true));
+		assertThat(new ArrayList<String>(this.deque), is(Arrays.asList("B", "C", "D", "E")));
+		assertThat(this.events, is(Arrays.asList("removeFirst", "addLast")));
+	}
+
+	@Test
+	public void testSetAllWithSameContentsIsSilent() {
+		assertThat(this.deque.setAll(Arrays.asList("A", "B", "C", "D")), is(false));
+		assertThat(this.events.isEmpty(), is(true));
+	}
+
+	@Test
+	public void testSetAllReplacesUnrelatedContentsAtOnce() {
+		this.deque.setAll(Arrays.asList("X", "Y"));
+		assertThat(new ArrayList<String>(this.deque), is(Arrays.asList("X", "Y")));
+		assertThat(this.events, is(Arrays.asList("changed")));
+	}
+
+	@Test
+	public void testEventDispatcherDropsEventsBeforeDequeChanged() {
+		final Queue<Runnable> tasks = new ArrayDeque<Runnable>();
+		this.deque.setEventDispatcher(new EventDispatcher(new Executor() {
+			@Override
+			public void execute(final Runnable command) {
+				tasks.add(command);
+			}
+		}));
+		this.deque.addFirst("Z");
+		this.deque.removeLast();
+		this.deque.setAll(Arrays.asList("X", "Y"));
+		this.deque.addLast("W");
+		assertThat(this.events.isEmpty(), is(true));
+		while (!tasks.isEmpty()) {
+			tasks.remove().run();
+		}
+		assertThat(this.events, is(Arrays.asList("changed", "addLast")));
+	}
+}
@@ -0,0 +1,224 @@
+package collections.observable.list;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+import javax.swing.SwingUtilities;
+import javax.swing.event.ListDataEvent;
+
+import org.junit.Test;
+
+import collections.list.AbstractListTest;
+import collections.observable.EventDispatcher;
+
+public class ConcurrentObservableListTest extends AbstractListTest {
+
+	@Override
+	protected List<String> newList() {
+		return new ConcurrentObservableList<String>();
+	}
+
+	@Test
+	public void snapshotsDoNotSeeLaterChanges() {
+		final ConcurrentObservableList<String> list = new ConcurrentObservableList<String>(this.prepopulatedList);
+		final List<String> snapshot = list.getSnapshot();
+		final Iterator<String> iterator = list.iterator();
+		list.clear();
+		list.add("Z");
+		assertThat(snapshot, is(this.prepopulatedList));
+		final List<String> iterated = new ArrayList<String>();
+		while (iterator.hasNext()) {
+			iterated.add(iterator.next());
+		}
+		assertThat(iterated, is(this.prepopulatedList));
+	}
+
+	@Test(expected = ConcurrentModificationException.class)
+	public void iteratorRemovalFailsAfterAnotherChange() {
+		final ConcurrentObservableList<String> list = new ConcurrentObservableList<String>(this.prepopulatedList);
+		final Iterator<String> iterator = list.iterator();
+		iterator.next();
+		list.add("Z");
+		iterator.remove();
+	}
+
+	@Test
+	public void eventsCarryTheirVersion() {
+		final ConcurrentObservableList<String> list = new ConcurrentObservableList<String>(this.prepopulatedList);
+		final List<VersionedListDataEvent<?>> events = new ArrayList<VersionedListDataEvent<?>>();
+		list.addListDataListener(new ListDataAdapter() {
+			@Override
+			public void contentsChanged(final ListDataEvent e) {
+				events.add((VersionedListDataEvent<?>) e);
+			}
+
+			@Override
+			public void intervalAdded(final ListDataEvent e) {
+				events.add((VersionedListDataEvent<?>) e);
+			}
+
+			@Override
+			public void intervalRemoved(final ListDataEvent e) {
+				events.add((VersionedListDataEvent<?>) e);
+			}
+		});
+		list.set(0, "Z");
+		list.add(2, "Y");
+		list.removeAll(Arrays.asList("B", "D"));
+		assertThat(list.getVersion(), is(3L));
+		assertThat(events.size(), is(4));
+		assertThat(events.get(0).getVersion(), is(1L));
+		assertThat(events.get(0).getType(), is(ListDataEvent.CONTENTS_CHANGED));
+		assertThat(events.get(1).getVersion(), is(2L));
+		assertThat(events.get(1).getIndex0(), is(2));
+		assertThat(events.get(2).getIndex0(), is(4));
+		assertThat(events.get(3).getIndex0(), is(1));
+		assertThat(events.get(3).getVersion(), is(3L));
+		assertThat(events.get(3).getSnapshot(), is((List<?>) Arrays.asList("Z", "Y", "C", "E")));
+	}
+
+	@Test
+	public void concurrentWritersAreSerialized() throws InterruptedException {
+		final ConcurrentObservableList<Integer> list = new ConcurrentObservableList<Integer>();
+		final int writers = 4;
+		final int additions = 2000;
+		final CountDownLatch start = new CountDownLatch(1);
+		final List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < writers; ++i) {
+			final Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (final InterruptedException e) {
+						return;
+					}
+					for (int j = 0; j < additions; ++j) {
+						list.add(j);
+						// Every read sees a complete version.
+						final List<Integer> snapshot = list.getSnapshot();
+						snapshot.get(snapshot.size() - 1);
+					}
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		start.countDown();
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		assertThat(list.size(), is(writers * additions));
+		assertThat(list.getVersion(), is((long) writers * additions));
+	}
+
+	@Test
+	public void listenersAreNotifiedWithoutTheWriteLock() throws InterruptedException {
+		final ConcurrentObservableList<String> list = new ConcurrentObservableList<String>();
+		final List<Long> versions = new ArrayList<Long>();
+		list.addListDataListener(new ListDataAdapter() {
+			@Override
+			public void intervalAdded(final ListDataEvent e) {
+				versions.add(((VersionedListDataEvent<?>) e).getVersion());
+				if (list.size() > 1) {
+					return;
+				}
+				// Another writer would wait forever if the lock were held.
+				final Thread writer = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						list.add("B");
+					}
+				});
+				writer.start();
+				try {
+					writer.join(5000);
+				} catch (final InterruptedException ex) {
+					throw new AssertionError(ex);
+				}
+				assertThat(writer.isAlive(), is(false));
+				// A change made by a listener is delivered after this event.
+				list.add("C");
+				assertThat(versions.size(), is(1));
+			}
+		});
+		list.add("A");
+		assertThat(list, is((List<String>) Arrays.asList("A", "B", "C")));
+		assertThat(versions, is(Arrays.asList(1L, 2L, 3L)));
+	}
+
+	@Test
+	public void pinnedModelsShowTheVersionOfTheirLastEvent() throws Exception {
+		final ConcurrentObservableList<String> list = new ConcurrentObservableList<String>(this.prepopulatedList);
+		final PinnedListModel<String> model = new PinnedListModel<String>(list);
+		final List<String> seen = new ArrayList<String>();
+		SwingUtilities.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				model.addListDataListener(new ListDataAdapter() {
+					@Override
+					public void intervalAdded(final ListDataEvent e) {
+						assertThat(e.getSource(), is((Object) model));
+						seen.add(model.getSize() + ":" + model.getElementAt(e.getIndex0()));
+					}
+				});
+				// Later changes aren't seen until their events arrive.
+				list.add("Y");
+				list.add("Z");
+				assertThat(model.getSize(), is(5));
+				assertThat(model.getVersion(), is(0L));
+			}
+		});
+		SwingUtilities.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				assertThat(seen, is(Arrays.asList("6:Y", "7:Z")));
+				assertThat(model.getVersion(), is(2L));
+			}
+		});
+		model.dispose();
+		list.clear();
+		SwingUtilities.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				assertThat(model.getSize(), is(7));
+			}
+		});
+	}
+
+	@Test
+	public void eventDispatcherDeliversEveryVersion() {
+		final ConcurrentObservableList<String> list = new ConcurrentObservableList<String>();
+		final Queue<Runnable> tasks = new ArrayDeque<Runnable>();
+		list.setEventDispatcher(new EventDispatcher(new Executor() {
+			@Override
+			public void execute(final Runnable command) {
+				tasks.add(command);
+			}
+		}));
+		final List<List<?>> snapshots = new ArrayList<List<?>>();
+		list.addListDataListener(new ListDataAdapter() {
+			@Override
+			public void intervalAdded(final ListDataEvent e) {
+				snapshots.add(((VersionedListDataEvent<?>) e).getSnapshot());
+			}
+		});
+		list.add("A");
+		list.add("B");
+		assertThat(snapshots.isEmpty(), is(true));
+		while (!tasks.isEmpty()) {
+			tasks.remove().run();
+		}
+		assertThat(snapshots, is(Arrays.<List<?>> asList(Arrays.asList("A"), Arrays.asList("A", "B"))));
+	}
+}
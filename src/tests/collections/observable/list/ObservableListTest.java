@@ -4,9 +4,11 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.Executor;
 
 import javax.swing.event.ListDataEvent;
 import javax.swing.event.ListDataListener;
@@ -17,6 +19,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import collections.list.AbstractListTest;
+import collections.observable.EventDispatcher;
 
 public final class ObservableListTest extends AbstractListTest {
 
@@ -171,11 +174,15 @@ public final class ObservableListTest extends AbstractListTest {
 		this.prepopulate();
 		// SubList is B, C, and E
 		this.listModel.removeAll(this.subsetList);
-		Assert.assertThat("Event-list has a mismatched size.", this.eventList.size(), CoreMatchers.is(1));
-		final ListDataEvent event = this.eventList.remove();
-		Assert.assertThat(event.getType(), CoreMatchers.is(ListDataEvent.CONTENTS_CHANGED));
-		Assert.assertThat(event.getIndex0(), CoreMatchers.is(1));
+		Assert.assertThat("Event-list has a mismatched size.", this.eventList.size(), CoreMatchers.is(2));
+		ListDataEvent event = this.eventList.remove();
+		Assert.assertThat(event.getType(), CoreMatchers.is(ListDataEvent.INTERVAL_REMOVED));
+		Assert.assertThat(event.getIndex0(), CoreMatchers.is(4));
 		Assert.assertThat(event.getIndex1(), CoreMatchers.is(4));
+		event = this.eventList.remove();
+		Assert.assertThat(event.getType(), CoreMatchers.is(ListDataEvent.INTERVAL_REMOVED));
+		Assert.assertThat(event.getIndex0(), CoreMatchers.is(1));
+		Assert.assertThat(event.getIndex1(), CoreMatchers.is(2));
 	}
 
 	/**
@@ -201,11 +208,90 @@ public final class ObservableListTest extends AbstractListTest {
 		// SubList is B, C, and E .
 		// Retaining will yield only these elements.
 		this.listModel.retainAll(this.subsetList);
-		Assert.assertThat("Event-list has a mismatched size.", this.eventList.size(), CoreMatchers.is(1));
+		Assert.assertThat("Event-list has a mismatched size.", this.eventList.size(), CoreMatchers.is(2));
+		ListDataEvent event = this.eventList.remove();
+		Assert.assertThat(event.getType(), CoreMatchers.is(ListDataEvent.INTERVAL_REMOVED));
+		Assert.assertThat(event.getIndex0(), CoreMatchers.is(3));
+		Assert.assertThat(event.getIndex1(), CoreMatchers.is(3));
+		event = this.eventList.remove();
+		Assert.assertThat(event.getType(), CoreMatchers.is(ListDataEvent.INTERVAL_REMOVED));
+		Assert.assertThat(event.getIndex0(), CoreMatchers.is(0));
+		Assert.assertThat(event.getIndex1(), CoreMatchers.is(0));
+	}
+
+	@Test
+	public void testRemoveAllWithLargeCollection() {
+		final List<String> removed = new ArrayList<String>();
+		for (int i = 0; i < 100; ++i) {
+			this.listModel.add("Row " + i);
+			if (i % 10 < 5) {
+				removed.add("Row " + i);
+			}
+		}
+		this.eventList.clear();
+		Assert.assertThat(this.listModel.removeAll(removed), CoreMatchers.is(true));
+		Assert.assertThat(this.listModel.size(), CoreMatchers.is(50));
+		Assert.assertThat(this.listModel.get(0), CoreMatchers.is("Row 5"));
+		Assert.assertThat("Event-list has a mismatched size.", this.eventList.size(), CoreMatchers.is(10));
 		final ListDataEvent event = this.eventList.remove();
+		Assert.assertThat(event.getIndex0(), CoreMatchers.is(90));
+		Assert.assertThat(event.getIndex1(), CoreMatchers.is(94));
+		Assert.assertThat(this.listModel.removeAll(removed), CoreMatchers.is(false));
+	}
+
+	@Test
+	public void testSetAllFiresOnlyDifferences() {
+		final List<String> rows = new ArrayList<String>();
+		for (int i = 0; i < 50000; ++i) {
+			rows.add("Row " + i);
+		}
+		this.listModel.addAll(rows);
+		this.eventList.clear();
+
+		rows.set(10, "Changed");
+		rows.remove(20000);
+		rows.add(30000, "Inserted");
+		Assert.assertThat(this.listModel.setAll(rows), CoreMatchers.is(true));
+		Assert.assertThat(this.listModel, CoreMatchers.is((List<String>) rows));
+		Assert.assertThat("Event-list has a mismatched size.", this.eventList.size(), CoreMatchers.is(3));
+		ListDataEvent event = this.eventList.remove();
+		Assert.assertThat(event.getType(), CoreMatchers.is(ListDataEvent.INTERVAL_ADDED));
+		Assert.assertThat(event.getIndex0(), CoreMatchers.is(30001));
+		event = this.eventList.remove();
+		Assert.assertThat(event.getType(), CoreMatchers.is(ListDataEvent.INTERVAL_REMOVED));
+		Assert.assertThat(event.getIndex0(), CoreMatchers.is(20000));
+		event = this.eventList.remove();
 		Assert.assertThat(event.getType(), CoreMatchers.is(ListDataEvent.CONTENTS_CHANGED));
+		Assert.assertThat(event.getIndex0(), CoreMatchers.is(10));
+		Assert.assertThat(event.getIndex1(), CoreMatchers.is(10));
+		Assert.assertThat(this.listModel.setAll(rows), CoreMatchers.is(false));
+	}
+
+	@Test
+	public void testEventDispatcherMergesQueuedEvents() {
+		final Queue<Runnable> tasks = new ArrayDeque<Runnable>();
+		this.listModel.setEventDispatcher(new EventDispatcher(new Executor() {
+			@Override
+			public void execute(final Runnable command) {
+				tasks.add(command);
+			}
+		}));
+		this.listModel.add("A");
+		this.listModel.add("B");
+		this.listModel.set(0, "C");
+		this.listModel.remove(0);
+		Assert.assertThat("Listeners run on the dispatcher", this.eventList.isEmpty(), CoreMatchers.is(true));
+		while (!tasks.isEmpty()) {
+			tasks.remove().run();
+		}
+		Assert.assertThat("Event-list has a mismatched size.", this.eventList.size(), CoreMatchers.is(2));
+		ListDataEvent event = this.eventList.remove();
+		Assert.assertThat(event.getType(), CoreMatchers.is(ListDataEvent.INTERVAL_ADDED));
+		Assert.assertThat(event.getIndex0(), CoreMatchers.is(0));
+		Assert.assertThat(event.getIndex1(), CoreMatchers.is(1));
+		event = this.eventList.remove();
+		Assert.assertThat(event.getType(), CoreMatchers.is(ListDataEvent.INTERVAL_REMOVED));
 		Assert.assertThat(event.getIndex0(), CoreMatchers.is(0));
-		Assert.assertThat(event.getIndex1(), CoreMatchers.is(3));
 	}
 
 	@Test
@@ -267,6 +353,163 @@ public final class ObservableListTest extends AbstractListTest {
 		Assert.assertThat(this.listModel.get(event.getIndex0()), CoreMatchers.is("No time"));
 	}
 
+	@Test
+	public void testBatchedAddsAreCoalesced() {
+		this.listModel.batch(new Runnable() {
+			@Override
+			public void run() {
+				for (int i = 0; i < 100; ++i) {
+					ObservableListTest.this.listModel.add("Row " + i);
+				}
+				ObservableListTest.this.listModel.set(50, "Changed");
+			}
+		});
+		Assert.assertThat("Event-list has a mismatched size.", this.eventList.size(), CoreMatchers.is(1));
+		final ListDataEvent event = this.eventList.remove();
+		Assert.assertThat(event.getType(), CoreMatchers.is(ListDataEvent.INTERVAL_ADDED));
+		Assert.assertThat(event.getIndex0(), CoreMatchers.is(0));
+		Assert.assertThat(event.getIndex1(), CoreMatchers.is(99));
+	}
+
+	@Test
+	public void testBatchedRemovesAreCoalesced() {
+		this.prepopulate();
+		this.listModel.beginBatch();
+		this.listModel.remove(2);
+		this.listModel.remove(2);
+		this.listModel.remove(1);
+		Assert.assertThat(this.eventList.isEmpty(), CoreMatchers.is(true));
+		this.listModel.commitBatch();
+		Assert.assertThat("Event-list has a mismatched size.", this.eventList.size(), CoreMatchers.is(1));
+		final ListDataEvent event = this.eventList.remove();
+		Assert.assertThat(event.getType(), CoreMatchers.is(ListDataEvent.INTERVAL_REMOVED));
+		Assert.assertThat(event.getIndex0(), CoreMatchers.is(1));
+		Assert.assertThat(event.getIndex1(), CoreMatchers.is(3));
+	}
+
+	@Test
+	public void testScatteredBatchFiresContentsChanged() {
+		this.prepopulate();
+		this.listModel.beginBatch();
+		this.listModel.set(1, "X");
+		this.listModel.beginBatch();
+		this.listModel.remove(3);
+		this.listModel.add("Y");
+		this.listModel.add("Z");
+		this.listModel.commitBatch();
+		Assert.assertThat(this.eventList.isEmpty(), CoreMatchers.is(true));
+		this.listModel.commitBatch();
+		Assert.assertThat("Event-list has a mismatched size.", this.eventList.size(), CoreMatchers.is(2));
+		ListDataEvent event = this.eventList.remove();
+		Assert.assertThat(event.getType(), CoreMatchers.is(ListDataEvent.CONTENTS_CHANGED));
+		Assert.assertThat(event.getIndex0(), CoreMatchers.is(1));
+		Assert.assertThat(event.getIndex1(), CoreMatchers.is(4));
+		event = this.eventList.remove();
+		Assert.assertThat(event.getType(), CoreMatchers.is(ListDataEvent.INTERVAL_ADDED));
+		Assert.assertThat(event.getIndex0(), CoreMatchers.is(5));
+		Assert.assertThat(event.getIndex1(), CoreMatchers.is(5));
+	}
+
+	@Test
+	public void testBatchedSetsFireDisjointIntervals() {
+		this.populate(100);
+		this.listModel.batch(new Runnable() {
+			@Override
+			public void run() {
+				ObservableListTest.this.listModel.set(60, "X");
+				ObservableListTest.this.listModel.set(5, "Y");
+				ObservableListTest.this.listModel.set(6, "Z");
+			}
+		});
+		Assert.assertThat("Event-list has a mismatched size.", this.eventList.size(), CoreMatchers.is(2));
+		this.assertEvent(ListDataEvent.CONTENTS_CHANGED, 5, 6);
+		this.assertEvent(ListDataEvent.CONTENTS_CHANGED, 60, 60);
+	}
+
+	@Test
+	public void testCloseBatchedSetsFireOneEvent() {
+		this.populate(100);
+		this.listModel.batch(new Runnable() {
+			@Override
+			public void run() {
+				for (int i = 10; i < 20; i += 2) {
+					ObservableListTest.this.listModel.set(i, "X");
+				}
+			}
+		});
+		Assert.assertThat("Event-list has a mismatched size.", this.eventList.size(), CoreMatchers.is(1));
+		this.assertEvent(ListDataEvent.CONTENTS_CHANGED, 10, 18);
+	}
+
+	@Test
+	public void testBatchOfSameSizeStopsAtHighestChange() {
+		this.populate(100);
+		this.listModel.batch(new Runnable() {
+			@Override
+			public void run() {
+				ObservableListTest.this.listModel.remove(10);
+				ObservableListTest.this.listModel.add(20, "X");
+			}
+		});
+		Assert.assertThat("Event-list has a mismatched size.", this.eventList.size(), CoreMatchers.is(1));
+		this.assertEvent(ListDataEvent.CONTENTS_CHANGED, 10, 20);
+	}
+
+	@Test
+	public void testScatteredBatchKeepsUnchangedTail() {
+		this.populate(100);
+		this.listModel.batch(new Runnable() {
+			@Override
+			public void run() {
+				ObservableListTest.this.listModel.set(10, "X");
+				ObservableListTest.this.listModel.add(30, "Y");
+				ObservableListTest.this.listModel.add(30, "Z");
+			}
+		});
+		Assert.assertThat("Event-list has a mismatched size.", this.eventList.size(), CoreMatchers.is(2));
+		this.assertEvent(ListDataEvent.CONTENTS_CHANGED, 10, 29);
+		this.assertEvent(ListDataEvent.INTERVAL_ADDED, 30, 31);
+		Assert.assertThat(this.listModel.get(32), CoreMatchers.is("Row 30"));
+	}
+
+	private void populate(final int size) {
+		for (int i = 0; i < size; ++i) {
+			this.listModel.add("Row " + i);
+		}
+		this.eventList.clear();
+	}
+
+	private void assertEvent(final int type, final int index0, final int index1) {
+		final ListDataEvent event = this.eventList.remove();
+		Assert.assertThat(event.getType(), CoreMatchers.is(type));
+		Assert.assertThat(event.getIndex0(), CoreMatchers.is(index0));
+		Assert.assertThat(event.getIndex1(), CoreMatchers.is(index1));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testCommitWithoutBatchThrows() {
+		this.listModel.commitBatch();
+	}
+
+	@Test
+	public void testSublistBatchReachesListOnCommit() {
+		this.prepopulate();
+		final ObservableList<String> sublist = (ObservableList<String>) this.listModel.subList(1, 3);
+		sublist.beginBatch();
+		sublist.add("G");
+		sublist.add("H");
+		Assert.assertThat(this.listModel.getSize(), CoreMatchers.is(5));
+		sublist.commitBatch();
+		Assert.assertThat(this.listModel.getSize(), CoreMatchers.is(7));
+		Assert.assertThat(this.listModel.get(3), CoreMatchers.is("G"));
+		Assert.assertThat(this.listModel.get(4), CoreMatchers.is("H"));
+		Assert.assertThat("Event-list has a mismatched size.", this.eventList.size(), CoreMatchers.is(1));
+		final ListDataEvent event = this.eventList.remove();
+		Assert.assertThat(event.getType(), CoreMatchers.is(ListDataEvent.INTERVAL_ADDED));
+		Assert.assertThat(event.getIndex0(), CoreMatchers.is(3));
+		Assert.assertThat(event.getIndex1(), CoreMatchers.is(4));
+	}
+
 	@Test(expected = IndexOutOfBoundsException.class)
 	public void testThrowsOnBadGetElement() {
 		this.listModel.getElementAt(1);
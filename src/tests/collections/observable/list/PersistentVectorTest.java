@@ -0,0 +1,107 @@
+package collections.observable.list;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PersistentVectorTest {
+
+	@Test
+	public void appendedElementsCanBeRetrievedAcrossLevels() {
+		final List<Integer> reference = new ArrayList<Integer>();
+		PersistentVector<Integer> vector = PersistentVector.empty();
+		for (int i = 0; i < 40000; ++i) {
+			vector = vector.plus(i);
+			reference.add(i);
+		}
+		assertThat(vector.size(), is(40000));
+		assertThat(vector, is((List<Integer>) reference));
+	}
+
+	@Test
+	public void changesLeaveOlderVersionsUntouched() {
+		final List<Integer> reference = new ArrayList<Integer>();
+		for (int i = 0; i < 1100; ++i) {
+			reference.add(i);
+		}
+		final PersistentVector<Integer> original = PersistentVector.of(reference);
+		final PersistentVector<Integer> changed = original.with(5, -1).with(1050, -1).minusLast().plus(0, -2);
+		assertThat(original, is((List<Integer>) reference));
+		assertThat(changed.get(0), is(-2));
+		assertThat(changed.get(6), is(-1));
+		assertThat(changed.get(1051), is(-1));
+		assertThat(changed.size(), is(1100));
+	}
+
+	@Test
+	public void randomChangesMatchAnArrayList() {
+		final Random random = new Random(42);
+		final List<Integer> reference = new ArrayList<Integer>();
+		PersistentVector<Integer> vector = PersistentVector.empty();
+		for (int step = 0; step < 3000; ++step) {
+			final int operation = random.nextInt(10);
+			if (operation < 5 || reference.isEmpty()) {
+				vector = vector.plus(step);
+				reference.add(step);
+			} else if (operation < 7) {
+				final int index = random.nextInt(reference.size());
+				vector = vector.with(index, -step);
+				reference.set(index, -step);
+			} else if (operation < 8) {
+				vector = vector.minusLast();
+				reference.remove(reference.size() - 1);
+			} else if (operation < 9) {
+				final int index = random.nextInt(reference.size() + 1);
+				vector = vector.plus(index, step);
+				reference.add(index, step);
+			} else {
+				final int from = random.nextInt(reference.size());
+				final int to = from + random.nextInt(Math.min(40, reference.size() - from) + 1);
+				vector = vector.minus(from, to);
+				reference.subList(from, to).clear();
+			}
+			assertThat(vector.size(), is(reference.size()));
+		}
+		assertThat(vector, is((List<Integer>) reference));
+	}
+
+	@Test
+	public void truncatingRemovesTreeLevels() {
+		final List<Integer> reference = new ArrayList<Integer>();
+		for (int i = 0; i < 2000; ++i) {
+			reference.add(i);
+		}
+		PersistentVector<Integer> vector = PersistentVector.of(reference);
+		vector = vector.truncate(33);
+		assertThat(vector, is((List<Integer>) reference.subList(0, 33)));
+		vector = vector.plusAll(reference.subList(33, 2000));
+		assertThat(vector, is((List<Integer>) reference));
+		assertThat(vector.truncate(0).isEmpty(), is(true));
+	}
+
+	@Test
+	public void truncatingToEveryLengthKeepsThePrefix() {
+		final List<Integer> reference = new ArrayList<Integer>();
+		for (int i = 0; i < 1100; ++i) {
+			reference.add(i);
+		}
+		final PersistentVector<Integer> vector = PersistentVector.of(reference);
+		for (int length = 0; length <= reference.size(); ++length) {
+			final PersistentVector<Integer> truncated = vector.truncate(length);
+			assertThat(truncated, is((List<Integer>) reference.subList(0, length)));
+			// The truncated vector must grow like any other.
+			assertThat(truncated.plus(-1).get(length), is(-1));
+		}
+		assertThat(vector, is((List<Integer>) reference));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void vectorsCannotBeChangedInPlace() {
+		PersistentVector.<String> empty().plus("A").set(0, "B");
+	}
+}
@@ -239,6 +239,26 @@ public abstract class AbstractTableTest<T> {
 		assertThat(subTable.get(Vector3i.frozen(1, 0)), is(this.listOfValues().get(3)));
 	}
 
+	@Test
+	public void testNestedSubTable() {
+		this.table = this.newTable(4, 1);
+		Tables.fill(this.table, this.listOfValues());
+		final Table<T> subTable = this.table.subTable(Vector3i.frozen(1, 0)).subTable(Vector3i.frozen(1, 0));
+		assertThat(subTable.size(), is(2));
+		assertThat(subTable.get(1, 0), is(this.listOfValues().get(3)));
+		assertThat(subTable.put(0, 0, this.getOtherValue()), is(this.listOfValues().get(2)));
+		assertThat(this.table.get(2, 0), is(this.getOtherValue()));
+		assertThat(subTable.remove(0, 0), is(this.getOtherValue()));
+		assertThat(this.table.get(2, 0), is(this.getDefaultDefaultValue()));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testNestedSubTableDoesNotReachIntoParent() {
+		this.table = this.newTable(4, 1);
+		final Table<T> subTable = this.table.subTable(Vector3i.frozen(1, 0)).subTable(Vector3i.frozen(1, 0));
+		subTable.get(-1, 0);
+	}
+
 	@Test(expected = IndexOutOfBoundsException.class)
 	public void testSubTableInsidiousGet() {
 		this.table = this.newTable(4, 1);
@@ -0,0 +1,175 @@
+package collections.table;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ByteTableTest extends AbstractTableTest<Byte> {
+
+	public ByteTableTest() {
+		super((byte) 0);
+	}
+
+	@Override
+	public Table<Byte> newTable(final int width, final int height, final Byte defaultValue) {
+		return new ByteTable(width, height, defaultValue).asTable();
+	}
+
+	/**
+	 * Primitive tables have no way to represent a null default.
+	 */
+	@Override
+	@Test(expected = NullPointerException.class)
+	public void ctorAllowsNullDefaultValue() {
+		this.newTable(2, 2, null);
+	}
+
+	@Test
+	public void testDefaultValueIsFilledIn() {
+		final ByteTable table = new ByteTable(3, 2, (byte) 7);
+		assertThat(table.get(2, 1), is((byte) 7));
+		table.put(2, 1, (byte) 3);
+		assertThat(table.remove(2, 1), is((byte) 3));
+		assertThat(table.get(2, 1), is((byte) 7));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testExcessiveXDoesNotWrapToNextRow() {
+		new ByteTable(2, 2).get(2, 0);
+	}
+
+	@Test
+	public void testFillRegion() {
+		final ByteTable table = new ByteTable(3, 3);
+		table.fill(1, 1, 2, 2, (byte) 5);
+		assertThat(table.toArray(), is(new byte[] {
+				0, 0, 0,
+				0, 5, 5,
+				0, 5, 5
+		}));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testFillRegionOutsideTable() {
+		new ByteTable(3, 3).fill(2, 0, 2, 1, (byte) 5);
+	}
+
+	@Test
+	public void testCopyOverlappingRegion() {
+		final ByteTable table = new ByteTable(2, 3);
+		table.setAll(new byte[] {
+				1, 2,
+				3, 4,
+				5, 6
+		});
+		table.copy(table, 0, 0, 0, 1, 2, 2);
+		assertThat(table.toArray(), is(new byte[] {
+				1, 2,
+				1, 2,
+				3, 4
+		}));
+	}
+
+	@Test
+	public void testLayoutsStoreTheSameValues() {
+		for (final TableLayout layout : TableLayout.values()) {
+			final ByteTable table = new ByteTable(11, 5, (byte) 7, layout);
+			final byte[] values = new byte[55];
+			for (int i = 0; i < values.length; ++i) {
+				values[i] = (byte) i;
+			}
+			table.setAll(values);
+			assertThat(table.get(3, 2), is((byte) 25));
+			assertThat(table.toArray(), is(values));
+			table.fill(9, 3, 2, 2, (byte) -1);
+			assertThat(table.get(10, 4), is((byte) -1));
+			assertThat(table.get(8, 4), is((byte) 52));
+		}
+	}
+
+	@Test
+	public void testCopyOverlappingRegionInTiledLayout() {
+		final ByteTable table = new ByteTable(3, 3, (byte) 0, TableLayout.TILED);
+		table.setAll(new byte[] {
+				1, 2, 3,
+				4, 5, 6,
+				7, 8, 9
+		});
+		table.copy(table, 0, 0, 1, 1, 2, 2);
+		assertThat(table.toArray(), is(new byte[] {
+				1, 2, 3,
+				4, 1, 2,
+				7, 4, 5
+		}));
+	}
+
+	@Test
+	public void testFillWideRegion() {
+		final ByteTable table = new ByteTable(40, 3, (byte) 0, TableLayout.ROW_MAJOR);
+		table.fill(1, 1, 37, 2, (byte) 8);
+		final byte[] values = table.toArray();
+		for (int y = 0; y < 3; ++y) {
+			for (int x = 0; x < 40; ++x) {
+				final boolean inside = y >= 1 && x >= 1 && x < 38;
+				assertThat(values[y * 40 + x], is(inside ? (byte) 8 : (byte) 0));
+			}
+		}
+	}
+
+	@Test
+	public void testCopyIntoTiledLayout() {
+		final ByteTable source = new ByteTable(3, 2);
+		source.setAll(new byte[] {
+				1, 2, 3,
+				4, 5, 6
+		});
+		final ByteTable destination = new ByteTable(3, 3, (byte) 0, TableLayout.TILED);
+		destination.copy(source, 0, 0, 0, 1, 3, 2);
+		assertThat(destination.toArray(), is(new byte[] {
+				0, 0, 0,
+				1, 2, 3,
+				4, 5, 6
+		}));
+	}
+
+	@Test
+	public void testViewSharesValues() {
+		final ByteTable table = new ByteTable(2, 2);
+		final Table<Byte> view = table.asTable();
+		Tables.fill(view, (byte) 4);
+		assertThat(table.get(1, 1), is((byte) 4));
+		table.put(0, 0, (byte) 9);
+		assertThat(view.get(0, 0), is((byte) 9));
+	}
+
+	@Override
+	protected boolean allowNullValues() {
+		return false;
+	}
+
+	@Override
+	protected Byte getOtherValue() {
+		return (byte) 2;
+	}
+
+	@Override
+	protected Byte getValue() {
+		return (byte) 1;
+	}
+
+	@Override
+	protected List<Byte> listOfValues() {
+		return new ArrayList<Byte>(Arrays.<Byte> asList((byte) 1, (byte) 2, (byte) 3, (byte) 4));
+	}
+
+	@Override
+	protected List<Byte> otherListOfValues() {
+		return new ArrayList<Byte>(Arrays.<Byte> asList((byte) 10, (byte) 11, (byte) 12, (byte) 13));
+	}
+
+}
@@ -1,5 +1,8 @@
 package collections.table;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -32,6 +35,49 @@ public class ChoiceTableTest extends AbstractTableTest<TestEnum> {
 		table.put(Vector3i.origin(), TestEnum.NOTTINGHAM);
 	}
 
+	@Test
+	public void testPackedCellsDoNotOverlap() {
+		// Nine choices need four bits per cell, and an odd width leaves part
+		// of each row's last word unused.
+		final TestEnum[] choices = TestEnum.values();
+		final ChoiceTable<TestEnum> table = new ChoiceTable<TestEnum>(choices, 37, 3, TestEnum.EMPTY);
+		for (int y = 0; y < table.height(); ++y) {
+			for (int x = 0; x < table.width(); ++x) {
+				table.put(x, y, choices[(x + y) % choices.length]);
+			}
+		}
+		for (int y = 0; y < table.height(); ++y) {
+			for (int x = 0; x < table.width(); ++x) {
+				assertThat(table.get(x, y), is(choices[(x + y) % choices.length]));
+			}
+		}
+	}
+
+	@Test
+	public void testFillWritesEveryCell() {
+		final TestEnum[] choices = new TestEnum[] { TestEnum.BAR, TestEnum.BASE };
+		final ChoiceTable<TestEnum> table = new ChoiceTable<TestEnum>(choices, 65, 2, TestEnum.BAR);
+		table.fill(TestEnum.BASE);
+		assertThat(table.get(0, 0), is(TestEnum.BASE));
+		assertThat(table.get(64, 1), is(TestEnum.BASE));
+		table.clear();
+		assertThat(table.get(64, 1), is(TestEnum.BAR));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testUnusedBitsAreOutOfBounds() {
+		final TestEnum[] choices = new TestEnum[] { TestEnum.BAR, TestEnum.BASE };
+		new ChoiceTable<TestEnum>(choices, 3, 2, TestEnum.BAR).get(3, 0);
+	}
+
+	@Test
+	public void testChoicesNeedNotBeEnums() {
+		final ChoiceTable<String> table = new ChoiceTable<String>(new String[] { "grass", "water", "rock" }, 4, 4, "grass");
+		assertThat(table.put(1, 2, "rock"), is("grass"));
+		assertThat(table.get(1, 2), is("rock"));
+		assertThat(table.isValidChoice("lava"), is(false));
+	}
+
 	@Override
 	protected boolean allowNullValues() {
 		return false;
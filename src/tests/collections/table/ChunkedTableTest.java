@@ -0,0 +1,119 @@
+package collections.table;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import geom.vectors.Vector3i;
+
+public class ChunkedTableTest extends AbstractTableTest<Integer> {
+
+	public ChunkedTableTest() {
+		super(0);
+	}
+
+	@Override
+	public Table<Integer> newTable(final int width, final int height, final Integer defaultValue) {
+		return new ChunkedTable<Integer>(width, height, defaultValue);
+	}
+
+	@Test
+	public void testHugeTablesAreAllocatedLazily() {
+		final ChunkedTable<Integer> table = new ChunkedTable<Integer>(100000, 100000, 0);
+		assertThat(table.chunkCount(), is(0));
+		table.put(99999, 99999, 3);
+		table.put(0, 0, 4);
+		assertThat(table.chunkCount(), is(2));
+		assertThat(table.get(99999, 99999), is(3));
+		assertThat(table.get(50000, 50000), is(0));
+		assertThat(table.size(), is(Integer.MAX_VALUE));
+	}
+
+	@Test
+	public void testDefaultValuesDoNotAllocate() {
+		final ChunkedTable<Integer> table = new ChunkedTable<Integer>(1000, 1000, 0);
+		table.put(10, 10, 0);
+		table.put(20, 20, null);
+		assertThat(table.chunkCount(), is(0));
+	}
+
+	@Test
+	public void testChunksAreFreedWhenEmptied() {
+		final ChunkedTable<Integer> table = new ChunkedTable<Integer>(1000, 1000, 0);
+		table.put(1, 1, 5);
+		table.put(2, 1, 6);
+		table.put(500, 500, 7);
+		table.remove(1, 1);
+		assertThat(table.chunkCount(), is(2));
+		table.put(2, 1, 0);
+		assertThat(table.chunkCount(), is(1));
+		assertThat(table.get(500, 500), is(7));
+	}
+
+	@Test
+	public void testManyChunks() {
+		final int chunks = 40;
+		final ChunkedTable<Integer> table = new ChunkedTable<Integer>(chunks * ChunkedTable.CHUNK_SIZE, chunks * ChunkedTable.CHUNK_SIZE, 0);
+		for (int y = 0; y < chunks; ++y) {
+			for (int x = 0; x < chunks; ++x) {
+				table.put(x * ChunkedTable.CHUNK_SIZE, y * ChunkedTable.CHUNK_SIZE, x + y * chunks + 1);
+			}
+		}
+		assertThat(table.chunkCount(), is(chunks * chunks));
+		// Free every other chunk, then make sure the rest are still found.
+		for (int y = 0; y < chunks; ++y) {
+			for (int x = y % 2; x < chunks; x += 2) {
+				table.remove(x * ChunkedTable.CHUNK_SIZE, y * ChunkedTable.CHUNK_SIZE);
+			}
+		}
+		assertThat(table.chunkCount(), is(chunks * chunks / 2));
+		for (int y = 0; y < chunks; ++y) {
+			for (int x = 0; x < chunks; ++x) {
+				final int expected = (x + y) % 2 == 0 ? 0 : x + y * chunks + 1;
+				assertThat(table.get(x * ChunkedTable.CHUNK_SIZE, y * ChunkedTable.CHUNK_SIZE), is(expected));
+			}
+		}
+	}
+
+	@Test
+	public void testSubTableOfHugeTable() {
+		final ChunkedTable<Integer> table = new ChunkedTable<Integer>(100000, 100000, 0);
+		final Table<Integer> view = table.subTable(Vector3i.frozen(60000, 60000), Vector3i.frozen(100, 100));
+		Tables.fill(view, 1);
+		assertThat(table.get(60099, 60099), is(1));
+		assertThat(table.get(60100, 60099), is(0));
+		// The view straddles three chunks in each direction.
+		assertThat(table.chunkCount(), is(9));
+	}
+
+	@Override
+	protected boolean allowNullValues() {
+		return true;
+	}
+
+	@Override
+	protected Integer getOtherValue() {
+		return 2;
+	}
+
+	@Override
+	protected Integer getValue() {
+		return 1;
+	}
+
+	@Override
+	protected List<Integer> listOfValues() {
+		return new ArrayList<Integer>(Arrays.asList(1, 2, 3, 4));
+	}
+
+	@Override
+	protected List<Integer> otherListOfValues() {
+		return new ArrayList<Integer>(Arrays.asList(10, 11, 12, 13));
+	}
+
+}
@@ -0,0 +1,65 @@
+package collections.table;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class DirtyRegionsTest {
+
+	@Test
+	public void testAdjacentCellsAreMerged() {
+		final DirtyRegions regions = new DirtyRegions();
+		regions.add(2, 2);
+		regions.add(3, 2);
+		regions.add(2, 3);
+		assertThat(regions.drain(), is(Arrays.asList(new Rectangle(2, 2, 2, 2))));
+	}
+
+	@Test
+	public void testDistantCellsAreKeptApart() {
+		final DirtyRegions regions = new DirtyRegions();
+		regions.add(0, 0);
+		regions.add(10, 10);
+		assertThat(regions.drain().size(), is(2));
+	}
+
+	@Test
+	public void testRegionsAreBounded() {
+		final DirtyRegions regions = new DirtyRegions(4);
+		for (int i = 0; i < 20; ++i) {
+			regions.add(i * 10, 0);
+		}
+		final List<Rectangle> drained = regions.drain();
+		assertThat(drained.size() <= 4, is(true));
+		for (int i = 0; i < 20; ++i) {
+			boolean covered = false;
+			for (final Rectangle region : drained) {
+				covered |= region.contains(i * 10, 0);
+			}
+			assertThat(covered, is(true));
+		}
+	}
+
+	@Test
+	public void testDrainForgetsRegions() {
+		final DirtyRegions regions = new DirtyRegions();
+		regions.add(1, 1, 3, 3);
+		assertThat(regions.isEmpty(), is(false));
+		regions.drain();
+		assertThat(regions.isEmpty(), is(true));
+	}
+
+	@Test
+	public void testTableRecordsOnlyRealChanges() {
+		final DirtyTrackingTable<Integer> table = new DirtyTrackingTable<Integer>(new ArrayTable<Integer>(5, 5, 0));
+		table.put(1, 1, 0);
+		assertThat(table.getDirtyRegions().isEmpty(), is(true));
+		table.put(1, 1, 4);
+		assertThat(table.getDirtyRegions().drain(), is(Arrays.asList(new Rectangle(1, 1, 1, 1))));
+	}
+}
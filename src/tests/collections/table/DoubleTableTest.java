@@ -0,0 +1,168 @@
+package collections.table;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class DoubleTableTest extends AbstractTableTest<Double> {
+
+	public DoubleTableTest() {
+		super(0.0);
+	}
+
+	@Override
+	public Table<Double> newTable(final int width, final int height, final Double defaultValue) {
+		return new DoubleTable(width, height, defaultValue).asTable();
+	}
+
+	/**
+	 * Primitive tables have no way to represent a null default.
+	 */
+	@Override
+	@Test(expected = NullPointerException.class)
+	public void ctorAllowsNullDefaultValue() {
+		this.newTable(2, 2, null);
+	}
+
+	@Test
+	public void testDefaultValueIsFilledIn() {
+		final DoubleTable table = new DoubleTable(3, 2, 7.5);
+		assertThat(table.get(2, 1), is(7.5));
+		table.put(2, 1, 3.25);
+		assertThat(table.remove(2, 1), is(3.25));
+		assertThat(table.get(2, 1), is(7.5));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testExcessiveXDoesNotWrapToNextRow() {
+		new DoubleTable(2, 2).get(2, 0);
+	}
+
+	@Test
+	public void testFillRegion() {
+		final DoubleTable table = new DoubleTable(3, 3);
+		table.fill(1, 1, 2, 2, 0.5);
+		assertThat(table.toArray(), is(new double[] {
+				0, 0, 0,
+				0, 0.5, 0.5,
+				0, 0.5, 0.5
+		}));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testFillRegionOutsideTable() {
+		new DoubleTable(3, 3).fill(2, 0, 2, 1, 0.5);
+	}
+
+	@Test
+	public void testCopyOverlappingRegion() {
+		final DoubleTable table = new DoubleTable(2, 3);
+		table.setAll(new double[] {
+				1, 2,
+				3, 4,
+				5, 6
+		});
+		table.copy(table, 0, 0, 0, 1, 2, 2);
+		assertThat(table.toArray(), is(new double[] {
+				1, 2,
+				1, 2,
+				3, 4
+		}));
+	}
+
+	@Test
+	public void testLayoutsStoreTheSameValues() {
+		for (final TableLayout layout : TableLayout.values()) {
+			final DoubleTable table = new DoubleTable(11, 5, 7.0, layout);
+			final double[] values = new double[55];
+			for (int i = 0; i < values.length; ++i) {
+				values[i] = i;
+			}
+			table.setAll(values);
+			assertThat(table.get(3, 2), is(25.0));
+			assertThat(table.toArray(), is(values));
+			table.fill(9, 3, 2, 2, -1.0);
+			assertThat(table.get(10, 4), is(-1.0));
+			assertThat(table.get(8, 4), is(52.0));
+		}
+	}
+
+	@Test
+	public void testCopyOverlappingRegionInTiledLayout() {
+		final DoubleTable table = new DoubleTable(3, 3, 0.0, TableLayout.TILED);
+		table.setAll(new double[] {
+				1, 2, 3,
+				4, 5, 6,
+				7, 8, 9
+		});
+		table.copy(table, 0, 0, 1, 1, 2, 2);
+		assertThat(table.toArray(), is(new double[] {
+				1, 2, 3,
+				4, 1, 2,
+				7, 4, 5
+		}));
+	}
+
+	@Test
+	public void testNegativeZeroDefaultIsFilledIn() {
+		final DoubleTable table = new DoubleTable(2, 2, -0.0);
+		assertThat(Double.doubleToRawLongBits(table.get(1, 1)), is(Double.doubleToRawLongBits(-0.0)));
+	}
+
+	@Test
+	public void testCopyBetweenLayouts() {
+		final DoubleTable source = new DoubleTable(3, 2, 0.0, TableLayout.TILED);
+		source.setAll(new double[] {
+				1, 2, 3,
+				4, 5, 6
+		});
+		final DoubleTable destination = new DoubleTable(4, 3);
+		destination.copy(source, 1, 0, 2, 1, 2, 2);
+		assertThat(destination.toArray(), is(new double[] {
+				0, 0, 0, 0,
+				0, 0, 2, 3,
+				0, 0, 5, 6
+		}));
+	}
+
+	@Test
+	public void testViewSharesValues() {
+		final DoubleTable table = new DoubleTable(2, 2);
+		final Table<Double> view = table.asTable();
+		Tables.fill(view, 4.0);
+		assertThat(table.get(1, 1), is(4.0));
+		table.put(0, 0, 9.0);
+		assertThat(view.get(0, 0), is(9.0));
+	}
+
+	@Override
+	protected boolean allowNullValues() {
+		return false;
+	}
+
+	@Override
+	protected Double getOtherValue() {
+		return 2.0;
+	}
+
+	@Override
+	protected Double getValue() {
+		return 1.0;
+	}
+
+	@Override
+	protected List<Double> listOfValues() {
+		return new ArrayList<Double>(Arrays.asList(1.0, 2.0, 3.0, 4.0));
+	}
+
+	@Override
+	protected List<Double> otherListOfValues() {
+		return new ArrayList<Double>(Arrays.asList(10.0, 11.0, 12.0, 13.0));
+	}
+
+}
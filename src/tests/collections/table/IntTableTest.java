@@ -0,0 +1,146 @@
+package collections.table;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class IntTableTest extends AbstractTableTest<Integer> {
+
+	public IntTableTest() {
+		super(0);
+	}
+
+	@Override
+	public Table<Integer> newTable(final int width, final int height, final Integer defaultValue) {
+		return new IntTable(width, height, defaultValue).asTable();
+	}
+
+	/**
+	 * Primitive tables have no way to represent a null default.
+	 */
+	@Override
+	@Test(expected = NullPointerException.class)
+	public void ctorAllowsNullDefaultValue() {
+		this.newTable(2, 2, null);
+	}
+
+	@Test
+	public void testDefaultValueIsFilledIn() {
+		final IntTable table = new IntTable(3, 2, 7);
+		assertThat(table.get(2, 1), is(7));
+		table.put(2, 1, 3);
+		assertThat(table.remove(2, 1), is(3));
+		assertThat(table.get(2, 1), is(7));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testExcessiveXDoesNotWrapToNextRow() {
+		new IntTable(2, 2).get(2, 0);
+	}
+
+	@Test
+	public void testFillRegion() {
+		final IntTable table = new IntTable(3, 3);
+		table.fill(1, 1, 2, 2, 5);
+		assertThat(table.toArray(), is(new int[] {
+				0, 0, 0,
+				0, 5, 5,
+				0, 5, 5
+		}));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testFillRegionOutsideTable() {
+		new IntTable(3, 3).fill(2, 0, 2, 1, 5);
+	}
+
+	@Test
+	public void testCopyOverlappingRegion() {
+		final IntTable table = new IntTable(2, 3);
+		table.setAll(new int[] {
+				1, 2,
+				3, 4,
+				5, 6
+		});
+		table.copy(table, 0, 0, 0, 1, 2, 2);
+		assertThat(table.toArray(), is(new int[] {
+				1, 2,
+				1, 2,
+				3, 4
+		}));
+	}
+
+	@Test
+	public void testLayoutsStoreTheSameValues() {
+		for (final TableLayout layout : TableLayout.values()) {
+			final IntTable table = new IntTable(11, 5, 7, layout);
+			final int[] values = new int[55];
+			for (int i = 0; i < values.length; ++i) {
+				values[i] = i;
+			}
+			table.setAll(values);
+			assertThat(table.get(3, 2), is(25));
+			assertThat(table.toArray(), is(values));
+			table.fill(9, 3, 2, 2, -1);
+			assertThat(table.get(10, 4), is(-1));
+			assertThat(table.get(8, 4), is(52));
+		}
+	}
+
+	@Test
+	public void testCopyOverlappingRegionInTiledLayout() {
+		final IntTable table = new IntTable(3, 3, 0, TableLayout.TILED);
+		table.setAll(new int[] {
+				1, 2, 3,
+				4, 5, 6,
+				7, 8, 9
+		});
+		table.copy(table, 0, 0, 1, 1, 2, 2);
+		assertThat(table.toArray(), is(new int[] {
+				1, 2, 3,
+				4, 1, 2,
+				7, 4, 5
+		}));
+	}
+
+	@Test
+	public void testViewSharesValues() {
+		final IntTable table = new IntTable(2, 2);
+		final Table<Integer> view = table.asTable();
+		Tables.fill(view, 4);
+		assertThat(table.get(1, 1), is(4));
+		table.put(0, 0, 9);
+		assertThat(view.get(0, 0), is(9));
+	}
+
+	@Override
+	protected boolean allowNullValues() {
+		return false;
+	}
+
+	@Override
+	protected Integer getOtherValue() {
+		return 2;
+	}
+
+	@Override
+	protected Integer getValue() {
+		return 1;
+	}
+
+	@Override
+	protected List<Integer> listOfValues() {
+		return new ArrayList<Integer>(Arrays.asList(1, 2, 3, 4));
+	}
+
+	@Override
+	protected List<Integer> otherListOfValues() {
+		return new ArrayList<Integer>(Arrays.asList(10, 11, 12, 13));
+	}
+
+}
@@ -0,0 +1,138 @@
+package collections.table;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import geom.vectors.Vector3i;
+
+public class MappedTableTest extends AbstractTableTest<Integer> {
+
+	/**
+	 * A tiny window size, so that even small tables span several windows.
+	 */
+	private static final int WINDOW_SIZE = 16;
+
+	private final List<MappedTable<?>> tables = new ArrayList<>();
+
+	private final List<File> files = new ArrayList<>();
+
+	public MappedTableTest() {
+		super(0);
+	}
+
+	private File newFile() throws IOException {
+		final File file = File.createTempFile("MappedTableTest", ".table");
+		file.deleteOnExit();
+		this.files.add(file);
+		return file;
+	}
+
+	private <T extends MappedTable<?>> T track(final T table) {
+		this.tables.add(table);
+		return table;
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		for (final MappedTable<?> table : this.tables) {
+			table.close();
+		}
+		for (final File file : this.files) {
+			file.delete();
+		}
+	}
+
+	@Override
+	public Table<Integer> newTable(final int width, final int height, final Integer defaultValue) {
+		try {
+			return this.track(MappedTable.Ints.create(this.newFile(), width, height, defaultValue, WINDOW_SIZE));
+		} catch (final IOException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	/**
+	 * Primitive cells have no way to represent a null default.
+	 */
+	@Override
+	@Test(expected = NullPointerException.class)
+	public void ctorAllowsNullDefaultValue() {
+		this.newTable(2, 2, null);
+	}
+
+	@Test
+	public void testValuesArePersisted() throws IOException {
+		final File file = this.newFile();
+		final MappedTable.Ints table = this.track(MappedTable.Ints.create(file, 7, 5, 3, WINDOW_SIZE));
+		table.putInt(6, 4, 42);
+		table.putInt(3, 2, -1);
+		table.force();
+		table.close();
+
+		final MappedTable.Ints reopened = this.track(MappedTable.Ints.open(file, MapMode.READ_ONLY, WINDOW_SIZE));
+		assertThat(reopened.width(), is(7));
+		assertThat(reopened.height(), is(5));
+		assertThat(reopened.getInt(6, 4), is(42));
+		assertThat(reopened.getInt(3, 2), is(-1));
+		assertThat(reopened.getInt(0, 0), is(3));
+		assertThat(reopened.subTable(Vector3i.frozen(3, 2)).get(3, 2), is(42));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testReadOnlyTablesCannotBeChanged() throws IOException {
+		final File file = this.newFile();
+		this.track(MappedTable.Ints.create(file, 2, 2, 0)).close();
+		this.track(MappedTable.Ints.open(file, MapMode.READ_ONLY)).putInt(0, 0, 1);
+	}
+
+	@Test(expected = IOException.class)
+	public void testOpeningWithTheWrongCellSizeFails() throws IOException {
+		final File file = this.newFile();
+		this.track(MappedTable.Ints.create(file, 2, 2, 0)).close();
+		this.track(MappedTable.Doubles.open(file, MapMode.READ_ONLY));
+	}
+
+	@Test
+	public void testDoubles() throws IOException {
+		final MappedTable.Doubles table = this.track(MappedTable.Doubles.create(this.newFile(), 3, 3, 0.5));
+		assertThat(table.getDouble(2, 2), is(0.5));
+		assertThat(table.putDouble(1, 1, 2.25), is(0.5));
+		assertThat(table.get(1, 1), is(2.25));
+	}
+
+	@Override
+	protected boolean allowNullValues() {
+		return false;
+	}
+
+	@Override
+	protected Integer getOtherValue() {
+		return 2;
+	}
+
+	@Override
+	protected Integer getValue() {
+		return 1;
+	}
+
+	@Override
+	protected List<Integer> listOfValues() {
+		return new ArrayList<Integer>(Arrays.asList(1, 2, 3, 4));
+	}
+
+	@Override
+	protected List<Integer> otherListOfValues() {
+		return new ArrayList<Integer>(Arrays.asList(10, 11, 12, 13));
+	}
+
+}
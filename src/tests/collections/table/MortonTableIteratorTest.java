@@ -0,0 +1,80 @@
+package collections.table;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import collections.table.iteration.MortonTableIterator;
+import collections.table.iteration.TableIterator;
+
+public class MortonTableIteratorTest extends AbstractTableIteratorTest {
+
+	@Override
+	public TableIterator<Integer> newIterator(Table<Integer> targetTable) {
+		return new MortonTableIterator<Integer>(targetTable);
+	}
+
+	@Test
+	public void mortonIteratorIteratesInZOrder() throws Exception {
+		final Table<Integer> table = new ArrayTable<Integer>(4, 4);
+		final TableIterator<Integer> iter = new MortonTableIterator<Integer>(table);
+		int i = 1;
+		while (iter.hasNext()) {
+			iter.next();
+			iter.put(i++);
+		}
+		assertThat(i, is(17));
+		assertThat(table.get(1, 0), is(2));
+		assertThat(table.get(0, 1), is(3));
+		assertThat(table.get(2, 0), is(5));
+		assertThat(table.get(0, 2), is(9));
+		assertThat(table.get(3, 3), is(16));
+	}
+
+	@Test
+	public void mortonIteratorSkipsLocationsOutsideTheTable() throws Exception {
+		final Table<Integer> table = new ArrayTable<Integer>(3, 5);
+		final TableIterator<Integer> iter = new MortonTableIterator<Integer>(table);
+		final List<Integer> visited = new ArrayList<Integer>();
+		while (iter.hasNext()) {
+			iter.next();
+			visited.add(iter.y() * 3 + iter.x());
+		}
+		assertThat(visited, is(Arrays.asList(0, 1, 3, 4, 2, 5, 6, 7, 9, 10, 8, 11, 12, 13, 14)));
+
+		final List<Integer> reversed = new ArrayList<Integer>();
+		reversed.add(iter.y() * 3 + iter.x());
+		while (iter.hasPrevious()) {
+			iter.previous();
+			reversed.add(iter.y() * 3 + iter.x());
+		}
+		assertThat(reversed.size(), is(15));
+		assertThat(reversed.get(14), is(0));
+		assertThat(reversed.get(1), is(13));
+	}
+
+	@Test
+	public void mortonCodesRoundTrip() throws Exception {
+		assertThat(Morton.encode(3, 5), is(0x27L));
+		assertThat(Morton.decodeX(Morton.encode(123456, 654321)), is(123456));
+		assertThat(Morton.decodeY(Morton.encode(123456, 654321)), is(654321));
+		assertThat(Morton.decodeX(Morton.encode(Integer.MAX_VALUE, 0)), is(Integer.MAX_VALUE));
+	}
+
+	@Test
+	public void narrowTablesSkipWholeBlocks() throws Exception {
+		final Table<Integer> table = new ArrayTable<Integer>(1, 100000);
+		final TableIterator<Integer> iter = new MortonTableIterator<Integer>(table);
+		int count = 0;
+		while (iter.hasNext()) {
+			iter.next();
+			assertThat(iter.y(), is(count++));
+		}
+		assertThat(count, is(100000));
+	}
+}
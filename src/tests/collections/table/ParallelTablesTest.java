@@ -0,0 +1,143 @@
+package collections.table;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Test;
+
+import collections.table.ParallelTables.Combiner;
+import geom.vectors.Vector3i;
+import logic.functions.Function;
+
+public class ParallelTablesTest {
+
+	/**
+	 * Large enough to be split into several bands.
+	 */
+	private static final int SIZE = 300;
+
+	private final ForkJoinPool pool = new ForkJoinPool(4);
+
+	private static final Function<Integer, Integer> INCREMENT = new Function<Integer, Integer>() {
+		@Override
+		public Integer apply(final Integer input) {
+			return input + 1;
+		}
+	};
+
+	private static final Combiner<Integer, Integer, Integer> SUM = new Combiner<Integer, Integer, Integer>() {
+		@Override
+		public Integer combine(final Integer first, final Integer second) {
+			return first + second;
+		}
+	};
+
+	@After
+	public void tearDown() {
+		this.pool.shutdown();
+	}
+
+	private void assertAll(final Table<Integer> table, final int expected) {
+		for (int y = 0; y < table.height(); ++y) {
+			for (int x = 0; x < table.width(); ++x) {
+				assertThat(table.get(x, y), is(expected));
+			}
+		}
+	}
+
+	@Test
+	public void testFillAndMapArrayTable() {
+		final Table<Integer> table = new ArrayTable<Integer>(SIZE, SIZE, 0);
+		ParallelTables.map(this.pool, table, INCREMENT);
+		this.assertAll(table, 1);
+		ParallelTables.fill(this.pool, table, 5);
+		this.assertAll(table, 5);
+	}
+
+	@Test
+	public void testFillOnlyWritesSubTable() {
+		final Table<Integer> table = new ArrayTable<Integer>(SIZE, SIZE, 0);
+		final Table<Integer> subTable = table.subTable(Vector3i.frozen(10, 20), Vector3i.frozen(200, 150)).subTable(Vector3i.frozen(1, 1));
+		ParallelTables.fill(this.pool, subTable, 1);
+		ParallelTables.map(this.pool, subTable, INCREMENT);
+		assertThat(ParallelTables.reduce(this.pool, table, 0, SUM), is(2 * 199 * 149));
+		assertThat(table.get(11, 21), is(2));
+		assertThat(table.get(10, 21), is(0));
+		assertThat(table.get(11, 20), is(0));
+		assertThat(table.get(209, 169), is(2));
+		assertThat(table.get(210, 169), is(0));
+	}
+
+	@Test
+	public void testMapIntTable() {
+		final Table<Integer> table = new IntTable(SIZE, SIZE, 3).asTable();
+		ParallelTables.map(this.pool, table, INCREMENT);
+		this.assertAll(table, 4);
+	}
+
+	@Test
+	public void testChunkedTablesAreWrittenSerially() {
+		final ChunkedTable<Integer> table = new ChunkedTable<Integer>(SIZE, SIZE, 0);
+		assertThat(ParallelTables.allowsConcurrentWrites(table), is(false));
+		assertThat(ParallelTables.allowsConcurrentWrites(table.subTable(Vector3i.frozen(1, 1))), is(false));
+		ParallelTables.fill(this.pool, table, 1);
+		assertThat(ParallelTables.reduce(this.pool, table, 0, SUM), is(SIZE * SIZE));
+	}
+
+	@Test
+	public void testOnlyKnownTablesAreWrittenConcurrently() {
+		assertThat(ParallelTables.allowsConcurrentWrites(new ArrayTable<Integer>(SIZE, SIZE, 0)), is(true));
+		assertThat(ParallelTables.allowsConcurrentWrites(new ChoiceTable<Boolean>(new Boolean[] { false, true }, SIZE, SIZE, false)), is(true));
+		assertThat(ParallelTables.allowsConcurrentWrites(new DoubleTable(SIZE, SIZE).asTable()), is(true));
+		assertThat(ParallelTables.allowsConcurrentWrites(new ByteTable(SIZE, SIZE).asTable().subTable(Vector3i.frozen(1, 1))), is(true));
+
+		final Table<Integer> tracked = new DirtyTrackingTable<Integer>(new ArrayTable<Integer>(SIZE, SIZE, 0));
+		assertThat(ParallelTables.allowsConcurrentWrites(tracked), is(false));
+		assertThat(ParallelTables.allowsConcurrentWrites(tracked.subTable(Vector3i.frozen(1, 1))), is(false));
+		assertThat(ParallelTables.allowsConcurrentWrites(new ArrayTable<Integer>(SIZE, SIZE, 0) {
+			// A subclass may keep state that isn't safe to share.
+		}), is(false));
+
+		ParallelTables.fill(this.pool, tracked, 1);
+		this.assertAll(tracked, 1);
+	}
+
+	@Test
+	public void testArrayTableSubclassesAreWrittenThroughPut() {
+		final int[] puts = new int[1];
+		final Table<Integer> table = new ArrayTable<Integer>(4, 4, 0) {
+			@Override
+			public Integer put(final int x, final int y, final Integer value) {
+				++puts[0];
+				return super.put(x, y, value);
+			}
+		};
+		ParallelTables.fill(this.pool, table, 1);
+		assertThat(puts[0], is(16));
+		ParallelTables.map(this.pool, table.subTable(Vector3i.frozen(1, 1)), INCREMENT);
+		assertThat(puts[0], is(16 + 9));
+		assertThat(table.get(0, 0), is(1));
+		assertThat(table.get(3, 3), is(2));
+	}
+
+	@Test
+	public void testZip() {
+		final Table<Integer> target = new ArrayTable<Integer>(SIZE, SIZE, 1);
+		final Table<Integer> other = new IntTable(SIZE, SIZE, 2).asTable();
+		ParallelTables.zip(this.pool, target, other, SUM);
+		this.assertAll(target, 3);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testZipRejectsMismatchedTables() {
+		ParallelTables.zip(this.pool, new ArrayTable<Integer>(2, 2), new ArrayTable<Integer>(2, 3), SUM);
+	}
+
+	@Test
+	public void testReduceEmptyTable() {
+		assertThat(ParallelTables.reduce(this.pool, new ArrayTable<Integer>(0, 0), 0, SUM), is(0));
+	}
+}
@@ -0,0 +1,129 @@
+package logging;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import logging.handlers.AsyncTreeLogHandler;
+
+public class AsyncTreeLogHandlerTest {
+
+	private final List<String> events = new ArrayList<String>();
+
+	private final TreeLog<String> sink = new TreeLog<String>() {
+		@Override
+		public void log(final LogMessage<? extends String> message) {
+			events.add(message.getCategory() + " " + message.getMessage());
+		}
+
+		@Override
+		public void enter(final LogMessage<? extends String> scope) {
+			events.add(">" + scope.getMessage());
+		}
+
+		@Override
+		public void leave() {
+			events.add("<");
+		}
+
+		@Override
+		public void reset() {
+			events.add("!");
+		}
+	};
+
+	private AsyncTreeLogHandler handler;
+	private Logger logger;
+
+	@Before
+	public void setUp() {
+		this.handler = new AsyncTreeLogHandler(this.sink);
+		this.logger = Logger.getLogger(AsyncTreeLogHandlerTest.class.getName());
+		this.logger.setUseParentHandlers(false);
+		this.logger.setLevel(Level.ALL);
+		this.logger.addHandler(this.handler);
+	}
+
+	@After
+	public void tearDown() {
+		this.logger.removeHandler(this.handler);
+		this.handler.close();
+	}
+
+	@Test
+	public void testEntriesAndReturnsBecomeScopes() {
+		this.logger.entering("Foo", "bar", "baz");
+		this.logger.info("Working");
+		this.logger.exiting("Foo", "bar");
+		this.handler.flush();
+
+		Assert.assertThat(this.events, CoreMatchers.is(Arrays.asList(">Foo.bar(baz)", "INFO Working", "<")));
+	}
+
+	@Test
+	public void testOnlyExactCallFormatsBecomeScopes() {
+		this.logger.entering("Foo", "bar", new Object[] { 1, 2 });
+		this.logger.finer("RETURNED 5 rows");
+		this.logger.finer("ENTRYWAY {0}");
+		this.logger.exiting("Foo", "bar", 3);
+		this.handler.flush();
+
+		Assert.assertThat(this.events, CoreMatchers.is(Arrays.asList(">Foo.bar(1, 2)", "FINER RETURNED 5 rows", "FINER ENTRYWAY {0}", "FINER Returned 3", "<")));
+	}
+
+	@Test
+	public void testRecordsBelowLevelAreIgnored() {
+		this.handler.setLevel(Level.INFO);
+		this.logger.fine("Ignored");
+		this.logger.warning("Kept");
+		this.handler.flush();
+
+		Assert.assertThat(this.events, CoreMatchers.is(Arrays.asList("WARNING Kept")));
+	}
+
+	@Test
+	public void testLogsOfDeadThreadsAreReleased() throws InterruptedException {
+		final List<Integer> released = new ArrayList<Integer>();
+		final CountDownLatch releasedLatch = new CountDownLatch(1);
+		final AsyncTreeLogHandler perThread = new AsyncTreeLogHandler() {
+			@Override
+			protected TreeLog<? super String> newTreeLog(final int threadId) {
+				return AsyncTreeLogHandlerTest.this.sink;
+			}
+
+			@Override
+			protected void releaseTreeLog(final int threadId, final TreeLog<? super String> log) {
+				Assert.assertThat(log, CoreMatchers.<Object> is(AsyncTreeLogHandlerTest.this.sink));
+				released.add(threadId);
+				releasedLatch.countDown();
+			}
+		};
+		this.logger.addHandler(perThread);
+		try {
+			final Thread worker = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					AsyncTreeLogHandlerTest.this.logger.info("Short-lived");
+				}
+			});
+			worker.start();
+			worker.join();
+
+			Assert.assertThat(releasedLatch.await(10, TimeUnit.SECONDS), CoreMatchers.is(true));
+			Assert.assertThat(released, CoreMatchers.is(Arrays.asList((int) worker.getId())));
+		} finally {
+			this.logger.removeHandler(perThread);
+			perThread.close();
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package logging;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+public class BufferedTreeLogTest {
+
+	@Test
+	public void testScopesFromSeveralThreadsAreAllTimed() throws InterruptedException {
+		final BufferedTreeLog<String> log = new BufferedTreeLog<>();
+		final Queue<LogMessage<String>> scopes = new ConcurrentLinkedQueue<>();
+		final Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+		final CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < 4; ++i) {
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+						for (int j = 0; j < 10000; ++j) {
+							LogMessage<String> scope = new LogMessage<String>("Scope");
+							scopes.add(scope);
+							log.enter(scope);
+							log.leave();
+						}
+					} catch (Throwable e) {
+						failures.add(e);
+					}
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertThat(failures.isEmpty(), is(true));
+		for (LogMessage<String> scope : scopes) {
+			assertThat(scope.hasDuration(), is(true));
+		}
+	}
+
+	@Test
+	public void testScopesLeftAfterDisablingDurationsAreNotTimed() {
+		BufferedTreeLog<String> log = new BufferedTreeLog<>();
+		LogMessage<String> scope = new LogMessage<String>("Scope");
+		log.enter(scope);
+		log.setRecordingDurations(false);
+		log.leave();
+		assertThat(scope.hasDuration(), is(false));
+	}
+}
@@ -0,0 +1,95 @@
+package logging;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class LogTemplateMinerTest {
+
+	private LogTemplateMiner miner;
+
+	@Before
+	public void setUp() {
+		miner = new LogTemplateMiner();
+	}
+
+	private TemplatedLogMessage compact(String text) {
+		LogMessage<String> message = miner.compact(new LogMessage<String>(text));
+		assertThat(message, instanceOf(TemplatedLogMessage.class));
+		assertThat(message.getMessage(), is(text));
+		return (TemplatedLogMessage) message;
+	}
+
+	@Test
+	public void testSimilarMessagesShareATemplate() {
+		TemplatedLogMessage first = compact("Adding line to BSP tree (1, 2)");
+		TemplatedLogMessage second = compact("Adding line to BSP tree (3, 4)");
+
+		assertThat(second.getTemplate().getId(), is(first.getTemplate().getId()));
+		assertThat(second.getTemplate().toString(), is("Adding line to BSP tree <*> <*>"));
+		assertThat(second.getParameters(), is(new String[] { "(3,", "4)" }));
+	}
+
+	@Test
+	public void testMessagesDifferingOnlyInNumbersShareATemplate() {
+		TemplatedLogMessage first = compact("Loaded chunk 0 at 0,0 in 5ms");
+		assertThat(first.getTemplate().toString(), is("Loaded chunk <*> at <*> in <*>"));
+		for (int i = 1; i < 100; ++i) {
+			TemplatedLogMessage message = compact("Loaded chunk " + i + " at " + i % 7 + "," + i / 7 + " in " + i * 3 + "ms");
+			assertThat(message.getTemplate().getId(), is(first.getTemplate().getId()));
+		}
+		// Mostly numeric messages are too dissimilar to join a template unless
+		// their numbers are parameters from the start.
+		TemplatedLogMessage point = compact("1 2 3 ok");
+		for (int i = 0; i < 100; ++i) {
+			assertThat(compact(i + " " + (i + 1) + " " + (i + 2) + " ok").getTemplate().getId(), is(point.getTemplate().getId()));
+		}
+		assertThat(miner.getTemplates().size(), is(2));
+	}
+
+	@Test
+	public void testOlderMessagesSurviveGeneralization() {
+		TemplatedLogMessage first = compact("Calling Function (foo)");
+		compact("Calling Function (bar)");
+
+		assertThat(first.getMessage(), is("Calling Function (foo)"));
+		assertThat(miner.getTemplates().size(), is(1));
+	}
+
+	@Test
+	public void testDissimilarMessagesHaveSeparateTemplates() {
+		TemplatedLogMessage first = compact("Reading file one");
+		TemplatedLogMessage second = compact("Writing buffer two");
+
+		assertThat(second.getTemplate().getId(), not(first.getTemplate().getId()));
+	}
+
+	@Test
+	public void testIrregularSpacingIsLeftAlone() {
+		LogMessage<String> message = new LogMessage<String>("Two  spaces");
+		assertThat(miner.compact(message), sameInstance(message));
+	}
+
+	@Test
+	public void testCountsGroupByTemplate() {
+		TemplateCounts<String> counts = new TemplateCounts<>();
+		counts.log(compact("Calling Function (foo)"));
+		counts.log(compact("Calling Function (bar)"));
+		counts.log(new LogMessage<String>("Done"));
+
+		assertThat(counts.getEntries().size(), is(2));
+		for (TemplateCounts.Entry entry : counts.getEntries()) {
+			if (entry.getLabel().equals("Calling Function <*>")) {
+				assertThat(entry.getCount(), is(2L));
+			} else {
+				assertThat(entry.getLabel(), is("Done"));
+				assertThat(entry.getCount(), is(1L));
+			}
+		}
+	}
+}
@@ -0,0 +1,24 @@
+package logging;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import metrics.Metrics;
+
+public class LogsTest {
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testStopWatchesShareOneTimer() {
+		Logs.hitStopWatch("First");
+		Logs.hitStopWatch("First");
+		int registered = Metrics.snapshot().size();
+		for (int i = 0; i < 100; ++i) {
+			Logs.hitStopWatch("Watch " + i);
+			Logs.hitStopWatch("Watch " + i);
+		}
+		assertThat(Metrics.snapshot().size(), is(registered));
+	}
+}
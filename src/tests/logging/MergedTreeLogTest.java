@@ -0,0 +1,104 @@
+package logging;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class MergedTreeLogTest {
+
+	private MergedTreeLog<String> merged;
+	private RecordingTreeLog sink;
+
+	@Before
+	public void setUp() {
+		merged = new MergedTreeLog<>();
+		sink = new RecordingTreeLog();
+		merged.setSink(sink);
+	}
+
+	private static LogMessage<String> message(long timestamp, String text) {
+		return new LogMessage<String>(timestamp, null, null, text);
+	}
+
+	@Test
+	public void testEventsAreMergedByTimestamp() {
+		MergedTreeLog<String>.Source a = merged.addSource("a");
+		MergedTreeLog<String>.Source b = merged.addSource("b");
+
+		a.log(message(1, "a1"));
+		a.log(message(3, "a3"));
+		b.log(message(2, "b2"));
+		b.log(message(4, "b4"));
+
+		assertThat(merged.flush(), is(4));
+		assertThat(sink.events, is(Arrays.asList(
+				">a", "a1", "<",
+				">b", "b2", "<",
+				">a", "a3", "<",
+				">b", "b4")));
+	}
+
+	@Test
+	public void testEventsWaitForSlowerSources() {
+		MergedTreeLog<String>.Source a = merged.addSource("a");
+		MergedTreeLog<String>.Source b = merged.addSource("b");
+
+		a.log(message(10, "a10"));
+		a.log(message(20, "a20"));
+		b.log(message(15, "b15"));
+
+		// b has only reached 15, so a20 must wait.
+		assertThat(merged.drain(0), is(2));
+		assertThat(merged.getPendingCount(), is(1));
+
+		// Once a20 falls outside the reorder window, it is released anyway.
+		merged.setReorderWindow(100);
+		assertThat(merged.drain(120), is(1));
+		assertThat(merged.getPendingCount(), is(0));
+	}
+
+	@Test
+	public void testOpenScopesAreReenteredAfterSwitchingSources() {
+		MergedTreeLog<String>.Source a = merged.addSource("a");
+		MergedTreeLog<String>.Source b = merged.addSource("b");
+
+		a.enter(message(1, "scope"));
+		a.log(message(3, "inner"));
+		a.leave();
+		b.log(message(2, "b2"));
+
+		merged.flush();
+		assertThat(sink.events, is(Arrays.asList(
+				">a", ">scope", "<", "<",
+				">b", "b2", "<",
+				">a", ">scope", "inner", "<")));
+	}
+
+	@Test
+	public void testClockOffsetCorrectsSkew() {
+		MergedTreeLog<String>.Source a = merged.addSource("a");
+		MergedTreeLog<String>.Source b = merged.addSource("b");
+		b.setClockOffset(-100);
+
+		a.log(message(50, "a50"));
+		b.log(message(120, "b20"));
+
+		merged.flush();
+		assertThat(sink.events, is(Arrays.asList(">b", "b20", "<", ">a", "a50")));
+	}
+
+	@Test
+	public void testBackwardsTimestampsKeepSourceOrder() {
+		MergedTreeLog<String>.Source a = merged.addSource("a");
+
+		a.log(message(5, "first"));
+		a.log(message(3, "second"));
+
+		merged.flush();
+		assertThat(sink.events, is(Arrays.asList(">a", "first", "second")));
+	}
+}
@@ -0,0 +1,34 @@
+package logging;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A log that records each event it receives as a short string: a message as
+ * itself, an entered scope as {@code ">scope"}, a leave as {@code "<"}, and a
+ * reset as {@code "!"}.
+ */
+class RecordingTreeLog implements TreeLog<String> {
+
+	final List<String> events = new ArrayList<>();
+
+	@Override
+	public void log(LogMessage<? extends String> message) {
+		events.add(message.toString());
+	}
+
+	@Override
+	public void enter(LogMessage<? extends String> scope) {
+		events.add(">" + scope);
+	}
+
+	@Override
+	public void leave() {
+		events.add("<");
+	}
+
+	@Override
+	public void reset() {
+		events.add("!");
+	}
+}
@@ -0,0 +1,68 @@
+package logging;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ScopeProfileTest {
+
+	private ScopeProfile<Object> profile;
+
+	@Before
+	public void setUp() {
+		profile = new ScopeProfile<>();
+	}
+
+	private void scope(String category, long duration, Runnable inner) {
+		LogMessage<Object> scope = new LogMessage<Object>(category, "Scope");
+		profile.enter(scope);
+		if (inner != null) {
+			inner.run();
+		}
+		scope.leave(scope.getNanoTime() + duration);
+		profile.leave();
+	}
+
+	@Test
+	public void testIdenticalPathsAreMerged() {
+		for (int i = 0; i < 3; ++i) {
+			scope("Outer", 100, new Runnable() {
+				@Override
+				public void run() {
+					scope("Inner", 30, null);
+				}
+			});
+		}
+		List<ScopeProfile.Node> nodes = profile.getNodes();
+		assertThat(nodes.size(), is(2));
+
+		ScopeProfile.Node outer = nodes.get(0);
+		assertThat(outer.getPath(), is("Outer"));
+		assertThat(outer.getCount(), is(3L));
+		assertThat(outer.getTotalTime(), is(300L));
+		assertThat(outer.getSelfTime(), is(210L));
+
+		ScopeProfile.Node inner = nodes.get(1);
+		assertThat(inner.getPath(), is("Outer > Inner"));
+		assertThat(inner.getTotalTime(), is(90L));
+		assertThat(inner.getSelfTime(), is(90L));
+	}
+
+	@Test
+	public void testMessagesAreIgnored() {
+		profile.log(new LogMessage<Object>("Message"));
+		assertThat(profile.getNodes().size(), is(0));
+	}
+
+	@Test
+	public void testDurationIsOnlyRecordedOnce() {
+		LogMessage<Object> scope = new LogMessage<Object>("Scope");
+		scope.leave(scope.getNanoTime() + 10);
+		scope.leave(scope.getNanoTime() + 20);
+		assertThat(scope.getDuration(), is(10L));
+	}
+}
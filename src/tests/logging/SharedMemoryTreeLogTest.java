@@ -0,0 +1,184 @@
+package logging;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SharedMemoryTreeLogTest {
+
+	/**
+	 * The smallest ring allowed, so that a few records wrap it.
+	 */
+	private static final int CAPACITY = 64;
+
+	private File file;
+	private BufferedTreeLog<String> received;
+	private SharedMemoryTreeLogReader reader;
+	private Thread readerThread;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("SharedMemoryTreeLogTest", ".ring");
+		file.deleteOnExit();
+		received = new BufferedTreeLog<>();
+	}
+
+	@After
+	public void tearDown() throws InterruptedException {
+		if (reader != null) {
+			reader.close();
+			readerThread.join(1000);
+		}
+		file.delete();
+	}
+
+	private void startReader(int capacity) throws IOException {
+		reader = new SharedMemoryTreeLogReader(file, capacity, received);
+		readerThread = new Thread(reader, "SharedMemoryTreeLogReader");
+		readerThread.setDaemon(true);
+		readerThread.start();
+	}
+
+	/**
+	 * Waits for the reader to see the producer's CLOSE record, and returns
+	 * everything it read between opening the ring and that record.
+	 */
+	private List<String> readAll() throws InterruptedException {
+		readerThread.join(10000);
+		assertThat("The reader stopped", readerThread.isAlive(), is(false));
+
+		RecordingTreeLog sink = new RecordingTreeLog();
+		received.setSink(sink);
+		received.flush();
+
+		List<String> events = sink.events;
+		assertThat(events.get(0), is(">Shared memory ring opened at " + file));
+		assertThat(events.get(events.size() - 2), is("Ring closed by producer."));
+		assertThat(events.get(events.size() - 1), is("!"));
+		return events.subList(1, events.size() - 2);
+	}
+
+	private static String repeat(char c, int count) {
+		char[] chars = new char[count];
+		Arrays.fill(chars, c);
+		return new String(chars);
+	}
+
+	@Test
+	public void testEventsAreReplayedInOrder() throws Exception {
+		startReader(1024);
+		try (SharedMemoryTreeLog<String> producer = new SharedMemoryTreeLog<>(file)) {
+			producer.log(new LogMessage<String>("First"));
+			producer.enter(new LogMessage<String>("Scope"));
+			producer.log(new LogMessage<String>("Nested"));
+			producer.leave();
+			producer.log(new LogMessage<String>(System.currentTimeMillis(), "Sender", null, "Last"));
+		}
+		assertThat(readAll(), is(Arrays.asList("First", ">Scope", "Nested", "<", "Sender: Last")));
+	}
+
+	@Test
+	public void testManyRecordsWrapTheRing() throws Exception {
+		startReader(CAPACITY);
+		List<String> expected = new ArrayList<>();
+		try (SharedMemoryTreeLog<String> producer = new SharedMemoryTreeLog<>(file)) {
+			for (int i = 0; i < 500; ++i) {
+				// Vary the size so that records rarely end at the ring's end.
+				String message = i + repeat('.', i % 5);
+				producer.log(new LogMessage<String>(message));
+				expected.add(message);
+			}
+		}
+		assertThat(readAll(), is(expected));
+	}
+
+	@Test
+	public void testRecordLargerThanHalfTheRingIsPaddedToTheStart() throws Exception {
+		startReader(CAPACITY);
+		// A 48-byte record, which leaves too little room for the next.
+		String small = "a";
+		// A 56-byte record, which can't fit alongside its own padding.
+		String large = repeat('b', 5);
+		try (SharedMemoryTreeLog<String> producer = new SharedMemoryTreeLog<>(file)) {
+			producer.log(new LogMessage<String>(small));
+			producer.log(new LogMessage<String>(large));
+			producer.log(new LogMessage<String>(large));
+			producer.log(new LogMessage<String>(small));
+		}
+		assertThat(readAll(), is(Arrays.asList(small, large, large, small)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRecordLargerThanTheRingIsRejected() throws Exception {
+		startReader(CAPACITY);
+		try (SharedMemoryTreeLog<String> producer = new SharedMemoryTreeLog<>(file)) {
+			producer.log(new LogMessage<String>(repeat('c', CAPACITY)));
+		}
+	}
+
+	@Test
+	public void testFullRingDropsEventsInsteadOfWaiting() throws Exception {
+		reader = new SharedMemoryTreeLogReader(file, 256, received);
+		try (SharedMemoryTreeLog<String> producer = new SharedMemoryTreeLog<>(file)) {
+			producer.setFullTimeout(10, TimeUnit.MILLISECONDS);
+			producer.enter(new LogMessage<String>("Kept"));
+			// Too large to fit alongside the scope, while nothing is reading.
+			producer.log(new LogMessage<String>(repeat('x', 90)));
+			for (int i = 0; i < 3; ++i) {
+				producer.log(new LogMessage<String>("Lost"));
+			}
+			producer.enter(new LogMessage<String>("Lost scope"));
+			producer.log(new LogMessage<String>("Lost"));
+			producer.leave();
+			producer.leave();
+			assertThat(producer.getDroppedCount(), is(6L));
+
+			readerThread = new Thread(reader, "SharedMemoryTreeLogReader");
+			readerThread.setDaemon(true);
+			readerThread.start();
+			producer.setFullTimeout(10, TimeUnit.SECONDS);
+			// Nothing waits while events are being dropped, so let the reader
+			// catch up first.
+			SharedMemoryRing ring = SharedMemoryRing.open(file);
+			try {
+				while (ring.getReadSequence() == 0) {
+					Thread.sleep(1);
+				}
+			} finally {
+				ring.close();
+			}
+			producer.log(new LogMessage<String>("After"));
+		}
+		assertThat(readAll(), is(Arrays.asList(">Kept", "<", "Dropped 6 events while the ring was full", "After")));
+	}
+
+	@Test
+	public void testCorruptRecordStopsTheReader() throws Exception {
+		startReader(CAPACITY);
+		SharedMemoryRing ring = SharedMemoryRing.open(file);
+		try {
+			ring.getBuffer().putInt(ring.offsetOf(0), 0);
+			ring.getBuffer().putInt(ring.offsetOf(0) + 4, SharedMemoryTreeLog.LOG);
+			ring.setWriteSequence(SharedMemoryTreeLog.HEADER_SIZE);
+		} finally {
+			ring.close();
+		}
+		readerThread.join(10000);
+		assertThat("The reader stopped", readerThread.isAlive(), is(false));
+
+		RecordingTreeLog sink = new RecordingTreeLog();
+		received.setSink(sink);
+		received.flush();
+		assertThat(sink.events.get(1), is("Ring is corrupt: record of 0 bytes at sequence 0"));
+	}
+}
@@ -0,0 +1,114 @@
+package logging;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import logic.actors.Actor;
+
+public class ThreadLocalTreeLogTest {
+
+	private ThreadLocalTreeLog<Object, BufferedTreeLog<Object>> log;
+
+	@Before
+	public void setUp() {
+		log = new ThreadLocalTreeLog<Object, BufferedTreeLog<Object>>() {
+			@Override
+			protected BufferedTreeLog<Object> newTreeLog(Thread thread) {
+				return new BufferedTreeLog<>();
+			}
+
+			@Override
+			protected boolean isDrained(BufferedTreeLog<Object> log) {
+				return log.isEmpty();
+			}
+		};
+	}
+
+	private void logFromNewThread(final Object context) throws InterruptedException {
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				log.setContext(context);
+				log.log(new LogMessage<Object>("Message"));
+			}
+		});
+		thread.start();
+		thread.join();
+	}
+
+	@Test
+	public void testEachThreadGetsItsOwnLog() throws Exception {
+		log.log(new LogMessage<Object>("Message"));
+		logFromNewThread(null);
+		assertThat(log.getLogs().size(), is(2));
+	}
+
+	@Test
+	public void testDeadThreadsAreReclaimedOnlyOnceDrained() throws Exception {
+		logFromNewThread(null);
+		assertThat(log.reclaim(), is(0));
+		for (BufferedTreeLog<Object> threadLog : log.getLogs()) {
+			threadLog.flush();
+		}
+		assertThat(log.reclaim(), is(1));
+		assertThat(log.getLogs().size(), is(0));
+	}
+
+	@Test
+	public void testThreadsShareLogForTheSameContext() throws Exception {
+		logFromNewThread("pool");
+		logFromNewThread("pool");
+		logFromNewThread("pool");
+		assertThat(log.getLogs().size(), is(1));
+	}
+
+	@Test
+	public void testContextLogsAreNotReclaimedWhenThreadsDie() throws Exception {
+		logFromNewThread("pool");
+		for (BufferedTreeLog<Object> threadLog : log.getLogs()) {
+			threadLog.flush();
+		}
+		assertThat(log.reclaim(), is(0));
+		log.removeContext("pool");
+		assertThat(log.getLogs().size(), is(0));
+	}
+
+	@Test
+	public void testUndrainedLogsAreReclaimedAfterTheDrainTimeout() throws Exception {
+		logFromNewThread(null);
+		log.setDrainTimeout(0, TimeUnit.SECONDS);
+		assertThat(log.reclaim(), is(1));
+		assertThat(log.getLogs().size(), is(0));
+	}
+
+	@Test
+	public void testReclaimListenersReceiveRemovedContexts() throws Exception {
+		final List<BufferedTreeLog<Object>> reclaimed = new ArrayList<>();
+		log.addReclaimListener(new Actor<BufferedTreeLog<Object>>() {
+			@Override
+			public void receive(BufferedTreeLog<Object> value) {
+				reclaimed.add(value);
+			}
+		});
+		logFromNewThread("pool");
+		BufferedTreeLog<Object> poolLog = log.getLogs().iterator().next();
+		assertThat(log.getName(poolLog), is("pool"));
+		log.removeContext("pool");
+		assertThat(reclaimed, is(Collections.singletonList(poolLog)));
+	}
+
+	@Test
+	public void testThreadLogsAreNamedAfterTheirThread() throws Exception {
+		log.log(new LogMessage<Object>("Message"));
+		BufferedTreeLog<Object> threadLog = log.getLogs().iterator().next();
+		assertThat(log.getName(threadLog), is(Thread.currentThread().getName()));
+	}
+}
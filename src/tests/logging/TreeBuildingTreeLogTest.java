@@ -0,0 +1,88 @@
+package logging;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TreeBuildingTreeLogTest {
+
+	private TreeBuildingTreeLog<String> log;
+
+	@Before
+	public void setUp() {
+		log = new TreeBuildingTreeLog<>("Test");
+	}
+
+	private DefaultMutableTreeNode root() {
+		return (DefaultMutableTreeNode) log.getModel().getRoot();
+	}
+
+	@Test
+	public void testRepeatedMessagesAreCollapsed() {
+		for (int i = 0; i < 1000; ++i) {
+			log.log(new LogMessage<String>(i, null, "Loop", "Same"));
+		}
+		assertThat(root().getChildCount(), is(1));
+
+		Object userObject = ((DefaultMutableTreeNode) root().getFirstChild()).getUserObject();
+		assertThat(userObject, instanceOf(RepeatedLogMessage.class));
+		RepeatedLogMessage<?> run = (RepeatedLogMessage<?>) userObject;
+		assertThat(run.getCount(), is(1000));
+		assertThat(run.getFirstTimestamp(), is(0L));
+		assertThat(run.getLastTimestamp(), is(999L));
+	}
+
+	@Test
+	public void testDifferentMessagesAreNotCollapsed() {
+		log.log(new LogMessage<String>("A"));
+		log.log(new LogMessage<String>("B"));
+		log.log(new LogMessage<String>("A"));
+		assertThat(root().getChildCount(), is(3));
+	}
+
+	@Test
+	public void testScopesAreNotCollapsed() {
+		for (int i = 0; i < 2; ++i) {
+			log.enter(new LogMessage<String>("Scope"));
+			log.log(new LogMessage<String>("Inner"));
+			log.leave();
+		}
+		assertThat(root().getChildCount(), is(2));
+	}
+
+	@Test
+	public void testMessagesAreNotCollapsedIntoEmptyScopes() {
+		log.enter(new LogMessage<String>("Step"));
+		log.leave();
+		log.log(new LogMessage<String>("Step"));
+		assertThat(root().getChildCount(), is(2));
+		for (int i = 0; i < 2; ++i) {
+			Object userObject = ((DefaultMutableTreeNode) root().getChildAt(i)).getUserObject();
+			assertThat(userObject instanceof RepeatedLogMessage, is(false));
+		}
+
+		log.log(new LogMessage<String>("Step"));
+		assertThat(root().getChildCount(), is(2));
+		assertThat(((DefaultMutableTreeNode) root().getLastChild()).getUserObject(), instanceOf(RepeatedLogMessage.class));
+	}
+
+	@Test
+	public void testRepeatsInsideScopesAreCollapsed() {
+		log.enter(new LogMessage<String>("Scope"));
+		LogMessage<String> last = null;
+		for (int i = 0; i < 10; ++i) {
+			last = new LogMessage<String>("Inner");
+			log.log(last);
+		}
+		log.leave();
+
+		DefaultMutableTreeNode scope = (DefaultMutableTreeNode) root().getFirstChild();
+		assertThat(scope.getChildCount(), is(1));
+		assertThat(log.getNodeFor(last), is(scope.getFirstChild()));
+	}
+}
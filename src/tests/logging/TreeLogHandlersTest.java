@@ -0,0 +1,39 @@
+package logging;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import logic.handlers.ChainedHandler;
+
+public class TreeLogHandlersTest {
+
+	private boolean handledByPlainChain(TreeLogHandler<Object> handler, Object value) {
+		BufferedTreeLog<Object> log = new BufferedTreeLog<>();
+		handler.setLog(log);
+		ChainedHandler<LogMessage<? extends Object>> chain = new ChainedHandler<>();
+		chain.addHandler(handler);
+		boolean handled = chain.handle(new LogMessage<Object>(value));
+		handler.setLog(null);
+		return handled && !log.isEmpty();
+	}
+
+	@Test
+	public void testPlainChainsOfferMessagesToEveryHandler() {
+		assertThat(handledByPlainChain(TreeLogHandlers.commonStrings(), CommonString.values()[0]), is(true));
+		assertThat(handledByPlainChain(TreeLogHandlers.iterable(), Arrays.asList("A", "B")), is(true));
+		assertThat(handledByPlainChain(TreeLogHandlers.nullHandler(), null), is(true));
+	}
+
+	@Test
+	public void testValueChainsSkipHandlersForOtherValues() {
+		ChainedHandler<LogMessage<? extends Object>> chain = TreeLogHandlers.newChainedHandler();
+		chain.addHandler(TreeLogHandlers.iterable());
+		assertThat(chain.handle(new LogMessage<Object>("Not iterable")), is(false));
+		assertThat(TreeLogHandlers.iterable().accepts(String.class), is(false));
+		assertThat(TreeLogHandlers.iterable().accepts(LogMessage.class), is(true));
+	}
+}
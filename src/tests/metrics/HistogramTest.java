@@ -0,0 +1,72 @@
+package metrics;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class HistogramTest {
+
+	@Test
+	public void testBucketsAreContiguous() {
+		for (int bucket = 1; bucket < Histogram.BUCKETS; ++bucket) {
+			long lowerBound = Histogram.lowerBoundOf(bucket);
+			assertThat(Histogram.bucketOf(lowerBound), is(bucket));
+			assertThat(Histogram.bucketOf(lowerBound - 1), is(bucket - 1));
+		}
+		assertThat(Histogram.bucketOf(Long.MAX_VALUE), is(Histogram.BUCKETS - 1));
+	}
+
+	@Test
+	public void testBucketsAreWithinAQuarterOfTheirValues() {
+		for (long value = 1; value < 100000; value += 7) {
+			long lowerBound = Histogram.lowerBoundOf(Histogram.bucketOf(value));
+			assertTrue(lowerBound <= value);
+			assertTrue(value - lowerBound <= value / 4);
+		}
+	}
+
+	@Test
+	public void testSnapshotSummarizesRecordedValues() {
+		Histogram histogram = new Histogram("test");
+		for (int i = 1; i <= 100; ++i) {
+			histogram.record(i);
+		}
+		MetricSnapshot snapshot = histogram.snapshot();
+		assertThat(snapshot.getCount(), is(100L));
+		assertThat(snapshot.getSum(), is(5050L));
+		assertThat(snapshot.getMin(), is(1L));
+		assertThat(snapshot.getMax(), is(100L));
+		assertTrue(snapshot.getPercentile(50) <= 50);
+		assertTrue(snapshot.getPercentile(50) >= 40);
+		assertThat(snapshot.getPercentile(100), is(96L));
+	}
+
+	@Test
+	public void testCounterSumsAcrossThreads() throws Exception {
+		final Counter counter = new Counter("test");
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; ++i) {
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int j = 0; j < 1000; ++j) {
+						counter.increment();
+					}
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertThat(counter.get(), is(4000L));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMetricNamesAreUniqueAcrossKinds() {
+		Metrics.counter("HistogramTest.unique");
+		Metrics.timer("HistogramTest.unique");
+	}
+}